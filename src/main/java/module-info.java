@@ -3,6 +3,9 @@ module org.example.bloggingapp {
     requires javafx.fxml;
     requires javafx.web;
     requires java.sql;
+    requires java.management;
+    requires jdk.management;
+    requires org.postgresql.jdbc;
 
     opens org.example.bloggingapp to javafx.fxml;
     opens org.example.bloggingapp.Models to javafx.fxml;
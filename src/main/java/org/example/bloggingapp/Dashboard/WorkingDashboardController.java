@@ -11,7 +11,11 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
 import org.example.bloggingapp.Cache.CacheManager;
+import org.example.bloggingapp.Database.Jdbc.QueryMetrics;
+import org.example.bloggingapp.Database.factories.ConnectionFactory;
+import org.example.bloggingapp.Database.factories.ServiceFactory;
 import org.example.bloggingapp.Services.PostService;
+import org.example.bloggingapp.Services.ServiceExecutor;
 import org.example.bloggingapp.Services.UserService;
 import org.example.bloggingapp.Services.CachedPostService;
 import org.example.bloggingapp.Services.CachedUserService;
@@ -19,6 +23,7 @@ import org.example.bloggingapp.Models.PostEntity;
 import org.example.bloggingapp.Models.UserEntity;
 import org.example.bloggingapp.Database.Repositories.PostRepository;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -113,8 +118,8 @@ public class WorkingDashboardController {
         
         try {
             // Initialize services using ServiceFactory
-            this.postService = org.example.bloggingapp.Database.factories.ServiceFactory.getInstance().getPostService();
-            this.userService = org.example.bloggingapp.Database.factories.ServiceFactory.getInstance().getUserService();
+            this.postService = ServiceFactory.getInstance().getPostService();
+            this.userService = ServiceFactory.getInstance().getUserService();
             
             // Initialize cached services for performance comparison
             this.cachedPostService = new CachedPostService(new PostRepository());
@@ -498,23 +503,34 @@ public class WorkingDashboardController {
     }
     
     private void updateMetrics() {
+        System.out.println("🔄 Updating dashboard metrics...");
+        
+        // Counts come from the database on a virtual thread; labels are updated on the FX thread
+        ServiceExecutor serviceExecutor = ServiceFactory.getInstance().getServiceExecutor();
+        serviceExecutor.supplyToUi(ServiceExecutor.Subsystem.BACKGROUND,
+                // The post total is a cached counter, not a full load
+                () -> new int[]{ServiceFactory.getInstance().getPostStatsService().getTotalPosts(),
+                        userService.findAll().size()},
+                counts -> applyMetrics(counts[0], counts[1]),
+                error -> {
+                    System.err.println("❌ Error updating metrics: " + error.getMessage());
+                    // Fallback to sample data if services fail
+                    updateSampleMetrics();
+                });
+    }
+    
+    private void applyMetrics(int totalPosts, int totalUsers) {
         try {
-            System.out.println("🔄 Updating dashboard metrics...");
-            
-            // Load real data from services
-            List<PostEntity> posts = postService.findAll();
-            List<UserEntity> users = userService.findAll();
-            
-            System.out.println("📊 Found " + posts.size() + " posts and " + users.size() + " users");
+            System.out.println("📊 Found " + totalPosts + " posts and " + totalUsers + " users");
             
             // Update basic metrics with real data (with null checks)
             if (totalPostsLabel != null) {
-                totalPostsLabel.setText(String.valueOf(posts.size()));
-                System.out.println("✅ Updated total posts label: " + posts.size());
+                totalPostsLabel.setText(String.valueOf(totalPosts));
+                System.out.println("✅ Updated total posts label: " + totalPosts);
             }
             if (totalUsersLabel != null) {
-                totalUsersLabel.setText(String.valueOf(users.size()));
-                System.out.println("✅ Updated total users label: " + users.size());
+                totalUsersLabel.setText(String.valueOf(totalUsers));
+                System.out.println("✅ Updated total users label: " + totalUsers);
             }
             
             // Get real cache metrics from cache manager
@@ -536,12 +552,15 @@ public class WorkingDashboardController {
             if (metricsTextArea != null) {
                 StringBuilder metrics = new StringBuilder();
                 metrics.append("=== Performance Metrics ===\n");
-                metrics.append("Total Posts: ").append(posts.size()).append("\n");
-                metrics.append("Total Users: ").append(users.size()).append("\n");
+                metrics.append("Total Posts: ").append(totalPosts).append("\n");
+                metrics.append("Total Users: ").append(totalUsers).append("\n");
                 metrics.append("Cache Hit Rate: ").append(String.format("%.1f%%", hitRate)).append("\n");
                 metrics.append("Avg Response Time: ").append(String.format("%.1f ms", avgResponseTime)).append("\n");
                 metrics.append("Cache Size: ").append(cacheSize).append(" entries\n");
-                metrics.append("Last Updated: ").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"))).append("\n");
+                metrics.append("Last Updated: ").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"))).append("\n\n");
+                metrics.append(QueryMetrics.getInstance().formatReport(3)).append("\n");
+                metrics.append(ServiceFactory.getInstance().getServiceExecutor().getStats()).append("\n\n");
+                metrics.append(ConnectionFactory.getRouter().getStats());
                 
                 metricsTextArea.setText(metrics.toString());
                 System.out.println("✅ Updated metrics text area");
@@ -553,7 +572,7 @@ public class WorkingDashboardController {
             System.out.println("✅ Dashboard metrics update completed successfully");
             
         } catch (Exception e) {
-            System.err.println("❌ Error updating metrics: " + e.getMessage());
+            System.err.println("❌ Error applying metrics: " + e.getMessage());
             e.printStackTrace();
             // Fallback to sample data if services fail
             updateSampleMetrics();
@@ -647,15 +666,14 @@ public class WorkingDashboardController {
         metricsUpdateTimer.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
-                javafx.application.Platform.runLater(() -> {
-                    try {
-                        System.out.println("🔄 Auto-updating metrics...");
-                        updateMetrics();
-                        System.out.println("✅ Metrics updated successfully");
-                    } catch (Exception e) {
-                        System.err.println("❌ Error in auto-update: " + e.getMessage());
-                    }
-                });
+                // No FX hop needed here: updateMetrics queries off the FX thread and hands
+                // the label updates over itself
+                try {
+                    System.out.println("🔄 Auto-updating metrics...");
+                    updateMetrics();
+                } catch (Exception e) {
+                    System.err.println("❌ Error in auto-update: " + e.getMessage());
+                }
             }
         }, 0, 5000); // Update every 5 seconds
         System.out.println("⏰ Metrics update timer started (every 5 seconds)");
@@ -754,17 +772,23 @@ public class WorkingDashboardController {
             optimizationLogArea.clear();
             optimizationLogArea.appendText("[" + LocalDateTime.now() + "] Starting performance analysis...\n");
             
-            // Simulate analysis
-            Thread.sleep(1000);
+            // Report the most expensive SQL shapes recorded by the JDBC instrumentation
+            QueryMetrics queryMetrics = QueryMetrics.getInstance();
+            optimizationLogArea.appendText(queryMetrics.formatReport(10));
             optimizationProgress.setProgress(0.7);
-            optimizationLogArea.appendText("[" + LocalDateTime.now() + "] Analyzing cache patterns...\n");
             
-            Thread.sleep(1000);
+            List<QueryMetrics.SlowQuery> slowQueries = queryMetrics.getSlowQueries();
+            optimizationLogArea.appendText("\nRecent slow queries: " + slowQueries.size() + "\n");
+            for (int i = Math.max(0, slowQueries.size() - 5); i < slowQueries.size(); i++) {
+                QueryMetrics.SlowQuery slowQuery = slowQueries.get(i);
+                optimizationLogArea.appendText(String.format("- %.1f ms %s\n", slowQuery.getMillis(), slowQuery.getShape()));
+            }
+            
+            // Keep a full dump for offline comparison
+            Path dumpFile = queryMetrics.dumpToFile(Path.of("logs", "query-metrics-" +
+                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt"));
             optimizationProgress.setProgress(1.0);
-            optimizationLogArea.appendText("[" + LocalDateTime.now() + "] Performance analysis completed!\n");
-            optimizationLogArea.appendText("Recommendations:\n");
-            optimizationLogArea.appendText("- Increase cache size for better hit rates\n");
-            optimizationLogArea.appendText("- Consider preloading popular posts\n");
+            optimizationLogArea.appendText("[" + LocalDateTime.now() + "] Metrics written to " + dumpFile.toAbsolutePath() + "\n");
             
             optimizationStatusLabel.setText("Analysis Complete");
             showAlert("Analysis Complete", "Performance analysis completed successfully!");
@@ -0,0 +1,105 @@
+package org.example.bloggingapp.Database.ChangeFeed;
+
+import java.util.Objects;
+
+/**
+ * One row change published by the {@code notify_row_change()} trigger.
+ *
+ * The NOTIFY payload is deliberately compact ({@code changeId|table|op|id|secondaryId}) and
+ * carries keys only; listeners reload whatever rows they need in a single batch.
+ */
+public final class ChangeEvent {
+
+    /**
+     * Kind of row change, as reported by the trigger
+     */
+    public enum Operation {
+        INSERT, UPDATE, DELETE;
+
+        static Operation fromCode(String code) {
+            return switch (code) {
+                case "I" -> INSERT;
+                case "U" -> UPDATE;
+                case "D" -> DELETE;
+                default -> throw new IllegalArgumentException("Unknown operation code: " + code);
+            };
+        }
+    }
+
+    private final long changeId;
+    private final String table;
+    private final Operation operation;
+    private final int rowId;
+    private final int secondaryId;
+
+    public ChangeEvent(long changeId, String table, Operation operation, int rowId, int secondaryId) {
+        this.changeId = changeId;
+        this.table = table;
+        this.operation = operation;
+        this.rowId = rowId;
+        this.secondaryId = secondaryId;
+    }
+
+    /**
+     * Parses a NOTIFY payload
+     * @throws IllegalArgumentException if the payload is malformed
+     */
+    public static ChangeEvent parse(String payload) {
+        String[] parts = payload == null ? new String[0] : payload.split("\\|", -1);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Malformed change payload: " + payload);
+        }
+        try {
+            return new ChangeEvent(
+                    Long.parseLong(parts[0]),
+                    parts[1],
+                    Operation.fromCode(parts[2]),
+                    Integer.parseInt(parts[3]),
+                    parts[4].isEmpty() ? 0 : Integer.parseInt(parts[4]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed change payload: " + payload, e);
+        }
+    }
+
+    /**
+     * Position of this change in the change_log, used as the high-water mark
+     */
+    public long getChangeId() { return changeId; }
+    public String getTable() { return table; }
+    public Operation getOperation() { return operation; }
+
+    /**
+     * Primary key of the changed row (post_id, comment_id, tag_id, review_id; post_id for post_tags)
+     */
+    public int getRowId() { return rowId; }
+
+    /**
+     * Related key (the post of a comment or review, the tag of a post_tags link), or 0
+     */
+    public int getSecondaryId() { return secondaryId; }
+
+    /**
+     * Identity of the changed row, used to coalesce repeated changes
+     */
+    String rowKey() {
+        return table + ':' + rowId + ':' + secondaryId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChangeEvent that)) return false;
+        return changeId == that.changeId && rowId == that.rowId && secondaryId == that.secondaryId
+                && table.equals(that.table) && operation == that.operation;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(changeId, table, operation, rowId, secondaryId);
+    }
+
+    @Override
+    public String toString() {
+        return changeId + "|" + table + "|" + operation + "|" + rowId + "|" + secondaryId;
+    }
+}
@@ -0,0 +1,333 @@
+package org.example.bloggingapp.Database.ChangeFeed;
+
+import org.example.bloggingapp.Database.DbInterfaces.IConnection;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Listens for row changes made anywhere in the database and hands them to registered listeners.
+ *
+ * Triggers on the content tables append to {@code change_log} and {@code pg_notify} the new entry.
+ * This class holds one dedicated connection that LISTENs on the channel, collects notifications
+ * for a short window, coalesces repeated changes to the same row and dispatches them per table.
+ *
+ * Change IDs come from a sequence when the row is logged, not when its transaction commits, so
+ * a change may become visible after others with higher IDs. The feed therefore remembers the IDs
+ * it applied within {@value #REPLAY_MARGIN} changes below its high-water mark, skips only those,
+ * and after a reconnect replays {@code change_log} from that margin below the mark before live
+ * notifications resume, so changes made while the connection was down are not lost. Changes
+ * whose listener failed are retried, and the mark does not pass them until they succeed.
+ * Without the change_log table (older schema) the feed still works but cannot catch up.
+ */
+public class ChangeFeed {
+
+    public static final String CHANNEL = "row_changes";
+
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final int COALESCE_WINDOW_MILLIS = 200;
+    private static final int CATCH_UP_LIMIT = 10_000;
+    /**
+     * How far below the high-water mark a late-committing change is still told apart from one
+     * already applied
+     */
+    public static final int REPLAY_MARGIN = 1_000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final long PRUNE_INTERVAL_MILLIS = 60 * 60 * 1000; // hourly
+
+    /**
+     * How long a change stays in change_log; catching up from an older mark may miss changes
+     */
+    public static final Duration LOG_RETENTION = Duration.ofDays(1);
+
+    private final IConnection connectionFactory;
+    private final Map<String, List<ChangeListener>> listeners = new ConcurrentHashMap<>();
+    private final AtomicLong highWaterMark = new AtomicLong(-1);
+    private final AtomicLong eventsReceived = new AtomicLong();
+    private final AtomicLong eventsDispatched = new AtomicLong();
+
+    // Guarded by this; IDs applied from REPLAY_MARGIN below the mark up
+    private final TreeSet<Long> appliedIds = new TreeSet<>();
+    // Guarded by this; changes whose listener failed, by change ID, retried with the next dispatch
+    private final TreeMap<Long, ChangeEvent> failedEvents = new TreeMap<>();
+    private long maxAppliedId = -1;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Thread worker;
+    private long lastPruneMillis;
+
+    public ChangeFeed(IConnection connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Registers a listener for changes to one table (posts, comments, tags, post_tags, reviews)
+     */
+    public void addListener(String table, ChangeListener listener) {
+        listeners.computeIfAbsent(table, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Starts the listener thread; does nothing if already running
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::run, "ChangeFeed-Listener");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the listener thread and releases its connection
+     */
+    public synchronized void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+            worker = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Returns the ID of the last change applied, or -1 before the first connection
+     */
+    public long getHighWaterMark() {
+        return highWaterMark.get();
+    }
+
+    public String getStats() {
+        return String.format("ChangeFeed[connected=%s, highWaterMark=%d, received=%d, dispatched=%d]",
+                connected, highWaterMark.get(), eventsReceived.get(), eventsDispatched.get());
+    }
+
+    // ====== LISTENER LOOP ======
+
+    private void run() {
+        long backoffMillis = 1000;
+        while (running) {
+            try (Connection connection = connectionFactory.createBackgroundConnection();
+                 Statement statement = connection.createStatement()) {
+
+                // LISTEN before catching up so nothing committed in between is missed
+                statement.execute("LISTEN " + CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                catchUp(connection);
+
+                connected = true;
+                backoffMillis = 1000;
+                System.out.println("ChangeFeed listening on '" + CHANNEL + "' from change " + highWaterMark.get());
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if ((notifications == null || notifications.length == 0) && hasFailedEvents()) {
+                        dispatch(List.of());
+                    } else if (notifications != null && notifications.length > 0) {
+                        List<ChangeEvent> batch = new ArrayList<>();
+                        collect(notifications, batch);
+
+                        // Let bursts (e.g. a post with many tags) settle into one dispatch
+                        long deadline = System.currentTimeMillis() + COALESCE_WINDOW_MILLIS;
+                        long remaining;
+                        while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+                            collect(pgConnection.getNotifications((int) remaining), batch);
+                        }
+                        dispatch(batch);
+                    }
+                    pruneIfDue(connection);
+                }
+            } catch (SQLException | RuntimeException e) {
+                connected = false;
+                if (!running) {
+                    break;
+                }
+                System.err.println("Warning: change feed disconnected, retrying in " + backoffMillis + "ms: " + e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+        connected = false;
+    }
+
+    private void collect(PGNotification[] notifications, List<ChangeEvent> batch) {
+        if (notifications == null) {
+            return;
+        }
+        for (PGNotification notification : notifications) {
+            try {
+                batch.add(ChangeEvent.parse(notification.getParameter()));
+                eventsReceived.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                System.err.println("Warning: ignoring change notification: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replays changes logged since the high-water mark, less the replay margin, or establishes
+     * the mark on first connect
+     */
+    private void catchUp(Connection connection) {
+        try {
+            if (highWaterMark.get() < 0) {
+                // Caches are loaded fresh at start-up, so only later changes matter
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(change_id), 0) FROM change_log")) {
+                    resultSet.next();
+                    synchronized (this) {
+                        maxAppliedId = resultSet.getLong(1);
+                        highWaterMark.set(maxAppliedId);
+                    }
+                }
+                return;
+            }
+
+            String sql = "SELECT change_id, table_name, operation, row_id, secondary_id FROM change_log "
+                    + "WHERE change_id > ? ORDER BY change_id LIMIT " + CATCH_UP_LIMIT;
+            List<ChangeEvent> missed = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, Math.max(0, highWaterMark.get() - REPLAY_MARGIN));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        missed.add(new ChangeEvent(
+                                resultSet.getLong("change_id"),
+                                resultSet.getString("table_name"),
+                                ChangeEvent.Operation.fromCode(resultSet.getString("operation")),
+                                resultSet.getInt("row_id"),
+                                resultSet.getInt("secondary_id")));
+                    }
+                }
+            }
+            if (!missed.isEmpty()) {
+                System.out.println("ChangeFeed replaying " + missed.size() + " missed changes");
+                dispatch(missed);
+            }
+        } catch (SQLException e) {
+            // Older schema without change_log: keep listening, just without replay
+            System.err.println("Warning: change feed catch-up unavailable: " + e.getMessage());
+            synchronized (this) {
+                if (highWaterMark.compareAndSet(-1, 0)) {
+                    maxAppliedId = 0;
+                }
+            }
+        }
+    }
+
+    private synchronized boolean hasFailedEvents() {
+        return !failedEvents.isEmpty();
+    }
+
+    /**
+     * Hands a batch of changes to the listeners of their tables, together with earlier changes
+     * whose listener failed; changes already applied are skipped
+     */
+    public synchronized void dispatch(List<ChangeEvent> events) {
+        Map<Long, ChangeEvent> fresh = new TreeMap<>(failedEvents);
+        failedEvents.clear();
+        for (ChangeEvent event : events) {
+            if (!appliedIds.contains(event.getChangeId())) {
+                fresh.put(event.getChangeId(), event);
+            }
+        }
+
+        Map<String, List<ChangeEvent>> byTable = new LinkedHashMap<>();
+        for (ChangeEvent event : coalesce(fresh.values())) {
+            byTable.computeIfAbsent(event.getTable(), k -> new ArrayList<>()).add(event);
+        }
+
+        Set<String> failedTables = new HashSet<>();
+        byTable.forEach((table, tableEvents) -> {
+            for (ChangeListener listener : listeners.getOrDefault(table, List.of())) {
+                try {
+                    listener.onChanges(tableEvents);
+                } catch (RuntimeException e) {
+                    System.err.println("Warning: change listener for " + table + " failed, will retry: " + e.getMessage());
+                    failedTables.add(table);
+                }
+            }
+            eventsDispatched.addAndGet(tableEvents.size());
+        });
+
+        for (ChangeEvent event : fresh.values()) {
+            if (failedTables.contains(event.getTable())) {
+                failedEvents.put(event.getChangeId(), event);
+            } else {
+                appliedIds.add(event.getChangeId());
+                maxAppliedId = Math.max(maxAppliedId, event.getChangeId());
+            }
+        }
+
+        // The mark stays below the oldest change still to be retried
+        long mark = failedEvents.isEmpty() ? maxAppliedId : Math.min(maxAppliedId, failedEvents.firstKey() - 1);
+        highWaterMark.accumulateAndGet(mark, Math::max);
+        appliedIds.headSet(highWaterMark.get() - REPLAY_MARGIN).clear();
+    }
+
+    /**
+     * Keeps only the latest event per changed row, ordered by change ID
+     */
+    public static List<ChangeEvent> coalesce(Collection<ChangeEvent> events) {
+        Map<String, ChangeEvent> latest = new LinkedHashMap<>();
+        for (ChangeEvent event : events) {
+            ChangeEvent previous = latest.get(event.rowKey());
+            if (previous == null || event.getChangeId() >= previous.getChangeId()) {
+                // Re-insert so iteration order follows the most recent change
+                latest.remove(event.rowKey());
+                latest.put(event.rowKey(), event);
+            }
+        }
+        List<ChangeEvent> result = new ArrayList<>(latest.values());
+        result.sort((a, b) -> Long.compare(a.getChangeId(), b.getChangeId()));
+        return result;
+    }
+
+    private void pruneIfDue(Connection connection) {
+        long now = System.currentTimeMillis();
+        if (now - lastPruneMillis < PRUNE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastPruneMillis = now;
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM change_log WHERE changed_at < CURRENT_TIMESTAMP - INTERVAL '"
+                    + LOG_RETENTION.toHours() + " hours'");
+        } catch (SQLException e) {
+            System.err.println("Warning: failed to prune change_log: " + e.getMessage());
+        }
+    }
+}
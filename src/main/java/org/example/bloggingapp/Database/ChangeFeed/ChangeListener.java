@@ -0,0 +1,16 @@
+package org.example.bloggingapp.Database.ChangeFeed;
+
+import java.util.List;
+
+/**
+ * Receives coalesced row changes for one table from the {@link ChangeFeed}
+ */
+@FunctionalInterface
+public interface ChangeListener {
+
+    /**
+     * Called on the change feed thread with at most one event per changed row, oldest first.
+     * Implementations should be quick and must be thread safe with respect to readers.
+     */
+    void onChanges(List<ChangeEvent> events);
+}
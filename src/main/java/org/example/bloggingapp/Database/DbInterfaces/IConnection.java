@@ -4,4 +4,21 @@ import java.sql.Connection;
 
 public interface IConnection {
     public Connection createConnection() ;
+
+    /**
+     * Returns a connection for work that only reads. Factories with read replicas may route it
+     * away from the primary; by default it is the same as {@link #createConnection()}.
+     */
+    default Connection createReadConnection() {
+        return createConnection();
+    }
+
+    /**
+     * Returns a primary connection for work the user did not ask for, e.g. background flushes or a
+     * change listener. Unlike {@link #createConnection()} it does not make the session's reads
+     * stick to the primary; by default it is the same as {@link #createConnection()}.
+     */
+    default Connection createBackgroundConnection() {
+        return createConnection();
+    }
 }
@@ -1,13 +1,27 @@
 package org.example.bloggingapp.Database.DbInterfaces;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface Repository<T> {
 
         public abstract void create(T obj);
         public abstract T findByInteger(int id);
+
+        /**
+         * Resolves many IDs in as few round trips as possible using {@code WHERE id = ANY(?)}.
+         * IDs with no matching row are absent from the returned map.
+         */
+        public abstract Map<Integer, T> findByIds(int[] ids);
         public abstract T findByString(String str);
         public abstract List<T> findAll();
+
+        /**
+         * Streams every row through a server-side cursor so memory stays bounded on large tables.
+         * The returned stream holds a database connection and must be closed by the caller.
+         */
+        public abstract Stream<T> streamAll();
         public abstract void updateById(int id);
         public abstract void delete(int id);
 
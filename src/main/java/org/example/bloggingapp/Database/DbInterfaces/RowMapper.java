@@ -0,0 +1,30 @@
+package org.example.bloggingapp.Database.DbInterfaces;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a ResultSet to an entity
+ * @param <T> the type of entity produced for each row
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Maps the row the cursor is currently positioned on
+     * @param resultSet the result set, already advanced to the row to map
+     * @return the mapped entity
+     * @throws SQLException if a column cannot be read
+     */
+    T map(ResultSet resultSet) throws SQLException;
+
+    /**
+     * Returns a mapper for the rows of one result set; call it once before mapping many rows,
+     * so a mapper that resolves columns does so once rather than per row
+     * @param resultSet the result set whose rows will be mapped
+     * @throws SQLException if its metadata cannot be read
+     */
+    default RowMapper<T> bind(ResultSet resultSet) throws SQLException {
+        return this;
+    }
+}
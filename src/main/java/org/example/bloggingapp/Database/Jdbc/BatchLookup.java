@@ -0,0 +1,116 @@
+package org.example.bloggingapp.Database.Jdbc;
+
+import org.example.bloggingapp.Database.DbInterfaces.IConnection;
+import org.example.bloggingapp.Database.DbInterfaces.RowMapper;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Resolves many keys with {@code WHERE column = ANY(?)} instead of one query per key.
+ *
+ * Keys are de-duplicated and sent as a single integer array parameter, so the statement
+ * text is identical for every batch and stays in the server's plan cache. Very large inputs
+ * are split into chunks to keep individual queries and their arrays reasonably sized.
+ */
+public final class BatchLookup {
+
+    /**
+     * Maximum number of keys sent in one query
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    private BatchLookup() {
+    }
+
+    /**
+     * Loads all rows whose key column matches one of the given IDs
+     * @param connectionFactory source of the connection used for all chunks
+     * @param tableName table to read from
+     * @param idColumnName integer column compared against the IDs
+     * @param ids IDs to resolve; duplicates and non-positive values are ignored
+     * @param mapper maps each row to an entity
+     * @param idOf extracts the key from a mapped entity
+     * @param <T> the entity type
+     * @return entities keyed by ID; IDs with no matching row are absent
+     */
+    public static <T> Map<Integer, T> findByIds(IConnection connectionFactory, String tableName, String idColumnName,
+                                                int[] ids, RowMapper<T> mapper, ToIntFunction<T> idOf) {
+        Map<Integer, T> results = new LinkedHashMap<>();
+        // First row wins for tables where the column is not unique (e.g. post_tags)
+        forEachMatch(connectionFactory, tableName, idColumnName, ids, mapper,
+                entity -> results.putIfAbsent(idOf.applyAsInt(entity), entity));
+        return results;
+    }
+
+    /**
+     * Loads all rows whose non-unique key column matches one of the given IDs, grouped by that key
+     * @param connectionFactory source of the connection used for all chunks
+     * @param tableName table to read from
+     * @param columnName integer column compared against the IDs, e.g. a foreign key
+     * @param ids IDs to resolve; duplicates and non-positive values are ignored
+     * @param mapper maps each row to an entity
+     * @param keyOf extracts the grouping key from a mapped entity
+     * @param <T> the entity type
+     * @return every requested ID mapped to its rows; IDs with no rows map to an empty list
+     */
+    public static <T> Map<Integer, List<T>> findGroupedByIds(IConnection connectionFactory, String tableName,
+                                                             String columnName, int[] ids, RowMapper<T> mapper,
+                                                             ToIntFunction<T> keyOf) {
+        Map<Integer, List<T>> results = new LinkedHashMap<>();
+        for (int id : distinctKeys(ids)) {
+            results.put(id, new ArrayList<>());
+        }
+        forEachMatch(connectionFactory, tableName, columnName, ids, mapper,
+                entity -> results.computeIfAbsent(keyOf.applyAsInt(entity), k -> new ArrayList<>()).add(entity));
+        return results;
+    }
+
+    private static <T> void forEachMatch(IConnection connectionFactory, String tableName, String columnName,
+                                         int[] ids, RowMapper<T> mapper, Consumer<T> sink) {
+        int[] keys = distinctKeys(ids);
+        if (keys.length == 0) {
+            return;
+        }
+
+        String sql = "SELECT * FROM " + tableName + " WHERE " + columnName + " = ANY(?)";
+
+        try (Connection connection = connectionFactory.createReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            for (int start = 0; start < keys.length; start += CHUNK_SIZE) {
+                int end = Math.min(start + CHUNK_SIZE, keys.length);
+                Integer[] chunk = Arrays.stream(keys, start, end).boxed().toArray(Integer[]::new);
+
+                Array array = connection.createArrayOf("integer", chunk);
+                try {
+                    statement.setArray(1, array);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        RowMapper<T> rows = mapper.bind(resultSet);
+                        while (resultSet.next()) {
+                            sink.accept(rows.map(resultSet));
+                        }
+                    }
+                } finally {
+                    array.free();
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find " + tableName + " by " + columnName, e);
+        }
+    }
+
+    private static int[] distinctKeys(int[] ids) {
+        return ids == null ? new int[0] : Arrays.stream(ids).filter(id -> id > 0).distinct().toArray();
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.bloggingapp.Database.Jdbc;
+
+import org.example.bloggingapp.Database.DbInterfaces.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A RowMapper that resolves column names to indexes once per result set instead of once per row.
+ *
+ * {@link #bind} reads the metadata of a result set and looks up a mapper compiled for that
+ * column layout ("shape"); every row of the result set is then mapped by it, reading columns by
+ * index only. {@link #map} binds on every call, so it suits single-row lookups.
+ *
+ * Compiled mappers are cached per shape, so {@code SELECT *} and projections that return the
+ * same columns in a different order or with extra columns each get their own mapper.
+ *
+ * A compiler resolves the indexes it needs and returns a lambda that captures them; see
+ * {@link org.example.bloggingapp.Database.Repositories.EntityMappers} for the entity mappers.
+ * @param <T> the type of entity produced for each row
+ */
+public final class CompiledRowMapper<T> implements RowMapper<T> {
+
+    /**
+     * Builds a mapper for one column layout; runs once per new shape
+     */
+    @FunctionalInterface
+    public interface Compiler<T> {
+        RowMapper<T> compile(Columns columns) throws SQLException;
+    }
+
+    // A handful of shapes per entity is normal; more means the SQL is generated per call
+    private static final int MAX_SHAPES = 32;
+
+    private final String name;
+    private final Compiler<T> compiler;
+    private final Map<String, RowMapper<T>> mappersByShape = new ConcurrentHashMap<>();
+
+    public CompiledRowMapper(String name, Compiler<T> compiler) {
+        this.name = name;
+        this.compiler = compiler;
+    }
+
+    @Override
+    public T map(ResultSet resultSet) throws SQLException {
+        return bind(resultSet).map(resultSet);
+    }
+
+    /**
+     * Returns the mapper compiled for the column layout of a result set; it holds no state, so
+     * it can be kept for as long as the result set is read
+     */
+    @Override
+    public RowMapper<T> bind(ResultSet resultSet) throws SQLException {
+        Columns columns = Columns.of(resultSet.getMetaData());
+        RowMapper<T> mapper = mappersByShape.get(columns.getShape());
+        if (mapper == null) {
+            mapper = compiler.compile(columns);
+            if (mappersByShape.size() < MAX_SHAPES) {
+                mappersByShape.putIfAbsent(columns.getShape(), mapper);
+            }
+        }
+        return mapper;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns how many column layouts have a cached mapper
+     */
+    public int getShapeCount() {
+        return mappersByShape.size();
+    }
+
+    /**
+     * Column labels of a result set and their 1-based indexes
+     */
+    public static final class Columns {
+        private final Map<String, Integer> indexes;
+        private final String shape;
+
+        private Columns(Map<String, Integer> indexes, String shape) {
+            this.indexes = indexes;
+            this.shape = shape;
+        }
+
+        static Columns of(ResultSetMetaData metaData) throws SQLException {
+            int count = metaData.getColumnCount();
+            Map<String, Integer> indexes = new HashMap<>(count * 2);
+            StringBuilder shape = new StringBuilder(count * 12);
+            for (int i = 1; i <= count; i++) {
+                String label = metaData.getColumnLabel(i).toLowerCase(Locale.ROOT);
+                // Like ResultSet.findColumn, the first column with a duplicated label wins
+                indexes.putIfAbsent(label, i);
+                shape.append(label).append(',');
+            }
+            return new Columns(indexes, shape.toString());
+        }
+
+        /**
+         * Returns the index of a column the mapper cannot do without
+         * @throws SQLException if the result set has no such column
+         */
+        public int require(String label) throws SQLException {
+            Integer index = indexes.get(label);
+            if (index == null) {
+                throw new SQLException("Column '" + label + "' not found in result set (" + shape + ")");
+            }
+            return index;
+        }
+
+        /**
+         * Returns the index of an optional column, or 0 if the result set does not have it
+         */
+        public int find(String label) {
+            return indexes.getOrDefault(label, 0);
+        }
+
+        public String getShape() {
+            return shape;
+        }
+    }
+}
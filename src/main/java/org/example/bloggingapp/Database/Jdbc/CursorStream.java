@@ -0,0 +1,152 @@
+package org.example.bloggingapp.Database.Jdbc;
+
+import org.example.bloggingapp.Database.DbInterfaces.IConnection;
+import org.example.bloggingapp.Database.DbInterfaces.RowMapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams query results through a server-side cursor instead of materializing them in a list.
+ *
+ * PostgreSQL only honours the fetch size when autocommit is off, otherwise the driver buffers
+ * the whole result set in memory. Each stream therefore owns its own connection in a read-only
+ * transaction that is ended when the stream is closed or fully consumed.
+ *
+ * Callers must close the returned stream, preferably with try-with-resources.
+ */
+public final class CursorStream {
+
+    /**
+     * Number of rows fetched per round trip when no fetch size is given
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    private CursorStream() {
+    }
+
+    /**
+     * Opens a cursor-backed stream with the default fetch size
+     * @param connectionFactory source of the connection owned by the stream
+     * @param sql the query to execute
+     * @param mapper maps each row to an entity
+     * @param <T> the entity type
+     * @return a lazily populated stream that must be closed by the caller
+     */
+    public static <T> Stream<T> open(IConnection connectionFactory, String sql, RowMapper<T> mapper) {
+        return open(connectionFactory, sql, DEFAULT_FETCH_SIZE, mapper);
+    }
+
+    /**
+     * Opens a cursor-backed stream
+     * @param connectionFactory source of the connection owned by the stream
+     * @param sql the query to execute
+     * @param fetchSize number of rows fetched from the server per round trip
+     * @param mapper maps each row to an entity
+     * @param <T> the entity type
+     * @return a lazily populated stream that must be closed by the caller
+     */
+    public static <T> Stream<T> open(IConnection connectionFactory, String sql, int fetchSize, RowMapper<T> mapper) {
+        Connection connection = connectionFactory.createReadConnection();
+        try {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            ResultSet resultSet = statement.executeQuery();
+
+            Cursor<T> cursor = new Cursor<>(connection, statement, resultSet, mapper);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException e) {
+            release(connection);
+            throw new RuntimeException("Failed to open cursor for query: " + sql, e);
+        }
+    }
+
+    /**
+     * Ends the read-only transaction and hands the connection back
+     */
+    private static void release(Connection connection) {
+        try {
+            if (!connection.isClosed()) {
+                connection.rollback();
+                connection.setReadOnly(false);
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: Failed to reset cursor connection: " + e.getMessage());
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Warning: Failed to close cursor connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Spliterator that advances the underlying ResultSet one row at a time
+     */
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final RowMapper<T> mapper;
+        // Bound to the result set before the first row
+        private RowMapper<T> rows;
+        private boolean closed;
+
+        Cursor(Connection connection, PreparedStatement statement, ResultSet resultSet, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!resultSet.next()) {
+                    // Release the connection as soon as the last row has been read
+                    close();
+                    return false;
+                }
+                if (rows == null) {
+                    rows = mapper.bind(resultSet);
+                }
+                action.accept(rows.map(resultSet));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new RuntimeException("Failed to read row from cursor", e);
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                resultSet.close();
+                statement.close();
+            } catch (SQLException e) {
+                System.err.println("Warning: Failed to close cursor: " + e.getMessage());
+            } finally {
+                release(connection);
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.bloggingapp.Database.Jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Wraps a JDBC connection so every statement it creates reports to {@link QueryMetrics}.
+ *
+ * Dynamic proxies are used so the wrapper stays small and forwards everything it does not
+ * measure, including {@code unwrap} for driver-specific APIs. Timing covers statement
+ * execution; rows and bytes are counted as result sets are read.
+ */
+public final class InstrumentedConnection {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private InstrumentedConnection() {
+    }
+
+    /**
+     * Returns a connection that records metrics for all statements created from it
+     */
+    public static Connection wrap(Connection connection, QueryMetrics metrics) {
+        return (Connection) Proxy.newProxyInstance(InstrumentedConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection, metrics));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection delegate;
+        private final QueryMetrics metrics;
+
+        ConnectionHandler(Connection delegate, QueryMetrics metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedConnection.invoke(delegate, method, args);
+            String name = method.getName();
+
+            if (result instanceof Statement statement
+                    && (name.equals("prepareStatement") || name.equals("prepareCall") || name.equals("createStatement"))) {
+                String sql = name.equals("createStatement") ? null : (String) args[0];
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(InstrumentedConnection.class.getClassLoader(), new Class<?>[]{type},
+                        new StatementHandler(statement, sql, metrics));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement delegate;
+        private final QueryMetrics metrics;
+        private final QueryMetrics.StatementStats preparedStats;
+        private Object[] binds;
+
+        StatementHandler(Statement delegate, String sql, QueryMetrics metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+            // Prepared statements are normalized once; plain statements per execution
+            this.preparedStats = sql != null ? metrics.statsFor(sql) : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (preparedStats != null && name.startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer index) {
+                recordBind(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                binds = null;
+            }
+
+            if (EXECUTE_METHODS.contains(name)) {
+                return execute(method, args);
+            }
+
+            Object result = InstrumentedConnection.invoke(delegate, method, args);
+            if (result instanceof ResultSet resultSet && (name.equals("getResultSet") || name.equals("getGeneratedKeys"))) {
+                QueryMetrics.StatementStats stats = preparedStats != null ? preparedStats : metrics.statsFor(name);
+                return wrapResultSet(resultSet, stats);
+            }
+            return result;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            QueryMetrics.StatementStats stats = preparedStats;
+            if (stats == null) {
+                stats = metrics.statsFor(args != null && args.length > 0 && args[0] instanceof String sql ? sql : null);
+            }
+
+            long start = System.nanoTime();
+            boolean failed = true;
+            Object result;
+            try {
+                result = InstrumentedConnection.invoke(delegate, method, args);
+                failed = false;
+            } finally {
+                metrics.recordExecution(stats, System.nanoTime() - start, failed, binds);
+            }
+
+            if (result instanceof ResultSet resultSet) {
+                return wrapResultSet(resultSet, stats);
+            }
+            if (result instanceof Integer updated && updated > 0) {
+                stats.addRows(updated);
+            } else if (result instanceof Long updated && updated > 0) {
+                stats.addRows(updated);
+            } else if (result instanceof int[] batch) {
+                stats.addRows(Arrays.stream(batch).filter(count -> count > 0).asLongStream().sum());
+            }
+            return result;
+        }
+
+        private void recordBind(int index, Object value) {
+            if (index <= 0 || index > 1000) {
+                return;
+            }
+            if (binds == null || binds.length <= index) {
+                // Sized to the highest index so the slow-query log shows no padding
+                binds = Arrays.copyOf(binds == null ? new Object[0] : binds, index + 1);
+            }
+            binds[index] = value;
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet, QueryMetrics.StatementStats stats) {
+            return (ResultSet) Proxy.newProxyInstance(InstrumentedConnection.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, new ResultSetHandler(resultSet, stats));
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet delegate;
+        private final QueryMetrics.StatementStats stats;
+
+        ResultSetHandler(ResultSet delegate, QueryMetrics.StatementStats stats) {
+            this.delegate = delegate;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedConnection.invoke(delegate, method, args);
+            String name = method.getName();
+
+            if (name.equals("next")) {
+                if (Boolean.TRUE.equals(result)) {
+                    stats.addRows(1);
+                }
+            } else if (name.startsWith("get") && args != null && args.length >= 1
+                    && (args[0] instanceof Integer || args[0] instanceof String)) {
+                stats.addBytes(estimateBytes(result));
+            }
+            return result;
+        }
+
+        /**
+         * Rough wire size of a column value; exact sizes are not exposed by JDBC
+         */
+        private static long estimateBytes(Object value) {
+            if (value == null) {
+                return 0;
+            }
+            if (value instanceof String text) {
+                return text.length();
+            }
+            if (value instanceof byte[] bytes) {
+                return bytes.length;
+            }
+            if (value instanceof Boolean) {
+                return 1;
+            }
+            if (value instanceof Integer || value instanceof Float) {
+                return 4;
+            }
+            return 8;
+        }
+    }
+}
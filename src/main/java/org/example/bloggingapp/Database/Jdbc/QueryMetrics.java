@@ -0,0 +1,318 @@
+package org.example.bloggingapp.Database.Jdbc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Central registry for JDBC statement metrics, fed by {@link InstrumentedConnection}.
+ *
+ * Statements are grouped by SQL shape (the statement text with literals replaced by '?'),
+ * so queries built with inlined IDs still aggregate together. For each shape it keeps a
+ * latency histogram, rows returned or affected, an estimate of bytes read and an error count.
+ * It also tracks connection-acquire time and a bounded log of slow statements, with bind
+ * values sampled for a configurable fraction of them.
+ */
+public final class QueryMetrics {
+
+    private static final QueryMetrics INSTANCE = new QueryMetrics();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_BIND_LENGTH = 64;
+
+    private final Map<String, StatementStats> statsByShape = new ConcurrentHashMap<>();
+    private final LatencyHistogram connectionAcquire = new LatencyHistogram();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private final AtomicLong slowQueryCount = new AtomicLong();
+
+    private volatile boolean enabled = true;
+    private volatile long slowQueryThresholdMillis = 200;
+    private volatile int bindSampleRate = 10;
+    private volatile int maxSlowQueries = 100;
+
+    private QueryMetrics() {
+    }
+
+    /**
+     * Gets the process-wide metrics registry
+     * @return QueryMetrics instance
+     */
+    public static QueryMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    // ====== CONFIGURATION ======
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns instrumentation of newly opened connections on or off
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSlowQueryThresholdMillis() {
+        return slowQueryThresholdMillis;
+    }
+
+    /**
+     * Statements taking at least this long are added to the slow-query log
+     */
+    public void setSlowQueryThresholdMillis(long slowQueryThresholdMillis) {
+        this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+    }
+
+    /**
+     * Captures bind values for every n-th slow statement; 0 never captures them
+     */
+    public void setBindSampleRate(int bindSampleRate) {
+        this.bindSampleRate = Math.max(0, bindSampleRate);
+    }
+
+    /**
+     * Maximum number of entries kept in the slow-query log; older entries are dropped first
+     */
+    public void setMaxSlowQueries(int maxSlowQueries) {
+        this.maxSlowQueries = Math.max(1, maxSlowQueries);
+    }
+
+    // ====== RECORDING ======
+
+    /**
+     * Returns the aggregate for a SQL statement, creating it on first use
+     */
+    public StatementStats statsFor(String sql) {
+        return statsByShape.computeIfAbsent(shapeOf(sql), StatementStats::new);
+    }
+
+    /**
+     * Records one statement execution and logs it if it was slow
+     * @param binds bind values by parameter index (index 0 unused), or null
+     */
+    public void recordExecution(StatementStats stats, long nanos, boolean failed, Object[] binds) {
+        stats.latency.record(nanos);
+        if (failed) {
+            stats.errors.increment();
+        }
+
+        long millis = nanos / 1_000_000;
+        if (millis >= slowQueryThresholdMillis) {
+            long sequence = slowQueryCount.incrementAndGet();
+            int sampleRate = bindSampleRate;
+            String sampledBinds = sampleRate > 0 && sequence % sampleRate == 0 ? formatBinds(stats.shape, binds) : null;
+
+            synchronized (slowQueries) {
+                slowQueries.addLast(new SlowQuery(LocalDateTime.now(), stats.shape, nanos / 1_000_000.0, sampledBinds));
+                while (slowQueries.size() > maxSlowQueries) {
+                    slowQueries.removeFirst();
+                }
+            }
+        }
+    }
+
+    /**
+     * Records how long it took to obtain a physical connection
+     */
+    public void recordConnectionAcquire(long nanos) {
+        connectionAcquire.record(nanos);
+    }
+
+    // ====== QUERYING ======
+
+    /**
+     * Returns all statement shapes ordered by total time spent, most expensive first
+     */
+    public List<StatementStats> getStatementStats() {
+        List<StatementStats> stats = new ArrayList<>(statsByShape.values());
+        stats.sort(Comparator.comparingDouble((StatementStats s) -> s.latency.getTotalMillis()).reversed());
+        return stats;
+    }
+
+    /**
+     * Returns the slow-query log, oldest first
+     */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    public LatencyHistogram getConnectionAcquireLatency() {
+        return connectionAcquire;
+    }
+
+    /**
+     * Clears all collected metrics; configuration is kept
+     */
+    public void reset() {
+        statsByShape.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+        slowQueryCount.set(0);
+    }
+
+    /**
+     * Formats the most expensive statement shapes and connection-acquire times
+     * @param topN maximum number of shapes to include
+     */
+    public String formatReport(int topN) {
+        StringBuilder report = new StringBuilder();
+        report.append("=== SQL Metrics (by total time) ===\n");
+
+        List<StatementStats> stats = getStatementStats();
+        for (int i = 0; i < Math.min(topN, stats.size()); i++) {
+            StatementStats s = stats.get(i);
+            LatencyHistogram latency = s.getLatency();
+            report.append(String.format("%d. %s%n", i + 1, s.getShape()));
+            report.append(String.format("   calls=%d total=%.1fms mean=%.2fms p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms%n",
+                    latency.getCount(), latency.getTotalMillis(), latency.getMeanMillis(),
+                    latency.getPercentileMillis(0.50), latency.getPercentileMillis(0.95),
+                    latency.getPercentileMillis(0.99), latency.getMaxMillis()));
+            report.append(String.format("   rows=%d bytes=%d errors=%d%n", s.getRows(), s.getBytes(), s.getErrors()));
+        }
+        if (stats.isEmpty()) {
+            report.append("No statements recorded yet\n");
+        }
+
+        report.append(String.format("Connection acquire: count=%d mean=%.2fms p99=%.2fms max=%.2fms%n",
+                connectionAcquire.getCount(), connectionAcquire.getMeanMillis(),
+                connectionAcquire.getPercentileMillis(0.99), connectionAcquire.getMaxMillis()));
+        report.append(String.format("Slow queries (>= %dms): %d%n", slowQueryThresholdMillis, slowQueryCount.get()));
+        return report.toString();
+    }
+
+    /**
+     * Writes the full report and slow-query log to a text file
+     * @param file target file; parent directories are created if needed
+     * @return the file written
+     */
+    public Path dumpToFile(Path file) throws IOException {
+        StringBuilder dump = new StringBuilder(formatReport(Integer.MAX_VALUE));
+        dump.append("\n=== Slow Query Log ===\n");
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+        for (SlowQuery slowQuery : getSlowQueries()) {
+            dump.append(String.format("[%s] %.1fms %s%n", slowQuery.getTimestamp().format(formatter),
+                    slowQuery.getMillis(), slowQuery.getShape()));
+            if (slowQuery.getBinds() != null) {
+                dump.append("   binds: ").append(slowQuery.getBinds()).append('\n');
+            }
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, dump.toString(), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    // ====== HELPERS ======
+
+    /**
+     * Normalizes a statement to its shape: literals become '?' and whitespace is collapsed
+     */
+    public static String shapeOf(String sql) {
+        if (sql == null) {
+            return "<unknown>";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private static String formatBinds(String shape, Object[] binds) {
+        if (binds == null) {
+            return null;
+        }
+        // Never copy credentials into the log
+        boolean redact = shape.toLowerCase().contains("password");
+
+        StringBuilder formatted = new StringBuilder("[");
+        for (int i = 1; i < binds.length; i++) {
+            if (i > 1) {
+                formatted.append(", ");
+            }
+            Object value = binds[i];
+            String text = redact ? "<redacted>" : String.valueOf(value);
+            if (text.length() > MAX_BIND_LENGTH) {
+                text = text.substring(0, MAX_BIND_LENGTH) + "...";
+            }
+            formatted.append(value instanceof String && !redact ? "'" + text + "'" : text);
+        }
+        return formatted.append(']').toString();
+    }
+
+    /**
+     * Aggregated metrics for one SQL shape
+     */
+    public static final class StatementStats {
+        private final String shape;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private StatementStats(String shape) {
+            this.shape = shape;
+        }
+
+        public void addRows(long count) {
+            rows.add(count);
+        }
+
+        public void addBytes(long count) {
+            bytes.add(count);
+        }
+
+        public String getShape() { return shape; }
+        public LatencyHistogram getLatency() { return latency; }
+        public long getRows() { return rows.sum(); }
+        public long getBytes() { return bytes.sum(); }
+        public long getErrors() { return errors.sum(); }
+    }
+
+    /**
+     * One entry of the slow-query log
+     */
+    public static final class SlowQuery {
+        private final LocalDateTime timestamp;
+        private final String shape;
+        private final double millis;
+        private final String binds;
+
+        private SlowQuery(LocalDateTime timestamp, String shape, double millis, String binds) {
+            this.timestamp = timestamp;
+            this.shape = shape;
+            this.millis = millis;
+            this.binds = binds;
+        }
+
+        public LocalDateTime getTimestamp() { return timestamp; }
+        public String getShape() { return shape; }
+        public double getMillis() { return millis; }
+
+        /**
+         * Returns the sampled bind values, or null if this entry was not sampled
+         */
+        public String getBinds() { return binds; }
+    }
+}
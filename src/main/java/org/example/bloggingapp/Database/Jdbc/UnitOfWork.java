@@ -0,0 +1,131 @@
+package org.example.bloggingapp.Database.Jdbc;
+
+import org.example.bloggingapp.Database.DbInterfaces.IConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single database transaction shared by several repository calls.
+ *
+ * Repositories expose overloads that take the transaction's {@link Connection}, so a whole
+ * use case (e.g. a post plus its tags) runs on one connection and commits or rolls back as a unit.
+ * Side effects that must only become visible once the data is durable, such as cache and search
+ * index updates, are registered with {@link #afterCommit(Runnable)}.
+ *
+ * <pre>
+ * PostEntity post = UnitOfWork.execute(connectionFactory, uow -> {
+ *     postRepository.create(uow.connection(), post);
+ *     uow.afterCommit(() -> cache.put(post.getPostId(), post));
+ *     return post;
+ * });
+ * </pre>
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    /**
+     * Work performed inside a transaction
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute(UnitOfWork unitOfWork) throws SQLException;
+    }
+
+    private final Connection connection;
+    private final List<Runnable> afterCommitActions = new ArrayList<>();
+    private boolean committed;
+
+    private UnitOfWork(Connection connection) throws SQLException {
+        this.connection = connection;
+        connection.setAutoCommit(false);
+    }
+
+    /**
+     * Opens a connection and starts a transaction on it
+     */
+    public static UnitOfWork begin(IConnection connectionFactory) {
+        Connection connection = connectionFactory.createConnection();
+        try {
+            return new UnitOfWork(connection);
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new RuntimeException("Failed to begin transaction", e);
+        }
+    }
+
+    /**
+     * Runs the work in a new transaction, commits it and then publishes the after-commit actions.
+     * Any failure rolls the transaction back and no after-commit action runs.
+     */
+    public static <T> T execute(IConnection connectionFactory, Work<T> work) {
+        try (UnitOfWork unitOfWork = begin(connectionFactory)) {
+            T result = work.execute(unitOfWork);
+            unitOfWork.commit();
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException("Transaction failed", e);
+        }
+    }
+
+    /**
+     * Returns the connection all statements of this unit of work must use
+     */
+    public Connection connection() {
+        return connection;
+    }
+
+    /**
+     * Registers an action to run after a successful commit, in registration order
+     */
+    public void afterCommit(Runnable action) {
+        afterCommitActions.add(action);
+    }
+
+    /**
+     * Commits the transaction and runs the after-commit actions.
+     * A failing action is logged and does not affect the others; the data is already committed.
+     */
+    public void commit() throws SQLException {
+        if (committed) {
+            throw new IllegalStateException("Unit of work already committed");
+        }
+        connection.commit();
+        committed = true;
+
+        for (Runnable action : afterCommitActions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                System.err.println("Warning: after-commit action failed: " + e.getMessage());
+            }
+        }
+        afterCommitActions.clear();
+    }
+
+    /**
+     * Rolls back unless committed, then releases the connection
+     */
+    @Override
+    public void close() {
+        try {
+            if (!committed) {
+                connection.rollback();
+            }
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            System.err.println("Warning: failed to end transaction cleanly: " + e.getMessage());
+        } finally {
+            closeQuietly(connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Nothing left to release
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.bloggingapp.Database.Repositories;
+
+import org.example.bloggingapp.Database.ChangeFeed.ChangeFeed;
+import org.example.bloggingapp.Database.DbInterfaces.IConnection;
+import org.example.bloggingapp.Database.Routing.RoutingConnectionFactory;
+import org.example.bloggingapp.Database.factories.ConnectionFactory;
+
+import java.sql.*;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Read-only repository for the change_log table written by the change feed triggers.
+ *
+ * Change IDs serve as watermarks for state derived from the database, such as persisted search
+ * index segments: whatever was derived at a watermark is brought up to date by the rows logged
+ * after it. Reads go to the primary, since a replica may not have replayed the newest entries,
+ * but they do not count as writes that pin the session's other reads to the primary.
+ */
+public class ChangeLogRepository {
+
+    private static final String CURRENT_CHANGE_ID =
+            "SELECT COALESCE(MAX(change_id), 0) FROM change_log";
+    private static final String OLDEST_CHANGE_ID =
+            "SELECT MIN(change_id) FROM change_log";
+    // The latest operation on each row changed after the watermark
+    private static final String CHANGED_ROWS_SINCE =
+            "SELECT DISTINCT ON (row_id) row_id, operation FROM change_log "
+                    + "WHERE table_name = ? AND change_id > ? ORDER BY row_id, change_id DESC";
+
+    private final IConnection connectionFactory;
+
+    public ChangeLogRepository() {
+        this.connectionFactory = new ConnectionFactory();
+    }
+
+    /**
+     * Returns the ID of the latest logged change, 0 if the log is empty
+     */
+    public long getCurrentChangeId() {
+        try (Connection connection = openPrimaryRead();
+             PreparedStatement statement = connection.prepareStatement(CURRENT_CHANGE_ID);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read the current change ID", e);
+        }
+    }
+
+    /**
+     * Returns true if every change logged after the watermark is still in the log.
+     *
+     * The log is pruned by age, {@link ChangeFeed#LOG_RETENTION} after each change, so nothing after
+     * a watermark taken more recently than that can be gone yet. An older watermark is still
+     * covered while the log reaches back to the change after it.
+     * @param takenAtMillis when the watermark was read, in epoch milliseconds
+     */
+    public boolean retainsChangesSince(long changeId, long takenAtMillis) {
+        // Less an hour for clock differences between this host and the database
+        long safeAgeMillis = ChangeFeed.LOG_RETENTION.toMillis() - 60 * 60 * 1000;
+        if (System.currentTimeMillis() - takenAtMillis < safeAgeMillis) {
+            return true;
+        }
+        try (Connection connection = openPrimaryRead();
+             PreparedStatement statement = connection.prepareStatement(OLDEST_CHANGE_ID);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            long oldest = resultSet.getLong(1);
+            return !resultSet.wasNull() && oldest <= changeId + 1;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read the oldest change ID", e);
+        }
+    }
+
+    /**
+     * Returns the rows of a table changed after the watermark, by their latest operation
+     * @param table a table with change feed triggers, e.g. posts
+     */
+    public ChangedRows findChangedRowsSince(String table, long changeId) {
+        Set<Integer> written = new LinkedHashSet<>();
+        Set<Integer> deleted = new LinkedHashSet<>();
+        try (Connection connection = openPrimaryRead();
+             PreparedStatement statement = connection.prepareStatement(CHANGED_ROWS_SINCE)) {
+            statement.setString(1, table);
+            statement.setLong(2, changeId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    int rowId = resultSet.getInt("row_id");
+                    if ("D".equals(resultSet.getString("operation"))) {
+                        deleted.add(rowId);
+                    } else {
+                        written.add(rowId);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read changes to " + table + " since " + changeId, e);
+        }
+        return new ChangedRows(written, deleted);
+    }
+
+    private Connection openPrimaryRead() {
+        return RoutingConnectionFactory.onPrimary(connectionFactory::createReadConnection);
+    }
+
+    /**
+     * Rows inserted or updated, and rows deleted, since a watermark
+     */
+    public record ChangedRows(Set<Integer> written, Set<Integer> deleted) {
+        public int size() {
+            return written.size() + deleted.size();
+        }
+    }
+}
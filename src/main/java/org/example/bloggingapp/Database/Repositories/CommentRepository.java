@@ -3,13 +3,18 @@ package org.example.bloggingapp.Database.Repositories;
 import org.example.bloggingapp.Database.DbInterfaces.ICrudQueries;
 import org.example.bloggingapp.Database.DbInterfaces.IConnection;
 import org.example.bloggingapp.Database.DbInterfaces.Repository;
+import org.example.bloggingapp.Database.DbInterfaces.RowMapper;
 import org.example.bloggingapp.Services.CrudQueries;
 import org.example.bloggingapp.Database.factories.ConnectionFactory;
+import org.example.bloggingapp.Database.Jdbc.BatchLookup;
+import org.example.bloggingapp.Database.Jdbc.CursorStream;
 import org.example.bloggingapp.Models.CommentEntity;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class CommentRepository implements Repository<CommentEntity> {
 
@@ -51,12 +56,12 @@ public class CommentRepository implements Repository<CommentEntity> {
     public CommentEntity findByInteger(int id) {
         String sql = crudQueries.getByIntegerQuery(id, "comments", "comment_id");
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return mapResultSetToComment(resultSet);
+                return EntityMappers.COMMENT.map(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find comment by ID", e);
@@ -64,16 +69,21 @@ public class CommentRepository implements Repository<CommentEntity> {
         return null;
     }
 
+    @Override
+    public Map<Integer, CommentEntity> findByIds(int[] ids) {
+        return BatchLookup.findByIds(connectionFactory, "comments", "comment_id", ids, EntityMappers.COMMENT, CommentEntity::getCommentId);
+    }
+
     @Override
     public CommentEntity findByString(String identifier) {
         String sql = crudQueries.getStringQuery(identifier, "comments", "content");
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return mapResultSetToComment(resultSet);
+                return EntityMappers.COMMENT.map(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find comment by content", e);
@@ -86,12 +96,13 @@ public class CommentRepository implements Repository<CommentEntity> {
         String sql = crudQueries.getAllQuery("comments");
         List<CommentEntity> comments = new ArrayList<>();
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql);
              ResultSet resultSet = statement.executeQuery()) {
             
+            RowMapper<CommentEntity> mapper = EntityMappers.COMMENT.bind(resultSet);
             while (resultSet.next()) {
-                comments.add(mapResultSetToComment(resultSet));
+                comments.add(mapper.map(resultSet));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find all comments", e);
@@ -99,6 +110,12 @@ public class CommentRepository implements Repository<CommentEntity> {
         return comments;
     }
 
+    @Override
+    public Stream<CommentEntity> streamAll() {
+        String sql = crudQueries.getAllQuery("comments");
+        return CursorStream.open(connectionFactory, sql, EntityMappers.COMMENT);
+    }
+
     @Override
     public void updateById(int id) {
         String sql = crudQueries.updateByIdQuery(id, "comments", "content = ?, postId = ?, userId = ?", "comment_id");
@@ -129,13 +146,50 @@ public class CommentRepository implements Repository<CommentEntity> {
         }
     }
 
-    private CommentEntity mapResultSetToComment(ResultSet resultSet) throws SQLException {
-        CommentEntity comment = new CommentEntity();
-        comment.setCommentId(resultSet.getInt("comment_id"));
-        comment.setContent(resultSet.getString("content"));
-        comment.setCreatedAt(resultSet.getTimestamp("created_at").toLocalDateTime());
-        comment.setPostId(resultSet.getInt("post_id"));
-        comment.setUserId(resultSet.getInt("user_id"));
-        return comment;
+    /**
+     * Finds all comments on a post using idx_comments_post_id
+     */
+    public List<CommentEntity> findByPostId(int postId) {
+        return findAllByColumn("post_id", postId);
+    }
+
+    /**
+     * Finds the comments on many posts in one query, grouped by post ID.
+     * Every requested post is present in the result, with an empty list if it has no comments.
+     */
+    public Map<Integer, List<CommentEntity>> findByPostIds(int[] postIds) {
+        return BatchLookup.findGroupedByIds(connectionFactory, "comments", "post_id", postIds,
+                EntityMappers.COMMENT, CommentEntity::getPostId);
+    }
+
+    /**
+     * Finds all comments written by a user using idx_comments_user_id
+     */
+    public List<CommentEntity> findByUserId(int userId) {
+        return findAllByColumn("user_id", userId);
+    }
+
+    /**
+     * Runs an equality lookup on an indexed integer column and maps every matching row
+     */
+    private List<CommentEntity> findAllByColumn(String columnName, int value) {
+        String sql = "SELECT * FROM comments WHERE " + columnName + " = ?";
+        List<CommentEntity> comments = new ArrayList<>();
+        
+        try (Connection connection = connectionFactory.createReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            
+            statement.setInt(1, value);
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                RowMapper<CommentEntity> mapper = EntityMappers.COMMENT.bind(resultSet);
+                while (resultSet.next()) {
+                    comments.add(mapper.map(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find comments by " + columnName, e);
+        }
+        return comments;
     }
 }
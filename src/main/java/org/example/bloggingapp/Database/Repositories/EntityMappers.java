@@ -0,0 +1,165 @@
+package org.example.bloggingapp.Database.Repositories;
+
+import org.example.bloggingapp.Database.Jdbc.CompiledRowMapper;
+import org.example.bloggingapp.Models.CommentEntity;
+import org.example.bloggingapp.Models.FeedItem;
+import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Models.PostStats;
+import org.example.bloggingapp.Models.PostTagEntity;
+import org.example.bloggingapp.Models.ReviewEntity;
+import org.example.bloggingapp.Models.TagEntity;
+import org.example.bloggingapp.Models.UserEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row mappers for every entity and projection the repositories read.
+ *
+ * Each mapper resolves its column indexes once per result set shape (see {@link CompiledRowMapper})
+ * and reads timestamps with {@code getObject(i, LocalDateTime.class)}, which the driver decodes
+ * directly instead of going through java.sql.Timestamp.
+ */
+public final class EntityMappers {
+
+    public static final CompiledRowMapper<PostEntity> POST = new CompiledRowMapper<>("post", columns -> {
+        int postId = columns.require("post_id");
+        int title = columns.require("title");
+        int content = columns.require("content");
+        int createdAt = columns.require("created_at");
+        int userId = columns.require("user_id");
+        // Absent from narrow projections, which keep the entity defaults
+        int views = columns.find("views");
+        int status = columns.find("status");
+        int authorName = columns.find("author_name");
+        // Absent until the optimistic-locking migration has run
+        int version = columns.find("version");
+        return resultSet -> {
+            PostEntity post = new PostEntity();
+            post.setPostId(resultSet.getInt(postId));
+            post.setTitle(resultSet.getString(title));
+            post.setContent(resultSet.getString(content));
+            post.setCreatedAt(resultSet.getObject(createdAt, LocalDateTime.class));
+            post.setUserId(resultSet.getInt(userId));
+            if (views > 0) {
+                post.setViews(resultSet.getInt(views));
+            }
+            if (status > 0) {
+                post.setStatus(resultSet.getString(status));
+            }
+            if (authorName > 0) {
+                post.setAuthorName(resultSet.getString(authorName));
+            }
+            post.setVersion(version > 0 ? resultSet.getInt(version) : 0);
+            return post;
+        };
+    });
+
+    public static final CompiledRowMapper<CommentEntity> COMMENT = new CompiledRowMapper<>("comment", columns -> {
+        int commentId = columns.require("comment_id");
+        int content = columns.require("content");
+        int createdAt = columns.require("created_at");
+        int postId = columns.require("post_id");
+        int userId = columns.require("user_id");
+        return resultSet -> {
+            CommentEntity comment = new CommentEntity();
+            comment.setCommentId(resultSet.getInt(commentId));
+            comment.setContent(resultSet.getString(content));
+            comment.setCreatedAt(resultSet.getObject(createdAt, LocalDateTime.class));
+            comment.setPostId(resultSet.getInt(postId));
+            comment.setUserId(resultSet.getInt(userId));
+            return comment;
+        };
+    });
+
+    public static final CompiledRowMapper<UserEntity> USER = new CompiledRowMapper<>("user", columns -> {
+        int userId = columns.require("user_id");
+        int userName = columns.require("user_name");
+        int email = columns.require("email");
+        int password = columns.require("password");
+        int role = columns.require("role");
+        int createdAt = columns.require("created_at");
+        return resultSet -> {
+            UserEntity user = new UserEntity();
+            user.setUserId(resultSet.getInt(userId));
+            user.setUserName(resultSet.getString(userName));
+            user.setEmail(resultSet.getString(email));
+            user.setPassword(resultSet.getString(password));
+            user.setRole(resultSet.getString(role));
+            user.setCreatedAt(resultSet.getObject(createdAt, LocalDateTime.class));
+            return user;
+        };
+    });
+
+    // reviews has no created_at column; the entity keeps the timestamp from its constructor
+    public static final CompiledRowMapper<ReviewEntity> REVIEW = new CompiledRowMapper<>("review", columns -> {
+        int reviewId = columns.require("review_id");
+        int rating = columns.require("rating");
+        int comment = columns.require("comment");
+        int userId = columns.require("user_id");
+        int postId = columns.require("post_id");
+        return resultSet -> {
+            ReviewEntity review = new ReviewEntity();
+            review.setReviewId(resultSet.getInt(reviewId));
+            review.setRating(resultSet.getInt(rating));
+            review.setComment(resultSet.getString(comment));
+            review.setUserId(resultSet.getInt(userId));
+            review.setPostId(resultSet.getInt(postId));
+            return review;
+        };
+    });
+
+    public static final CompiledRowMapper<TagEntity> TAG = new CompiledRowMapper<>("tag", columns -> {
+        int tagId = columns.require("tag_id");
+        int name = columns.require("name");
+        return resultSet -> new TagEntity(resultSet.getInt(tagId), resultSet.getString(name));
+    });
+
+    public static final CompiledRowMapper<PostTagEntity> POST_TAG = new CompiledRowMapper<>("post_tag", columns -> {
+        int postId = columns.require("post_id");
+        int tagId = columns.require("tag_id");
+        return resultSet -> new PostTagEntity(resultSet.getInt(postId), resultSet.getInt(tagId));
+    });
+
+    public static final CompiledRowMapper<FeedItem> FEED_ITEM = new CompiledRowMapper<>("feed_item", columns -> {
+        int postId = columns.require("post_id");
+        int title = columns.require("title");
+        int content = columns.require("content");
+        int createdAt = columns.require("created_at");
+        int userId = columns.require("user_id");
+        int views = columns.require("views");
+        int status = columns.require("status");
+        int authorName = columns.require("author_name");
+        int commentCount = columns.require("comment_count");
+        int reviewCount = columns.require("review_count");
+        int averageRating = columns.require("average_rating");
+        return resultSet -> new FeedItem(
+                resultSet.getInt(postId),
+                resultSet.getString(title),
+                resultSet.getString(content),
+                resultSet.getObject(createdAt, LocalDateTime.class),
+                resultSet.getInt(userId),
+                resultSet.getInt(views),
+                resultSet.getString(status),
+                resultSet.getString(authorName),
+                resultSet.getInt(commentCount),
+                resultSet.getInt(reviewCount),
+                resultSet.getDouble(averageRating));
+    });
+
+    public static final CompiledRowMapper<PostStats> POST_STATS = new CompiledRowMapper<>("post_stats", columns -> {
+        int postId = columns.require("post_id");
+        int commentCount = columns.require("comment_count");
+        int reviewCount = columns.require("review_count");
+        int ratingSum = columns.require("rating_sum");
+        int views = columns.require("views");
+        return resultSet -> new PostStats(
+                resultSet.getInt(postId),
+                resultSet.getInt(commentCount),
+                resultSet.getInt(reviewCount),
+                resultSet.getInt(ratingSum),
+                resultSet.getInt(views));
+    });
+
+    private EntityMappers() {
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.bloggingapp.Database.Repositories;
+
+import org.example.bloggingapp.Database.DbInterfaces.IConnection;
+import org.example.bloggingapp.Database.DbInterfaces.RowMapper;
+import org.example.bloggingapp.Database.factories.ConnectionFactory;
+import org.example.bloggingapp.Models.FeedItem;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only repository for the feed projection.
+ *
+ * One query returns a page of posts together with the author name, comment count
+ * and rating aggregates. The aggregates come from the trigger-maintained post_stats
+ * row of each post, and the ordering from idx_posts_created_at_desc, so the cost
+ * depends on the page size rather than on the number of comments and reviews.
+ */
+public class FeedRepository {
+
+    private static final String FEED_PAGE_QUERY =
+            "SELECT p.post_id, p.title, p.content, p.created_at, p.user_id, p.views, " +
+            "       COALESCE(p.status, 'Published') AS status, " +
+            "       COALESCE(u.user_name, 'Unknown User') AS author_name, " +
+            "       COALESCE(s.comment_count, 0) AS comment_count, COALESCE(s.review_count, 0) AS review_count, " +
+            "       COALESCE(s.rating_sum::float8 / NULLIF(s.review_count, 0), 0) AS average_rating " +
+            "FROM posts p " +
+            "LEFT JOIN users u ON u.user_id = p.user_id " +
+            "LEFT JOIN post_stats s ON s.post_id = p.post_id " +
+            "ORDER BY p.created_at DESC, p.post_id DESC " +
+            "LIMIT ? OFFSET ?";
+
+    private final IConnection connectionFactory;
+
+    public FeedRepository() {
+        this.connectionFactory = new ConnectionFactory();
+    }
+
+    /**
+     * Loads one page of the feed, newest posts first
+     * @param limit maximum number of items to return
+     * @param offset number of items to skip
+     * @return the feed items of the requested page
+     */
+    public List<FeedItem> findPage(int limit, int offset) {
+        List<FeedItem> items = new ArrayList<>();
+        
+        try (Connection connection = connectionFactory.createReadConnection();
+             PreparedStatement statement = connection.prepareStatement(FEED_PAGE_QUERY)) {
+            
+            statement.setInt(1, limit);
+            statement.setInt(2, offset);
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                RowMapper<FeedItem> mapper = EntityMappers.FEED_ITEM.bind(resultSet);
+                while (resultSet.next()) {
+                    items.add(mapper.map(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load feed page", e);
+        }
+        return items;
+    }
+}
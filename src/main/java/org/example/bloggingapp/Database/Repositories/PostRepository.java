@@ -3,19 +3,34 @@ package org.example.bloggingapp.Database.Repositories;
 import org.example.bloggingapp.Database.DbInterfaces.ICrudQueries;
 import org.example.bloggingapp.Database.DbInterfaces.IConnection;
 import org.example.bloggingapp.Database.DbInterfaces.Repository;
+import org.example.bloggingapp.Database.DbInterfaces.RowMapper;
 import org.example.bloggingapp.Services.CrudQueries;
 import org.example.bloggingapp.Database.factories.ConnectionFactory;
+import org.example.bloggingapp.Database.Jdbc.BatchLookup;
+import org.example.bloggingapp.Database.Jdbc.CursorStream;
 import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Models.SearchPage;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 public class PostRepository implements Repository<PostEntity> {
 
     private final IConnection connectionFactory;
     private final ICrudQueries crudQueries;
 
+    // Whether posts has the optional optimistic-locking column; detected on first use
+    private volatile Boolean versionColumnPresent;
+
+    // Must match the expression of idx_posts_fulltext exactly, or the GIN index is not used
+    private static final String FULLTEXT_DOCUMENT =
+            "to_tsvector('english', title || ' ' || content || ' ' || COALESCE(author_name, ''))";
+
     public PostRepository() {
         this.connectionFactory = new ConnectionFactory();
         this.crudQueries = new CrudQueries();
@@ -23,10 +38,20 @@ public class PostRepository implements Repository<PostEntity> {
 
     @Override
     public void create(PostEntity post) {
+        try (Connection connection = connectionFactory.createConnection()) {
+            create(connection, post);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create post", e);
+        }
+    }
+
+    /**
+     * Inserts a post on the given connection, e.g. one owned by a {@link org.example.bloggingapp.Database.Jdbc.UnitOfWork}
+     */
+    public void create(Connection connection, PostEntity post) throws SQLException {
         String sql = crudQueries.createQuery("posts", "title, content, created_at, user_id");
         
-        try (Connection connection = connectionFactory.createConnection();
-             PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             statement.setString(1, post.getTitle());
             statement.setString(2, post.getContent());
@@ -42,21 +67,26 @@ public class PostRepository implements Repository<PostEntity> {
                     }
                 }
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to create post", e);
         }
     }
 
+    /**
+     * Returns the connection factory so services can open a unit of work spanning several repositories
+     */
+    public IConnection getConnectionFactory() {
+        return connectionFactory;
+    }
+
     @Override
     public PostEntity findByInteger(int id) {
         String sql = crudQueries.getByIntegerQuery(id, "posts", "post_id");
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return mapResultSetToPost(resultSet);
+                return EntityMappers.POST.map(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find post by ID", e);
@@ -64,16 +94,21 @@ public class PostRepository implements Repository<PostEntity> {
         return null;
     }
 
+    @Override
+    public Map<Integer, PostEntity> findByIds(int[] ids) {
+        return BatchLookup.findByIds(connectionFactory, "posts", "post_id", ids, EntityMappers.POST, PostEntity::getPostId);
+    }
+
     @Override
     public PostEntity findByString(String identifier) {
         String sql = crudQueries.getStringQuery(identifier, "posts", "title");
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return mapResultSetToPost(resultSet);
+                return EntityMappers.POST.map(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find post by title", e);
@@ -86,12 +121,13 @@ public class PostRepository implements Repository<PostEntity> {
         String sql = crudQueries.getAllQuery("posts");
         List<PostEntity> posts = new ArrayList<>();
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql);
              ResultSet resultSet = statement.executeQuery()) {
             
+            RowMapper<PostEntity> mapper = EntityMappers.POST.bind(resultSet);
             while (resultSet.next()) {
-                posts.add(mapResultSetToPost(resultSet));
+                posts.add(mapper.map(resultSet));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find all posts", e);
@@ -99,10 +135,17 @@ public class PostRepository implements Repository<PostEntity> {
         return posts;
     }
 
+    @Override
+    public Stream<PostEntity> streamAll() {
+        String sql = crudQueries.getAllQuery("posts");
+        return CursorStream.open(connectionFactory, sql, EntityMappers.POST);
+    }
+
     @Override
     public void updateById(int id) {
-        String sql = crudQueries.updateByIdQuery(id, "posts", "title = ?, content = ?, user_id = ?, status = ?, views = ?, author_name = ?", "post_id");
+        String sql = crudQueries.updateByIdQuery(id, "posts", "title = ?, content = ?, user_id = ?, status = ?, author_name = ?", "post_id");
         
+        // views is left alone; it is only ever incremented, see addViews
         try (Connection connection = connectionFactory.createConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
@@ -110,8 +153,7 @@ public class PostRepository implements Repository<PostEntity> {
             statement.setString(2, "updated_content");
             statement.setInt(3, 1);
             statement.setString(4, "Published");
-            statement.setInt(5, 0);
-            statement.setString(6, "Test Author");
+            statement.setString(5, "Test Author");
             
             statement.executeUpdate();
         } catch (SQLException e) {
@@ -121,22 +163,92 @@ public class PostRepository implements Repository<PostEntity> {
     
     // New method to update with PostEntity data (using only existing schema columns)
     public void updatePost(int id, PostEntity post) {
-        String sql = "UPDATE posts SET title = ?, content = ?, user_id = ? WHERE post_id = ?";
-        
-        try (Connection connection = connectionFactory.createConnection();
-             PreparedStatement statement = connection.prepareStatement(sql)) {
-            
-            statement.setString(1, post.getTitle());
-            statement.setString(2, post.getContent());
-            statement.setInt(3, post.getUserId());
-            statement.setInt(4, id);
-            
-            statement.executeUpdate();
+        updateReturning(id, post, 0);
+    }
+
+    /**
+     * Updates a post and returns the stored row in the same round trip.
+     * When the table has a version column it is incremented, and a positive
+     * expectedVersion makes the update conditional on it (optimistic locking).
+     * @param id the post to update
+     * @param post the new title, content and owner
+     * @param expectedVersion version the caller last read, or 0 to skip the check
+     * @return the updated row, or null if no row matched the ID (and version)
+     */
+    public PostEntity updateReturning(int id, PostEntity post, int expectedVersion) {
+        try (Connection connection = connectionFactory.createConnection()) {
+            boolean versioned = hasVersionColumn(connection);
+            boolean checkVersion = versioned && expectedVersion > 0;
+
+            String sql = "UPDATE posts SET title = ?, content = ?, user_id = ?"
+                    + (versioned ? ", version = version + 1" : "")
+                    + " WHERE post_id = ?"
+                    + (checkVersion ? " AND version = ?" : "")
+                    + " RETURNING *";
+
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, post.getTitle());
+                statement.setString(2, post.getContent());
+                statement.setInt(3, post.getUserId());
+                statement.setInt(4, id);
+                if (checkVersion) {
+                    statement.setInt(5, expectedVersion);
+                }
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? EntityMappers.POST.map(resultSet) : null;
+                }
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update post", e);
         }
     }
 
+    /**
+     * Adds view increments to many posts in one statement.
+     * The increments are passed as two parallel arrays and joined to posts with
+     * {@code UPDATE ... FROM unnest(...)}, so the statement text is the same for every
+     * batch. The IDs are sorted and the rows locked by an ordered {@code SELECT ... FOR UPDATE}
+     * before they are updated, so concurrent flushes from several app instances take their row
+     * locks in the same order and cannot deadlock each other.
+     * @param increments views to add, keyed by post ID
+     * @return the stored view count of every post that was updated; deleted posts are absent
+     */
+    public Map<Integer, Integer> addViews(Map<Integer, Long> increments) {
+        String sql = "UPDATE posts p SET views = COALESCE(p.views, 0) + v.delta "
+                + "FROM (SELECT l.post_id, t.delta FROM posts l "
+                + "JOIN unnest(?::int[], ?::int[]) AS t(post_id, delta) ON l.post_id = t.post_id "
+                + "ORDER BY l.post_id FOR UPDATE OF l) v "
+                + "WHERE p.post_id = v.post_id "
+                + "RETURNING p.post_id, p.views";
+
+        Integer[] postIds = new Integer[increments.size()];
+        Integer[] deltas = new Integer[increments.size()];
+        int index = 0;
+        for (Map.Entry<Integer, Long> increment : new TreeMap<>(increments).entrySet()) {
+            postIds[index] = increment.getKey();
+            deltas[index] = (int) Math.min(Integer.MAX_VALUE, increment.getValue());
+            index++;
+        }
+
+        Map<Integer, Integer> stored = new HashMap<>();
+        // A background flush, not a write of this session, so reads stay on the replicas
+        try (Connection connection = connectionFactory.createBackgroundConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            statement.setArray(1, connection.createArrayOf("integer", postIds));
+            statement.setArray(2, connection.createArrayOf("integer", deltas));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    stored.put(resultSet.getInt(1), resultSet.getInt(2));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to add post views", e);
+        }
+        return stored;
+    }
+
     @Override
     public void delete(int id) {
         String sql = crudQueries.deleteByIdQuery(id, "posts", "post_id");
@@ -150,13 +262,75 @@ public class PostRepository implements Repository<PostEntity> {
         }
     }
 
-    private PostEntity mapResultSetToPost(ResultSet resultSet) throws SQLException {
-        PostEntity post = new PostEntity();
-        post.setPostId(resultSet.getInt("post_id"));
-        post.setTitle(resultSet.getString("title"));
-        post.setContent(resultSet.getString("content"));
-        post.setCreatedAt(resultSet.getTimestamp("created_at").toLocalDateTime());
-        post.setUserId(resultSet.getInt("user_id"));
-        return post;
+    /**
+     * Deletes a post and returns the removed row in the same round trip
+     * @return the deleted row, or null if the post did not exist
+     */
+    public PostEntity deleteReturning(int id) {
+        String sql = "DELETE FROM posts WHERE post_id = ? RETURNING *";
+
+        try (Connection connection = connectionFactory.createConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            statement.setInt(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? EntityMappers.POST.map(resultSet) : null;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete post", e);
+        }
+    }
+
+    /**
+     * Full-text search over title, content and author name, ranked and paged by the database.
+     * The text is parsed with websearch_to_tsquery, so quoted phrases, "or" and "-word" work
+     * as users expect, and the match is answered from idx_posts_fulltext. The total number of
+     * matches is computed with a window function in the same round trip.
+     * @param query user-entered search text
+     * @param limit maximum number of posts to return
+     * @param offset number of ranked matches to skip
+     * @return the requested page of matches, best first, and the total match count
+     */
+    public SearchPage searchFullText(String query, int limit, int offset) {
+        String sql = "SELECT p.*, ts_rank(" + FULLTEXT_DOCUMENT + ", q) AS rank, COUNT(*) OVER () AS total_matches "
+                + "FROM posts p, websearch_to_tsquery('english', ?) q "
+                + "WHERE " + FULLTEXT_DOCUMENT + " @@ q "
+                + "ORDER BY rank DESC, p.created_at DESC, p.post_id DESC "
+                + "LIMIT ? OFFSET ?";
+
+        List<PostEntity> posts = new ArrayList<>();
+        int totalMatches = 0;
+        try (Connection connection = connectionFactory.createReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            statement.setString(1, query);
+            statement.setInt(2, limit);
+            statement.setInt(3, offset);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                RowMapper<PostEntity> mapper = EntityMappers.POST.bind(resultSet);
+                while (resultSet.next()) {
+                    posts.add(mapper.map(resultSet));
+                    // Every row carries the same window count
+                    if (posts.size() == 1) {
+                        totalMatches = resultSet.getInt("total_matches");
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to search posts", e);
+        }
+        // Past the last page the window count is unavailable; only the page is empty then
+        return new SearchPage(posts, posts.isEmpty() && offset > 0 ? -1 : totalMatches);
+    }
+
+    private boolean hasVersionColumn(Connection connection) throws SQLException {
+        Boolean present = versionColumnPresent;
+        if (present == null) {
+            try (ResultSet columns = connection.getMetaData().getColumns(null, null, "posts", "version")) {
+                present = columns.next();
+            }
+            versionColumnPresent = present;
+        }
+        return present;
     }
 }
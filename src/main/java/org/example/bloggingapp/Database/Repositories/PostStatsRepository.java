@@ -0,0 +1,84 @@
+package org.example.bloggingapp.Database.Repositories;
+
+import org.example.bloggingapp.Database.DbInterfaces.IConnection;
+import org.example.bloggingapp.Database.Jdbc.BatchLookup;
+import org.example.bloggingapp.Database.factories.ConnectionFactory;
+import org.example.bloggingapp.Models.PostStats;
+
+import java.sql.*;
+import java.util.Map;
+
+/**
+ * Read-only repository for the post_stats and user_stats aggregate tables.
+ *
+ * Both tables are kept current by triggers in the same transaction as the write that
+ * changes them, so every read here is a primary-key lookup rather than an aggregation.
+ */
+public class PostStatsRepository {
+
+    private static final String FIND_BY_POST_ID =
+            "SELECT post_id, comment_count, review_count, rating_sum, views FROM post_stats WHERE post_id = ?";
+    private static final String POST_COUNT_BY_USER =
+            "SELECT post_count FROM user_stats WHERE user_id = ?";
+    private static final String TOTAL_POSTS =
+            "SELECT COALESCE(SUM(post_count), 0) FROM user_stats";
+
+    private final IConnection connectionFactory;
+
+    public PostStatsRepository() {
+        this.connectionFactory = new ConnectionFactory();
+    }
+
+    /**
+     * Loads the counters of one post
+     * @return the stats, or null if the post has no stats row
+     */
+    public PostStats findByPostId(int postId) {
+        try (Connection connection = connectionFactory.createReadConnection();
+             PreparedStatement statement = connection.prepareStatement(FIND_BY_POST_ID)) {
+            statement.setInt(1, postId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? EntityMappers.POST_STATS.map(resultSet) : null;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load stats for post " + postId, e);
+        }
+    }
+
+    /**
+     * Loads the counters of many posts in one query
+     * @return stats keyed by post ID; posts without a stats row are absent
+     */
+    public Map<Integer, PostStats> findByPostIds(int[] postIds) {
+        return BatchLookup.findByIds(connectionFactory, "post_stats", "post_id", postIds,
+                EntityMappers.POST_STATS, PostStats::getPostId);
+    }
+
+    /**
+     * Returns the number of posts written by a user
+     */
+    public int getPostCountByUser(int userId) {
+        try (Connection connection = connectionFactory.createReadConnection();
+             PreparedStatement statement = connection.prepareStatement(POST_COUNT_BY_USER)) {
+            statement.setInt(1, userId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load post count for user " + userId, e);
+        }
+    }
+
+    /**
+     * Returns the total number of posts, summed over the per-user counters
+     */
+    public int getTotalPosts() {
+        try (Connection connection = connectionFactory.createReadConnection();
+             PreparedStatement statement = connection.prepareStatement(TOTAL_POSTS);
+             ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load total post count", e);
+        }
+    }
+}
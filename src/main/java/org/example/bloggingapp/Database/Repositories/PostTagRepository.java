@@ -3,13 +3,19 @@ package org.example.bloggingapp.Database.Repositories;
 import org.example.bloggingapp.Database.DbInterfaces.ICrudQueries;
 import org.example.bloggingapp.Database.DbInterfaces.IConnection;
 import org.example.bloggingapp.Database.DbInterfaces.Repository;
+import org.example.bloggingapp.Database.DbInterfaces.RowMapper;
 import org.example.bloggingapp.Services.CrudQueries;
 import org.example.bloggingapp.Database.factories.ConnectionFactory;
+import org.example.bloggingapp.Database.Jdbc.BatchLookup;
+import org.example.bloggingapp.Database.Jdbc.CursorStream;
 import org.example.bloggingapp.Models.PostTagEntity;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class PostTagRepository implements Repository<PostTagEntity> {
 
@@ -41,12 +47,12 @@ public class PostTagRepository implements Repository<PostTagEntity> {
     public PostTagEntity findByInteger(int id) {
         String sql = crudQueries.getByIntegerQuery(id, "post_tags", "post_id");
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return mapResultSetToPostTag(resultSet);
+                return EntityMappers.POST_TAG.map(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find post-tag relationship by post ID", e);
@@ -54,11 +60,18 @@ public class PostTagRepository implements Repository<PostTagEntity> {
         return null;
     }
 
+    // Keyed by post_id like findByInteger, so only one tag link of each post fits; use
+    // findByPostIds for all of them
+    @Override
+    public Map<Integer, PostTagEntity> findByIds(int[] ids) {
+        return BatchLookup.findByIds(connectionFactory, "post_tags", "post_id", ids, EntityMappers.POST_TAG, PostTagEntity::getPostId);
+    }
+
     @Override
     public PostTagEntity findByString(String identifier) {
         String sql = "SELECT * FROM post_tags WHERE post_id = ? OR tag_id = ?";
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
             statement.setInt(1, Integer.parseInt(identifier));
@@ -66,7 +79,7 @@ public class PostTagRepository implements Repository<PostTagEntity> {
             
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return mapResultSetToPostTag(resultSet);
+                return EntityMappers.POST_TAG.map(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find post-tag relationship", e);
@@ -79,12 +92,13 @@ public class PostTagRepository implements Repository<PostTagEntity> {
         String sql = crudQueries.getAllQuery("post_tags");
         List<PostTagEntity> postTags = new ArrayList<>();
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql);
              ResultSet resultSet = statement.executeQuery()) {
             
+            RowMapper<PostTagEntity> mapper = EntityMappers.POST_TAG.bind(resultSet);
             while (resultSet.next()) {
-                postTags.add(mapResultSetToPostTag(resultSet));
+                postTags.add(mapper.map(resultSet));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find all post-tag relationships", e);
@@ -92,6 +106,12 @@ public class PostTagRepository implements Repository<PostTagEntity> {
         return postTags;
     }
 
+    @Override
+    public Stream<PostTagEntity> streamAll() {
+        String sql = crudQueries.getAllQuery("post_tags");
+        return CursorStream.open(connectionFactory, sql, EntityMappers.POST_TAG);
+    }
+
     @Override
     public void updateById(int id) {
         String sql = crudQueries.updateByIdQuery(id, "post_tags", "post_id = ?, tag_id = ?", "post_id");
@@ -121,10 +141,89 @@ public class PostTagRepository implements Repository<PostTagEntity> {
         }
     }
 
-    private PostTagEntity mapResultSetToPostTag(ResultSet resultSet) throws SQLException {
-        PostTagEntity postTag = new PostTagEntity();
-        postTag.setPostId(resultSet.getInt("post_id"));
-        postTag.setTagId(resultSet.getInt("tag_id"));
-        return postTag;
+    /**
+     * Finds the tag links of a post using the (post_id, tag_id) primary key
+     */
+    public List<PostTagEntity> findByPostId(int postId) {
+        return findAllByColumn("post_id", postId);
+    }
+
+    /**
+     * Finds the tag links of many posts in one query, grouped by post ID.
+     * Every requested post is present in the result, with an empty list if it has no tags.
+     */
+    public Map<Integer, List<PostTagEntity>> findByPostIds(int[] postIds) {
+        return BatchLookup.findGroupedByIds(connectionFactory, "post_tags", "post_id", postIds,
+                EntityMappers.POST_TAG, PostTagEntity::getPostId);
+    }
+
+    /**
+     * Finds the post links of a tag using idx_post_tags_tag_id
+     */
+    public List<PostTagEntity> findByTagId(int tagId) {
+        return findAllByColumn("tag_id", tagId);
+    }
+
+    /**
+     * Removes a single post-tag link
+     * @return true if a link was deleted
+     */
+    public boolean deleteByPostAndTag(int postId, int tagId) {
+        String sql = "DELETE FROM post_tags WHERE post_id = ? AND tag_id = ?";
+        
+        try (Connection connection = connectionFactory.createConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            
+            statement.setInt(1, postId);
+            statement.setInt(2, tagId);
+            
+            return statement.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete post-tag relationship", e);
+        }
+    }
+
+    /**
+     * Runs an equality lookup on an indexed integer column and maps every matching row
+     */
+    private List<PostTagEntity> findAllByColumn(String columnName, int value) {
+        String sql = "SELECT * FROM post_tags WHERE " + columnName + " = ?";
+        List<PostTagEntity> postTags = new ArrayList<>();
+        
+        try (Connection connection = connectionFactory.createReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            
+            statement.setInt(1, value);
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                RowMapper<PostTagEntity> mapper = EntityMappers.POST_TAG.bind(resultSet);
+                while (resultSet.next()) {
+                    postTags.add(mapper.map(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find post_tags by " + columnName, e);
+        }
+        return postTags;
+    }
+
+    /**
+     * Links a post to several tags with one JDBC batch; links that already exist are skipped
+     * @param connection connection of the surrounding unit of work
+     */
+    public void linkAll(Connection connection, int postId, Collection<Integer> tagIds) throws SQLException {
+        if (tagIds.isEmpty()) {
+            return;
+        }
+
+        String sql = "INSERT INTO post_tags (post_id, tag_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int tagId : tagIds) {
+                statement.setInt(1, postId);
+                statement.setInt(2, tagId);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
     }
 }
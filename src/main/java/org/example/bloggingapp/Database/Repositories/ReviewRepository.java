@@ -3,13 +3,18 @@ package org.example.bloggingapp.Database.Repositories;
 import org.example.bloggingapp.Database.DbInterfaces.ICrudQueries;
 import org.example.bloggingapp.Database.DbInterfaces.IConnection;
 import org.example.bloggingapp.Database.DbInterfaces.Repository;
+import org.example.bloggingapp.Database.DbInterfaces.RowMapper;
 import org.example.bloggingapp.Services.CrudQueries;
 import org.example.bloggingapp.Database.factories.ConnectionFactory;
+import org.example.bloggingapp.Database.Jdbc.BatchLookup;
+import org.example.bloggingapp.Database.Jdbc.CursorStream;
 import org.example.bloggingapp.Models.ReviewEntity;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class ReviewRepository implements Repository<ReviewEntity> {
 
@@ -51,12 +56,12 @@ public class ReviewRepository implements Repository<ReviewEntity> {
     public ReviewEntity findByInteger(int id) {
         String sql = crudQueries.getByIntegerQuery(id, "reviews", "review_id");
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return mapResultSetToReview(resultSet);
+                return EntityMappers.REVIEW.map(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find review by ID", e);
@@ -64,16 +69,21 @@ public class ReviewRepository implements Repository<ReviewEntity> {
         return null;
     }
 
+    @Override
+    public Map<Integer, ReviewEntity> findByIds(int[] ids) {
+        return BatchLookup.findByIds(connectionFactory, "reviews", "review_id", ids, EntityMappers.REVIEW, ReviewEntity::getReviewId);
+    }
+
     @Override
     public ReviewEntity findByString(String identifier) {
         String sql = crudQueries.getStringQuery(identifier, "reviews", "comment");
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return mapResultSetToReview(resultSet);
+                return EntityMappers.REVIEW.map(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find review by comment", e);
@@ -86,12 +96,13 @@ public class ReviewRepository implements Repository<ReviewEntity> {
         String sql = crudQueries.getAllQuery("reviews");
         List<ReviewEntity> reviews = new ArrayList<>();
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql);
              ResultSet resultSet = statement.executeQuery()) {
             
+            RowMapper<ReviewEntity> mapper = EntityMappers.REVIEW.bind(resultSet);
             while (resultSet.next()) {
-                reviews.add(mapResultSetToReview(resultSet));
+                reviews.add(mapper.map(resultSet));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find all reviews", e);
@@ -99,6 +110,12 @@ public class ReviewRepository implements Repository<ReviewEntity> {
         return reviews;
     }
 
+    @Override
+    public Stream<ReviewEntity> streamAll() {
+        String sql = crudQueries.getAllQuery("reviews");
+        return CursorStream.open(connectionFactory, sql, EntityMappers.REVIEW);
+    }
+
     @Override
     public void updateById(int id) {
         String sql = "UPDATE reviews SET rating = ?, comment = ?, user_id = ?, post_id = ? WHERE review_id = ?";
@@ -133,17 +150,57 @@ public class ReviewRepository implements Repository<ReviewEntity> {
         }
     }
 
-    private ReviewEntity mapResultSetToReview(ResultSet resultSet) throws SQLException {
-        ReviewEntity review = new ReviewEntity();
-        review.setReviewId(resultSet.getInt("review_id"));
-        review.setRating(resultSet.getInt("rating"));
-        review.setComment(resultSet.getString("comment"));
-        review.setUserId(resultSet.getInt("user_id"));
-        review.setPostId(resultSet.getInt("post_id"));
-        
-        // Don't set created_at since the column doesn't exist in the database
-        // The entity will use the default timestamp from the constructor
+    /**
+     * Finds all reviews of a post using idx_reviews_post_id
+     */
+    public List<ReviewEntity> findByPostId(int postId) {
+        return findAllByColumn("post_id", postId);
+    }
+
+    /**
+     * Finds the reviews of many posts in one query, grouped by post ID.
+     * Every requested post is present in the result, with an empty list if it has no reviews.
+     */
+    public Map<Integer, List<ReviewEntity>> findByPostIds(int[] postIds) {
+        return BatchLookup.findGroupedByIds(connectionFactory, "reviews", "post_id", postIds,
+                EntityMappers.REVIEW, ReviewEntity::getPostId);
+    }
+
+    /**
+     * Finds all reviews written by a user using idx_reviews_user_id
+     */
+    public List<ReviewEntity> findByUserId(int userId) {
+        return findAllByColumn("user_id", userId);
+    }
+
+    /**
+     * Finds all reviews with the given star rating using idx_reviews_rating
+     */
+    public List<ReviewEntity> findByRating(int rating) {
+        return findAllByColumn("rating", rating);
+    }
+
+    /**
+     * Runs an equality lookup on an indexed integer column and maps every matching row
+     */
+    private List<ReviewEntity> findAllByColumn(String columnName, int value) {
+        String sql = "SELECT * FROM reviews WHERE " + columnName + " = ?";
+        List<ReviewEntity> reviews = new ArrayList<>();
         
-        return review;
+        try (Connection connection = connectionFactory.createReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            
+            statement.setInt(1, value);
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                RowMapper<ReviewEntity> mapper = EntityMappers.REVIEW.bind(resultSet);
+                while (resultSet.next()) {
+                    reviews.add(mapper.map(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find reviews by " + columnName, e);
+        }
+        return reviews;
     }
 }
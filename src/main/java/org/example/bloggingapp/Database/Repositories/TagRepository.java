@@ -3,13 +3,20 @@ package org.example.bloggingapp.Database.Repositories;
 import org.example.bloggingapp.Database.DbInterfaces.ICrudQueries;
 import org.example.bloggingapp.Database.DbInterfaces.IConnection;
 import org.example.bloggingapp.Database.DbInterfaces.Repository;
+import org.example.bloggingapp.Database.DbInterfaces.RowMapper;
 import org.example.bloggingapp.Services.CrudQueries;
 import org.example.bloggingapp.Database.factories.ConnectionFactory;
+import org.example.bloggingapp.Database.Jdbc.BatchLookup;
+import org.example.bloggingapp.Database.Jdbc.CursorStream;
 import org.example.bloggingapp.Models.TagEntity;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class TagRepository implements Repository<TagEntity> {
 
@@ -48,12 +55,12 @@ public class TagRepository implements Repository<TagEntity> {
     public TagEntity findByInteger(int id) {
         String sql = crudQueries.getByIntegerQuery(id, "tags", "tag_id");
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return mapResultSetToTag(resultSet);
+                return EntityMappers.TAG.map(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find tag by ID", e);
@@ -61,16 +68,21 @@ public class TagRepository implements Repository<TagEntity> {
         return null;
     }
 
+    @Override
+    public Map<Integer, TagEntity> findByIds(int[] ids) {
+        return BatchLookup.findByIds(connectionFactory, "tags", "tag_id", ids, EntityMappers.TAG, TagEntity::getTagId);
+    }
+
     @Override
     public TagEntity findByString(String identifier) {
         String sql = crudQueries.getStringQuery(identifier, "tags", "name");
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return mapResultSetToTag(resultSet);
+                return EntityMappers.TAG.map(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find tag by name", e);
@@ -83,12 +95,13 @@ public class TagRepository implements Repository<TagEntity> {
         String sql = crudQueries.getAllQuery("tags");
         List<TagEntity> tags = new ArrayList<>();
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql);
              ResultSet resultSet = statement.executeQuery()) {
             
+            RowMapper<TagEntity> mapper = EntityMappers.TAG.bind(resultSet);
             while (resultSet.next()) {
-                tags.add(mapResultSetToTag(resultSet));
+                tags.add(mapper.map(resultSet));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find all tags", e);
@@ -96,6 +109,12 @@ public class TagRepository implements Repository<TagEntity> {
         return tags;
     }
 
+    @Override
+    public Stream<TagEntity> streamAll() {
+        String sql = crudQueries.getAllQuery("tags");
+        return CursorStream.open(connectionFactory, sql, EntityMappers.TAG);
+    }
+
     @Override
     public void updateById(int id) {
         String sql = crudQueries.updateByIdQuery(id, "tags", "name = ?", "tag_id");
@@ -124,10 +143,60 @@ public class TagRepository implements Repository<TagEntity> {
         }
     }
 
-    private TagEntity mapResultSetToTag(ResultSet resultSet) throws SQLException {
-        TagEntity tag = new TagEntity();
-        tag.setTagId(resultSet.getInt("tag_id"));
-        tag.setName(resultSet.getString("name"));
-        return tag;
+    /**
+     * Ensures a tag exists for every name and returns all of them, using two statements
+     * regardless of how many names are given. New names are inserted with
+     * {@code ON CONFLICT (name) DO NOTHING RETURNING}; names that already existed (or were
+     * inserted concurrently) are not returned by the insert and are read back by name.
+     * @param connection connection of the surrounding unit of work
+     * @param names distinct tag names
+     * @return tags keyed by name, in the order the names were given
+     */
+    public Map<String, TagEntity> upsertByNames(Connection connection, Collection<String> names) throws SQLException {
+        Map<String, TagEntity> tags = new LinkedHashMap<>();
+        if (names.isEmpty()) {
+            return tags;
+        }
+
+        Array nameArray = connection.createArrayOf("varchar", names.toArray());
+        try {
+            String insertSql = "INSERT INTO tags (name) SELECT unnest(?::varchar[]) "
+                    + "ON CONFLICT (name) DO NOTHING RETURNING tag_id, name";
+            try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+                statement.setArray(1, nameArray);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    RowMapper<TagEntity> mapper = EntityMappers.TAG.bind(resultSet);
+                    while (resultSet.next()) {
+                        TagEntity tag = mapper.map(resultSet);
+                        tags.put(tag.getName(), tag);
+                    }
+                }
+            }
+
+            if (tags.size() < names.size()) {
+                String selectSql = "SELECT tag_id, name FROM tags WHERE name = ANY(?)";
+                try (PreparedStatement statement = connection.prepareStatement(selectSql)) {
+                    statement.setArray(1, nameArray);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        RowMapper<TagEntity> mapper = EntityMappers.TAG.bind(resultSet);
+                        while (resultSet.next()) {
+                            TagEntity tag = mapper.map(resultSet);
+                            tags.putIfAbsent(tag.getName(), tag);
+                        }
+                    }
+                }
+            }
+        } finally {
+            nameArray.free();
+        }
+
+        Map<String, TagEntity> ordered = new LinkedHashMap<>();
+        for (String name : names) {
+            TagEntity tag = tags.get(name);
+            if (tag != null) {
+                ordered.put(name, tag);
+            }
+        }
+        return ordered;
     }
 }
@@ -3,13 +3,18 @@ package org.example.bloggingapp.Database.Repositories;
 import org.example.bloggingapp.Database.DbInterfaces.ICrudQueries;
 import org.example.bloggingapp.Database.DbInterfaces.IConnection;
 import org.example.bloggingapp.Database.DbInterfaces.Repository;
+import org.example.bloggingapp.Database.DbInterfaces.RowMapper;
 import org.example.bloggingapp.Services.CrudQueries;
 import org.example.bloggingapp.Database.factories.ConnectionFactory;
+import org.example.bloggingapp.Database.Jdbc.BatchLookup;
+import org.example.bloggingapp.Database.Jdbc.CursorStream;
 import org.example.bloggingapp.Models.UserEntity;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class UserRepository implements Repository<UserEntity> {
 
@@ -52,12 +57,12 @@ public class UserRepository implements Repository<UserEntity> {
     public UserEntity findByInteger(int id) {
         String sql = crudQueries.getByIntegerQuery(id, "users", "user_id");
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return mapResultSetToUser(resultSet);
+                return EntityMappers.USER.map(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find user by ID", e);
@@ -65,16 +70,21 @@ public class UserRepository implements Repository<UserEntity> {
         return null;
     }
 
+    @Override
+    public Map<Integer, UserEntity> findByIds(int[] ids) {
+        return BatchLookup.findByIds(connectionFactory, "users", "user_id", ids, EntityMappers.USER, UserEntity::getUserId);
+    }
+
     @Override
     public UserEntity findByString(String identifier) {
         String sql = crudQueries.getStringQuery(identifier, "users", "email");
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return mapResultSetToUser(resultSet);
+                return EntityMappers.USER.map(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find user by email", e);
@@ -88,12 +98,13 @@ public class UserRepository implements Repository<UserEntity> {
 //        System.out.println(sql);
         List<UserEntity> users = new ArrayList<>();
         
-        try (Connection connection = connectionFactory.createConnection();
+        try (Connection connection = connectionFactory.createReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql);
              ResultSet resultSet = statement.executeQuery()) {
             
+            RowMapper<UserEntity> mapper = EntityMappers.USER.bind(resultSet);
             while (resultSet.next()) {
-                users.add(mapResultSetToUser(resultSet));
+                users.add(mapper.map(resultSet));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find all users", e);
@@ -101,6 +112,12 @@ public class UserRepository implements Repository<UserEntity> {
         return users;
     }
 
+    @Override
+    public Stream<UserEntity> streamAll() {
+        String sql = crudQueries.getAllQuery("users");
+        return CursorStream.open(connectionFactory, sql, EntityMappers.USER);
+    }
+
     @Override
     public void updateById(int id) {
         String sql = crudQueries.updateByIdQuery(id, "users", "user_name = ?, email = ?, password = ?, role = ?", "user_id");
@@ -132,14 +149,36 @@ public class UserRepository implements Repository<UserEntity> {
         }
     }
 
-    private UserEntity mapResultSetToUser(ResultSet resultSet) throws SQLException {
-        UserEntity user = new UserEntity();
-        user.setUserId(resultSet.getInt("user_id"));
-        user.setUserName(resultSet.getString("user_name"));
-        user.setEmail(resultSet.getString("email"));
-        user.setPassword(resultSet.getString("password"));
-        user.setRole(resultSet.getString("role"));
-        user.setCreatedAt(resultSet.getTimestamp("created_at").toLocalDateTime());
-        return user;
+    /**
+     * Finds a user by email, ignoring case, using idx_users_email_lower
+     */
+    public UserEntity findByEmail(String email) {
+        return findOneByLowerColumn("email", email);
+    }
+
+    /**
+     * Finds a user by username, ignoring case, using idx_users_user_name_lower
+     */
+    public UserEntity findByUsername(String username) {
+        return findOneByLowerColumn("user_name", username);
+    }
+
+    private UserEntity findOneByLowerColumn(String columnName, String value) {
+        String sql = "SELECT * FROM users WHERE LOWER(" + columnName + ") = LOWER(?) LIMIT 1";
+        
+        try (Connection connection = connectionFactory.createReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            
+            statement.setString(1, value);
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return EntityMappers.USER.map(resultSet);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find user by " + columnName, e);
+        }
+        return null;
     }
 }
@@ -0,0 +1,171 @@
+package org.example.bloggingapp.Database.Routing;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One PostgreSQL server (or database) that connections can be opened against.
+ *
+ * Tracks how many of its connections are currently open, which the least-loaded strategy
+ * uses, and whether it is healthy. Health is lost as soon as opening a connection fails and
+ * is re-evaluated by {@link #checkHealth(double)}, which also rejects replicas that lag too far
+ * behind the primary.
+ */
+public class DatabaseEndpoint {
+
+    /**
+     * Opens physical connections; replaced in tests
+     */
+    @FunctionalInterface
+    public interface ConnectionOpener {
+        Connection open(String url, Properties properties) throws SQLException;
+    }
+
+    // Seconds of replay lag; 0 on a primary, or when the replica has replayed everything it received
+    private static final String REPLICATION_LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "            WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "            ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private static final int CONNECT_TIMEOUT_SECONDS = 2;
+
+    private final String name;
+    private final String url;
+    private final Properties properties;
+    private final ConnectionOpener opener;
+
+    private final AtomicBoolean healthy = new AtomicBoolean(true);
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile double replicationLagSeconds;
+    private volatile String lastError;
+
+    public DatabaseEndpoint(String name, String url, String username, String password) {
+        this(name, url, username, password, DriverManager::getConnection);
+    }
+
+    public DatabaseEndpoint(String name, String url, String username, String password, ConnectionOpener opener) {
+        this.name = name;
+        this.url = url;
+        this.opener = opener;
+        this.properties = new Properties();
+        properties.setProperty("user", username);
+        properties.setProperty("password", password);
+        // Fail fast on a dead server so reads can move to another endpoint
+        properties.setProperty("connectTimeout", String.valueOf(CONNECT_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Opens a connection and counts it as active until it is closed
+     * @throws SQLException if the server cannot be reached; the endpoint is then marked unhealthy
+     */
+    public Connection open() throws SQLException {
+        Connection connection;
+        try {
+            connection = opener.open(url, properties);
+        } catch (SQLException e) {
+            markUnhealthy(e.getMessage());
+            throw e;
+        }
+        connectionsOpened.incrementAndGet();
+        activeConnections.incrementAndGet();
+        return track(connection);
+    }
+
+    /**
+     * Probes the endpoint with a fresh connection. It is healthy if it answers and its
+     * replication lag is at most maxLagSeconds.
+     * @return the new health state
+     */
+    public boolean checkHealth(double maxLagSeconds) {
+        try (Connection connection = opener.open(url, properties);
+             PreparedStatement statement = connection.prepareStatement(REPLICATION_LAG_QUERY);
+             ResultSet resultSet = statement.executeQuery()) {
+            double lag = resultSet.next() ? resultSet.getDouble(1) : 0;
+            replicationLagSeconds = lag;
+            if (lag > maxLagSeconds) {
+                markUnhealthy(String.format("replication lag %.1fs exceeds %.1fs", lag, maxLagSeconds));
+            } else {
+                markHealthy();
+            }
+        } catch (SQLException e) {
+            markUnhealthy(e.getMessage());
+        }
+        return healthy.get();
+    }
+
+    public void markHealthy() {
+        if (healthy.compareAndSet(false, true)) {
+            System.out.println("✅ Database endpoint " + name + " is healthy again");
+        }
+        lastError = null;
+    }
+
+    public void markUnhealthy(String reason) {
+        failures.incrementAndGet();
+        lastError = reason;
+        if (healthy.compareAndSet(true, false)) {
+            System.err.println("❌ Database endpoint " + name + " marked unhealthy: " + reason);
+        }
+    }
+
+    private Connection track(Connection connection) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(DatabaseEndpoint.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                        activeConnections.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public boolean isHealthy() {
+        return healthy.get();
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    public double getReplicationLagSeconds() {
+        return replicationLagSeconds;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s, healthy=%s, active=%d, opened=%d, failures=%d, lag=%.1fs]",
+                name, url, healthy.get(), activeConnections.get(), connectionsOpened.get(), failures.get(),
+                replicationLagSeconds);
+    }
+}
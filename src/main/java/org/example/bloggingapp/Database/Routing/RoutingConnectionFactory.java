@@ -0,0 +1,226 @@
+package org.example.bloggingapp.Database.Routing;
+
+import org.example.bloggingapp.Database.DbInterfaces.IConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sends writes to the primary and spreads reads over healthy replicas.
+ *
+ * {@link #createConnection()} always returns a primary connection; repositories ask for
+ * {@link #createReadConnection()} in methods that only read. Background work that writes or
+ * listens, such as view flushes and the change feed, uses {@link #createBackgroundConnection()},
+ * which also goes to the primary but is not a write of this session. A read goes to the primary when:
+ * <ul>
+ *   <li>a write connection was taken within the stickiness window, so this session reads its
+ *       own writes even if replicas have not replayed them yet;</li>
+ *   <li>the caller is inside {@link #onPrimary(Supplier)}, e.g. reloading rows named by a
+ *       change notification that replicas may not have yet;</li>
+ *   <li>no replica is healthy or every replica refuses the connection.</li>
+ * </ul>
+ * The desktop app runs one user session per process, so stickiness is tracked per factory.
+ * Keep the stickiness window at least as long as the replication lag the health check accepts.
+ */
+public class RoutingConnectionFactory implements IConnection {
+
+    /**
+     * How a replica is chosen among the healthy ones
+     */
+    public enum Strategy { ROUND_ROBIN, LEAST_LOADED }
+
+    public static final long DEFAULT_STICKINESS_MILLIS = 5000;
+    public static final double DEFAULT_MAX_LAG_SECONDS = 5.0;
+
+    private static final ThreadLocal<Integer> PRIMARY_SCOPE = ThreadLocal.withInitial(() -> 0);
+
+    private final DatabaseEndpoint primary;
+    private final List<DatabaseEndpoint> replicas;
+    private final Strategy strategy;
+    private final long stickinessNanos;
+    private final double maxLagSeconds;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    // Starts far enough in the past that a fresh factory is not sticky
+    private final AtomicLong lastWriteNanos;
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong stickyReads = new AtomicLong();
+    private final AtomicLong scopedReads = new AtomicLong();
+    private final AtomicLong fallbackReads = new AtomicLong();
+
+    private ScheduledExecutorService healthChecker;
+
+    public RoutingConnectionFactory(DatabaseEndpoint primary, List<DatabaseEndpoint> replicas) {
+        this(primary, replicas, Strategy.LEAST_LOADED, DEFAULT_STICKINESS_MILLIS, DEFAULT_MAX_LAG_SECONDS);
+    }
+
+    public RoutingConnectionFactory(DatabaseEndpoint primary, List<DatabaseEndpoint> replicas, Strategy strategy,
+                                    long stickinessMillis, double maxLagSeconds) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.strategy = strategy;
+        this.stickinessNanos = TimeUnit.MILLISECONDS.toNanos(stickinessMillis);
+        this.maxLagSeconds = maxLagSeconds;
+        this.lastWriteNanos = new AtomicLong(System.nanoTime() - stickinessNanos - 1);
+    }
+
+    // ====== CONNECTIONS ======
+
+    /**
+     * Returns a primary connection and starts the read-your-writes window
+     */
+    @Override
+    public Connection createConnection() {
+        lastWriteNanos.set(System.nanoTime());
+        return openPrimary();
+    }
+
+    /**
+     * Returns a primary connection without starting the read-your-writes window
+     */
+    @Override
+    public Connection createBackgroundConnection() {
+        return openPrimary();
+    }
+
+    /**
+     * Returns a connection for read-only work, from a replica when that is safe
+     */
+    @Override
+    public Connection createReadConnection() {
+        if (PRIMARY_SCOPE.get() > 0) {
+            scopedReads.incrementAndGet();
+            return openPrimary();
+        }
+        if (isSticky()) {
+            stickyReads.incrementAndGet();
+            return openPrimary();
+        }
+
+        for (DatabaseEndpoint replica : replicaCandidates()) {
+            try {
+                Connection connection = replica.open();
+                replicaReads.incrementAndGet();
+                return connection;
+            } catch (SQLException e) {
+                // open() marked it unhealthy; try the next one
+            }
+        }
+
+        fallbackReads.incrementAndGet();
+        return openPrimary();
+    }
+
+    /**
+     * Runs an action whose reads on this thread must see the primary's latest state
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        PRIMARY_SCOPE.set(PRIMARY_SCOPE.get() + 1);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_SCOPE.set(PRIMARY_SCOPE.get() - 1);
+        }
+    }
+
+    private Connection openPrimary() {
+        try {
+            return primary.open();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create database connection", e);
+        }
+    }
+
+    private boolean isSticky() {
+        return System.nanoTime() - lastWriteNanos.get() <= stickinessNanos;
+    }
+
+    /**
+     * Returns the healthy replicas in the order they should be tried
+     */
+    List<DatabaseEndpoint> replicaCandidates() {
+        List<DatabaseEndpoint> healthy = new ArrayList<>(replicas.size());
+        for (DatabaseEndpoint replica : replicas) {
+            if (replica.isHealthy()) {
+                healthy.add(replica);
+            }
+        }
+        if (healthy.size() <= 1) {
+            return healthy;
+        }
+
+        // Rotate so equally loaded replicas take turns
+        int start = Math.floorMod(nextReplica.getAndIncrement(), healthy.size());
+        List<DatabaseEndpoint> ordered = new ArrayList<>(healthy.size());
+        for (int i = 0; i < healthy.size(); i++) {
+            ordered.add(healthy.get((start + i) % healthy.size()));
+        }
+        if (strategy == Strategy.LEAST_LOADED) {
+            ordered.sort(Comparator.comparingInt(DatabaseEndpoint::getActiveConnections));
+        }
+        return ordered;
+    }
+
+    // ====== HEALTH CHECKS ======
+
+    /**
+     * Probes every replica periodically, restoring the ones that recovered; does nothing if already running
+     */
+    public synchronized void startHealthChecks(long intervalMillis) {
+        if (healthChecker != null || replicas.isEmpty()) {
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ReplicaHealthCheck");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopHealthChecks() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+            healthChecker = null;
+        }
+    }
+
+    /**
+     * Probes all replicas once
+     */
+    public void checkReplicas() {
+        for (DatabaseEndpoint replica : replicas) {
+            replica.checkHealth(maxLagSeconds);
+        }
+    }
+
+    // ====== MONITORING ======
+
+    public DatabaseEndpoint getPrimary() {
+        return primary;
+    }
+
+    public List<DatabaseEndpoint> getReplicas() {
+        return replicas;
+    }
+
+    public String getStats() {
+        StringBuilder report = new StringBuilder(String.format(
+                "Connection routing (%s): replicaReads=%d, stickyReads=%d, scopedReads=%d, fallbackReads=%d",
+                strategy, replicaReads.get(), stickyReads.get(), scopedReads.get(), fallbackReads.get()));
+        report.append("\n  primary ").append(primary);
+        for (DatabaseEndpoint replica : replicas) {
+            report.append("\n  replica ").append(replica);
+        }
+        return report.toString();
+    }
+}
@@ -1,27 +1,100 @@
 package org.example.bloggingapp.Database.factories;
 
 import org.example.bloggingapp.Database.DbInterfaces.IConnection;
+import org.example.bloggingapp.Database.Jdbc.InstrumentedConnection;
+import org.example.bloggingapp.Database.Jdbc.QueryMetrics;
+import org.example.bloggingapp.Database.Routing.DatabaseEndpoint;
+import org.example.bloggingapp.Database.Routing.RoutingConnectionFactory;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 
+/**
+ * Opens connections through the process-wide {@link RoutingConnectionFactory}.
+ *
+ * Without configuration every connection goes to localhost:5432/blogging_db as before. Read
+ * replicas are enabled with system properties, e.g. a second database on the same server as a
+ * stand-in: {@code -Dblogging.db.replicas=jdbc:postgresql://localhost:5432/blogging_db_replica}.
+ * Other properties: blogging.db.url, blogging.db.user, blogging.db.password and
+ * blogging.db.routing (LEAST_LOADED or ROUND_ROBIN).
+ */
 public class ConnectionFactory implements IConnection {
 
+    private static final long HEALTH_CHECK_INTERVAL_MILLIS = 5000;
+
+    private static volatile RoutingConnectionFactory router;
 
     public Connection createConnection() {
-        try {
-            String url = "jdbc:postgresql://localhost:5432/blogging_db";
-            String username = "postgres";
-            String password = "postgres";
-            Connection connection =
-                    DriverManager.getConnection(url, username, password);
-
-            System.out.println("Connected to the database successfully.");
-            return connection;
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to create database connection", e);
+        return acquire(() -> getRouter().createConnection());
+    }
+
+    @Override
+    public Connection createReadConnection() {
+        return acquire(() -> getRouter().createReadConnection());
+    }
+
+    @Override
+    public Connection createBackgroundConnection() {
+        return acquire(() -> getRouter().createBackgroundConnection());
+    }
+
+    private Connection acquire(Supplier<Connection> source) {
+        long start = System.nanoTime();
+        Connection connection = source.get();
+
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        metrics.recordConnectionAcquire(System.nanoTime() - start);
+
+        System.out.println("Connected to the database successfully.");
+        return metrics.isEnabled() ? InstrumentedConnection.wrap(connection, metrics) : connection;
+    }
+
+    /**
+     * Returns the shared router, building it from system properties on first use
+     */
+    public static RoutingConnectionFactory getRouter() {
+        RoutingConnectionFactory current = router;
+        if (current == null) {
+            synchronized (ConnectionFactory.class) {
+                current = router;
+                if (current == null) {
+                    current = createRouterFromConfig();
+                    current.startHealthChecks(HEALTH_CHECK_INTERVAL_MILLIS);
+                    router = current;
+                }
+            }
         }
+        return current;
+    }
+
+    /**
+     * Replaces the shared router, e.g. to point the app at other servers
+     */
+    public static synchronized void setRouter(RoutingConnectionFactory newRouter) {
+        if (router != null) {
+            router.stopHealthChecks();
+        }
+        router = newRouter;
+    }
+
+    private static RoutingConnectionFactory createRouterFromConfig() {
+        String username = System.getProperty("blogging.db.user", "postgres");
+        String password = System.getProperty("blogging.db.password", "postgres");
+        DatabaseEndpoint primary = new DatabaseEndpoint("primary",
+                System.getProperty("blogging.db.url", "jdbc:postgresql://localhost:5432/blogging_db"), username, password);
+
+        List<DatabaseEndpoint> replicas = new ArrayList<>();
+        for (String url : System.getProperty("blogging.db.replicas", "").split(",")) {
+            if (!url.isBlank()) {
+                replicas.add(new DatabaseEndpoint("replica-" + (replicas.size() + 1), url.trim(), username, password));
+            }
+        }
+
+        RoutingConnectionFactory.Strategy strategy = RoutingConnectionFactory.Strategy.valueOf(
+                System.getProperty("blogging.db.routing", RoutingConnectionFactory.Strategy.LEAST_LOADED.name()));
+        return new RoutingConnectionFactory(primary, replicas, strategy,
+                RoutingConnectionFactory.DEFAULT_STICKINESS_MILLIS, RoutingConnectionFactory.DEFAULT_MAX_LAG_SECONDS);
     }
 }
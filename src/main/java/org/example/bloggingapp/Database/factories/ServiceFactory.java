@@ -1,17 +1,35 @@
 package org.example.bloggingapp.Database.factories;
 
+import org.example.bloggingapp.Database.ChangeFeed.ChangeFeed;
+import org.example.bloggingapp.Database.Repositories.ChangeLogRepository;
 import org.example.bloggingapp.Database.Repositories.CommentRepository;
+import org.example.bloggingapp.Database.Repositories.FeedRepository;
 import org.example.bloggingapp.Database.Repositories.PostRepository;
+import org.example.bloggingapp.Database.Repositories.PostStatsRepository;
 import org.example.bloggingapp.Database.Repositories.ReviewRepository;
 import org.example.bloggingapp.Database.Repositories.UserRepository;
 import org.example.bloggingapp.Database.Repositories.TagRepository;
 import org.example.bloggingapp.Database.Repositories.PostTagRepository;
+import org.example.bloggingapp.Services.AdvancedSearchService;
 import org.example.bloggingapp.Services.CommentService;
+import org.example.bloggingapp.Services.DatabaseSearchService;
+import org.example.bloggingapp.Services.FeedService;
 import org.example.bloggingapp.Services.PostService;
+import org.example.bloggingapp.Services.PostChangeHandler;
+import org.example.bloggingapp.Services.PostPublishingService;
+import org.example.bloggingapp.Services.PostStatsService;
 import org.example.bloggingapp.Services.ReviewService;
+import org.example.bloggingapp.Services.RenderLoaders;
+import org.example.bloggingapp.Services.PostSearchService;
+import org.example.bloggingapp.Services.SearchRouter;
+import org.example.bloggingapp.Services.ServiceExecutor;
 import org.example.bloggingapp.Services.UserService;
+import org.example.bloggingapp.Services.ViewCounterService;
 import org.example.bloggingapp.Services.TagService;
 import org.example.bloggingapp.Services.PostTagService;
+import org.example.bloggingapp.Search.SegmentStore;
+
+import java.nio.file.Path;
 
 /**
  * 🏭 Service Factory - Manages service instances following clean architecture
@@ -23,6 +41,12 @@ public class ServiceFactory {
     
     private static ServiceFactory instance;
     
+    private static final Path VIEW_LOG_FILE = Path.of("logs", "pending-views.log");
+    // Incremental search index writes are folded into the base posting lists this often
+    private static final long SEARCH_COMPACTION_INTERVAL_MS = 30_000;
+    // Persisted search index segments, so a restart loads the index instead of rebuilding it
+    private static final Path SEARCH_SEGMENT_DIR = Path.of("data", "search-index");
+    
     // Service instances
     private PostService postService;
     private CommentService commentService;
@@ -30,9 +54,31 @@ public class ServiceFactory {
     private ReviewService reviewService;
     private TagService tagService;
     private PostTagService postTagService;
+    private FeedService feedService;
+    private PostPublishingService postPublishingService;
+    private PostStatsService postStatsService;
+    private ViewCounterService viewCounterService;
+    private AdvancedSearchService searchIndex;
+    private SearchRouter searchRouter;
+    private PostSearchService postSearchService;
+    private ServiceExecutor serviceExecutor;
+    private PostChangeHandler postChangeHandler;
+    private ChangeFeed changeFeed;
     
     private ServiceFactory() {
         initializeServices();
+        // Views recorded since the last flush are written on a normal exit
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (viewCounterService != null) {
+                viewCounterService.close();
+            }
+        }, "ViewCounter-Shutdown"));
+        // As are search index writes since the last segment
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (searchIndex != null) {
+                searchIndex.persistIndex();
+            }
+        }, "SearchIndex-Shutdown"));
     }
     
     /**
@@ -58,6 +104,12 @@ public class ServiceFactory {
             TagRepository tagRepository = new TagRepository();
             PostTagRepository postTagRepository = new PostTagRepository();
             
+            // Blocking service calls from the UI run here, off the FX thread
+            if (serviceExecutor != null) {
+                serviceExecutor.close();
+            }
+            this.serviceExecutor = new ServiceExecutor();
+            
             // Initialize services with repositories
             this.postService = new PostService(postRepository);
             this.commentService = new CommentService(commentRepository);
@@ -65,6 +117,29 @@ public class ServiceFactory {
             this.reviewService = new ReviewService(reviewRepository);
             this.tagService = new TagService(tagRepository);
             this.postTagService = new PostTagService(postTagRepository);
+            this.feedService = new FeedService(new FeedRepository());
+            this.postPublishingService = new PostPublishingService(postRepository, tagRepository, postTagRepository, postService);
+            this.postStatsService = new PostStatsService(new PostStatsRepository());
+            startViewCounter(postRepository);
+            
+            // Keep caches and indexes current with changes made outside this instance
+            startChangeFeed(postRepository);
+            
+            // Search goes to the in-memory index or to PostgreSQL full-text search
+            if (searchIndex != null) {
+                searchIndex.stopBackgroundCompaction();
+            }
+            this.searchIndex = new AdvancedSearchService(postService);
+            searchIndex.enablePersistence(new SegmentStore(SEARCH_SEGMENT_DIR), new ChangeLogRepository(),
+                    postRepository, changeFeed::getHighWaterMark);
+            postService.registerSearchIndex(searchIndex);
+            postChangeHandler.registerSearchIndex(searchIndex);
+            searchIndex.startBackgroundCompaction(SEARCH_COMPACTION_INTERVAL_MS);
+            this.searchRouter = new SearchRouter(searchIndex, new DatabaseSearchService(postRepository),
+                    this::currentPostCount, changeFeed::isConnected);
+            // Keyword, author and tag searches, with structured queries evaluated by the index
+            this.postSearchService = new PostSearchService(postService, searchIndex);
+            changeFeed.addListener("posts", events -> postSearchService.invalidateCache());
             
             System.out.println("✅ All services initialized successfully");
         } catch (Exception e) {
@@ -73,6 +148,41 @@ public class ServiceFactory {
         }
     }
     
+    private int currentPostCount() {
+        try {
+            return postStatsService.getTotalPosts();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+    
+    private void startViewCounter(PostRepository postRepository) {
+        if (viewCounterService != null) {
+            viewCounterService.close();
+        }
+        
+        this.viewCounterService = new ViewCounterService(postRepository::addViews, VIEW_LOG_FILE);
+        viewCounterService.setFlushListener(postService::refreshViews);
+        viewCounterService.start();
+    }
+    
+    private void startChangeFeed(PostRepository postRepository) {
+        if (changeFeed != null) {
+            changeFeed.stop();
+        }
+        
+        this.postChangeHandler = new PostChangeHandler(postRepository, postService, feedService);
+        this.changeFeed = new ChangeFeed(new ConnectionFactory());
+        changeFeed.addListener("posts", postChangeHandler);
+        // Feed rows embed comment and review aggregates
+        changeFeed.addListener("comments", events -> feedService.invalidate());
+        changeFeed.addListener("reviews", events -> feedService.invalidate());
+        changeFeed.addListener("posts", postStatsService::onChanges);
+        changeFeed.addListener("comments", postStatsService::onChanges);
+        changeFeed.addListener("reviews", postStatsService::onChanges);
+        changeFeed.start();
+    }
+    
     // ==================== SERVICE GETTERS ====================
     
     public PostService getPostService() {
@@ -99,6 +209,62 @@ public class ServiceFactory {
         return postTagService;
     }
     
+    public FeedService getFeedService() {
+        return feedService;
+    }
+    
+    public PostPublishingService getPostPublishingService() {
+        return postPublishingService;
+    }
+    
+    public PostStatsService getPostStatsService() {
+        return postStatsService;
+    }
+    
+    public ViewCounterService getViewCounterService() {
+        return viewCounterService;
+    }
+    
+    /**
+     * Returns the executor that runs blocking service calls on virtual threads
+     */
+    public ServiceExecutor getServiceExecutor() {
+        return serviceExecutor;
+    }
+    
+    /**
+     * Returns the router that sends each search to the in-memory index or to the database
+     */
+    public SearchRouter getSearchRouter() {
+        return searchRouter;
+    }
+    
+    /**
+     * Returns the keyword, author and tag search service; its searchAll evaluates boolean,
+     * phrase and field queries over the search index
+     */
+    public PostSearchService getPostSearchService() {
+        return postSearchService;
+    }
+    
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+    
+    /**
+     * Returns the handler search indexes register with to receive incremental post updates
+     */
+    public PostChangeHandler getPostChangeHandler() {
+        return postChangeHandler;
+    }
+    
+    /**
+     * Creates a fresh set of batch loaders for one render pass
+     */
+    public RenderLoaders newRenderLoaders() {
+        return new RenderLoaders(commentService, reviewService, userService, postStatsService);
+    }
+    
     // ==================== UTILITY METHODS ====================
     
     /**
@@ -117,6 +283,12 @@ public class ServiceFactory {
                userService != null && 
                reviewService != null &&
                tagService != null &&
-               postTagService != null;
+               postTagService != null &&
+               feedService != null &&
+               postPublishingService != null &&
+               postStatsService != null &&
+               viewCounterService != null &&
+               searchRouter != null &&
+               serviceExecutor != null;
     }
 }
@@ -386,7 +386,7 @@ public class DataStructuresAlgorithmsDemo {
                 options.setSearchType(searchType);
             }
             
-            System.out.print("Sort by (title/views/created/author) [default: created]: ");
+            System.out.print("Sort by (title/views/created/author/relevance) [default: created]: ");
             String sortBy = scanner.nextLine();
             if (!sortBy.trim().isEmpty()) {
                 options.setSortBy(sortBy);
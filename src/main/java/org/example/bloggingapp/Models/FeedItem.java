@@ -0,0 +1,92 @@
+package org.example.bloggingapp.Models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a post as shown in the main feed.
+ * Carries the author name and the comment/review aggregates so a feed page
+ * can be rendered from a single query.
+ */
+public class FeedItem {
+
+    private final int postId;
+    private final String title;
+    private final String content;
+    private final LocalDateTime createdAt;
+    private final int userId;
+    private final int views;
+    private final String status;
+    private final String authorName;
+    private final int commentCount;
+    private final int reviewCount;
+    private final double averageRating;
+
+    public FeedItem(int postId, String title, String content, LocalDateTime createdAt, int userId, int views,
+                    String status, String authorName, int commentCount, int reviewCount, double averageRating) {
+        this.postId = postId;
+        this.title = title;
+        this.content = content;
+        this.createdAt = createdAt;
+        this.userId = userId;
+        this.views = views;
+        this.status = status;
+        this.authorName = authorName;
+        this.commentCount = commentCount;
+        this.reviewCount = reviewCount;
+        this.averageRating = averageRating;
+    }
+
+    public int getPostId() {
+        return postId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getViews() {
+        return views;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getAuthorName() {
+        return authorName;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    /**
+     * @return the mean rating, or 0 when the post has no reviews
+     */
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    /**
+     * Converts the projection back to a PostEntity for code that works with entities
+     */
+    public PostEntity toPostEntity() {
+        return new PostEntity(postId, title, content, createdAt, userId, status, views, authorName);
+    }
+}
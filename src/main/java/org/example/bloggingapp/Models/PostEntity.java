@@ -12,6 +12,7 @@ public class PostEntity {
     private String status;
     private int views;
     private String authorName;
+    private int version; // 0 when the row was loaded without a version column
 
     public PostEntity() {
         // Initialize default values
@@ -105,4 +106,12 @@ public class PostEntity {
     public void setAuthorName(String authorName) {
         this.authorName = authorName;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
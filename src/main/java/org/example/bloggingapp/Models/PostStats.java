@@ -0,0 +1,66 @@
+package org.example.bloggingapp.Models;
+
+/**
+ * Aggregate counters for one post, read from the trigger-maintained post_stats table
+ */
+public class PostStats {
+
+    private final int postId;
+    private final int commentCount;
+    private final int reviewCount;
+    private final int ratingSum;
+    private final int views;
+
+    public PostStats(int postId, int commentCount, int reviewCount, int ratingSum, int views) {
+        this.postId = postId;
+        this.commentCount = commentCount;
+        this.reviewCount = reviewCount;
+        this.ratingSum = ratingSum;
+        this.views = views;
+    }
+
+    /**
+     * Returns zeroed stats for a post that has no row yet
+     */
+    public static PostStats empty(int postId) {
+        return new PostStats(postId, 0, 0, 0, 0);
+    }
+
+    public int getPostId() {
+        return postId;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    public int getRatingSum() {
+        return ratingSum;
+    }
+
+    public int getViews() {
+        return views;
+    }
+
+    /**
+     * Returns the mean rating, or 0 when the post has no reviews
+     */
+    public double getAverageRating() {
+        return reviewCount == 0 ? 0 : (double) ratingSum / reviewCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PostStats{" +
+                "postId=" + postId +
+                ", commentCount=" + commentCount +
+                ", reviewCount=" + reviewCount +
+                ", ratingSum=" + ratingSum +
+                ", views=" + views +
+                '}';
+    }
+}
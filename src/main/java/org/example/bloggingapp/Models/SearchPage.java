@@ -0,0 +1,33 @@
+package org.example.bloggingapp.Models;
+
+import java.util.List;
+
+/**
+ * One page of ranked search matches together with the total number of matches
+ */
+public class SearchPage {
+
+    private final List<PostEntity> posts;
+    private final int totalMatches;
+
+    /**
+     * @param posts the posts on this page, best match first
+     * @param totalMatches number of matches across all pages, or -1 if unknown
+     */
+    public SearchPage(List<PostEntity> posts, int totalMatches) {
+        this.posts = posts;
+        this.totalMatches = totalMatches;
+    }
+
+    public List<PostEntity> getPosts() {
+        return posts;
+    }
+
+    public int getTotalMatches() {
+        return totalMatches;
+    }
+
+    public boolean isTotalKnown() {
+        return totalMatches >= 0;
+    }
+}
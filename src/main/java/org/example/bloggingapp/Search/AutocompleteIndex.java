@@ -0,0 +1,432 @@
+package org.example.bloggingapp.Search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prefix completion over post titles, tag names and author names, best-weighted first.
+ *
+ * The completions form a radix trie: a node exists only where keys branch, and each edge holds
+ * the run of characters between two such points, so the trie has fewer than two nodes per
+ * completion however long the titles are. Every node caches the best {@value #CACHED_PER_NODE}
+ * completions below it, so a lookup walks the prefix and returns the cached list without
+ * visiting the subtree.
+ *
+ * The trie is persistent: an update copies the nodes on the path to the changed key, recomputing
+ * their caches, and publishes the new root in one write. Lookups are lock-free and always see a
+ * complete trie; updates are serialized on the instance. A full rebuild goes through
+ * {@link Builder}, which sorts the completions once and builds the trie bottom-up.
+ */
+public final class AutocompleteIndex {
+
+    public static final int CACHED_PER_NODE = 10;
+
+    public enum Kind { TITLE, TAG, AUTHOR }
+
+    private static final Node EMPTY_ROOT = new Node("", null, new char[0], new Node[0]);
+
+    private volatile Node root;
+    // Number of posts and summed weight behind each completion; guarded by this
+    private final Map<String, Suggestion> contributions;
+
+    public AutocompleteIndex() {
+        this(EMPTY_ROOT, new HashMap<>());
+    }
+
+    private AutocompleteIndex(Node root, Map<String, Suggestion> contributions) {
+        this.root = root;
+        this.contributions = contributions;
+    }
+
+    /**
+     * Returns up to limit completions whose text starts with the prefix, ignoring case
+     */
+    public List<Suggestion> complete(String prefix, int limit) {
+        if (prefix == null || limit <= 0) {
+            return List.of();
+        }
+        Node node = find(root, prefix.toLowerCase(Locale.ROOT));
+        if (node == null) {
+            return List.of();
+        }
+        Suggestion[] top = node.top();
+        if (limit <= top.length || node.children.length == 0) {
+            return Collections.unmodifiableList(Arrays.asList(top).subList(0, Math.min(limit, top.length)));
+        }
+        // More than the cache holds: collect the whole subtree
+        List<Suggestion> all = new ArrayList<>();
+        collect(node, all);
+        all.sort(Suggestion::compareByRank);
+        return Collections.unmodifiableList(all.subList(0, Math.min(limit, all.size())));
+    }
+
+    private static Node find(Node node, String prefix) {
+        int offset = 0;
+        while (offset < prefix.length()) {
+            Node child = node.child(prefix.charAt(offset));
+            if (child == null) {
+                return null;
+            }
+            String label = child.label;
+            int common = commonPrefix(label, prefix, offset);
+            if (offset + common == prefix.length()) {
+                // The prefix ends inside or at the end of this edge
+                return child;
+            }
+            if (common < label.length()) {
+                return null;
+            }
+            offset += common;
+            node = child;
+        }
+        return node;
+    }
+
+    private static void collect(Node node, List<Suggestion> out) {
+        if (node.value != null) {
+            out.add(node.value);
+        }
+        for (Node child : node.children) {
+            collect(child, out);
+        }
+    }
+
+    /**
+     * Counts one more post behind a completion and adds its weight, e.g. a post's views for its
+     * title or one per post for a tag
+     */
+    public synchronized void add(Kind kind, String text, long weight) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String key = keyOf(kind, text);
+        root = put(root, key, 0, accumulate(contributions, key, kind, text, weight));
+    }
+
+    private static Suggestion accumulate(Map<String, Suggestion> contributions, String key, Kind kind,
+                                         String text, long weight) {
+        Suggestion current = contributions.get(key);
+        Suggestion updated = current == null
+                ? new Suggestion(text, kind, weight, 1)
+                : new Suggestion(current.text, kind, current.weight + weight, current.posts + 1);
+        contributions.put(key, updated);
+        return updated;
+    }
+
+    /**
+     * Undoes one {@link #add}; the completion disappears with its last post
+     */
+    public synchronized void remove(Kind kind, String text, long weight) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String key = keyOf(kind, text);
+        Suggestion current = contributions.get(key);
+        if (current == null) {
+            return;
+        }
+        Suggestion updated = current.posts <= 1
+                ? null
+                : new Suggestion(current.text, kind, Math.max(0, current.weight - weight), current.posts - 1);
+        if (updated == null) {
+            contributions.remove(key);
+        } else {
+            contributions.put(key, updated);
+        }
+        root = put(root, key, 0, updated);
+    }
+
+    public synchronized int size() {
+        return contributions.size();
+    }
+
+    /**
+     * Lower-cased text with the kind appended, so a title and a tag with the same text stay
+     * separate completions; the suffix sorts after every prefix of the text
+     */
+    private static String keyOf(Kind kind, String text) {
+        return text.toLowerCase(Locale.ROOT) + '\u0000' + (char) ('0' + kind.ordinal());
+    }
+
+    // ====== PERSISTENT TRIE UPDATES ======
+
+    /**
+     * Returns a copy of node with the value at key[offset..] replaced, or null if the copy is empty
+     */
+    private static Node put(Node node, String key, int offset, Suggestion value) {
+        if (offset == key.length()) {
+            return node.withValue(value);
+        }
+        char first = key.charAt(offset);
+        int slot = node.slot(first);
+        if (slot < 0) {
+            if (value == null) {
+                return node;
+            }
+            return node.withChild(-slot - 1, new Node(key.substring(offset), value, new char[0], new Node[0]));
+        }
+
+        Node child = node.children[slot];
+        int common = commonPrefix(child.label, key, offset);
+        Node replacement;
+        if (common == child.label.length()) {
+            replacement = put(child, key, offset + common, value);
+        } else {
+            if (value == null) {
+                return node;
+            }
+            // Split the edge where the key leaves it
+            Node tail = child.withLabel(child.label.substring(common));
+            Node branch = new Node(child.label.substring(0, common), null, new char[]{tail.label.charAt(0)}, new Node[]{tail});
+            replacement = put(branch, key, offset + common, value);
+        }
+        return node.withChildReplaced(slot, replacement);
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Collects completions like {@link #add} and builds the trie once at the end, in time linear
+     * in the total length of the keys after sorting them
+     */
+    public static final class Builder {
+        private final Map<String, Suggestion> contributions = new HashMap<>();
+
+        public Builder add(Kind kind, String text, long weight) {
+            if (text != null && !text.isBlank()) {
+                accumulate(contributions, keyOf(kind, text), kind, text, weight);
+            }
+            return this;
+        }
+
+        /**
+         * Adds everything collected by another builder, such as one filled on another thread
+         */
+        public Builder addAll(Builder other) {
+            other.contributions.forEach((key, suggestion) -> contributions.merge(key, suggestion,
+                    (mine, theirs) -> new Suggestion(mine.text, mine.kind, mine.weight + theirs.weight,
+                            mine.posts + theirs.posts)));
+            return this;
+        }
+
+        public AutocompleteIndex build() {
+            String[] keys = contributions.keySet().toArray(new String[0]);
+            Arrays.sort(keys);
+            Node root = keys.length == 0 ? EMPTY_ROOT : build("", keys, 0, keys.length, 0);
+            return new AutocompleteIndex(root, contributions);
+        }
+
+        /**
+         * Builds the node for keys[from..to), which share their first depth characters
+         */
+        private Node build(String label, String[] keys, int from, int to, int depth) {
+            Suggestion value = null;
+            if (keys[from].length() == depth) {
+                // The shortest key sorts first
+                value = contributions.get(keys[from++]);
+            }
+            List<Node> children = new ArrayList<>();
+            while (from < to) {
+                char first = keys[from].charAt(depth);
+                int end = from + 1;
+                while (end < to && keys[end].charAt(depth) == first) {
+                    end++;
+                }
+                // Sorted, so the first and last keys of the group bound its common prefix
+                String low = keys[from];
+                String high = keys[end - 1];
+                int common = 1;
+                while (depth + common < Math.min(low.length(), high.length())
+                        && low.charAt(depth + common) == high.charAt(depth + common)) {
+                    common++;
+                }
+                children.add(build(keys[from].substring(depth, depth + common), keys, from, end, depth + common));
+                from = end;
+            }
+            char[] firstChars = new char[children.size()];
+            for (int i = 0; i < firstChars.length; i++) {
+                firstChars[i] = children.get(i).label.charAt(0);
+            }
+            return new Node(label, value, firstChars, children.toArray(new Node[0]));
+        }
+    }
+
+    private static final class Node {
+        // Characters on the edge from the parent; empty for the root
+        private final String label;
+        private final Suggestion value;
+        private final char[] firstChars;
+        private final Node[] children;
+        // Best completions in the subtree; null for leaves, whose only completion is their value
+        private final Suggestion[] top;
+
+        private Node(String label, Suggestion value, char[] firstChars, Node[] children) {
+            this.label = label;
+            this.value = value;
+            this.firstChars = firstChars;
+            this.children = children;
+            this.top = children.length == 0 ? null : best(value, children);
+        }
+
+        Suggestion[] top() {
+            if (top != null) {
+                return top;
+            }
+            return value == null ? new Suggestion[0] : new Suggestion[]{value};
+        }
+
+        Node child(char first) {
+            int slot = Arrays.binarySearch(firstChars, first);
+            return slot >= 0 ? children[slot] : null;
+        }
+
+        int slot(char first) {
+            return Arrays.binarySearch(firstChars, first);
+        }
+
+        Node withLabel(String newLabel) {
+            return new Node(newLabel, value, firstChars, children);
+        }
+
+        Node withValue(Suggestion newValue) {
+            return compress(new Node(label, newValue, firstChars, children));
+        }
+
+        Node withChild(int insertAt, Node child) {
+            char[] chars = new char[firstChars.length + 1];
+            Node[] nodes = new Node[children.length + 1];
+            System.arraycopy(firstChars, 0, chars, 0, insertAt);
+            System.arraycopy(children, 0, nodes, 0, insertAt);
+            chars[insertAt] = child.label.charAt(0);
+            nodes[insertAt] = child;
+            System.arraycopy(firstChars, insertAt, chars, insertAt + 1, firstChars.length - insertAt);
+            System.arraycopy(children, insertAt, nodes, insertAt + 1, children.length - insertAt);
+            return new Node(label, value, chars, nodes);
+        }
+
+        /**
+         * Returns a copy with one child replaced, or removed if the replacement is null
+         */
+        Node withChildReplaced(int slot, Node replacement) {
+            if (replacement == children[slot]) {
+                return this;
+            }
+            if (replacement != null) {
+                Node[] nodes = children.clone();
+                nodes[slot] = replacement;
+                return new Node(label, value, firstChars, nodes);
+            }
+            char[] chars = new char[firstChars.length - 1];
+            Node[] nodes = new Node[children.length - 1];
+            System.arraycopy(firstChars, 0, chars, 0, slot);
+            System.arraycopy(children, 0, nodes, 0, slot);
+            System.arraycopy(firstChars, slot + 1, chars, slot, chars.length - slot);
+            System.arraycopy(children, slot + 1, nodes, slot, nodes.length - slot);
+            return compress(new Node(label, value, chars, nodes));
+        }
+
+        /**
+         * Drops a node left without value or children and merges a node left with a single
+         * child into it, keeping the trie path-compressed. The root is never merged away.
+         */
+        private static Node compress(Node node) {
+            if (node.label.isEmpty()) {
+                return node;
+            }
+            if (node.value == null && node.children.length == 0) {
+                return null;
+            }
+            if (node.value == null && node.children.length == 1) {
+                return node.children[0].withLabel(node.label + node.children[0].label);
+            }
+            return node;
+        }
+
+        /**
+         * Merges the value and the children's cached lists, each already in rank order, taking
+         * the best of their heads until the cache is full
+         */
+        private static Suggestion[] best(Suggestion value, Node[] children) {
+            Suggestion[] merged = new Suggestion[CACHED_PER_NODE];
+            int count = 0;
+            int[] heads = new int[children.length];
+            Suggestion pendingValue = value;
+            while (count < CACHED_PER_NODE) {
+                int bestChild = -1;
+                Suggestion best = pendingValue;
+                for (int i = 0; i < children.length; i++) {
+                    Suggestion[] top = children[i].top();
+                    if (heads[i] < top.length && (best == null || Suggestion.compareByRank(top[heads[i]], best) < 0)) {
+                        best = top[heads[i]];
+                        bestChild = i;
+                    }
+                }
+                if (best == null) {
+                    break;
+                }
+                if (bestChild < 0) {
+                    pendingValue = null;
+                } else {
+                    heads[bestChild]++;
+                }
+                merged[count++] = best;
+            }
+            return count == merged.length ? merged : Arrays.copyOf(merged, count);
+        }
+    }
+
+    /**
+     * A completion with its kind, summed weight and the number of posts behind it
+     */
+    public static final class Suggestion {
+        private final String text;
+        private final Kind kind;
+        private final long weight;
+        private final int posts;
+
+        public Suggestion(String text, Kind kind, long weight, int posts) {
+            this.text = text;
+            this.kind = kind;
+            this.weight = weight;
+            this.posts = posts;
+        }
+
+        public String getText() { return text; }
+        public Kind getKind() { return kind; }
+        public long getWeight() { return weight; }
+        public int getPosts() { return posts; }
+
+        /**
+         * Heavier first, then more posts, then shorter and alphabetical
+         */
+        static int compareByRank(Suggestion a, Suggestion b) {
+            if (a.weight != b.weight) {
+                return Long.compare(b.weight, a.weight);
+            }
+            if (a.posts != b.posts) {
+                return Integer.compare(b.posts, a.posts);
+            }
+            if (a.text.length() != b.text.length()) {
+                return Integer.compare(a.text.length(), b.text.length());
+            }
+            return a.text.compareToIgnoreCase(b.text);
+        }
+
+        @Override
+        public String toString() {
+            return (kind == Kind.TAG ? "#" : "") + text;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package org.example.bloggingapp.Search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ranks posts against a query with BM25, summed over the content, title, author and tag fields
+ * with a boost per field.
+ *
+ * For each query term and field a post scores
+ * {@code boost * idf * tf * (k1 + 1) / (tf + k1 * (1 - b + b * length / averageLength))}, where
+ * tf is the term frequency in the field and idf favors terms that few posts contain. Only the
+ * best k posts are kept, in a bounded min-heap, so the cost grows with log k rather than with a
+ * sort of every match.
+ *
+ * Matching posts are also skipped without being scored (MaxScore): a term-field pair can add at
+ * most {@code boost * idf * (k1 + 1)} to a score. Once the heap is full, pairs whose bounds
+ * together cannot lift a post above the k-th score no longer produce candidates; they are only
+ * consulted for posts that a higher-scoring pair has already found. For queries mixing common
+ * and rare words, the long lists of the common words are mostly skipped over.
+ */
+public final class Bm25Ranker {
+
+    public static final double K1 = 1.2;
+    public static final double B = 0.75;
+
+    public static final double CONTENT_BOOST = 1.0;
+    public static final double TITLE_BOOST = 2.0;
+    public static final double AUTHOR_BOOST = 1.5;
+    public static final double TAG_BOOST = 1.5;
+
+    // Position of an exhausted cursor, above every post ID so merges need no special case
+    private static final int END = Integer.MAX_VALUE;
+
+    private final InvertedIndex index;
+
+    public Bm25Ranker(InvertedIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Returns the k best posts for the query terms, any of which may match
+     * @param contentTerms terms looked up in the content and title fields
+     * @param authorTerms terms looked up in the author field
+     * @param tagTerms terms looked up in the tag field
+     */
+    public TopDocs topK(Collection<String> contentTerms, Collection<String> authorTerms,
+                        Collection<String> tagTerms, int k) {
+        List<Clause> clauses = clausesOf(contentTerms, authorTerms, tagTerms);
+        if (clauses.isEmpty() || k <= 0) {
+            return new TopDocs(new int[0], new double[0], 0);
+        }
+
+        int totalHits = countMatches(clauses);
+        return new TopDocs(maxScore(clauses, k), totalHits);
+    }
+
+    /**
+     * Returns the k best of the given posts, e.g. the matches of a boolean query, scored by the
+     * query terms they contain; a post containing none of them scores zero
+     * @param docIds the posts to rank, in ascending order
+     */
+    public TopDocs rank(int[] docIds, Collection<String> contentTerms, Collection<String> authorTerms,
+                        Collection<String> tagTerms, int k) {
+        if (k <= 0 || docIds.length == 0) {
+            return new TopDocs(new int[0], new double[0], docIds.length);
+        }
+        List<Clause> clauses = clausesOf(contentTerms, authorTerms, tagTerms);
+        PostingList.Cursor[] cursors = new PostingList.Cursor[clauses.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = clauses.get(i).postings.cursor();
+        }
+        ScoreHeap heap = new ScoreHeap(k);
+        for (int doc : docIds) {
+            double score = 0;
+            for (int i = 0; i < cursors.length; i++) {
+                if (cursors[i].advance(doc) == doc) {
+                    score += clauses.get(i).score(cursors[i].freq(), doc);
+                }
+            }
+            heap.offer(doc, score);
+        }
+        return new TopDocs(heap, docIds.length);
+    }
+
+    private List<Clause> clausesOf(Collection<String> contentTerms, Collection<String> authorTerms,
+                                   Collection<String> tagTerms) {
+        int docCount = Math.max(1, index.docs().size());
+        List<Clause> clauses = new ArrayList<>();
+        for (String term : distinct(contentTerms)) {
+            addClause(clauses, index.keywords(), term, CONTENT_BOOST, docCount);
+            addClause(clauses, index.titles(), term, TITLE_BOOST, docCount);
+        }
+        for (String term : distinct(authorTerms)) {
+            addClause(clauses, index.authors(), term, AUTHOR_BOOST, docCount);
+        }
+        for (String term : distinct(tagTerms)) {
+            addClause(clauses, index.tags(), term, TAG_BOOST, docCount);
+        }
+        return clauses;
+    }
+
+    private static Set<String> distinct(Collection<String> terms) {
+        return new LinkedHashSet<>(terms);
+    }
+
+    private static void addClause(List<Clause> clauses, TermIndex field, String term, double boost, int docCount) {
+        PostingList postings = field.get(term);
+        if (!postings.isEmpty()) {
+            clauses.add(new Clause(postings, field.lengths(), boost, idf(postings.size(), docCount)));
+        }
+    }
+
+    /**
+     * Inverse document frequency, never negative even for terms in most posts
+     */
+    static double idf(int docFrequency, int docCount) {
+        return Math.log(1 + (docCount - docFrequency + 0.5) / (docFrequency + 0.5));
+    }
+
+    /**
+     * Counts the posts matching any clause by merging the lists without scoring
+     */
+    private static int countMatches(List<Clause> clauses) {
+        if (clauses.size() == 1) {
+            return clauses.get(0).postings.size();
+        }
+        PostingList.Cursor[] cursors = new PostingList.Cursor[clauses.size()];
+        int[] current = new int[cursors.length];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = clauses.get(i).postings.cursor();
+            current[i] = next(cursors[i]);
+        }
+        int count = 0;
+        while (true) {
+            int doc = minDoc(current, 0);
+            if (doc == END) {
+                return count;
+            }
+            count++;
+            for (int i = 0; i < cursors.length; i++) {
+                if (current[i] == doc) {
+                    current[i] = next(cursors[i]);
+                }
+            }
+        }
+    }
+
+    private static ScoreHeap maxScore(List<Clause> clauses, int k) {
+        // Ascending by bound, so the pairs that can be skipped form a prefix
+        clauses.sort(Comparator.comparingDouble(clause -> clause.upperBound));
+        int n = clauses.size();
+        double[] boundSums = new double[n];
+        PostingList.Cursor[] cursors = new PostingList.Cursor[n];
+        int[] current = new int[n];
+        for (int i = 0; i < n; i++) {
+            Clause clause = clauses.get(i);
+            boundSums[i] = clause.upperBound + (i > 0 ? boundSums[i - 1] : 0);
+            cursors[i] = clause.postings.cursor();
+            current[i] = next(cursors[i]);
+        }
+
+        ScoreHeap heap = new ScoreHeap(k);
+        // Clauses before this one cannot produce a top-k post on their own
+        int firstEssential = 0;
+        while (firstEssential < n) {
+            int doc = minDoc(current, firstEssential);
+            if (doc == END) {
+                break;
+            }
+
+            double score = 0;
+            for (int i = firstEssential; i < n; i++) {
+                if (current[i] == doc) {
+                    score += clauses.get(i).score(cursors[i].freq(), doc);
+                    current[i] = next(cursors[i]);
+                }
+            }
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (score + boundSums[i] < heap.threshold()) {
+                    break;
+                }
+                if (current[i] < doc) {
+                    int target = cursors[i].advance(doc);
+                    current[i] = target == PostingList.NO_MORE_DOCS ? END : target;
+                }
+                if (current[i] == doc) {
+                    score += clauses.get(i).score(cursors[i].freq(), doc);
+                }
+            }
+
+            if (heap.offer(doc, score)) {
+                while (firstEssential < n && boundSums[firstEssential] < heap.threshold()) {
+                    firstEssential++;
+                }
+            }
+        }
+        return heap;
+    }
+
+    private static int minDoc(int[] current, int from) {
+        int min = END;
+        for (int i = from; i < current.length; i++) {
+            min = Math.min(min, current[i]);
+        }
+        return min;
+    }
+
+    private static int next(PostingList.Cursor cursor) {
+        int doc = cursor.next();
+        return doc == PostingList.NO_MORE_DOCS ? END : doc;
+    }
+
+    /**
+     * One query term in one field
+     */
+    private static final class Clause {
+        private final PostingList postings;
+        private final FieldLengths lengths;
+        private final double weight;
+        private final double averageLength;
+        private final double upperBound;
+
+        private Clause(PostingList postings, FieldLengths lengths, double boost, double idf) {
+            this.postings = postings;
+            this.lengths = lengths;
+            this.weight = boost * idf;
+            this.averageLength = lengths.getAverage();
+            // tf / (tf + k1 * norm) stays below 1
+            this.upperBound = weight * (K1 + 1);
+        }
+
+        double score(int freq, int docId) {
+            double norm = 1 - B + B * Math.max(1, lengths.get(docId)) / averageLength;
+            return weight * freq * (K1 + 1) / (freq + K1 * norm);
+        }
+    }
+
+    /**
+     * Min-heap of the best k (post, score) pairs; ties go to the newer post
+     */
+    private static final class ScoreHeap {
+        private final int[] docs;
+        private final double[] scores;
+        private int size;
+
+        private ScoreHeap(int capacity) {
+            this.docs = new int[capacity];
+            this.scores = new double[capacity];
+        }
+
+        /**
+         * Returns the score a post must beat to enter a full heap, or -1 while there is room
+         */
+        double threshold() {
+            return size < docs.length ? -1 : scores[0];
+        }
+
+        /**
+         * Returns true if the post entered the heap
+         */
+        boolean offer(int doc, double score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+                return true;
+            }
+            if (!isBetter(doc, score, 0)) {
+                return false;
+            }
+            docs[0] = doc;
+            scores[0] = score;
+            siftDown(0);
+            return true;
+        }
+
+        private boolean isBetter(int doc, double score, int slot) {
+            return score > scores[slot] || (score == scores[slot] && doc > docs[slot]);
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) / 2;
+                if (!isBetter(docs[parent], scores[parent], slot)) {
+                    return;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int smallest = slot;
+                for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                    if (isBetter(docs[smallest], scores[smallest], child)) {
+                        smallest = child;
+                    }
+                }
+                if (smallest == slot) {
+                    return;
+                }
+                swap(slot, smallest);
+                slot = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    /**
+     * The ranked posts, best first, and the number of posts that matched at all
+     */
+    public static final class TopDocs {
+        private final int[] docIds;
+        private final double[] scores;
+        private final int totalHits;
+
+        TopDocs(int[] docIds, double[] scores, int totalHits) {
+            this.docIds = docIds;
+            this.scores = scores;
+            this.totalHits = totalHits;
+        }
+
+        private TopDocs(ScoreHeap heap, int totalHits) {
+            Integer[] order = new Integer[heap.size];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> heap.isBetter(heap.docs[a], heap.scores[a], b) ? -1
+                    : heap.isBetter(heap.docs[b], heap.scores[b], a) ? 1 : 0);
+            this.docIds = new int[order.length];
+            this.scores = new double[order.length];
+            for (int i = 0; i < order.length; i++) {
+                docIds[i] = heap.docs[order[i]];
+                scores[i] = heap.scores[order[i]];
+            }
+            this.totalHits = totalHits;
+        }
+
+        public int[] getDocIds() {
+            return docIds;
+        }
+
+        public double[] getScores() {
+            return scores;
+        }
+
+        public int getTotalHits() {
+            return totalHits;
+        }
+    }
+}
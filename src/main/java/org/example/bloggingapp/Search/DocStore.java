@@ -0,0 +1,146 @@
+package org.example.bloggingapp.Search;
+
+import org.example.bloggingapp.Models.PostEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Holds the indexed version of each post, addressed by post ID.
+ *
+ * Posting lists only carry IDs; the store turns a list into posts once a query has been
+ * evaluated, so each post is referenced exactly once however many terms it contains. Post IDs
+ * come from a sequence and are dense, so the store is an array indexed by ID: resolving a
+ * posting list is one array read per hit, with no hashing or boxing.
+ *
+ * Reads are lock-free; writes are serialized on the store.
+ */
+public final class DocStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private volatile AtomicReferenceArray<PostEntity> slots;
+    private volatile int size;
+    // A lower bound on the stored IDs; guarded by this
+    private int lowestPostId = Integer.MAX_VALUE;
+
+    public DocStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public DocStore(int expectedMaxPostId) {
+        this.slots = new AtomicReferenceArray<>(Math.max(16, expectedMaxPostId + 1));
+    }
+
+    /**
+     * Combines stores of disjoint posts, such as segments built in parallel; the parts must no
+     * longer be written
+     */
+    static DocStore merge(List<DocStore> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        int capacity = 0;
+        for (DocStore part : parts) {
+            capacity = Math.max(capacity, part.slots.length());
+        }
+        DocStore merged = new DocStore(capacity - 1);
+        for (DocStore part : parts) {
+            AtomicReferenceArray<PostEntity> slots = part.slots;
+            // The posts of a part are usually one range of IDs, so scan only that range
+            int remaining = part.size;
+            for (int i = part.lowestPostId; remaining > 0 && i < slots.length(); i++) {
+                PostEntity post = slots.get(i);
+                if (post != null) {
+                    merged.put(post);
+                    remaining--;
+                }
+            }
+        }
+        return merged;
+    }
+
+    public PostEntity get(int postId) {
+        AtomicReferenceArray<PostEntity> current = slots;
+        return postId >= 0 && postId < current.length() ? current.get(postId) : null;
+    }
+
+    /**
+     * Stores a post and returns the version it replaced, if any
+     */
+    public synchronized PostEntity put(PostEntity post) {
+        int postId = post.getPostId();
+        if (postId < 0) {
+            throw new IllegalArgumentException("Post ID must not be negative: " + postId);
+        }
+        AtomicReferenceArray<PostEntity> current = slots;
+        if (postId >= current.length()) {
+            current = grow(current, postId);
+        }
+        PostEntity previous = current.getAndSet(postId, post);
+        if (previous == null) {
+            size++;
+        }
+        lowestPostId = Math.min(lowestPostId, postId);
+        return previous;
+    }
+
+    public synchronized PostEntity remove(int postId) {
+        AtomicReferenceArray<PostEntity> current = slots;
+        if (postId < 0 || postId >= current.length()) {
+            return null;
+        }
+        PostEntity previous = current.getAndSet(postId, null);
+        if (previous != null) {
+            size--;
+        }
+        return previous;
+    }
+
+    private AtomicReferenceArray<PostEntity> grow(AtomicReferenceArray<PostEntity> current, int postId) {
+        int capacity = Math.max(postId + 1, current.length() + (current.length() >> 1));
+        AtomicReferenceArray<PostEntity> grown = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < current.length(); i++) {
+            grown.lazySet(i, current.get(i));
+        }
+        slots = grown;
+        return grown;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the posts of a posting list in ID order, skipping IDs no longer stored
+     */
+    public List<PostEntity> resolve(PostingList postingList) {
+        AtomicReferenceArray<PostEntity> current = slots;
+        int length = current.length();
+        List<PostEntity> resolved = new ArrayList<>(postingList.size());
+        PostingList.Cursor cursor = postingList.cursor();
+        for (int postId = cursor.next(); postId != PostingList.NO_MORE_DOCS && postId < length; postId = cursor.next()) {
+            PostEntity post = current.get(postId);
+            if (post != null) {
+                resolved.add(post);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Returns every stored post in ID order
+     */
+    public List<PostEntity> all() {
+        AtomicReferenceArray<PostEntity> current = slots;
+        List<PostEntity> posts = new ArrayList<>(size);
+        for (int i = 0; i < current.length(); i++) {
+            PostEntity post = current.get(i);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.bloggingapp.Search;
+
+import java.util.Arrays;
+
+/**
+ * The length of one field of each post, in terms, addressed by post ID like the {@link DocStore}.
+ * Relevance scoring normalizes term frequencies by the length of the field against its average,
+ * so a word in a short title weighs more than the same word in a long article.
+ *
+ * Reads are lock-free; writes are serialized on the instance.
+ */
+public final class FieldLengths {
+
+    private volatile int[] lengths;
+    private volatile long totalLength;
+    private volatile int docCount;
+
+    public FieldLengths() {
+        this(1024);
+    }
+
+    public FieldLengths(int expectedMaxPostId) {
+        this.lengths = new int[Math.max(16, expectedMaxPostId + 1)];
+    }
+
+    /**
+     * Takes over lengths collected by a builder, indexed by post ID
+     */
+    FieldLengths(int[] lengths) {
+        this.lengths = lengths;
+        long total = 0;
+        int count = 0;
+        for (int length : lengths) {
+            if (length > 0) {
+                total += length;
+                count++;
+            }
+        }
+        this.totalLength = total;
+        this.docCount = count;
+    }
+
+    /**
+     * Returns a copy of the lengths indexed by post ID, for the constructor above
+     */
+    int[] toArray() {
+        int[] current = lengths;
+        int last = current.length - 1;
+        while (last >= 0 && current[last] == 0) {
+            last--;
+        }
+        return Arrays.copyOf(current, last + 1);
+    }
+
+    /**
+     * Returns the field length of a post, 0 if it has none
+     */
+    public int get(int postId) {
+        int[] current = lengths;
+        return postId >= 0 && postId < current.length ? current[postId] : 0;
+    }
+
+    /**
+     * Sets the field length of a post; 0 removes it from the average
+     */
+    public synchronized void set(int postId, int length) {
+        int[] current = lengths;
+        if (postId >= current.length) {
+            if (length == 0) {
+                return;
+            }
+            current = Arrays.copyOf(current, Math.max(postId + 1, current.length + (current.length >> 1)));
+        }
+        int previous = current[postId];
+        current[postId] = length;
+        // Published after the write so a reader that sees the grown array also sees the new length
+        lengths = current;
+        totalLength += length - previous;
+        if (previous == 0 && length > 0) {
+            docCount++;
+        } else if (previous > 0 && length == 0) {
+            docCount--;
+        }
+    }
+
+    public synchronized void add(int postId, int length) {
+        set(postId, get(postId) + length);
+    }
+
+    /**
+     * Returns the average length over posts that have the field, at least 1
+     */
+    public double getAverage() {
+        int count = docCount;
+        return count == 0 ? 1.0 : Math.max(1.0, (double) totalLength / count);
+    }
+
+    public int getDocCount() {
+        return docCount;
+    }
+
+    /**
+     * Returns the approximate heap footprint in bytes
+     */
+    public long getEstimatedBytes() {
+        return 32 + 16 + 4L * lengths.length;
+    }
+}
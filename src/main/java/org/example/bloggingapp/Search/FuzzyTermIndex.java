@@ -0,0 +1,311 @@
+package org.example.bloggingapp.Search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the indexed terms within a small edit distance of a query term, so a misspelled word
+ * still reaches the posts of the word that was meant.
+ *
+ * Every term is split into overlapping trigrams after padding both ends, e.g. "java" into
+ * "__j", "_ja", "jav", "ava", "va_" and "a__". One edit changes at most three of a term's
+ * trigrams, so a term within d edits of the query shares at least
+ * {@code max(n, m) + 2 - 3d} of them, n and m being the two lengths. Terms are numbered and the
+ * trigram lists are posting lists of term numbers, kept per term length: a lookup only reads the
+ * lists of lengths within d of the query, counts how many query trigrams each term shares, and
+ * computes the edit distance only for terms above the bound.
+ *
+ * The index only grows: terms whose posts are all gone stay as candidates and simply match no
+ * posts. Lookups are lock-free; additions are serialized on the instance.
+ */
+public final class FuzzyTermIndex {
+
+    // Outside any indexed word, which are split on whitespace
+    private static final char PAD = '\u0000';
+
+    private final Map<String, Integer> termIds;
+    private volatile String[] terms;
+    private int termCount;
+    // Trigram followed by the term length, to the numbers of the terms containing it
+    private final Map<String, PostingList> trigrams;
+
+    public FuzzyTermIndex() {
+        this(new HashMap<>(), new String[16], 0, new ConcurrentHashMap<>());
+    }
+
+    private FuzzyTermIndex(Map<String, Integer> termIds, String[] terms, int termCount,
+                           Map<String, PostingList> trigrams) {
+        this.termIds = termIds;
+        this.terms = terms;
+        this.termCount = termCount;
+        this.trigrams = trigrams;
+    }
+
+    /**
+     * Builds the index over a dictionary in one pass
+     */
+    public static FuzzyTermIndex of(Iterable<String> dictionary) {
+        Map<String, Integer> termIds = new HashMap<>();
+        List<String> terms = new ArrayList<>();
+        Map<String, IdBuffer> buffers = new HashMap<>();
+        for (String term : dictionary) {
+            if (term.isEmpty() || termIds.putIfAbsent(term, terms.size()) != null) {
+                continue;
+            }
+            int termId = terms.size();
+            terms.add(term);
+            // Term numbers only grow, so every buffer stays sorted
+            for (String key : trigramKeys(term)) {
+                buffers.computeIfAbsent(key, k -> new IdBuffer()).add(termId);
+            }
+        }
+        Map<String, PostingList> trigrams = new ConcurrentHashMap<>(Math.max(16, buffers.size() * 4 / 3 + 1));
+        buffers.forEach((key, buffer) -> trigrams.put(key, PostingList.of(buffer.ids, buffer.count)));
+        String[] termArray = terms.toArray(new String[Math.max(16, terms.size())]);
+        return new FuzzyTermIndex(termIds, termArray, terms.size(), trigrams);
+    }
+
+    /**
+     * Makes a term findable; does nothing if it already is
+     */
+    public synchronized void add(String term) {
+        if (term.isEmpty() || termIds.containsKey(term)) {
+            return;
+        }
+        int termId = termCount++;
+        termIds.put(term, termId);
+        String[] current = terms;
+        if (termId == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[termId] = term;
+        // Published before the trigram lists that refer to the new number
+        terms = current;
+        for (String key : trigramKeys(term)) {
+            trigrams.merge(key, PostingList.of(termId), (list, single) -> list.with(termId));
+        }
+    }
+
+    public void addAll(Iterable<String> newTerms) {
+        for (String term : newTerms) {
+            add(term);
+        }
+    }
+
+    public synchronized int size() {
+        return termCount;
+    }
+
+    /**
+     * The number of edits a query term of this length may be away from a match: none for words
+     * of up to three letters, one up to seven and two beyond, so short words do not match
+     * unrelated ones
+     */
+    public static int maxEdits(int length) {
+        return length <= 3 ? 0 : length <= 7 ? 1 : 2;
+    }
+
+    /**
+     * Returns the indexed terms within {@link #maxEdits} of the term other than the term itself,
+     * closest first
+     */
+    public List<Match> lookup(String term) {
+        return lookup(term, maxEdits(term.length()));
+    }
+
+    /**
+     * Returns the indexed terms within maxEdits edits of the term other than the term itself,
+     * closest first and alphabetically among equally close ones
+     */
+    public List<Match> lookup(String term, int maxEdits) {
+        List<Match> matches = new ArrayList<>();
+        if (maxEdits <= 0 || term.isEmpty()) {
+            return matches;
+        }
+        String[] grams = trigrams(term);
+        String[] distinct = Arrays.stream(grams).distinct().toArray(String[]::new);
+        // Repeated trigrams count once on each side, which can only lower the shared count
+        int repeats = grams.length - distinct.length;
+        int n = term.length();
+
+        for (int length = Math.max(1, n - maxEdits); length <= n + maxEdits; length++) {
+            int required = Math.max(n, length) + 2 - 3 * maxEdits - repeats;
+            PostingList[] lists = new PostingList[distinct.length];
+            int present = 0;
+            for (int i = 0; i < distinct.length; i++) {
+                PostingList list = trigrams.get(distinct[i] + (char) length);
+                lists[i] = list == null ? PostingList.EMPTY : list;
+                present += list == null ? 0 : 1;
+            }
+            if (present < Math.max(1, required)) {
+                continue;
+            }
+
+            int[] candidates = candidates(lists, required);
+            // Read after the lists, so it holds every term they refer to
+            String[] dictionary = terms;
+            for (int termId : candidates) {
+                String candidate = dictionary[termId];
+                int distance = distance(term, candidate, maxEdits);
+                if (distance > 0 && distance <= maxEdits) {
+                    matches.add(new Match(candidate, distance));
+                }
+            }
+        }
+        matches.sort((a, b) -> a.distance != b.distance ? Integer.compare(a.distance, b.distance)
+                : a.term.compareTo(b.term));
+        return matches;
+    }
+
+    /**
+     * Returns the term numbers found in at least required of the lists, and in at least one.
+     * A term in required of n lists is in at least one of the n - required + 1 shortest, so only
+     * those are merged, by sorting their entries and counting runs. The longest lists, typically
+     * those of the first and last letter, are then only probed for the candidates found.
+     */
+    private static int[] candidates(PostingList[] lists, int required) {
+        required = Math.max(1, required);
+        PostingList[] bySize = lists.clone();
+        Arrays.sort(bySize, Comparator.comparingInt(PostingList::size));
+        int merged = bySize.length - required + 1;
+
+        int total = 0;
+        for (int i = 0; i < merged; i++) {
+            total += bySize[i].size();
+        }
+        int[] all = new int[total];
+        int count = 0;
+        for (int i = 0; i < merged; i++) {
+            PostingList.Cursor cursor = bySize[i].cursor();
+            for (int id = cursor.next(); id != PostingList.NO_MORE_DOCS; id = cursor.next()) {
+                all[count++] = id;
+            }
+        }
+        Arrays.sort(all, 0, count);
+
+        PostingList.Cursor[] probes = new PostingList.Cursor[bySize.length - merged];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = bySize[merged + i].cursor();
+        }
+        int[] found = new int[count];
+        int foundCount = 0;
+        int start = 0;
+        while (start < count) {
+            int end = start + 1;
+            while (end < count && all[end] == all[start]) {
+                end++;
+            }
+            int shared = end - start;
+            // Candidates come in ascending order, so each probe only moves forward
+            for (int i = 0; i < probes.length && shared < required && shared + probes.length - i >= required; i++) {
+                if (probes[i].advance(all[start]) == all[start]) {
+                    shared++;
+                }
+            }
+            if (shared >= required) {
+                found[foundCount++] = all[start];
+            }
+            start = end;
+        }
+        return Arrays.copyOf(found, foundCount);
+    }
+
+    /**
+     * Levenshtein distance, or maxEdits + 1 as soon as it is known to exceed maxEdits.
+     * Only the diagonal band of width 2 * maxEdits + 1 is computed.
+     */
+    static int distance(String a, String b, int maxEdits) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > maxEdits) {
+            return maxEdits + 1;
+        }
+        int outside = maxEdits + 1;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= maxEdits ? j : outside;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - maxEdits);
+            int to = Math.min(m, i + maxEdits);
+            Arrays.fill(current, outside);
+            current[0] = i <= maxEdits ? i : outside;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, outside);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return outside;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+
+    private static String[] trigrams(String term) {
+        String padded = "" + PAD + PAD + term + PAD + PAD;
+        String[] grams = new String[term.length() + 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = padded.substring(i, i + 3);
+        }
+        return grams;
+    }
+
+    private static Set<String> trigramKeys(String term) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String gram : trigrams(term)) {
+            keys.add(gram + (char) term.length());
+        }
+        return keys;
+    }
+
+    private static final class IdBuffer {
+        private int[] ids = new int[4];
+        private int count;
+
+        void add(int id) {
+            if (count > 0 && ids[count - 1] == id) {
+                return;
+            }
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = id;
+        }
+    }
+
+    /**
+     * An indexed term and its edit distance from the query term
+     */
+    public static final class Match {
+        private final String term;
+        private final int distance;
+
+        public Match(String term, int distance) {
+            this.term = term;
+            this.distance = distance;
+        }
+
+        public String getTerm() { return term; }
+        public int getDistance() { return distance; }
+
+        @Override
+        public String toString() {
+            return term + "~" + distance;
+        }
+    }
+}
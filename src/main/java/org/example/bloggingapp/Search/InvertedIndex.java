@@ -0,0 +1,261 @@
+package org.example.bloggingapp.Search;
+
+import org.example.bloggingapp.Models.PostEntity;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The keyword, title, author and tag dictionaries of the post corpus together with the doc store
+ * that resolves their posting lists. Keywords cover the title and content of a post; the title
+ * words are also indexed on their own so relevance ranking can weigh them higher.
+ *
+ * An index is built off to the side by a {@link Builder} and published as a whole, so searches
+ * keep using the previous index until the new one is complete. After that it is kept current
+ * one post at a time: the post's old terms are removed, its new terms added and the post is
+ * marked stale, which hides its old entries in the base lists until {@link #compact()}.
+ * The keyword dictionary is also indexed by trigrams, to look up misspelled query words, and
+ * the keyword sequence of every post is kept for phrase matching.
+ *
+ * An index can be saved to and loaded from a {@link SegmentFile}.
+ */
+public final class InvertedIndex {
+
+    private final TermIndex keywords;
+    private final TermIndex titles;
+    private final TermIndex authors;
+    private final TermIndex tags;
+    private final FuzzyTermIndex fuzzyKeywords;
+    private final PositionIndex positions;
+    private final DocStore docs;
+    private final TermIndex.Tombstones tombstones;
+
+    private InvertedIndex(TermIndex keywords, TermIndex titles, TermIndex authors, TermIndex tags,
+                          FuzzyTermIndex fuzzyKeywords, PositionIndex positions, DocStore docs,
+                          TermIndex.Tombstones tombstones) {
+        this.keywords = keywords;
+        this.fuzzyKeywords = fuzzyKeywords;
+        this.positions = positions;
+        this.titles = titles;
+        this.authors = authors;
+        this.tags = tags;
+        this.docs = docs;
+        this.tombstones = tombstones;
+    }
+
+    public static InvertedIndex empty() {
+        TermIndex.Tombstones tombstones = new TermIndex.Tombstones();
+        return new InvertedIndex(TermIndex.empty(tombstones), TermIndex.empty(tombstones),
+                TermIndex.empty(tombstones), TermIndex.empty(tombstones), new FuzzyTermIndex(), new PositionIndex(),
+                new DocStore(), tombstones);
+    }
+
+    public TermIndex keywords() {
+        return keywords;
+    }
+
+    public TermIndex titles() {
+        return titles;
+    }
+
+    public TermIndex authors() {
+        return authors;
+    }
+
+    public TermIndex tags() {
+        return tags;
+    }
+
+    /**
+     * Returns the trigram index of the keyword dictionary; new keywords must be added to it
+     * as posts are written
+     */
+    public FuzzyTermIndex fuzzyKeywords() {
+        return fuzzyKeywords;
+    }
+
+    /**
+     * Returns the keyword sequences of the posts; a post's sequence must be replaced when it is written
+     */
+    public PositionIndex positions() {
+        return positions;
+    }
+
+    public DocStore docs() {
+        return docs;
+    }
+
+    /**
+     * Hides the entries of a post's previous version in the base posting lists of its removed terms.
+     * Call once the post has been added to all of its current terms and removed from the others.
+     */
+    public void markStale(int postId) {
+        tombstones.add(postId);
+    }
+
+    /**
+     * Returns the number of posts marked stale since the last compaction
+     */
+    public int getStaleCount() {
+        return tombstones.get().size();
+    }
+
+    /**
+     * Folds incremental writes into the base posting lists of every field and clears the
+     * stale marks. Must not run concurrently with writes.
+     * @return the number of posting lists rewritten
+     */
+    public int compact() {
+        PostingList stale = tombstones.get();
+        int rewritten = keywords.compact(stale) + titles.compact(stale) + authors.compact(stale)
+                + tags.compact(stale);
+        // Only once every dirty list has been rewritten; see TermIndex#get
+        tombstones.clear();
+        return rewritten;
+    }
+
+    /**
+     * Returns the number of terms with writes not yet compacted, over all fields
+     */
+    public int getPendingTermCount() {
+        return keywords.getPendingTermCount() + titles.getPendingTermCount() + authors.getPendingTermCount()
+                + tags.getPendingTermCount();
+    }
+
+    /**
+     * Returns the approximate heap footprint of the dictionaries and posting lists in bytes,
+     * excluding the posts themselves
+     */
+    public long getEstimatedBytes() {
+        return keywords.getEstimatedBytes() + titles.getEstimatedBytes() + authors.getEstimatedBytes()
+                + tags.getEstimatedBytes() + positions.getEstimatedBytes();
+    }
+
+    /**
+     * Writes the dictionaries, posting lists and keyword sequences, as if compacted; the posts
+     * themselves are written by the caller. Writers must be paused meanwhile.
+     */
+    void write(DataOutput out) throws IOException {
+        keywords.write(out);
+        titles.write(out);
+        authors.write(out);
+        tags.write(out);
+        positions.write(out);
+    }
+
+    /**
+     * Reads an index written by {@link #write} around the given posts. Nothing is tokenized:
+     * posting lists are read in their encoded form and only the trigrams of the keyword
+     * dictionary are derived.
+     */
+    static InvertedIndex read(ByteBuffer in, DocStore docs) {
+        TermIndex.Tombstones tombstones = new TermIndex.Tombstones();
+        TermIndex keywords = TermIndex.read(in, tombstones);
+        TermIndex titles = TermIndex.read(in, tombstones);
+        TermIndex authors = TermIndex.read(in, tombstones);
+        TermIndex tags = TermIndex.read(in, tombstones);
+        PositionIndex positions = PositionIndex.read(in);
+        return new InvertedIndex(keywords, titles, authors, tags, FuzzyTermIndex.of(keywords.terms()), positions,
+                docs, tombstones);
+    }
+
+    /**
+     * Accumulates posts and their terms; not thread-safe
+     */
+    public static final class Builder {
+        private final TermIndex.Builder keywords = new TermIndex.Builder();
+        private final TermIndex.Builder titles = new TermIndex.Builder();
+        private final TermIndex.Builder authors = new TermIndex.Builder();
+        private final TermIndex.Builder tags = new TermIndex.Builder();
+        private final PositionIndex positions;
+        private final DocStore docs = new DocStore();
+
+        public Builder() {
+            this(new PositionIndex());
+        }
+
+        private Builder(PositionIndex positions) {
+            this.positions = positions;
+        }
+
+        /**
+         * Returns an empty builder for another segment of the same corpus, to be filled in parallel
+         * with this one and passed to {@link #merge} with it. Segments share the numbering of
+         * phrase positions, so merging them copies positions instead of renumbering them.
+         */
+        public Builder newSegment() {
+            return new Builder(new PositionIndex(positions));
+        }
+
+        /**
+         * Adds a post under already extracted terms, with repeats
+         * @param author the normalized author name, or null
+         */
+        public Builder add(PostEntity post, Iterable<String> keywordTerms, Iterable<String> titleTerms,
+                           String author, Iterable<String> tagTerms) {
+            int postId = post.getPostId();
+            for (String term : keywordTerms) {
+                keywords.add(term, postId);
+            }
+            positions.put(postId, keywordTerms);
+            for (String term : titleTerms) {
+                titles.add(term, postId);
+            }
+            if (author != null) {
+                authors.add(author, postId);
+            }
+            for (String tag : tagTerms) {
+                tags.add(tag, postId);
+            }
+            docs.put(post);
+            return this;
+        }
+
+        public InvertedIndex build() {
+            return merge(List.of(this));
+        }
+    }
+
+    /**
+     * Builds one index from builders that were filled with disjoint posts, consuming them;
+     * preferably segments created by {@link Builder#newSegment()}.
+     *
+     * Segments let a large corpus be tokenized on several threads that only share a read-mostly
+     * term numbering; this is the step that joins them. Each field is merged one term partition
+     * per fork/join task, in the pool of the calling task or else the common pool, so the merge
+     * is parallel as well.
+     */
+    public static InvertedIndex merge(List<Builder> segments) {
+        TermIndex.Tombstones tombstones = new TermIndex.Tombstones();
+        List<TermIndex.Builder> keywordSegments = new ArrayList<>();
+        List<TermIndex.Builder> titleSegments = new ArrayList<>();
+        List<TermIndex.Builder> authorSegments = new ArrayList<>();
+        List<TermIndex.Builder> tagSegments = new ArrayList<>();
+        List<PositionIndex> positionSegments = new ArrayList<>();
+        List<DocStore> docSegments = new ArrayList<>();
+        for (Builder segment : segments) {
+            keywordSegments.add(segment.keywords);
+            titleSegments.add(segment.titles);
+            authorSegments.add(segment.authors);
+            tagSegments.add(segment.tags);
+            positionSegments.add(segment.positions);
+            docSegments.add(segment.docs);
+        }
+
+        ForkJoinTask<TermIndex> keywords = ForkJoinTask.adapt(() -> TermIndex.Builder.merge(keywordSegments, tombstones));
+        ForkJoinTask<TermIndex> titles = ForkJoinTask.adapt(() -> TermIndex.Builder.merge(titleSegments, tombstones));
+        ForkJoinTask<TermIndex> authors = ForkJoinTask.adapt(() -> TermIndex.Builder.merge(authorSegments, tombstones));
+        ForkJoinTask<TermIndex> tags = ForkJoinTask.adapt(() -> TermIndex.Builder.merge(tagSegments, tombstones));
+        ForkJoinTask<PositionIndex> positions = ForkJoinTask.adapt(() -> PositionIndex.merge(positionSegments));
+        ForkJoinTask<DocStore> docs = ForkJoinTask.adapt(() -> DocStore.merge(docSegments));
+        ForkJoinTask.invokeAll(keywords, titles, authors, tags, positions, docs);
+
+        TermIndex keywordIndex = keywords.join();
+        return new InvertedIndex(keywordIndex, titles.join(), authors.join(), tags.join(),
+                FuzzyTermIndex.of(keywordIndex.terms()), positions.join(), docs.join(), tombstones);
+    }
+}
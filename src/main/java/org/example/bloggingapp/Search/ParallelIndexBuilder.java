@@ -0,0 +1,92 @@
+package org.example.bloggingapp.Search;
+
+import org.example.bloggingapp.Models.PostEntity;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Indexes a stream of posts on a fork/join pool. The posts are cut into segments of a fixed
+ * size, each segment is indexed into structures of its own by one task, and the segments are then
+ * merged into the final index, also on the pool. Segment tasks share nothing, so tokenizing and
+ * collecting terms scale with the number of threads; see {@link InvertedIndex#merge} for the
+ * merge.
+ *
+ * The stream is read on the calling thread, which is where a database cursor has to be used;
+ * segments are indexed while later posts are still being fetched.
+ *
+ * @param <S> the per-segment structures, e.g. an {@link InvertedIndex.Builder}
+ */
+public final class ParallelIndexBuilder<S> {
+
+    private final ForkJoinPool pool;
+    private final int segmentSize;
+    private final Supplier<S> newSegment;
+    private final BiConsumer<S, PostEntity> indexer;
+
+    /**
+     * @param newSegment creates the empty structures of a segment
+     * @param indexer adds one post to a segment; only ever called by one thread per segment
+     */
+    public ParallelIndexBuilder(ForkJoinPool pool, int segmentSize, Supplier<S> newSegment,
+                                BiConsumer<S, PostEntity> indexer) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+        }
+        this.pool = pool;
+        this.segmentSize = segmentSize;
+        this.newSegment = newSegment;
+        this.indexer = indexer;
+    }
+
+    /**
+     * Indexes every post of the stream and merges the segments, in stream order, into the result.
+     * Exceptions from the stream, the indexer or the merge are rethrown unchecked.
+     * @param merger combines the segments; runs on the pool, so its fork/join tasks do too
+     */
+    public <R> R build(Stream<PostEntity> posts, Function<List<S>, R> merger) {
+        List<ForkJoinTask<S>> tasks = new ArrayList<>();
+        try {
+            Iterator<PostEntity> iterator = posts.iterator();
+            List<PostEntity> batch = new ArrayList<>(segmentSize);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == segmentSize) {
+                    tasks.add(pool.submit(segmentTask(batch)));
+                    batch = new ArrayList<>(segmentSize);
+                }
+            }
+            if (!batch.isEmpty() || tasks.isEmpty()) {
+                tasks.add(pool.submit(segmentTask(batch)));
+            }
+
+            List<S> segments = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<S> task : tasks) {
+                segments.add(task.join());
+            }
+            return pool.submit(() -> merger.apply(segments)).join();
+        } catch (RuntimeException e) {
+            for (ForkJoinTask<S> task : tasks) {
+                task.cancel(false);
+            }
+            throw e;
+        }
+    }
+
+    private ForkJoinTask<S> segmentTask(List<PostEntity> batch) {
+        return ForkJoinTask.adapt(() -> {
+            S segment = newSegment.get();
+            for (PostEntity post : batch) {
+                indexer.accept(segment, post);
+            }
+            return segment;
+        });
+    }
+}
@@ -0,0 +1,244 @@
+package org.example.bloggingapp.Search;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The keyword sequence of each post, for checking that query words occur next to each other.
+ *
+ * Posting lists say which posts contain a word but not where, so a phrase query first intersects
+ * the lists of its words and then checks the few remaining posts here. Each post's keywords are
+ * stored in order as term numbers, written as variable-length integers; positions are implied by
+ * the order, so a post costs one to three bytes per word.
+ *
+ * Lookups are lock-free. A post's sequence is replaced as a whole when it is written.
+ */
+public final class PositionIndex {
+
+    private final Map<String, Integer> termIds;
+    private final AtomicInteger nextTermId;
+    private final Map<Integer, byte[]> sequences = new ConcurrentHashMap<>();
+
+    public PositionIndex() {
+        this.termIds = new ConcurrentHashMap<>();
+        this.nextTermId = new AtomicInteger();
+    }
+
+    /**
+     * Creates an index for other posts that numbers terms like the given one, so the two can be
+     * merged without renumbering. Numbering a known term is a lock-free read.
+     */
+    PositionIndex(PositionIndex numbering) {
+        this.termIds = numbering.termIds;
+        this.nextTermId = numbering.nextTermId;
+    }
+
+    /**
+     * Stores the keywords of a post in order, replacing any earlier version
+     */
+    public void put(int docId, Iterable<String> terms) {
+        byte[] buffer = new byte[64];
+        int length = 0;
+        for (String term : terms) {
+            if (length + 5 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            Integer termId = termIds.get(term);
+            if (termId == null) {
+                termId = termIds.computeIfAbsent(term, key -> nextTermId.getAndIncrement());
+            }
+            length = writeVarInt(buffer, length, termId);
+        }
+        sequences.put(docId, Arrays.copyOf(buffer, length));
+    }
+
+    /**
+     * Combines indexes of disjoint posts, such as segments built in parallel. Parts numbered
+     * alike are copied as they are; otherwise the first part keeps its term numbers and the
+     * sequences of the others are renumbered as fork/join tasks.
+     */
+    static PositionIndex merge(List<PositionIndex> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        PositionIndex first = parts.get(0);
+        if (parts.stream().allMatch(part -> part.termIds == first.termIds)) {
+            PositionIndex merged = new PositionIndex(first);
+            for (PositionIndex part : parts) {
+                merged.sequences.putAll(part.sequences);
+            }
+            return merged;
+        }
+        PositionIndex merged = new PositionIndex();
+        merged.termIds.putAll(first.termIds);
+        merged.nextTermId.set(first.nextTermId.get());
+        merged.sequences.putAll(first.sequences);
+        // Numbering is sequential; renumbering the sequences is not
+        List<RecursiveAction> tasks = new ArrayList<>();
+        for (int i = 1; i < parts.size(); i++) {
+            PositionIndex part = parts.get(i);
+            int[] renumbered = new int[part.nextTermId.get()];
+            part.termIds.forEach((term, termId) ->
+                    renumbered[termId] = merged.termIds.computeIfAbsent(term, key -> merged.nextTermId.getAndIncrement()));
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    part.sequences.forEach((docId, sequence) -> merged.sequences.put(docId, renumber(sequence, renumbered)));
+                }
+            });
+        }
+        ForkJoinTask.invokeAll(tasks);
+        return merged;
+    }
+
+    private static byte[] renumber(byte[] sequence, int[] termIds) {
+        byte[] buffer = new byte[sequence.length + 16];
+        int length = 0;
+        int offset = 0;
+        while (offset < sequence.length) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = sequence[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if (length + 5 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length = writeVarInt(buffer, length, termIds[value]);
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Writes the term numbering and the sequences; writers must be paused meanwhile
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(nextTermId.get());
+        out.writeInt(termIds.size());
+        for (Map.Entry<String, Integer> term : termIds.entrySet()) {
+            SegmentFile.writeString(out, term.getKey());
+            out.writeInt(term.getValue());
+        }
+        out.writeInt(sequences.size());
+        for (Map.Entry<Integer, byte[]> sequence : sequences.entrySet()) {
+            out.writeInt(sequence.getKey());
+            out.writeInt(sequence.getValue().length);
+            out.write(sequence.getValue());
+        }
+    }
+
+    /**
+     * Reads an index written by {@link #write}, keeping its term numbers
+     */
+    static PositionIndex read(ByteBuffer in) {
+        PositionIndex index = new PositionIndex();
+        index.nextTermId.set(in.getInt());
+        int termCount = in.getInt();
+        for (int i = 0; i < termCount; i++) {
+            String term = SegmentFile.readString(in);
+            index.termIds.put(term, in.getInt());
+        }
+        int sequenceCount = in.getInt();
+        for (int i = 0; i < sequenceCount; i++) {
+            int docId = in.getInt();
+            byte[] sequence = new byte[in.getInt()];
+            in.get(sequence);
+            index.sequences.put(docId, sequence);
+        }
+        return index;
+    }
+
+    public void remove(int docId) {
+        sequences.remove(docId);
+    }
+
+    /**
+     * Returns the term numbers of a phrase, or null if one of its words occurs in no post
+     */
+    public int[] termIdsOf(List<String> phrase) {
+        int[] ids = new int[phrase.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Integer termId = termIds.get(phrase.get(i));
+            if (termId == null) {
+                return null;
+            }
+            ids[i] = termId;
+        }
+        return ids;
+    }
+
+    /**
+     * Returns true if the post contains the terms consecutively, in order
+     */
+    public boolean containsPhrase(int docId, int[] phrase) {
+        byte[] sequence = sequences.get(docId);
+        if (sequence == null || phrase.length == 0) {
+            return false;
+        }
+        // Ring of the last phrase.length term numbers read
+        int[] window = new int[phrase.length];
+        int read = 0;
+        int offset = 0;
+        while (offset < sequence.length) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = sequence[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            window[read++ % window.length] = value;
+            if (read >= phrase.length && value == phrase[phrase.length - 1] && matches(window, read, phrase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(int[] window, int read, int[] phrase) {
+        int start = read - phrase.length;
+        for (int i = 0; i < phrase.length; i++) {
+            if (window[(start + i) % window.length] != phrase[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return sequences.size();
+    }
+
+    /**
+     * Returns the approximate heap footprint of the sequences and the term numbering in bytes
+     */
+    public long getEstimatedBytes() {
+        long bytes = 64L + 72L * termIds.size();
+        for (byte[] sequence : sequences.values()) {
+            bytes += 32 + 16 + sequence.length;
+        }
+        return bytes;
+    }
+
+    private static int writeVarInt(byte[] buffer, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+}
@@ -0,0 +1,514 @@
+package org.example.bloggingapp.Search;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An immutable, sorted and de-duplicated list of post IDs, stored compactly, each with the number
+ * of times the term occurs in the post (its term frequency).
+ *
+ * IDs are kept as gaps between consecutive IDs (deltas), each written as a variable-length
+ * integer of 7 bits per byte. Post IDs are dense, so most gaps fit in one byte and a list costs
+ * about one byte per post instead of a 4-8 byte object reference per occurrence. The low bit of
+ * each gap flags a frequency above one, which then follows as a second varint; most words occur
+ * once in a post, so frequencies cost almost nothing.
+ *
+ * Every {@value #SKIP_INTERVAL} entries the list records the ID reached and the byte offset
+ * after it (a skip pointer). {@link Cursor#advance(int)} binary-searches these to jump over whole
+ * blocks without decoding them, so intersecting a short list with a long one costs time in the
+ * length of the short list, not the long one.
+ *
+ * Lists are never modified in place: {@link #with(int)} and {@link #without(int)} return new
+ * lists, so readers can keep decoding a list while a writer replaces it.
+ */
+public final class PostingList {
+
+    /**
+     * Returned by {@link Cursor#next()} once the list is exhausted
+     */
+    public static final int NO_MORE_DOCS = -1;
+
+    static final int SKIP_INTERVAL = 64;
+
+    private static final int[] NO_SKIPS = new int[0];
+
+    public static final PostingList EMPTY = new PostingList(new byte[0], 0, NO_MORE_DOCS, NO_SKIPS, NO_SKIPS);
+
+    private final byte[] data;
+    private final int size;
+    private final int lastDoc;
+    // Entry k * SKIP_INTERVAL + SKIP_INTERVAL - 1: its ID and the offset of the entry after it
+    private final int[] skipDocs;
+    private final int[] skipOffsets;
+
+    private PostingList(byte[] data, int size, int lastDoc, int[] skipDocs, int[] skipOffsets) {
+        this.data = data;
+        this.size = size;
+        this.lastDoc = lastDoc;
+        this.skipDocs = skipDocs;
+        this.skipOffsets = skipOffsets;
+    }
+
+    /**
+     * Encodes IDs that are already sorted ascending and distinct, each with a frequency of one
+     * @throws IllegalArgumentException if the IDs are negative, unsorted or repeated
+     */
+    public static PostingList of(int[] sortedDocIds, int count) {
+        return of(sortedDocIds, null, count);
+    }
+
+    public static PostingList of(int... sortedDocIds) {
+        return of(sortedDocIds, sortedDocIds.length);
+    }
+
+    /**
+     * Encodes IDs that are already sorted ascending and distinct with their frequencies
+     * @param freqs the frequency of each ID, at least one; null for all ones
+     * @throws IllegalArgumentException if the IDs are negative, unsorted or repeated
+     */
+    public static PostingList of(int[] sortedDocIds, int[] freqs, int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        Writer writer = new Writer(count);
+        for (int i = 0; i < count; i++) {
+            writer.add(sortedDocIds[i], freqs == null ? 1 : freqs[i]);
+        }
+        return writer.build();
+    }
+
+    /**
+     * Encodes ascending IDs one at a time, for callers that hold them in several arrays
+     */
+    static final class Writer {
+        private byte[] buffer;
+        private int length;
+        private int count;
+        private int previous = -1;
+        private int[] skipDocs;
+        private int[] skipOffsets;
+
+        Writer(int expectedCount) {
+            // At most two 5-byte varints per entry, though usually one or two bytes in all
+            this.buffer = new byte[Math.max(16, expectedCount * 10)];
+            int skips = expectedCount / SKIP_INTERVAL;
+            this.skipDocs = skips == 0 ? NO_SKIPS : new int[skips];
+            this.skipOffsets = skips == 0 ? NO_SKIPS : new int[skips];
+        }
+
+        /**
+         * @throws IllegalArgumentException if the ID is negative or not above the previous one
+         */
+        void add(int docId, int freq) {
+            if (docId <= previous) {
+                throw new IllegalArgumentException("Posting IDs must be ascending and distinct: " + previous + ", " + docId);
+            }
+            if (length + 10 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length + (buffer.length >> 1) + 10);
+            }
+            length = writeEntry(buffer, length, docId - previous - 1, freq);
+            previous = docId;
+            if (++count % SKIP_INTERVAL == 0) {
+                int skip = count / SKIP_INTERVAL - 1;
+                if (skip == skipDocs.length) {
+                    skipDocs = Arrays.copyOf(skipDocs, skip * 2 + 1);
+                    skipOffsets = Arrays.copyOf(skipOffsets, skip * 2 + 1);
+                }
+                skipDocs[skip] = docId;
+                skipOffsets[skip] = length;
+            }
+        }
+
+        PostingList build() {
+            if (count == 0) {
+                return EMPTY;
+            }
+            int skips = count / SKIP_INTERVAL;
+            return new PostingList(Arrays.copyOf(buffer, length), count, previous,
+                    skips == skipDocs.length ? skipDocs : Arrays.copyOf(skipDocs, skips),
+                    skips == skipOffsets.length ? skipOffsets : Arrays.copyOf(skipOffsets, skips));
+        }
+    }
+
+    /**
+     * Sorts and de-duplicates the first count IDs of the array in place, then encodes them.
+     * A repeated ID gets the number of repeats as its frequency.
+     */
+    public static PostingList fromUnsorted(int[] docIds, int count) {
+        return fromUnsorted(docIds, null, count);
+    }
+
+    /**
+     * Sorts and de-duplicates IDs with their frequencies; the frequencies of a repeated ID are summed
+     * @param freqs the frequency of each ID; null for all ones
+     */
+    public static PostingList fromUnsorted(int[] docIds, int[] freqs, int count) {
+        // Sort (ID, frequency) pairs together as longs; IDs are non-negative
+        long[] entries = new long[count];
+        for (int i = 0; i < count; i++) {
+            entries[i] = (long) docIds[i] << 32 | (freqs == null ? 1 : freqs[i]);
+        }
+        Arrays.sort(entries);
+        int[] sortedIds = new int[count];
+        int[] sortedFreqs = new int[count];
+        int distinct = 0;
+        for (long entry : entries) {
+            int docId = (int) (entry >>> 32);
+            int freq = (int) entry;
+            if (distinct > 0 && sortedIds[distinct - 1] == docId) {
+                sortedFreqs[distinct - 1] += freq;
+            } else {
+                sortedIds[distinct] = docId;
+                sortedFreqs[distinct++] = freq;
+            }
+        }
+        return of(sortedIds, sortedFreqs, distinct);
+    }
+
+    // ====== READING ======
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the largest ID in the list, or NO_MORE_DOCS if it is empty
+     */
+    public int getLastDoc() {
+        return lastDoc;
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public boolean contains(int docId) {
+        return freq(docId) > 0;
+    }
+
+    /**
+     * Returns the frequency of an ID, or 0 if the list does not contain it
+     */
+    public int freq(int docId) {
+        if (docId > lastDoc || docId < 0) {
+            return 0;
+        }
+        Cursor cursor = cursor();
+        return cursor.advance(docId) == docId ? cursor.freq() : 0;
+    }
+
+    public int[] toArray() {
+        int[] docIds = new int[size];
+        Cursor cursor = cursor();
+        for (int i = 0; i < size; i++) {
+            docIds[i] = cursor.next();
+        }
+        return docIds;
+    }
+
+    /**
+     * Returns the frequency of each ID, in the order of {@link #toArray()}
+     */
+    public int[] freqsToArray() {
+        int[] freqs = new int[size];
+        Cursor cursor = cursor();
+        for (int i = 0; i < size; i++) {
+            cursor.next();
+            freqs[i] = cursor.freq();
+        }
+        return freqs;
+    }
+
+    /**
+     * Returns the approximate heap footprint of this list in bytes
+     */
+    public long getEstimatedBytes() {
+        // Object header and fields, plus the array headers and payloads
+        return 32 + 16 + data.length + (skipDocs.length == 0 ? 0 : 32 + 8L * skipDocs.length);
+    }
+
+    // ====== PERSISTENCE ======
+
+    /**
+     * Writes the list as it is encoded, skip pointers included, to be read back by {@link #read}
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(lastDoc);
+        out.writeInt(data.length);
+        out.write(data);
+        out.writeInt(skipDocs.length);
+        for (int i = 0; i < skipDocs.length; i++) {
+            out.writeInt(skipDocs[i]);
+            out.writeInt(skipOffsets[i]);
+        }
+    }
+
+    /**
+     * Reads a list written by {@link #write}, copying its encoded bytes without decoding them
+     */
+    static PostingList read(ByteBuffer in) {
+        int size = in.getInt();
+        int lastDoc = in.getInt();
+        byte[] data = new byte[in.getInt()];
+        in.get(data);
+        int skips = in.getInt();
+        int[] skipDocs = skips == 0 ? NO_SKIPS : new int[skips];
+        int[] skipOffsets = skips == 0 ? NO_SKIPS : new int[skips];
+        for (int i = 0; i < skips; i++) {
+            skipDocs[i] = in.getInt();
+            skipOffsets[i] = in.getInt();
+        }
+        return size == 0 ? EMPTY : new PostingList(data, size, lastDoc, skipDocs, skipOffsets);
+    }
+
+    // ====== COPY-ON-WRITE UPDATES ======
+
+    /**
+     * Returns a list that also contains docId; this list if it already does
+     */
+    public PostingList with(int docId) {
+        return contains(docId) ? this : with(docId, 1);
+    }
+
+    /**
+     * Returns a list that contains docId with the given frequency, replacing any previous one
+     */
+    public PostingList with(int docId, int freq) {
+        if (docId > lastDoc) {
+            // Appending the newest post is the common case and needs no decoding
+            byte[] buffer = Arrays.copyOf(data, data.length + 10);
+            int length = writeEntry(buffer, data.length, docId - lastDoc - 1, freq);
+            int[] newSkipDocs = skipDocs;
+            int[] newSkipOffsets = skipOffsets;
+            if ((size + 1) % SKIP_INTERVAL == 0) {
+                newSkipDocs = Arrays.copyOf(skipDocs, skipDocs.length + 1);
+                newSkipOffsets = Arrays.copyOf(skipOffsets, skipOffsets.length + 1);
+                newSkipDocs[skipDocs.length] = docId;
+                newSkipOffsets[skipOffsets.length] = length;
+            }
+            return new PostingList(Arrays.copyOf(buffer, length), size + 1, docId, newSkipDocs, newSkipOffsets);
+        }
+        int current = freq(docId);
+        if (current == freq) {
+            return this;
+        }
+        int[] docIds = toArray();
+        int[] freqs = freqsToArray();
+        if (current > 0) {
+            freqs[Arrays.binarySearch(docIds, docId)] = freq;
+            return of(docIds, freqs, size);
+        }
+        int insertAt = -Arrays.binarySearch(docIds, docId) - 1;
+        int[] newIds = new int[size + 1];
+        int[] newFreqs = new int[size + 1];
+        System.arraycopy(docIds, 0, newIds, 0, insertAt);
+        System.arraycopy(freqs, 0, newFreqs, 0, insertAt);
+        newIds[insertAt] = docId;
+        newFreqs[insertAt] = freq;
+        System.arraycopy(docIds, insertAt, newIds, insertAt + 1, size - insertAt);
+        System.arraycopy(freqs, insertAt, newFreqs, insertAt + 1, size - insertAt);
+        return of(newIds, newFreqs, size + 1);
+    }
+
+    /**
+     * Returns a list without docId; this list if it does not contain it
+     */
+    public PostingList without(int docId) {
+        if (!contains(docId)) {
+            return this;
+        }
+        int[] remaining = new int[size - 1];
+        int[] freqs = new int[size - 1];
+        int count = 0;
+        Cursor cursor = cursor();
+        for (int id = cursor.next(); id != NO_MORE_DOCS; id = cursor.next()) {
+            if (id != docId) {
+                remaining[count] = id;
+                freqs[count++] = cursor.freq();
+            }
+        }
+        return of(remaining, freqs, count);
+    }
+
+    // ====== SET OPERATIONS ======
+
+    /**
+     * Returns the IDs in either list; an ID in both takes its frequency from the second list
+     */
+    public static PostingList union(PostingList first, PostingList second) {
+        if (first.isEmpty()) {
+            return second;
+        }
+        if (second.isEmpty()) {
+            return first;
+        }
+        int[] merged = new int[first.size + second.size];
+        int[] freqs = new int[merged.length];
+        int count = 0;
+        Cursor a = first.cursor();
+        Cursor b = second.cursor();
+        int x = a.next();
+        int y = b.next();
+        while (x != NO_MORE_DOCS || y != NO_MORE_DOCS) {
+            if (y == NO_MORE_DOCS || (x != NO_MORE_DOCS && x < y)) {
+                merged[count] = x;
+                freqs[count++] = a.freq();
+                x = a.next();
+            } else {
+                merged[count] = y;
+                freqs[count++] = b.freq();
+                if (x == y) {
+                    x = a.next();
+                }
+                y = b.next();
+            }
+        }
+        return of(merged, freqs, count);
+    }
+
+    /**
+     * Returns the IDs of this list that are not in removed
+     */
+    public PostingList minus(PostingList removed) {
+        if (isEmpty() || removed.isEmpty()) {
+            return this;
+        }
+        int[] remaining = new int[size];
+        int[] freqs = new int[size];
+        int count = 0;
+        Cursor exclusions = removed.cursor();
+        Cursor cursor = cursor();
+        for (int docId = cursor.next(); docId != NO_MORE_DOCS; docId = cursor.next()) {
+            int excluded = exclusions.advance(docId);
+            if (excluded != docId) {
+                remaining[count] = docId;
+                freqs[count++] = cursor.freq();
+            }
+        }
+        return count == size ? this : of(remaining, freqs, count);
+    }
+
+    private static int writeEntry(byte[] buffer, int offset, int gap, int freq) {
+        if (freq < 1) {
+            throw new IllegalArgumentException("Posting frequency must be positive: " + freq);
+        }
+        // The shift may carry into the sign bit; varints are written and read as unsigned
+        offset = writeVarInt(buffer, offset, gap << 1 | (freq > 1 ? 1 : 0));
+        return freq > 1 ? writeVarInt(buffer, offset, freq - 2) : offset;
+    }
+
+    private static int writeVarInt(byte[] buffer, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PostingList list && size == list.size && Arrays.equals(data, list.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(data);
+    }
+
+    @Override
+    public String toString() {
+        return "PostingList" + Arrays.toString(toArray());
+    }
+
+    /**
+     * Decodes the list front to back. Not thread-safe; each reader takes its own cursor.
+     */
+    public final class Cursor {
+        private int offset;
+        private int remaining = size;
+        private int current = -1;
+        private int freq;
+
+        /**
+         * Returns the next ID, or NO_MORE_DOCS once the list is exhausted
+         */
+        public int next() {
+            if (remaining == 0) {
+                return NO_MORE_DOCS;
+            }
+            remaining--;
+            int value = readVarInt();
+            current += (value >>> 1) + 1;
+            freq = (value & 1) == 0 ? 1 : readVarInt() + 2;
+            return current;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        /**
+         * Moves to the first ID that is at least target and returns it, or NO_MORE_DOCS
+         */
+        public int advance(int target) {
+            if (current >= target) {
+                return current;
+            }
+            if (skipDocs.length > 0 && target > current) {
+                skipTo(target);
+            }
+            int docId;
+            do {
+                docId = next();
+            } while (docId != NO_MORE_DOCS && docId < target);
+            return docId;
+        }
+
+        /**
+         * Jumps to the last skip point before target, if it is ahead of the cursor
+         */
+        private void skipTo(int target) {
+            int slot = Arrays.binarySearch(skipDocs, target);
+            int skip = (slot >= 0 ? slot : -slot - 1) - 1;
+            if (skip < 0) {
+                return;
+            }
+            int consumed = (skip + 1) * SKIP_INTERVAL;
+            if (consumed > size - remaining) {
+                offset = skipOffsets[skip];
+                current = skipDocs[skip];
+                remaining = size - consumed;
+            }
+        }
+
+        /**
+         * Returns the ID last returned by next or advance, or -1 before the first call
+         */
+        public int current() {
+            return current;
+        }
+
+        /**
+         * Returns the frequency of the current ID
+         */
+        public int freq() {
+            return freq;
+        }
+    }
+}
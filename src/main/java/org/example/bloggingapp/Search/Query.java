@@ -0,0 +1,229 @@
+package org.example.bloggingapp.Search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A parsed search query: terms and phrases combined with AND, OR and NOT.
+ *
+ * Terms are already normalized the way the index stores them, so evaluating a query needs no
+ * further text processing. {@link #toString()} prints a canonical form, e.g.
+ * {@code +(java OR kotlin) +"virtual threads" -author:bob}, that is equal for equivalent input.
+ */
+public abstract class Query {
+
+    /**
+     * The index a term is looked up in
+     */
+    public enum Field {
+        KEYWORD(""), TITLE("title:"), AUTHOR("author:"), TAG("tag:");
+
+        private final String prefix;
+
+        Field(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+    }
+
+    Query() {
+    }
+
+    /**
+     * Adds the terms this query searches for in a field, skipping excluded ones
+     */
+    public abstract void collectTerms(Field field, List<String> terms);
+
+    /**
+     * A single word in one field
+     */
+    public static final class Term extends Query {
+        private final Field field;
+        private final String text;
+
+        public Term(Field field, String text) {
+            this.field = field;
+            this.text = text;
+        }
+
+        public Field getField() { return field; }
+        public String getText() { return text; }
+
+        @Override
+        public void collectTerms(Field field, List<String> terms) {
+            if (this.field == field) {
+                terms.add(text);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Term term && field == term.field && text.equals(term.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(field, text);
+        }
+
+        @Override
+        public String toString() {
+            return field.getPrefix() + text;
+        }
+    }
+
+    /**
+     * Keywords that must occur next to each other, in order
+     */
+    public static final class Phrase extends Query {
+        private final List<String> words;
+
+        public Phrase(List<String> words) {
+            this.words = List.copyOf(words);
+        }
+
+        public List<String> getWords() { return words; }
+
+        @Override
+        public void collectTerms(Field field, List<String> terms) {
+            if (field == Field.KEYWORD) {
+                terms.addAll(words);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Phrase phrase && words.equals(phrase.words);
+        }
+
+        @Override
+        public int hashCode() {
+            return words.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "\"" + String.join(" ", words) + "\"";
+        }
+    }
+
+    /**
+     * Posts matching every clause; excluded clauses are {@link Not}
+     */
+    public static final class And extends Query {
+        private final List<Query> clauses;
+
+        public And(List<Query> clauses) {
+            this.clauses = List.copyOf(clauses);
+        }
+
+        public List<Query> getClauses() { return clauses; }
+
+        @Override
+        public void collectTerms(Field field, List<String> terms) {
+            for (Query clause : clauses) {
+                clause.collectTerms(field, terms);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof And and && clauses.equals(and.clauses);
+        }
+
+        @Override
+        public int hashCode() {
+            return clauses.hashCode() * 31 + 1;
+        }
+
+        @Override
+        public String toString() {
+            return joinSorted(clauses, " ", true);
+        }
+    }
+
+    /**
+     * Posts matching any clause
+     */
+    public static final class Or extends Query {
+        private final List<Query> clauses;
+
+        public Or(List<Query> clauses) {
+            this.clauses = List.copyOf(clauses);
+        }
+
+        public List<Query> getClauses() { return clauses; }
+
+        @Override
+        public void collectTerms(Field field, List<String> terms) {
+            for (Query clause : clauses) {
+                clause.collectTerms(field, terms);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Or or && clauses.equals(or.clauses);
+        }
+
+        @Override
+        public int hashCode() {
+            return clauses.hashCode() * 31 + 2;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + joinSorted(clauses, " OR ", false) + ")";
+        }
+    }
+
+    /**
+     * Excludes the posts matching the clause; only valid as a clause of {@link And}
+     */
+    public static final class Not extends Query {
+        private final Query clause;
+
+        public Not(Query clause) {
+            this.clause = clause;
+        }
+
+        public Query getClause() { return clause; }
+
+        @Override
+        public void collectTerms(Field field, List<String> terms) {
+            // Excluded terms do not count towards relevance
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Not not && clause.equals(not.clause);
+        }
+
+        @Override
+        public int hashCode() {
+            return clause.hashCode() * 31 + 3;
+        }
+
+        @Override
+        public String toString() {
+            return "-" + clause;
+        }
+    }
+
+    /**
+     * Clause order does not change the result, so the canonical form sorts the clauses
+     */
+    private static String joinSorted(List<Query> clauses, String separator, boolean markRequired) {
+        List<String> parts = new ArrayList<>(clauses.size());
+        for (Query clause : clauses) {
+            parts.add(markRequired && !(clause instanceof Not) ? "+" + clause : clause.toString());
+        }
+        Collections.sort(parts);
+        return String.join(separator, parts);
+    }
+}
@@ -0,0 +1,314 @@
+package org.example.bloggingapp.Search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates a {@link Query} against an {@link InvertedIndex} into the sorted IDs of the matching
+ * posts, without ever enumerating all posts.
+ *
+ * An AND starts from its cheapest clause, estimated by posting list length, and narrows the
+ * result with the others in order of cost, stopping as soon as nothing is left. A term or phrase
+ * clause narrows the result by advancing its posting list cursors to each remaining post, which
+ * skip pointers turn into jumps over whole blocks; other clauses are evaluated on their own and
+ * intersected by galloping, probing the longer array at doubling distances. NOT clauses only
+ * remove posts from the result. Phrases are matched by intersecting their words and then checking
+ * positions in the few remaining posts.
+ *
+ * Not thread-safe; use one evaluator per query. Looked-up posting lists are kept for the query.
+ */
+public final class QueryEvaluator {
+
+    private static final int[] NO_DOCS = new int[0];
+
+    private final InvertedIndex index;
+    private final Map<Query.Term, PostingList> postings = new HashMap<>();
+
+    public QueryEvaluator(InvertedIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Returns the IDs of the matching posts in ascending order
+     * @throws IllegalArgumentException if a NOT is used outside an AND with a selective clause
+     */
+    public int[] evaluate(Query query) {
+        if (query instanceof Query.Term term) {
+            return postings(term).toArray();
+        }
+        if (query instanceof Query.Phrase phrase) {
+            return evaluatePhrase(phrase);
+        }
+        if (query instanceof Query.Or or) {
+            return evaluateOr(or);
+        }
+        if (query instanceof Query.And and) {
+            return evaluateAnd(and);
+        }
+        throw new IllegalArgumentException("Excluded terms need at least one term to search for");
+    }
+
+    /**
+     * Estimates the number of posts a clause matches, an upper bound for terms and phrases
+     */
+    long cost(Query query) {
+        if (query instanceof Query.Term term) {
+            return postings(term).size();
+        }
+        if (query instanceof Query.Phrase phrase) {
+            long cost = Long.MAX_VALUE;
+            for (String word : phrase.getWords()) {
+                cost = Math.min(cost, postings(new Query.Term(Query.Field.KEYWORD, word)).size());
+            }
+            return cost;
+        }
+        if (query instanceof Query.Or or) {
+            long cost = 0;
+            for (Query clause : or.getClauses()) {
+                cost += cost(clause);
+            }
+            return cost;
+        }
+        if (query instanceof Query.And and) {
+            long cost = Long.MAX_VALUE;
+            for (Query clause : and.getClauses()) {
+                if (!(clause instanceof Query.Not)) {
+                    cost = Math.min(cost, cost(clause));
+                }
+            }
+            return cost;
+        }
+        // Exclusions are applied last and never drive the evaluation
+        return Long.MAX_VALUE;
+    }
+
+    private PostingList postings(Query.Term term) {
+        return postings.computeIfAbsent(term, key -> fieldOf(key.getField()).get(key.getText()));
+    }
+
+    private TermIndex fieldOf(Query.Field field) {
+        switch (field) {
+            case TITLE:
+                return index.titles();
+            case AUTHOR:
+                return index.authors();
+            case TAG:
+                return index.tags();
+            default:
+                return index.keywords();
+        }
+    }
+
+    // ====== AND ======
+
+    private int[] evaluateAnd(Query.And and) {
+        List<Query> required = new ArrayList<>();
+        List<Query> excluded = new ArrayList<>();
+        for (Query clause : and.getClauses()) {
+            if (clause instanceof Query.Not not) {
+                excluded.add(not.getClause());
+            } else {
+                required.add(clause);
+            }
+        }
+        if (required.isEmpty()) {
+            throw new IllegalArgumentException("Excluded terms need at least one term to search for");
+        }
+
+        Map<Query, Long> costs = new HashMap<>();
+        for (Query clause : required) {
+            costs.put(clause, cost(clause));
+        }
+        required.sort(Comparator.comparingLong(costs::get));
+        if (costs.get(required.get(0)) == 0) {
+            return NO_DOCS;
+        }
+
+        int[] docs = evaluate(required.get(0));
+        for (int i = 1; i < required.size() && docs.length > 0; i++) {
+            docs = retain(docs, required.get(i), true);
+        }
+        for (int i = 0; i < excluded.size() && docs.length > 0; i++) {
+            docs = retain(docs, excluded.get(i), false);
+        }
+        return docs;
+    }
+
+    /**
+     * Keeps the docs that match the clause, or with matching false those that do not
+     */
+    private int[] retain(int[] docs, Query clause, boolean matching) {
+        if (clause instanceof Query.Term term) {
+            PostingList.Cursor cursor = postings(term).cursor();
+            return filter(docs, doc -> (cursor.advance(doc) == doc) == matching);
+        }
+        if (clause instanceof Query.Phrase phrase) {
+            PhraseMatcher matcher = new PhraseMatcher(phrase);
+            return filter(docs, doc -> matcher.matches(doc) == matching);
+        }
+        int[] other = evaluate(clause);
+        return matching ? gallopIntersect(docs, other) : gallopSubtract(docs, other);
+    }
+
+    private interface DocFilter {
+        boolean accept(int doc);
+    }
+
+    private static int[] filter(int[] docs, DocFilter filter) {
+        int[] kept = new int[docs.length];
+        int count = 0;
+        for (int doc : docs) {
+            if (filter.accept(doc)) {
+                kept[count++] = doc;
+            }
+        }
+        return count == docs.length ? docs : Arrays.copyOf(kept, count);
+    }
+
+    /**
+     * Intersects two sorted arrays by walking the shorter one and galloping through the longer
+     * one, which costs O(m log(n / m)) for lengths m <= n
+     */
+    static int[] gallopIntersect(int[] a, int[] b) {
+        int[] small = a.length <= b.length ? a : b;
+        int[] large = small == a ? b : a;
+        int[] result = new int[small.length];
+        int count = 0;
+        int from = 0;
+        for (int doc : small) {
+            from = gallop(large, from, doc);
+            if (from == large.length) {
+                break;
+            }
+            if (large[from] == doc) {
+                result[count++] = doc;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the docs of a that are not in b
+     */
+    static int[] gallopSubtract(int[] a, int[] b) {
+        int[] result = new int[a.length];
+        int count = 0;
+        int from = 0;
+        for (int doc : a) {
+            from = gallop(b, from, doc);
+            if (from == b.length || b[from] != doc) {
+                result[count++] = doc;
+            }
+        }
+        return count == a.length ? a : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the first index at or after from whose value is at least target, or the length
+     */
+    private static int gallop(int[] sorted, int from, int target) {
+        if (from >= sorted.length || sorted[from] >= target) {
+            return from;
+        }
+        // Double the step until it passes the target, then binary search the last step
+        int step = 1;
+        int low = from;
+        int high = from + step;
+        while (high < sorted.length && sorted[high] < target) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        high = Math.min(high, sorted.length);
+        int slot = Arrays.binarySearch(sorted, low + 1, high, target);
+        return slot >= 0 ? slot : -slot - 1;
+    }
+
+    // ====== OR ======
+
+    private int[] evaluateOr(Query.Or or) {
+        int[] result = NO_DOCS;
+        for (Query clause : or.getClauses()) {
+            result = union(result, evaluate(clause));
+        }
+        return result;
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                merged[count++] = a[i++];
+            } else {
+                if (i < a.length && a[i] == b[j]) {
+                    i++;
+                }
+                merged[count++] = b[j++];
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+
+    // ====== PHRASES ======
+
+    private int[] evaluatePhrase(Query.Phrase phrase) {
+        List<Query.Term> terms = new ArrayList<>();
+        for (String word : phrase.getWords()) {
+            Query.Term term = new Query.Term(Query.Field.KEYWORD, word);
+            if (!terms.contains(term)) {
+                terms.add(term);
+            }
+        }
+        terms.sort(Comparator.comparingInt(term -> postings(term).size()));
+        int[] docs = postings(terms.get(0)).toArray();
+        for (int i = 1; i < terms.size() && docs.length > 0; i++) {
+            docs = retain(docs, terms.get(i), true);
+        }
+        PhraseMatcher matcher = new PhraseMatcher(phrase);
+        return filter(docs, matcher::matches);
+    }
+
+    /**
+     * Checks one post at a time: every word first, through its posting list, then positions
+     */
+    private final class PhraseMatcher {
+        private final int[] termIds;
+        private final PostingList.Cursor[] cursors;
+
+        PhraseMatcher(Query.Phrase phrase) {
+            this.termIds = index.positions().termIdsOf(phrase.getWords());
+            this.cursors = new PostingList.Cursor[phrase.getWords().size()];
+            for (int i = 0; i < cursors.length; i++) {
+                cursors[i] = postings(new Query.Term(Query.Field.KEYWORD, phrase.getWords().get(i))).cursor();
+            }
+        }
+
+        /**
+         * Must be called with ascending docs
+         */
+        boolean matches(int doc) {
+            if (termIds == null) {
+                return false;
+            }
+            for (PostingList.Cursor cursor : cursors) {
+                if (cursor.advance(doc) != doc) {
+                    return false;
+                }
+            }
+            return index.positions().containsPhrase(doc, termIds);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package org.example.bloggingapp.Search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses search box input into a {@link Query}.
+ *
+ * Supported syntax, loosely following web search engines:
+ * <ul>
+ *   <li>{@code java streams} - every word must match (implicit AND)</li>
+ *   <li>{@code java OR kotlin}, {@code java AND streams} - operators in capitals; AND binds tighter</li>
+ *   <li>{@code NOT cooking}, {@code -cooking} - excludes posts; needs a term to search for</li>
+ *   <li>{@code "virtual threads"} - words next to each other, in order</li>
+ *   <li>{@code (java OR kotlin) -android} - grouping</li>
+ *   <li>{@code title:java}, {@code author:ann}, {@code author:"jane doe"}, {@code tag:java}, {@code #java} - one field only</li>
+ * </ul>
+ * Words are analyzed like the index analyzes posts, by {@link TextAnalyzer#DEFAULT}: case-folded,
+ * split at punctuation, and short words and stopwords dropped since they are not indexed; a word
+ * the analyzer splits, such as "read-only", is searched as a phrase. Malformed input such as an
+ * unclosed quote or parenthesis is read as if it were closed at the end.
+ */
+public final class QueryParser {
+
+    private enum Type { LPAREN, RPAREN, AND, OR, NOT, WORD, PHRASE }
+
+    private record Token(Type type, Query.Field field, String text) {
+    }
+
+    private final List<Token> tokens;
+    private int position;
+
+    private QueryParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Parses a query; one without searchable words matches nothing
+     * @throws IllegalArgumentException if a NOT has no term to exclude from, e.g. "-java" alone
+     */
+    public static Query parse(String input) {
+        QueryParser parser = new QueryParser(tokenize(input == null ? "" : input));
+        Query query = parser.parseOr();
+        if (query == null) {
+            return new Query.Or(List.of());
+        }
+        requireSearchable(query);
+        return query;
+    }
+
+    /**
+     * Returns true if the input uses anything beyond plain words: operators, quotes, grouping,
+     * exclusions or field prefixes
+     */
+    public static boolean usesOperators(String input) {
+        for (Token token : tokenize(input == null ? "" : input)) {
+            if (token.type != Type.WORD || token.field != Query.Field.KEYWORD) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ====== PARSING ======
+
+    private Query parseOr() {
+        List<Query> clauses = new ArrayList<>();
+        add(clauses, parseAnd(), Query.Or.class);
+        while (peek(Type.OR)) {
+            position++;
+            add(clauses, parseAnd(), Query.Or.class);
+        }
+        return clauses.isEmpty() ? null : clauses.size() == 1 ? clauses.get(0) : new Query.Or(clauses);
+    }
+
+    private Query parseAnd() {
+        List<Query> clauses = new ArrayList<>();
+        while (position < tokens.size() && !peek(Type.OR) && !peek(Type.RPAREN)) {
+            if (peek(Type.AND)) {
+                position++;
+                continue;
+            }
+            add(clauses, parseUnary(), Query.And.class);
+        }
+        return clauses.isEmpty() ? null : clauses.size() == 1 ? clauses.get(0) : new Query.And(clauses);
+    }
+
+    private Query parseUnary() {
+        if (peek(Type.NOT)) {
+            position++;
+            Query clause = parseUnary();
+            if (clause == null) {
+                return null;
+            }
+            return clause instanceof Query.Not not ? not.getClause() : new Query.Not(clause);
+        }
+        return parsePrimary();
+    }
+
+    private Query parsePrimary() {
+        if (position == tokens.size() || peek(Type.RPAREN) || peek(Type.OR)) {
+            // Nothing left to negate, e.g. "java NOT"
+            return null;
+        }
+        Token token = tokens.get(position++);
+        switch (token.type) {
+            case LPAREN:
+                Query group = parseOr();
+                if (peek(Type.RPAREN)) {
+                    position++;
+                }
+                return group;
+            case WORD:
+            case PHRASE:
+                // A word may be split into several, e.g. "read-only"
+                return phrase(token.field, token.text);
+            default:
+                // A stray AND, e.g. "NOT AND java"
+                return null;
+        }
+    }
+
+    /**
+     * Adds a clause, flattening a nested clause of the same kind: a (b c) is a b c
+     */
+    private static void add(List<Query> clauses, Query clause, Class<? extends Query> kind) {
+        if (clause == null) {
+            return;
+        }
+        if (kind == Query.And.class && clause instanceof Query.And and) {
+            clauses.addAll(and.getClauses());
+        } else if (kind == Query.Or.class && clause instanceof Query.Or or) {
+            clauses.addAll(or.getClauses());
+        } else if (!clauses.contains(clause)) {
+            clauses.add(clause);
+        }
+    }
+
+    private boolean peek(Type type) {
+        return position < tokens.size() && tokens.get(position).type == type;
+    }
+
+    private static Query phrase(Query.Field field, String text) {
+        if (field == Query.Field.AUTHOR) {
+            // Author names are indexed whole
+            String normalized = TextAnalyzer.fold(text);
+            return normalized.isEmpty() ? null : new Query.Term(field, normalized);
+        }
+        // In order and with repeats, for the phrase
+        List<String> words = new ArrayList<>();
+        if (field == Query.Field.TAG) {
+            // Tags are indexed as written after the #, so nothing is filtered out
+            TextAnalyzer.VERBATIM.analyze(text, token -> words.add(token.term()));
+        } else {
+            TextAnalyzer.DEFAULT.addWords(text, words);
+        }
+        if (words.isEmpty()) {
+            return null;
+        }
+        List<Query> terms = new ArrayList<>();
+        for (String word : words) {
+            Query term = new Query.Term(field, word);
+            if (!terms.contains(term)) {
+                terms.add(term);
+            }
+        }
+        if (field == Query.Field.TAG) {
+            // Tags are single words, so a tag phrase is every tag
+            return terms.size() == 1 ? terms.get(0) : new Query.And(terms);
+        }
+        if (words.size() == 1) {
+            return terms.get(0);
+        }
+        Query.Phrase phrase = new Query.Phrase(words);
+        if (field == Query.Field.TITLE) {
+            // Positions are kept for title and content together; the title terms pin it to the title
+            terms.add(phrase);
+            return new Query.And(terms);
+        }
+        return phrase;
+    }
+
+    /**
+     * A NOT must sit next to a clause that selects posts, since posts are never enumerated
+     */
+    private static void requireSearchable(Query query) {
+        if (query instanceof Query.Not) {
+            throw new IllegalArgumentException("Excluded terms need at least one term to search for");
+        }
+        if (query instanceof Query.Or or) {
+            or.getClauses().forEach(QueryParser::requireSearchable);
+        } else if (query instanceof Query.And and) {
+            boolean selective = false;
+            for (Query clause : and.getClauses()) {
+                if (clause instanceof Query.Not not) {
+                    requireSearchable(not.getClause());
+                } else {
+                    requireSearchable(clause);
+                    selective = true;
+                }
+            }
+            if (!selective) {
+                throw new IllegalArgumentException("Excluded terms need at least one term to search for");
+            }
+        }
+    }
+
+    // ====== TOKENIZING ======
+
+    private static List<Token> tokenize(String input) {
+        List<Token> tokens = new ArrayList<>();
+        int depth = 0;
+        int i = 0;
+        int n = input.length();
+        while (i < n) {
+            char c = input.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                tokens.add(new Token(Type.LPAREN, null, "("));
+                depth++;
+                i++;
+            } else if (c == ')') {
+                // An unmatched closing parenthesis is ignored
+                if (depth > 0) {
+                    tokens.add(new Token(Type.RPAREN, null, ")"));
+                    depth--;
+                }
+                i++;
+            } else if (c == '-' && i + 1 < n && !Character.isWhitespace(input.charAt(i + 1))) {
+                tokens.add(new Token(Type.NOT, null, "-"));
+                i++;
+            } else if (c == '"') {
+                int end = closingQuote(input, i + 1);
+                tokens.add(new Token(Type.PHRASE, Query.Field.KEYWORD, input.substring(i + 1, end)));
+                i = Math.min(n, end + 1);
+            } else {
+                int end = i;
+                while (end < n && !Character.isWhitespace(input.charAt(end)) && "()\"".indexOf(input.charAt(end)) < 0) {
+                    end++;
+                }
+                String word = input.substring(i, end);
+                i = end;
+                Query.Field field = fieldOf(word);
+                if (word.equals("AND") || word.equals("OR") || word.equals("NOT")) {
+                    tokens.add(new Token(Type.valueOf(word), null, word));
+                } else if (field != null) {
+                    String value = word.substring(field.getPrefix().length());
+                    if (value.isEmpty() && i < n && input.charAt(i) == '"') {
+                        int close = closingQuote(input, i + 1);
+                        tokens.add(new Token(Type.PHRASE, field, input.substring(i + 1, close)));
+                        i = Math.min(n, close + 1);
+                    } else if (!value.isEmpty()) {
+                        tokens.add(new Token(Type.WORD, field, value));
+                    }
+                } else if (word.startsWith("#") && word.length() > 1) {
+                    tokens.add(new Token(Type.WORD, Query.Field.TAG, word));
+                } else {
+                    tokens.add(new Token(Type.WORD, Query.Field.KEYWORD, word));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static int closingQuote(String input, int from) {
+        int end = input.indexOf('"', from);
+        return end < 0 ? input.length() : end;
+    }
+
+    private static Query.Field fieldOf(String word) {
+        String lower = word.toLowerCase(Locale.ROOT);
+        for (Query.Field field : Query.Field.values()) {
+            if (field != Query.Field.KEYWORD && lower.startsWith(field.getPrefix())) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.bloggingapp.Search;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Remembers the post IDs a search returned, so repeating it, or paging through it, does not
+ * evaluate and rank it again.
+ *
+ * Entries are keyed by the normalized query, e.g. the canonical form of its {@link Query}, and
+ * the sort order, but not the page: an entry holds the first post IDs of the result in order, and
+ * serves every page within them. A ranked search that stopped at the top k stores those k; a page
+ * further on is a miss and replaces the entry with a deeper one.
+ *
+ * Each entry is stamped with the generation of the index it was computed on. Writers bump the
+ * generation instead of clearing the cache, and an entry of an older generation is dropped when
+ * it is next looked up, or evicted once it is the least recently used. The cache is bounded both
+ * in entries and in the post IDs held by all entries together.
+ *
+ * Methods are serialized on the cache.
+ */
+public final class SearchResultCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1_000;
+    public static final int DEFAULT_MAX_POST_IDS = 1_000_000;
+
+    private final int maxEntries;
+    private final int maxPostIds;
+    // In access order, least recently used first
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long postIdCount;
+
+    private long hits;
+    private long misses;
+    private long staleMisses;
+    private long evictions;
+
+    public SearchResultCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_POST_IDS);
+    }
+
+    /**
+     * @param maxEntries the number of results kept
+     * @param maxPostIds the number of post IDs kept over all results; a larger result is not cached
+     */
+    public SearchResultCache(int maxEntries, int maxPostIds) {
+        if (maxEntries < 1 || maxPostIds < 1) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxPostIds = maxPostIds;
+    }
+
+    /**
+     * What a result is cached under
+     * @param kind the kind of search, e.g. "boolean" or "bm25", since the same query may be
+     *             evaluated differently by each
+     * @param query the normalized query
+     * @param sortBy null for an order that does not depend on options, e.g. relevance
+     */
+    public record Key(String kind, String query, String sortBy, String sortOrder) {
+    }
+
+    /**
+     * The leading post IDs of a result
+     * @param postIds in result order
+     * @param totalHits the number of posts the query matched, at least postIds.length
+     * @param complete whether postIds holds the whole result
+     * @param algorithm how the result was computed
+     */
+    public record Entry(int[] postIds, int totalHits, boolean complete, String algorithm, long generation) {
+
+        /**
+         * Returns true if the entry holds the first depth posts of the result, or all of them
+         */
+        public boolean covers(int depth) {
+            return complete || postIds.length >= depth;
+        }
+    }
+
+    /**
+     * Returns the entry for a key if it was computed at the current generation and reaches the
+     * given depth, e.g. page * pageSize
+     * @return the entry, or null on a miss
+     */
+    public synchronized Entry get(Key key, long generation, int depth) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.generation() != generation) {
+            // Dropped lazily; the index changed since
+            remove(key);
+            misses++;
+            staleMisses++;
+            return null;
+        }
+        if (!entry.covers(depth)) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry;
+    }
+
+    /**
+     * Caches a result, replacing any entry of the key from the same or an older generation, and
+     * evicts the least recently used entries beyond the bounds
+     * @return false if the result is too large to cache or the key holds a newer result, e.g. one
+     * stored by a search that started after this one
+     */
+    public synchronized boolean put(Key key, Entry entry) {
+        if (entry.postIds().length > maxPostIds) {
+            return false;
+        }
+        Entry existing = entries.get(key);
+        if (existing != null && existing.generation() > entry.generation()) {
+            return false;
+        }
+        remove(key);
+        entries.put(key, entry);
+        postIdCount += entry.postIds().length;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries || postIdCount > maxPostIds) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            postIdCount -= evicted.postIds().length;
+            evictions++;
+        }
+        return true;
+    }
+
+    /**
+     * Drops the entry of a key, whatever its generation
+     */
+    public synchronized void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            postIdCount -= removed.postIds().length;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        postIdCount = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of entries of one kind of search
+     */
+    public synchronized int size(String kind) {
+        int count = 0;
+        for (Key key : entries.keySet()) {
+            if (key.kind().equals(kind)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, staleMisses, evictions, entries.size(), postIdCount);
+    }
+
+    /**
+     * Cache statistics since creation
+     * @param staleMisses misses on entries of an older generation, included in misses
+     */
+    public record Stats(long hits, long misses, long staleMisses, long evictions, int size, long postIds) {
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package org.example.bloggingapp.Search;
+
+import org.example.bloggingapp.Models.PostEntity;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * One persisted segment of the search index.
+ *
+ * A full segment holds a whole {@link InvertedIndex}: the stored posts, the term dictionary of
+ * each field with its posting lists in their encoded form, the field lengths and the keyword
+ * sequences. A delta segment holds only the posts written and deleted since the segment before
+ * it. Both carry a watermark, the change_log ID up to which the database is reflected, so a
+ * reader only needs the changes logged after it.
+ *
+ * The header records the settings of the {@link TextAnalyzer} that produced the terms; a segment
+ * written under other settings is refused like a damaged one, so the index is rebuilt.
+ *
+ * Files are written to a temporary name and moved into place, so a segment is either complete
+ * or absent. On opening, a file is memory-mapped and checked against its CRC32 trailer before it
+ * is decoded; posting lists are copied as they are, without decoding or re-tokenizing anything.
+ */
+public final class SegmentFile {
+
+    private static final int MAGIC = 0x424C4958; // "BLIX"
+    // 2: terms are produced by TextAnalyzer, whose settings are recorded in the header
+    private static final int FORMAT_VERSION = 2;
+    private static final byte KIND_FULL = 0;
+    private static final byte KIND_DELTA = 1;
+
+    private final long watermark;
+    private final long watermarkMillis;
+    // Null for a delta segment
+    private final InvertedIndex index;
+    private final List<PostEntity> writtenPosts;
+    private final List<Integer> deletedPostIds;
+
+    private SegmentFile(long watermark, long watermarkMillis, InvertedIndex index, List<PostEntity> writtenPosts,
+                        List<Integer> deletedPostIds) {
+        this.watermark = watermark;
+        this.watermarkMillis = watermarkMillis;
+        this.index = index;
+        this.writtenPosts = writtenPosts;
+        this.deletedPostIds = deletedPostIds;
+    }
+
+    // ====== WRITING ======
+
+    /**
+     * Writes a whole index; writers of the index must be paused meanwhile
+     * @param watermark the change ID the index reflects every change up to
+     * @param watermarkMillis when the watermark was read, in epoch milliseconds
+     */
+    public static void writeFull(Path file, InvertedIndex index, long watermark, long watermarkMillis)
+            throws IOException {
+        write(file, KIND_FULL, watermark, watermarkMillis, index.docs().all(), List.of(), index);
+    }
+
+    /**
+     * Writes the posts written and deleted since the previous segment
+     */
+    public static void writeDelta(Path file, Collection<PostEntity> writtenPosts, Collection<Integer> deletedPostIds,
+                                  long watermark, long watermarkMillis) throws IOException {
+        write(file, KIND_DELTA, watermark, watermarkMillis, writtenPosts, deletedPostIds, null);
+    }
+
+    private static void write(Path file, byte kind, long watermark, long watermarkMillis,
+                              Collection<PostEntity> posts, Collection<Integer> deletedPostIds,
+                              InvertedIndex index) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 checksum = new CRC32();
+        try (FileOutputStream fileOut = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     new CheckedOutputStream(fileOut, checksum), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeByte(kind);
+            writeString(out, TextAnalyzer.DEFAULT.signature());
+            out.writeLong(watermark);
+            out.writeLong(watermarkMillis);
+
+            out.writeInt(posts.size());
+            for (PostEntity post : posts) {
+                writePost(out, post);
+            }
+            out.writeInt(deletedPostIds.size());
+            for (int postId : deletedPostIds) {
+                out.writeInt(postId);
+            }
+            if (index != null) {
+                index.write(out);
+            }
+
+            out.flush();
+            // The trailer covers everything before it and is not part of the checksum
+            new DataOutputStream(fileOut).writeLong(checksum.getValue());
+            fileOut.getChannel().force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writePost(DataOutput out, PostEntity post) throws IOException {
+        out.writeInt(post.getPostId());
+        writeString(out, post.getTitle());
+        writeString(out, post.getContent());
+        LocalDateTime createdAt = post.getCreatedAt();
+        out.writeBoolean(createdAt != null);
+        if (createdAt != null) {
+            out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(createdAt.getNano());
+        }
+        out.writeInt(post.getUserId());
+        writeString(out, post.getStatus());
+        out.writeInt(post.getViews());
+        writeString(out, post.getAuthorName());
+        out.writeInt(post.getVersion());
+    }
+
+    /**
+     * Writes a nullable string as its UTF-8 length and bytes; unlike writeUTF, without a 64 KB limit
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static void writeInts(DataOutput out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    // ====== READING ======
+
+    /**
+     * Maps a segment file and decodes it
+     * @throws IOException if the file cannot be read, is of another format version or analyzer, or is damaged
+     */
+    public static SegmentFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Segment too large to map: " + file + " (" + length + " bytes)");
+            }
+            if (length < Long.BYTES) {
+                throw new IOException("Segment truncated: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int bodyLength = (int) length - Long.BYTES;
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.slice(0, bodyLength));
+            if (checksum.getValue() != buffer.getLong(bodyLength)) {
+                throw new IOException("Segment checksum mismatch: " + file);
+            }
+            try {
+                return read(buffer.slice(0, bodyLength), file);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Segment damaged: " + file, e);
+            }
+        }
+    }
+
+    private static SegmentFile read(ByteBuffer in, Path file) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a search index segment: " + file);
+        }
+        int version = in.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported segment format version " + version + ": " + file);
+        }
+        byte kind = in.get();
+        String analyzer = readString(in);
+        if (!TextAnalyzer.DEFAULT.signature().equals(analyzer)) {
+            // The terms would not match those of queries, nor of posts indexed from now on
+            throw new IOException("Segment analyzed with other settings (" + analyzer + "): " + file);
+        }
+        long watermark = in.getLong();
+        long watermarkMillis = in.getLong();
+
+        int postCount = in.getInt();
+        List<PostEntity> posts = new ArrayList<>(postCount);
+        int maxPostId = 0;
+        for (int i = 0; i < postCount; i++) {
+            PostEntity post = readPost(in);
+            posts.add(post);
+            maxPostId = Math.max(maxPostId, post.getPostId());
+        }
+        int deletedCount = in.getInt();
+        List<Integer> deleted = new ArrayList<>(deletedCount);
+        for (int i = 0; i < deletedCount; i++) {
+            deleted.add(in.getInt());
+        }
+
+        if (kind == KIND_DELTA) {
+            return new SegmentFile(watermark, watermarkMillis, null, posts, deleted);
+        }
+        DocStore docs = new DocStore(maxPostId);
+        for (PostEntity post : posts) {
+            docs.put(post);
+        }
+        return new SegmentFile(watermark, watermarkMillis, InvertedIndex.read(in, docs), List.of(), List.of());
+    }
+
+    private static PostEntity readPost(ByteBuffer in) {
+        int postId = in.getInt();
+        String title = readString(in);
+        String content = readString(in);
+        LocalDateTime createdAt = null;
+        if (in.get() != 0) {
+            createdAt = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+        }
+        int userId = in.getInt();
+        String status = readString(in);
+        int views = in.getInt();
+        String authorName = readString(in);
+        PostEntity post = new PostEntity(postId, title, content, createdAt, userId, status, views, authorName);
+        post.setVersion(in.getInt());
+        return post;
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int[] readInts(ByteBuffer in) {
+        int[] values = new int[in.getInt()];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + values.length * Integer.BYTES);
+        return values;
+    }
+
+    // ====== CONTENTS ======
+
+    public boolean isFull() {
+        return index != null;
+    }
+
+    /**
+     * Returns the change ID up to which the segment reflects the database
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Returns when the watermark was read, in epoch milliseconds
+     */
+    public long getWatermarkMillis() {
+        return watermarkMillis;
+    }
+
+    /**
+     * Returns the index of a full segment, or null for a delta segment
+     */
+    public InvertedIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the posts written since the previous segment; empty for a full segment
+     */
+    public List<PostEntity> getWrittenPosts() {
+        return writtenPosts;
+    }
+
+    /**
+     * Returns the IDs of posts deleted since the previous segment; empty for a full segment
+     */
+    public List<Integer> getDeletedPostIds() {
+        return deletedPostIds;
+    }
+}
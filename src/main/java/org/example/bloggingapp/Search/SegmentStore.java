@@ -0,0 +1,175 @@
+package org.example.bloggingapp.Search;
+
+import org.example.bloggingapp.Models.PostEntity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * A directory of {@link SegmentFile}s that together make up the persisted search index: the
+ * newest full segment and the delta segments written after it, numbered in writing order.
+ *
+ * Loading reads the full segment and then every delta, so each delta adds to the work of a
+ * start-up. Once {@value #MAX_DELTA_SEGMENTS} deltas have piled up, {@link #needsMerge()} asks
+ * for the next write to be a full segment of the current index instead, which replaces all of
+ * them; segments older than the newest full one are deleted as soon as it is in place.
+ *
+ * Writes are serialized on the store.
+ */
+public final class SegmentStore {
+
+    public static final int MAX_DELTA_SEGMENTS = 8;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.(full|delta)");
+
+    private final Path directory;
+
+    public SegmentStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Loads the newest full segment and collapses the deltas written after it, later ones
+     * winning; applying the changes to the index is left to the caller, which tokenizes posts
+     * @return the loaded segments, or null if there is no full segment
+     * @throws IOException if a segment cannot be read or is damaged
+     */
+    public Snapshot load() throws IOException {
+        List<Segment> segments = list();
+        int fullAt = lastFull(segments);
+        if (fullAt < 0) {
+            return null;
+        }
+        SegmentFile full = SegmentFile.open(segments.get(fullAt).path());
+        long watermark = full.getWatermark();
+        long watermarkMillis = full.getWatermarkMillis();
+        // Null values are deletions
+        Map<Integer, PostEntity> changes = new LinkedHashMap<>();
+        for (Segment segment : segments.subList(fullAt + 1, segments.size())) {
+            SegmentFile delta = SegmentFile.open(segment.path());
+            for (int postId : delta.getDeletedPostIds()) {
+                changes.remove(postId);
+                changes.put(postId, null);
+            }
+            for (PostEntity post : delta.getWrittenPosts()) {
+                changes.remove(post.getPostId());
+                changes.put(post.getPostId(), post);
+            }
+            watermark = delta.getWatermark();
+            watermarkMillis = delta.getWatermarkMillis();
+        }
+
+        List<PostEntity> writtenPosts = new ArrayList<>();
+        List<Integer> deletedPostIds = new ArrayList<>();
+        changes.forEach((postId, post) -> {
+            if (post == null) {
+                deletedPostIds.add(postId);
+            } else {
+                writtenPosts.add(post);
+            }
+        });
+        return new Snapshot(full.getIndex(), writtenPosts, deletedPostIds, watermark, watermarkMillis,
+                segments.size() - fullAt);
+    }
+
+    /**
+     * Writes a full segment of the index and deletes every older segment
+     */
+    public synchronized void writeFull(InvertedIndex index, long watermark, long watermarkMillis) throws IOException {
+        Files.createDirectories(directory);
+        List<Segment> previous = list();
+        long number = previous.isEmpty() ? 1 : previous.get(previous.size() - 1).number() + 1;
+        SegmentFile.writeFull(directory.resolve(nameOf(number, true)), index, watermark, watermarkMillis);
+        for (Segment segment : previous) {
+            Files.deleteIfExists(segment.path());
+        }
+    }
+
+    /**
+     * Writes the posts changed since the previous segment as a delta segment
+     * @throws IllegalStateException if there is no full segment to apply it to
+     */
+    public synchronized void writeDelta(Collection<PostEntity> writtenPosts, Collection<Integer> deletedPostIds,
+                                        long watermark, long watermarkMillis) throws IOException {
+        List<Segment> previous = list();
+        if (lastFull(previous) < 0) {
+            throw new IllegalStateException("No full segment in " + directory);
+        }
+        long number = previous.get(previous.size() - 1).number() + 1;
+        SegmentFile.writeDelta(directory.resolve(nameOf(number, false)), writtenPosts, deletedPostIds,
+                watermark, watermarkMillis);
+    }
+
+    /**
+     * Returns true if the next write should be a full segment: there is none yet, or enough
+     * deltas have accumulated that loading them costs more than rewriting the index
+     */
+    public synchronized boolean needsMerge() throws IOException {
+        List<Segment> segments = list();
+        int fullAt = lastFull(segments);
+        return fullAt < 0 || segments.size() - fullAt - 1 >= MAX_DELTA_SEGMENTS;
+    }
+
+    /**
+     * Returns the number of delta segments after the newest full one
+     */
+    public synchronized int getDeltaCount() throws IOException {
+        List<Segment> segments = list();
+        return segments.size() - Math.max(0, lastFull(segments) + 1);
+    }
+
+    private List<Segment> list() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Segment> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(new Segment(path, Long.parseLong(matcher.group(1)), matcher.group(2).equals("full")));
+                }
+            });
+        }
+        segments.sort((a, b) -> Long.compare(a.number(), b.number()));
+        return segments;
+    }
+
+    private static int lastFull(List<Segment> segments) {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            if (segments.get(i).full()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String nameOf(long number, boolean full) {
+        return String.format("segment-%010d.%s", number, full ? "full" : "delta");
+    }
+
+    private record Segment(Path path, long number, boolean full) {
+    }
+
+    /**
+     * The index of the newest full segment and the collapsed changes of the deltas after it
+     * @param watermark the change ID of the newest segment, up to which the result reflects the database
+     * @param segmentCount the number of files read
+     */
+    public record Snapshot(InvertedIndex index, List<PostEntity> writtenPosts, List<Integer> deletedPostIds,
+                           long watermark, long watermarkMillis, int segmentCount) {
+    }
+}
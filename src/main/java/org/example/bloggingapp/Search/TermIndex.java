@@ -0,0 +1,456 @@
+package org.example.bloggingapp.Search;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The term dictionary of one field: each term maps to the posting list of posts containing it,
+ * with how often it occurs in each. The length of the field in every post is kept alongside for
+ * relevance scoring.
+ *
+ * A term's postings live in two layers. The base list is written by a full build or by
+ * compaction and may be large. Writes after that go to a small list of added posts per term,
+ * and a post whose old version is still in base lists is recorded as stale in the shared
+ * {@link Tombstones}, with its old terms marked dirty. A write therefore costs time in the
+ * number of terms of the post, not in the length of the lists it touches. {@link #compact}
+ * folds the added posts into the base lists and drops stale entries.
+ *
+ * Each term's layers are held in one immutable entry, so a lookup reads them consistently.
+ * Lookups are lock-free; writers and compaction are serialized by the caller.
+ */
+public final class TermIndex {
+
+    private final Map<String, Entry> entries;
+    private final Tombstones tombstones;
+    private final FieldLengths lengths;
+
+    private TermIndex(Map<String, Entry> entries, Tombstones tombstones, FieldLengths lengths) {
+        this.entries = entries;
+        this.tombstones = tombstones;
+        this.lengths = lengths;
+    }
+
+    public static TermIndex empty() {
+        return empty(new Tombstones());
+    }
+
+    public static TermIndex empty(Tombstones tombstones) {
+        return new TermIndex(new ConcurrentHashMap<>(), tombstones, new FieldLengths());
+    }
+
+    /**
+     * Returns the number of terms of this field in each post
+     */
+    public FieldLengths lengths() {
+        return lengths;
+    }
+
+    /**
+     * Returns the posting list of a term, empty if the term is not indexed
+     */
+    public PostingList get(String term) {
+        // Tombstones first: compaction rewrites every dirty entry before it clears them, so an
+        // entry read afterwards is at least as new as the tombstones
+        PostingList stale = tombstones.get();
+        Entry entry = entries.get(term);
+        if (entry == null) {
+            return PostingList.EMPTY;
+        }
+        PostingList base = entry.dirty ? entry.base.minus(stale) : entry.base;
+        return PostingList.union(base, entry.added);
+    }
+
+    public boolean contains(String term) {
+        return !get(term).isEmpty();
+    }
+
+    /**
+     * Records that a post contains the term once
+     */
+    public void add(String term, int docId) {
+        add(term, docId, 1);
+    }
+
+    /**
+     * Records that a post contains the term freq times, replacing any earlier frequency
+     */
+    public void add(String term, int docId, int freq) {
+        entries.merge(term, new Entry(PostingList.EMPTY, PostingList.EMPTY.with(docId, freq), false),
+                (current, single) -> new Entry(current.base, current.added.with(docId, freq), current.dirty));
+    }
+
+    /**
+     * Replaces the terms of a post: adds it to all of its current terms, then removes it from the
+     * previous terms it no longer has, and records the new field length. The post must be marked
+     * stale afterwards if it had previous terms.
+     * @param previousTerms the terms of the indexed version, with repeats; empty for a new post
+     * @param currentTerms the terms of the new version, with repeats; empty to remove the post
+     */
+    public void update(int docId, Collection<String> previousTerms, Collection<String> currentTerms) {
+        Map<String, Integer> freqs = new HashMap<>();
+        for (String term : currentTerms) {
+            freqs.merge(term, 1, Integer::sum);
+        }
+        freqs.forEach((term, freq) -> add(term, docId, freq));
+        for (String term : previousTerms) {
+            if (!freqs.containsKey(term)) {
+                remove(term, docId);
+            }
+        }
+        lengths.set(docId, currentTerms.size());
+    }
+
+    /**
+     * Records that a post no longer contains the term. Its entry in the base list is only hidden
+     * once the post is also marked stale with {@link Tombstones#add(int)}, which hides it in every
+     * dirty term: add the post to all of its current terms before removing old ones.
+     */
+    public void remove(String term, int docId) {
+        entries.computeIfPresent(term, (key, current) -> {
+            PostingList added = current.added.without(docId);
+            boolean dirty = !current.base.isEmpty();
+            return added.isEmpty() && !dirty ? null : new Entry(current.base, added, dirty);
+        });
+    }
+
+    /**
+     * Folds added posts into the base lists and drops stale posts from dirty terms
+     * @param stale the tombstones to apply, read once by the caller for all fields
+     * @return the number of base lists rewritten
+     */
+    int compact(PostingList stale) {
+        int rewritten = 0;
+        for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            if (!entry.dirty && entry.added.isEmpty()) {
+                continue;
+            }
+            PostingList base = entry.dirty ? entry.base.minus(stale) : entry.base;
+            PostingList merged = PostingList.union(base, entry.added);
+            if (merged.isEmpty()) {
+                entries.remove(mapEntry.getKey(), entry);
+            } else {
+                entries.replace(mapEntry.getKey(), entry, new Entry(merged, PostingList.EMPTY, false));
+            }
+            rewritten++;
+        }
+        return rewritten;
+    }
+
+    /**
+     * Returns the number of terms with added posts or stale entries
+     */
+    public int getPendingTermCount() {
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.dirty || !entry.added.isEmpty()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getTermCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of (term, post) pairs in the index, counting added posts
+     */
+    public long getPostingCount() {
+        long count = 0;
+        for (Entry entry : entries.values()) {
+            count += entry.base.size() + entry.added.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the approximate heap footprint of the dictionary and its posting lists in bytes
+     */
+    public long getEstimatedBytes() {
+        long bytes = 64;
+        for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            // Map node, String with its backing array, the entry and its posting lists
+            Entry entry = mapEntry.getValue();
+            bytes += 32 + 40 + mapEntry.getKey().length() + 24 + entry.base.getEstimatedBytes()
+                    + (entry.added.isEmpty() ? 0 : entry.added.getEstimatedBytes());
+        }
+        return bytes + lengths.getEstimatedBytes();
+    }
+
+    /**
+     * Returns a snapshot of the indexed terms; may include terms whose posts were all removed
+     * since the last compaction
+     */
+    public Set<String> terms() {
+        return new HashSet<>(entries.keySet());
+    }
+
+    /**
+     * Writes the current posting list of every term and the field lengths, as if compacted.
+     * Writers must be paused meanwhile.
+     */
+    void write(DataOutput out) throws IOException {
+        List<String> terms = new ArrayList<>(entries.size());
+        List<PostingList> lists = new ArrayList<>(entries.size());
+        for (String term : entries.keySet()) {
+            PostingList list = get(term);
+            if (!list.isEmpty()) {
+                terms.add(term);
+                lists.add(list);
+            }
+        }
+        out.writeInt(terms.size());
+        for (int i = 0; i < terms.size(); i++) {
+            SegmentFile.writeString(out, terms.get(i));
+            lists.get(i).write(out);
+        }
+        SegmentFile.writeInts(out, lengths.toArray());
+    }
+
+    /**
+     * Reads a field written by {@link #write}; every list becomes a base list
+     */
+    static TermIndex read(ByteBuffer in, Tombstones tombstones) {
+        int termCount = in.getInt();
+        Map<String, Entry> entries = new ConcurrentHashMap<>(Math.max(16, termCount * 4 / 3 + 1));
+        for (int i = 0; i < termCount; i++) {
+            String term = SegmentFile.readString(in);
+            entries.put(term, new Entry(PostingList.read(in), PostingList.EMPTY, false));
+        }
+        return new TermIndex(entries, tombstones, new FieldLengths(SegmentFile.readInts(in)));
+    }
+
+    private static final class Entry {
+        private final PostingList base;
+        private final PostingList added;
+        // The base list may hold stale posts
+        private final boolean dirty;
+
+        private Entry(PostingList base, PostingList added, boolean dirty) {
+            this.base = base;
+            this.added = added;
+            this.dirty = dirty;
+        }
+    }
+
+    /**
+     * Collects (term, post) pairs in any order and encodes each term's posting list once at the end.
+     * Each pair is one occurrence: repeats count towards the term frequency and the field length.
+     *
+     * Terms are kept in {@value #PARTITIONS} partitions by hash, so builders filled in parallel
+     * with disjoint posts can be merged by {@link #merge} one partition per task.
+     */
+    public static final class Builder {
+        static final int PARTITIONS = 64;
+
+        private final List<Map<String, DocIdBuffer>> partitions = new ArrayList<>(PARTITIONS);
+        private int[] lengths = new int[1024];
+        private int firstDoc = Integer.MAX_VALUE;
+        private int lastDoc = -1;
+
+        public Builder() {
+            for (int i = 0; i < PARTITIONS; i++) {
+                partitions.add(new HashMap<>());
+            }
+        }
+
+        public void add(String term, int docId) {
+            partitions.get(partitionOf(term)).computeIfAbsent(term, key -> new DocIdBuffer()).add(docId);
+            if (docId >= lengths.length) {
+                lengths = Arrays.copyOf(lengths, Math.max(docId + 1, lengths.length * 2));
+            }
+            lengths[docId]++;
+            firstDoc = Math.min(firstDoc, docId);
+            lastDoc = Math.max(lastDoc, docId);
+        }
+
+        public TermIndex build() {
+            return build(new Tombstones());
+        }
+
+        /**
+         * Builds a field that shares its stale marks with the other fields of an index
+         */
+        public TermIndex build(Tombstones tombstones) {
+            return merge(List.of(this), tombstones);
+        }
+
+        /**
+         * Builds one field from builders that were filled with disjoint posts, consuming them.
+         * The partitions are merged and encoded as fork/join tasks, in the pool of the calling task
+         * or else the common pool.
+         */
+        public static TermIndex merge(List<Builder> segments, Tombstones tombstones) {
+            // At least as many terms as the largest segment
+            int termCount = 0;
+            for (Builder segment : segments) {
+                int segmentTerms = 0;
+                for (Map<String, DocIdBuffer> partition : segment.partitions) {
+                    segmentTerms += partition.size();
+                }
+                termCount = Math.max(termCount, segmentTerms);
+            }
+            Map<String, Entry> entries = new ConcurrentHashMap<>(Math.max(16, termCount * 4 / 3 + 1));
+            List<RecursiveAction> tasks = new ArrayList<>(PARTITIONS + 1);
+            for (int p = 0; p < PARTITIONS; p++) {
+                int partition = p;
+                tasks.add(action(() -> mergePartition(segments, partition, entries)));
+            }
+            int[][] lengths = new int[1][];
+            tasks.add(action(() -> lengths[0] = mergeLengths(segments)));
+            ForkJoinTask.invokeAll(tasks);
+            return new TermIndex(entries, tombstones, new FieldLengths(lengths[0]));
+        }
+
+        private static void mergePartition(List<Builder> segments, int partition, Map<String, Entry> entries) {
+            // Each term's buffers in segment order
+            Map<String, List<DocIdBuffer>> runs = new HashMap<>();
+            for (Builder segment : segments) {
+                for (Map.Entry<String, DocIdBuffer> buffer : segment.partitions.get(partition).entrySet()) {
+                    runs.computeIfAbsent(buffer.getKey(), key -> new ArrayList<>(2)).add(buffer.getValue());
+                }
+                segment.partitions.set(partition, new HashMap<>());
+            }
+            for (Map.Entry<String, List<DocIdBuffer>> run : runs.entrySet()) {
+                entries.put(run.getKey(), new Entry(DocIdBuffer.toPostingList(run.getValue()), PostingList.EMPTY, false));
+            }
+        }
+
+        private static int[] mergeLengths(List<Builder> segments) {
+            if (segments.size() == 1) {
+                return segments.get(0).lengths;
+            }
+            int lastDoc = 0;
+            for (Builder segment : segments) {
+                lastDoc = Math.max(lastDoc, segment.lastDoc);
+            }
+            int[] merged = new int[lastDoc + 1];
+            for (Builder segment : segments) {
+                // The posts of a segment are usually one range of IDs
+                for (int doc = segment.firstDoc; doc <= segment.lastDoc; doc++) {
+                    merged[doc] += segment.lengths[doc];
+                }
+            }
+            return merged;
+        }
+
+        private static int partitionOf(String term) {
+            int hash = term.hashCode();
+            return (hash ^ (hash >>> 16)) & (PARTITIONS - 1);
+        }
+
+        private static RecursiveAction action(Runnable work) {
+            return new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    work.run();
+                }
+            };
+        }
+    }
+
+    /**
+     * Growable ID and frequency arrays; a repeat of the last ID, which is how repeated words in
+     * one post arrive, raises its frequency
+     */
+    private static final class DocIdBuffer {
+        private int[] docIds = new int[4];
+        private int[] freqs = new int[4];
+        private int count;
+        private boolean sorted = true;
+
+        void add(int docId) {
+            if (count > 0) {
+                int last = docIds[count - 1];
+                if (last == docId) {
+                    freqs[count - 1]++;
+                    return;
+                }
+                if (docId < last) {
+                    sorted = false;
+                }
+            }
+            if (count == docIds.length) {
+                docIds = Arrays.copyOf(docIds, count * 2);
+                freqs = Arrays.copyOf(freqs, count * 2);
+            }
+            docIds[count] = docId;
+            freqs[count++] = 1;
+        }
+
+        /**
+         * Encodes the buffers of one term from several segments. Segments of consecutive posts
+         * are written out one after the other without copying them into one buffer first.
+         */
+        static PostingList toPostingList(List<DocIdBuffer> buffers) {
+            if (buffers.size() == 1) {
+                return buffers.get(0).toPostingList();
+            }
+            int total = 0;
+            boolean ascending = true;
+            int last = -1;
+            for (DocIdBuffer buffer : buffers) {
+                total += buffer.count;
+                ascending &= buffer.sorted && buffer.docIds[0] > last;
+                last = buffer.docIds[buffer.count - 1];
+            }
+            if (ascending) {
+                PostingList.Writer writer = new PostingList.Writer(total);
+                for (DocIdBuffer buffer : buffers) {
+                    for (int i = 0; i < buffer.count; i++) {
+                        writer.add(buffer.docIds[i], buffer.freqs[i]);
+                    }
+                }
+                return writer.build();
+            }
+            DocIdBuffer all = new DocIdBuffer();
+            all.docIds = new int[total];
+            all.freqs = new int[total];
+            for (DocIdBuffer buffer : buffers) {
+                System.arraycopy(buffer.docIds, 0, all.docIds, all.count, buffer.count);
+                System.arraycopy(buffer.freqs, 0, all.freqs, all.count, buffer.count);
+                all.count += buffer.count;
+            }
+            all.sorted = false;
+            return all.toPostingList();
+        }
+
+        PostingList toPostingList() {
+            return sorted ? PostingList.of(docIds, freqs, count) : PostingList.fromUnsorted(docIds, freqs, count);
+        }
+    }
+
+    /**
+     * Posts whose entries in base lists are outdated, shared by the fields of one index.
+     * Replaced as a whole on every change so readers see a consistent list.
+     */
+    public static final class Tombstones {
+        private volatile PostingList docs = PostingList.EMPTY;
+
+        public PostingList get() {
+            return docs;
+        }
+
+        public void add(int docId) {
+            docs = docs.with(docId);
+        }
+
+        void clear() {
+            docs = PostingList.EMPTY;
+        }
+    }
+}
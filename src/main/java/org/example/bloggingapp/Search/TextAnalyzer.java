@@ -0,0 +1,519 @@
+package org.example.bloggingapp.Search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Turns text into the terms that search indexing, queries and hashtag extraction work with, in a
+ * single pass over the characters: no regular expressions, no lower-cased copy of the text and no
+ * substring per word.
+ *
+ * The text is cut into runs of letters and digits (combining marks included); an apostrophe
+ * between letters stays in the word, as in "don't". A run right after a # is a hashtag and one
+ * after an @ a mention, unless the sign follows a word character, as in "C#" or an e-mail
+ * address; hashtags and mentions may also contain underscores. Every code point is case-folded
+ * as it is copied into the token buffer, which is reused from one token to the next. Words then
+ * go through the filters the analyzer was created with: a minimum length, stopwords and an
+ * optional light stemmer. Hashtags and mentions are only case-folded.
+ *
+ * {@link Token#term()} hands out terms from a small cache that comes with the token buffer, so a
+ * word seen recently costs no allocation at all. Buffers are borrowed from a pool bounded by the
+ * processor count rather than kept per thread, as virtual threads would each allocate their own.
+ * Analyzers are immutable and can be shared between threads.
+ */
+public final class TextAnalyzer {
+
+    /**
+     * Shorter words are not indexed
+     */
+    public static final int MIN_KEYWORD_LENGTH = 3;
+
+    /**
+     * Longer runs, e.g. encoded data or hashes pasted into a post, are skipped
+     */
+    public static final int MAX_TOKEN_LENGTH = 64;
+
+    /**
+     * Common English words that say nothing about what a post is about; shorter ones are dropped
+     * by the minimum length anyway
+     */
+    public static final Set<String> ENGLISH_STOPWORDS = Set.of(
+            "the", "and", "for", "are", "but", "not", "was", "were", "been", "being", "has", "have", "had",
+            "does", "did", "doing", "can", "could", "will", "would", "should", "shall", "may", "might", "must",
+            "you", "your", "yours", "she", "her", "hers", "his", "him", "its", "our", "ours", "they", "them",
+            "their", "theirs", "what", "which", "who", "whom", "whose", "this", "that", "these", "those",
+            "from", "with", "into", "onto", "about", "above", "below", "over", "under", "between", "through",
+            "during", "before", "after", "against", "again", "further", "then", "than", "once", "here",
+            "there", "when", "where", "why", "how", "all", "any", "both", "each", "few", "more", "most",
+            "other", "some", "such", "nor", "only", "own", "same", "too", "very", "just", "also", "off",
+            "out", "because", "until", "while", "myself", "yourself", "himself", "herself", "itself",
+            "ourselves", "themselves");
+
+    /**
+     * The analyzer of the search index and of queries against it. Stemming is off unless the
+     * blogging.search.stemming system property is true; persisted segments record the setting
+     * and are rebuilt when it changes.
+     */
+    public static final TextAnalyzer DEFAULT = new TextAnalyzer(MIN_KEYWORD_LENGTH, ENGLISH_STOPWORDS,
+            Boolean.getBoolean("blogging.search.stemming"));
+
+    /**
+     * Keeps every word as it is, only case-folded; for tags and other names
+     */
+    public static final TextAnalyzer VERBATIM = new TextAnalyzer(1, Set.of(), false);
+
+    private static final int MIN_TERM_CACHE_SIZE = 256;
+
+    private static final int MAX_TERM_CACHE_SIZE = 16384;
+
+    private static final ArrayBlockingQueue<Token> IDLE_TOKENS =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * What a token was written as
+     */
+    public enum Kind { WORD, HASHTAG, MENTION }
+
+    /**
+     * Receives the tokens of a text in order
+     */
+    @FunctionalInterface
+    public interface TokenSink {
+        /**
+         * @param token valid only during the call; it is overwritten by the next token
+         */
+        void accept(Token token);
+    }
+
+    private final int minLength;
+    private final Set<String> stopwords;
+    // One bit per stopword hash, to turn most words away without probing the set
+    private final long[] stopwordFilter = new long[16];
+    private final boolean stemming;
+
+    /**
+     * @param minLength words with fewer characters are dropped
+     * @param stopwords lower-case words to drop
+     * @param stemming whether words are reduced to their singular form, e.g. "queries" to "query"
+     */
+    public TextAnalyzer(int minLength, Set<String> stopwords, boolean stemming) {
+        if (minLength < 1) {
+            throw new IllegalArgumentException("Minimum length must be positive");
+        }
+        this.minLength = minLength;
+        this.stopwords = Set.copyOf(stopwords);
+        for (String stopword : this.stopwords) {
+            int bit = stopword.hashCode() & 1023;
+            stopwordFilter[bit >>> 6] |= 1L << bit;
+        }
+        this.stemming = stemming;
+    }
+
+    public boolean isStemming() {
+        return stemming;
+    }
+
+    /**
+     * Returns a description of the settings; text analyzed under one signature is only comparable
+     * with text analyzed under the same one
+     */
+    public String signature() {
+        return "min=" + minLength + ";stopwords=" + stopwords.size() + ":" + stopwords.hashCode()
+                + ";stem=" + stemming;
+    }
+
+    // ====== ANALYZING ======
+
+    /**
+     * Passes every word, hashtag and mention of the text to the sink, in order
+     * @param text may be null
+     */
+    public void analyze(CharSequence text, TokenSink sink) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        // A sink analyzing more text borrows a second buffer; the outer call still holds its own
+        Token token = IDLE_TOKENS.poll();
+        if (token == null) {
+            token = new Token();
+        }
+        try {
+            scan(token.load(text), text.length(), token, sink);
+        } finally {
+            IDLE_TOKENS.offer(token);
+        }
+    }
+
+    /**
+     * Adds the words of the text, not its hashtags or mentions, in order and with repeats
+     */
+    public void addWords(CharSequence text, Collection<String> words) {
+        analyze(text, token -> {
+            if (token.kind == Kind.WORD) {
+                words.add(token.term());
+            }
+        });
+    }
+
+    /**
+     * Adds the hashtags of the text without their #, in order and with repeats
+     */
+    public void addHashtags(CharSequence text, Collection<String> hashtags) {
+        analyze(text, token -> {
+            if (token.kind == Kind.HASHTAG) {
+                hashtags.add(token.term());
+            }
+        });
+    }
+
+    /**
+     * Returns the words of the text in order and with repeats
+     */
+    public List<String> words(CharSequence text) {
+        List<String> words = new ArrayList<>();
+        addWords(text, words);
+        return words;
+    }
+
+    /**
+     * Returns the distinct hashtags of the text without their #, in order of appearance
+     */
+    public List<String> hashtags(CharSequence text) {
+        Set<String> hashtags = new LinkedHashSet<>();
+        addHashtags(text, hashtags);
+        return new ArrayList<>(hashtags);
+    }
+
+    /**
+     * Case-folds the text as a whole, for names that are matched as they are, e.g. authors
+     * @return the folded text without surrounding whitespace, or null for null
+     */
+    public static String fold(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        StringBuilder folded = new StringBuilder(end - start);
+        for (int i = start; i < end; ) {
+            int codePoint = Character.codePointAt(text, i);
+            folded.appendCodePoint(foldCase(codePoint));
+            i += Character.charCount(codePoint);
+        }
+        return folded.toString();
+    }
+
+    private void scan(char[] text, int n, Token token, TokenSink sink) {
+        int i = 0;
+        boolean afterWord = false;
+        while (i < n) {
+            int codePoint = codePointAt(text, i, n);
+            if (isWordChar(codePoint)) {
+                i = read(text, n, i, i, Kind.WORD, token, sink);
+                afterWord = true;
+                continue;
+            }
+            int next = i + 1;
+            if ((codePoint == '#' || codePoint == '@') && !afterWord && next < n
+                    && isWordChar(codePointAt(text, next, n))) {
+                i = read(text, n, next, i, codePoint == '#' ? Kind.HASHTAG : Kind.MENTION, token, sink);
+                afterWord = true;
+                continue;
+            }
+            i += Character.charCount(codePoint);
+            afterWord = false;
+        }
+    }
+
+    /**
+     * Reads one run into the token and emits it if it passes the filters
+     * @param from where the run starts
+     * @param start where the token starts in the text, including a # or @
+     * @return where the run ends
+     */
+    private int read(char[] text, int n, int from, int start, Kind kind, Token token, TokenSink sink) {
+        token.reset(kind, start);
+        boolean tooLong = false;
+        int i = from;
+        while (i < n) {
+            int codePoint = codePointAt(text, i, n);
+            if (isWordChar(codePoint) || (kind != Kind.WORD && codePoint == '_')) {
+                // Keep reading to the end of the run, but stop filling the buffer
+                tooLong = tooLong || !token.append(foldCase(codePoint));
+            } else if (isApostrophe(codePoint) && i > from && i + 1 < n
+                    && Character.isLetter(Character.codePointBefore(text, i))
+                    && Character.isLetter(codePointAt(text, i + 1, n))) {
+                tooLong = tooLong || !token.append('\'');
+            } else {
+                break;
+            }
+            i += Character.charCount(codePoint);
+        }
+        token.end = i;
+        if (!tooLong && accept(token)) {
+            sink.accept(token);
+        }
+        return i;
+    }
+
+    private boolean accept(Token token) {
+        if (token.kind != Kind.WORD) {
+            return true;
+        }
+        if (token.length < minLength || isStopword(token.term())) {
+            return false;
+        }
+        if (stemming) {
+            stem(token);
+        }
+        return true;
+    }
+
+    private boolean isStopword(String term) {
+        int bit = term.hashCode() & 1023;
+        return (stopwordFilter[bit >>> 6] & (1L << bit)) != 0 && stopwords.contains(term);
+    }
+
+    /**
+     * The "S" stemmer: reduces English plurals to the singular and leaves everything else alone,
+     * so it rarely conflates words of different meaning
+     */
+    private static void stem(Token token) {
+        char[] chars = token.buffer;
+        int length = token.length;
+        if (length <= 3 || chars[length - 1] != 's') {
+            return;
+        }
+        if (endsWith(token, "ies") && !endsWith(token, "eies") && !endsWith(token, "aies")) {
+            chars[length - 3] = 'y';
+            token.truncate(length - 2);
+        } else if (endsWith(token, "es") && !endsWith(token, "aes") && !endsWith(token, "ees")
+                && !endsWith(token, "oes")) {
+            token.truncate(length - 1);
+        } else if (!endsWith(token, "us") && !endsWith(token, "ss")) {
+            token.truncate(length - 1);
+        }
+    }
+
+    private static boolean endsWith(Token token, String suffix) {
+        int offset = token.length - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (token.buffer[offset + i] != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWordChar(int codePoint) {
+        if (codePoint < 128) {
+            return (codePoint >= 'a' && codePoint <= 'z') || (codePoint >= 'A' && codePoint <= 'Z')
+                    || (codePoint >= '0' && codePoint <= '9');
+        }
+        if (Character.isLetterOrDigit(codePoint)) {
+            return true;
+        }
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    /**
+     * Character.codePointAt without its surrogate checks for the common case
+     */
+    private static int codePointAt(char[] text, int index, int limit) {
+        char c = text[index];
+        return Character.isHighSurrogate(c) ? Character.codePointAt(text, index, limit) : c;
+    }
+
+    private static boolean isApostrophe(int codePoint) {
+        return codePoint == '\'' || codePoint == '’';
+    }
+
+    /**
+     * Simple case folding of one code point; lower-casing the upper case also folds variants such
+     * as the final sigma and the long s
+     */
+    private static int foldCase(int codePoint) {
+        if (codePoint < 128) {
+            return codePoint >= 'A' && codePoint <= 'Z' ? codePoint + ('a' - 'A') : codePoint;
+        }
+        return Character.toLowerCase(Character.toUpperCase(codePoint));
+    }
+
+    // ====== TOKEN ======
+
+    /**
+     * One token of the text, case-folded, in a buffer reused for every token of a call and pooled
+     * between calls
+     */
+    public static final class Token implements CharSequence {
+        private char[] buffer = new char[32];
+        // A copy of the text being analyzed, scanned faster than through CharSequence.charAt
+        private char[] text = new char[256];
+        private int length;
+        private Kind kind;
+        private int start;
+        private int end;
+        private String term;
+        // Two-way set-associative; a new term evicts the less recently used of its set. The cache
+        // starts small and doubles once it has taken in more new terms than it holds
+        private String[] terms = new String[MIN_TERM_CACHE_SIZE];
+        private int[] hashes = new int[MIN_TERM_CACHE_SIZE];
+        private int misses;
+
+        private Token() {
+        }
+
+        private char[] load(CharSequence source) {
+            int length = source.length();
+            if (length > text.length) {
+                text = new char[Math.max(length, text.length * 2)];
+            }
+            if (source instanceof String string) {
+                string.getChars(0, length, text, 0);
+            } else if (source instanceof StringBuilder builder) {
+                builder.getChars(0, length, text, 0);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    text[i] = source.charAt(i);
+                }
+            }
+            return text;
+        }
+
+        private void reset(Kind kind, int start) {
+            this.kind = kind;
+            this.start = start;
+            length = 0;
+            term = null;
+        }
+
+        /**
+         * @return false if the token is already at its maximum length
+         */
+        private boolean append(int codePoint) {
+            int count = Character.charCount(codePoint);
+            if (length + count > MAX_TOKEN_LENGTH) {
+                return false;
+            }
+            if (length + count > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(MAX_TOKEN_LENGTH, buffer.length * 2));
+            }
+            length += Character.toChars(codePoint, buffer, length);
+            return true;
+        }
+
+        private void truncate(int length) {
+            this.length = length;
+            term = null;
+        }
+
+        public Kind kind() {
+            return kind;
+        }
+
+        /**
+         * Returns where the token starts in the text, at its # or @ if it has one
+         */
+        public int start() {
+            return start;
+        }
+
+        /**
+         * Returns where the token ends in the text, exclusive
+         */
+        public int end() {
+            return end;
+        }
+
+        /**
+         * Returns the token as a string, shared with earlier tokens of the same text where possible
+         */
+        public String term() {
+            if (term != null) {
+                return term;
+            }
+            int hash = 0;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + buffer[i];
+            }
+            // Two ways per set, the more recently used first; hashes are kept alongside so that
+            // a mismatch does not have to touch the cached string
+            int set = (hash ^ (hash >>> 16)) & (terms.length - 2);
+            String first = terms[set];
+            String second = terms[set + 1];
+            if (first != null && hashes[set] == hash && contentEquals(first)) {
+                term = first;
+            } else if (second != null && hashes[set + 1] == hash && contentEquals(second)) {
+                term = second;
+                terms[set + 1] = first;
+                hashes[set + 1] = hashes[set];
+                terms[set] = second;
+                hashes[set] = hash;
+            } else {
+                term = new String(buffer, 0, length);
+                if (++misses > terms.length && terms.length < MAX_TERM_CACHE_SIZE) {
+                    terms = new String[terms.length * 2];
+                    hashes = new int[hashes.length * 2];
+                    misses = 0;
+                    set = (hash ^ (hash >>> 16)) & (terms.length - 2);
+                    first = null;
+                }
+                terms[set + 1] = first;
+                hashes[set + 1] = hashes[set];
+                terms[set] = term;
+                hashes[set] = hash;
+            }
+            return term;
+        }
+
+        private boolean contentEquals(String text) {
+            if (text.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (text.charAt(i) != buffer[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return buffer[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return term();
+        }
+    }
+}
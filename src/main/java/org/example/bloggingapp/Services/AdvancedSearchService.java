@@ -1,12 +1,38 @@
 package org.example.bloggingapp.Services;
 
+import org.example.bloggingapp.Database.Repositories.ChangeLogRepository;
+import org.example.bloggingapp.Database.Repositories.PostRepository;
+import org.example.bloggingapp.Database.Routing.RoutingConnectionFactory;
 import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Search.AutocompleteIndex;
+import org.example.bloggingapp.Search.Bm25Ranker;
+import org.example.bloggingapp.Search.FuzzyTermIndex;
+import org.example.bloggingapp.Search.InvertedIndex;
+import org.example.bloggingapp.Search.ParallelIndexBuilder;
+import org.example.bloggingapp.Search.PostingList;
+import org.example.bloggingapp.Search.Query;
+import org.example.bloggingapp.Search.QueryEvaluator;
+import org.example.bloggingapp.Search.QueryParser;
+import org.example.bloggingapp.Search.SearchResultCache;
+import org.example.bloggingapp.Search.SegmentStore;
+import org.example.bloggingapp.Search.TermIndex;
+import org.example.bloggingapp.Search.TextAnalyzer;
 import org.example.bloggingapp.Utils.Exceptions.DatabaseException;
 import org.example.bloggingapp.Utils.Exceptions.ValidationException;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
 
 /**
  * Advanced Search Service with explicit data structures and algorithms
@@ -14,14 +40,42 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class AdvancedSearchService {
     
+    // Writes after which compaction runs without waiting for the next scheduled pass
+    private static final int COMPACTION_WRITE_THRESHOLD = 1000;
+    
+    /**
+     * Sort key that ranks hash and hybrid searches by BM25 instead of sorting their matches
+     */
+    public static final String SORT_RELEVANCE = "relevance";
+    public static final String SEARCH_TYPE_BOOLEAN = "boolean";
+    
+    // Indexed words tried in place of a misspelled query word
+    private static final int FUZZY_EXPANSIONS = 3;
+    
+    // Posts indexed per fork/join task when building; small enough to spread over all threads
+    private static final int INDEX_SEGMENT_SIZE = 2_000;
+    
+    // Change IDs are taken when a change is logged but become visible on commit, so a change
+    // numbered a little below a watermark may have committed after it was read
+    private static final long REPLAY_OVERLAP = 1_000;
+    
     private final PostService postService;
     
-    // Advanced caching with multiple indexing strategies
-    private final Map<String, List<PostEntity>> keywordIndex;
-    private final Map<String, List<PostEntity>> authorIndex;
-    private final Map<String, List<PostEntity>> tagIndex;
-    private final TreeMap<String, List<PostEntity>> titleIndex; // Sorted for binary search
-    private final Map<Integer, PostEntity> postByIdIndex;
+    // Keyword, author and tag posting lists plus the doc store; replaced as a whole on rebuild
+    private volatile InvertedIndex index;
+    private volatile NavigableMap<String, List<PostEntity>> titleIndex; // Sorted for binary search
+    private volatile AutocompleteIndex autocomplete = new AutocompleteIndex();
+    
+    // Bumped after every change to the indexes, which makes the cached results of earlier
+    // generations stale; written under this
+    private volatile long indexGeneration;
+    private final SearchResultCache resultCache = new SearchResultCache();
+    
+    // Guarded by this
+    private int writesSinceCompaction;
+    // Posts written while a full build runs, replayed onto the new index; null values are deletions
+    private Map<Integer, PostEntity> writesDuringBuild;
+    private ScheduledExecutorService compactionScheduler;
     
     // Performance metrics
     private final Map<String, List<Long>> algorithmPerformanceMetrics;
@@ -30,14 +84,24 @@ public class AdvancedSearchService {
     private volatile int cacheHits = 0;
     private volatile int cacheMisses = 0;
     private volatile LocalDateTime lastIndexUpdate;
+    private volatile boolean indexesBuilt = false;
+    
+    // Serializes full builds; taken before this, never while holding it
+    private final Object buildLock = new Object();
+    private volatile int indexBuildParallelism = Runtime.getRuntime().availableProcessors();
+    
+    // Persisted segments and where to replay later changes from; null until enabled. Guarded by this
+    private SegmentStore segmentStore;
+    private ChangeLogRepository changeLog;
+    private PostRepository postRepository;
+    private LongSupplier appliedChangeId;
+    // Posts written since the last segment; null values are deletions. Guarded by this
+    private final Map<Integer, PostEntity> unpersistedWrites = new LinkedHashMap<>();
     
     public AdvancedSearchService(PostService postService) {
         this.postService = postService;
-        this.keywordIndex = new ConcurrentHashMap<>();
-        this.authorIndex = new ConcurrentHashMap<>();
-        this.tagIndex = new ConcurrentHashMap<>();
-        this.titleIndex = new TreeMap<>();
-        this.postByIdIndex = new ConcurrentHashMap<>();
+        this.index = InvertedIndex.empty();
+        this.titleIndex = new ConcurrentSkipListMap<>();
         this.algorithmPerformanceMetrics = new ConcurrentHashMap<>();
         this.lastIndexUpdate = LocalDateTime.now();
     }
@@ -45,33 +109,335 @@ public class AdvancedSearchService {
     /**
      * Build comprehensive indexes for all posts
      * Demonstrates indexing concept similar to database indexes
+     *
+     * Posts are indexed in segments on a fork/join pool of {@link #getIndexBuildParallelism()}
+     * threads and the segments merged; searches keep using the current indexes until the new ones
+     * replace them. Concurrent calls build once at a time. With persistence enabled, the result
+     * is saved as a full segment.
      */
     public void buildIndexes() throws DatabaseException {
+        synchronized (buildLock) {
+            buildIndexesLocked();
+        }
+    }
+    
+    /**
+     * Makes the indexes available unless that has happened already, e.g. while this caller waited:
+     * loads them from persisted segments if possible, and builds them otherwise
+     */
+    public void ensureIndexesBuilt() throws DatabaseException {
+        if (!indexesBuilt) {
+            synchronized (buildLock) {
+                if (!indexesBuilt && !loadIndexesLocked()) {
+                    buildIndexesLocked();
+                }
+            }
+        }
+    }
+    
+    private void buildIndexesLocked() throws DatabaseException {
         long startTime = System.nanoTime();
+        ChangeLogRepository log;
+        synchronized (this) {
+            writesDuringBuild = new LinkedHashMap<>();
+            log = changeLog;
+        }
+        // Read before the posts, so every change after it is either in the build or replayable
+        long watermarkMillis = System.currentTimeMillis();
+        long watermark = log != null ? currentChangeIdQuietly(log) : -1;
         
-        try {
-            List<PostEntity> allPosts = postService.findAll();
+        ForkJoinPool pool = new ForkJoinPool(indexBuildParallelism);
+        // Stream posts through a database cursor so the table is never materialized as a whole;
+        // each segment is indexed while later rows are still being fetched
+        try (Stream<PostEntity> allPosts = postService.streamAll()) {
             
-            // Clear existing indexes
-            clearIndexes();
+            // Build into fresh structures; searches keep using the current ones meanwhile
+            InvertedIndex.Builder first = new InvertedIndex.Builder();
+            ParallelIndexBuilder<IndexSegment> builder = new ParallelIndexBuilder<>(pool, INDEX_SEGMENT_SIZE,
+                    () -> new IndexSegment(first.newSegment()), IndexSegment::add);
+            BuiltIndexes built = builder.build(allPosts, AdvancedSearchService::mergeSegments);
             
-            // Build keyword index (inverted index concept)
-            for (PostEntity post : allPosts) {
-                indexPostByKeywords(post);
-                indexPostByAuthor(post);
-                indexPostByTags(post);
-                indexPostByTitle(post);
-                indexPostById(post);
+            synchronized (this) {
+                publish(built, List.of(), List.of());
+                if (watermark >= 0) {
+                    writeFullSegment(watermark, watermarkMillis);
+                }
             }
             
             long endTime = System.nanoTime();
             recordPerformanceMetric("index_building", endTime - startTime);
             
             lastIndexUpdate = LocalDateTime.now();
-            System.out.println("Indexes built successfully in " + (endTime - startTime) / 1_000_000 + "ms");
+            indexesBuilt = true;
+            System.out.println("Indexes built successfully in " + (endTime - startTime) / 1_000_000 + "ms using "
+                    + indexBuildParallelism + " threads");
             
         } catch (Exception e) {
+            synchronized (this) {
+                writesDuringBuild = null;
+            }
             throw new DatabaseException("INDEX_BUILD_ERROR", "Failed to build search indexes", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Replaces the indexes with new ones, then applies changes the new indexes miss and the
+     * writes that arrived while they were being made
+     */
+    private synchronized void publish(BuiltIndexes built, Collection<PostEntity> changedPosts,
+                                      Collection<Integer> deletedPostIds) {
+        index = built.index();
+        titleIndex = built.titles();
+        autocomplete = built.autocomplete();
+        writesSinceCompaction = 0;
+        unpersistedWrites.clear();
+        
+        // The cursor may have read some of these rows before they were written
+        Map<Integer, PostEntity> missed = writesDuringBuild;
+        writesDuringBuild = null;
+        updateIndexes(changedPosts, deletedPostIds);
+        if (missed != null && !missed.isEmpty()) {
+            List<PostEntity> changed = new ArrayList<>();
+            List<Integer> deleted = new ArrayList<>();
+            missed.forEach((postId, post) -> {
+                if (post == null) {
+                    deleted.add(postId);
+                } else {
+                    changed.add(post);
+                }
+            });
+            updateIndexes(changed, deleted);
+        }
+        // The new indexes replace what cached results were computed from
+        indexGeneration++;
+    }
+    
+    /**
+     * The indexes of one segment of posts while building
+     */
+    private static final class IndexSegment {
+        private final InvertedIndex.Builder builder;
+        private final AutocompleteIndex.Builder completions = new AutocompleteIndex.Builder();
+        private final NavigableMap<String, List<PostEntity>> titles = new TreeMap<>();
+        
+        IndexSegment(InvertedIndex.Builder builder) {
+            this.builder = builder;
+        }
+        
+        void add(PostEntity post) {
+            // Same terms as keywordsOf and tagsOf, in one pass over the content
+            List<String> titleWords = titleWordsOf(post);
+            List<String> keywords = new ArrayList<>(titleWords);
+            List<String> tags = new ArrayList<>();
+            TextAnalyzer.DEFAULT.analyze(post.getContent(), token -> {
+                if (token.kind() == TextAnalyzer.Kind.WORD) {
+                    keywords.add(token.term());
+                } else if (token.kind() == TextAnalyzer.Kind.HASHTAG) {
+                    tags.add(token.term());
+                }
+            });
+            builder.add(post, keywords, titleWords, authorOf(post), tags);
+            indexPostByTitle(titles, post);
+            addCompletions(completions, post);
+        }
+    }
+    
+    /**
+     * Merges the inverted index, the title index and the completions of all segments concurrently
+     */
+    private record BuiltIndexes(InvertedIndex index, NavigableMap<String, List<PostEntity>> titles,
+                                AutocompleteIndex autocomplete) {
+    }
+    
+    private static BuiltIndexes mergeSegments(List<IndexSegment> segments) {
+        List<InvertedIndex.Builder> builders = new ArrayList<>(segments.size());
+        for (IndexSegment segment : segments) {
+            builders.add(segment.builder);
+        }
+        ForkJoinTask<InvertedIndex> index = ForkJoinTask.adapt(() -> InvertedIndex.merge(builders));
+        ForkJoinTask<NavigableMap<String, List<PostEntity>>> titles = ForkJoinTask.adapt(() -> {
+            NavigableMap<String, List<PostEntity>> all = new TreeMap<>();
+            for (IndexSegment segment : segments) {
+                segment.titles.forEach((title, posts) -> all.computeIfAbsent(title, k -> new ArrayList<>()).addAll(posts));
+            }
+            // Built from a sorted map in linear time
+            return new ConcurrentSkipListMap<>(all);
+        });
+        ForkJoinTask<AutocompleteIndex> completions = ForkJoinTask.adapt(() -> {
+            AutocompleteIndex.Builder all = new AutocompleteIndex.Builder();
+            for (IndexSegment segment : segments) {
+                all.addAll(segment.completions);
+            }
+            return all.build();
+        });
+        ForkJoinTask.invokeAll(index, titles, completions);
+        return new BuiltIndexes(index.join(), titles.join(), completions.join());
+    }
+    
+    // ====== PERSISTENCE ======
+    
+    /**
+     * Saves the index to segment files after every full build and as posts change, and loads it
+     * from them instead of building it when it is first needed; posts changed after the newest
+     * segment are then replayed from the change log. See {@link SegmentStore} for the layout.
+     * @param postRepository reloads replayed posts from the primary
+     * @param appliedChangeId the ID of the latest change applied to this index, negative while
+     *                        unknown; typically the high-water mark of the change feed
+     */
+    public synchronized void enablePersistence(SegmentStore store, ChangeLogRepository changeLog,
+                                               PostRepository postRepository, LongSupplier appliedChangeId) {
+        this.segmentStore = store;
+        this.changeLog = changeLog;
+        this.postRepository = postRepository;
+        this.appliedChangeId = appliedChangeId;
+    }
+    
+    /**
+     * Loads the indexes from the segment store and replays the posts changed since its watermark.
+     * Only the replayed posts are tokenized, so this takes a fraction of a full build.
+     * @return false if persistence is off, there are no segments, or they are unusable or too old
+     */
+    private boolean loadIndexesLocked() {
+        SegmentStore store;
+        ChangeLogRepository log;
+        synchronized (this) {
+            store = segmentStore;
+            log = changeLog;
+            if (store == null) {
+                return false;
+            }
+            writesDuringBuild = new LinkedHashMap<>();
+        }
+        
+        long startTime = System.nanoTime();
+        try {
+            SegmentStore.Snapshot snapshot = store.load();
+            if (snapshot == null) {
+                return discardLoad();
+            }
+            if (!log.retainsChangesSince(snapshot.watermark(), snapshot.watermarkMillis())) {
+                System.out.println("Search index segments predate the change log; rebuilding");
+                return discardLoad();
+            }
+            ChangeLogRepository.ChangedRows missed = log.findChangedRowsSince("posts",
+                    Math.max(0, snapshot.watermark() - REPLAY_OVERLAP));
+            int[] ids = missed.written().stream().mapToInt(Integer::intValue).toArray();
+            Map<Integer, PostEntity> reloaded = RoutingConnectionFactory.onPrimary(() -> postRepository.findByIds(ids));
+            List<Integer> deleted = new ArrayList<>(missed.deleted());
+            for (int postId : missed.written()) {
+                // Deleted again since it was logged
+                if (!reloaded.containsKey(postId)) {
+                    deleted.add(postId);
+                }
+            }
+            
+            InvertedIndex loaded = snapshot.index();
+            NavigableMap<String, List<PostEntity>> titles = new TreeMap<>();
+            AutocompleteIndex.Builder completions = new AutocompleteIndex.Builder();
+            for (PostEntity post : loaded.docs().all()) {
+                indexPostByTitle(titles, post);
+                addCompletions(completions, post);
+            }
+            // Collapsed deltas overridden by the newer rows from the database; publish applies
+            // these before the writes that raced with the load, which are newer still
+            Map<Integer, PostEntity> changes = new LinkedHashMap<>();
+            snapshot.writtenPosts().forEach(post -> changes.put(post.getPostId(), post));
+            snapshot.deletedPostIds().forEach(postId -> changes.put(postId, null));
+            changes.putAll(reloaded);
+            deleted.forEach(postId -> changes.put(postId, null));
+            List<PostEntity> changedPosts = new ArrayList<>();
+            List<Integer> deletedPostIds = new ArrayList<>();
+            changes.forEach((postId, post) -> {
+                if (post == null) {
+                    deletedPostIds.add(postId);
+                } else {
+                    changedPosts.add(post);
+                }
+            });
+            synchronized (this) {
+                publish(new BuiltIndexes(loaded, new ConcurrentSkipListMap<>(titles), completions.build()),
+                        changedPosts, deletedPostIds);
+            }
+            
+            long endTime = System.nanoTime();
+            recordPerformanceMetric("index_loading", endTime - startTime);
+            lastIndexUpdate = LocalDateTime.now();
+            indexesBuilt = true;
+            System.out.println("Indexes loaded from " + snapshot.segmentCount() + " segments in "
+                    + (endTime - startTime) / 1_000_000 + "ms, replaying " + missed.size() + " changed posts");
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("❌ Failed to load search index segments, rebuilding: " + e.getMessage());
+            return discardLoad();
+        }
+    }
+    
+    private synchronized boolean discardLoad() {
+        writesDuringBuild = null;
+        return false;
+    }
+    
+    /**
+     * Writes the whole index as a new full segment, replacing all earlier segments; the caller holds this
+     */
+    private void writeFullSegment(long watermark, long watermarkMillis) {
+        try {
+            segmentStore.writeFull(index, watermark, watermarkMillis);
+            unpersistedWrites.clear();
+        } catch (IOException | RuntimeException e) {
+            // Startup falls back to a full build; the next persist retries
+            System.err.println("❌ Failed to persist search index: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Saves the writes since the last segment as a delta segment, or the whole index as a full
+     * segment once loading the deltas would cost more; see {@link SegmentStore#needsMerge()}.
+     * Writes to the index wait meanwhile.
+     * @return true if a segment was written
+     */
+    public synchronized boolean persistIndex() {
+        if (segmentStore == null || !indexesBuilt || writesDuringBuild != null || unpersistedWrites.isEmpty()) {
+            return false;
+        }
+        // Every change up to it has been applied, and no other can be while this is held
+        long watermark = appliedChangeId.getAsLong();
+        if (watermark < 0) {
+            return false;
+        }
+        long watermarkMillis = System.currentTimeMillis();
+        try {
+            if (segmentStore.needsMerge()) {
+                writeFullSegment(watermark, watermarkMillis);
+                return unpersistedWrites.isEmpty();
+            }
+            List<PostEntity> written = new ArrayList<>();
+            List<Integer> deleted = new ArrayList<>();
+            unpersistedWrites.forEach((postId, post) -> {
+                if (post == null) {
+                    deleted.add(postId);
+                } else {
+                    written.add(post);
+                }
+            });
+            segmentStore.writeDelta(written, deleted, watermark, watermarkMillis);
+            unpersistedWrites.clear();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("❌ Failed to persist search index changes: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private static long currentChangeIdQuietly(ChangeLogRepository log) {
+        try {
+            return log.getCurrentChangeId();
+        } catch (RuntimeException e) {
+            // Without a watermark the build is not persisted
+            System.err.println("Warning: change log unavailable, search index will not be persisted: " + e.getMessage());
+            return -1;
         }
     }
     
@@ -90,28 +456,14 @@ public class AdvancedSearchService {
             String searchTitle = title.toLowerCase().trim();
             
             // Ensure indexes are built
-            if (titleIndex.isEmpty()) {
-                buildIndexes();
-            }
+            ensureIndexesBuilt();
             
-            // Binary search in TreeMap
+            // Binary search for the first title with the prefix, then scan the range of titles sharing it
             List<PostEntity> results = new ArrayList<>();
-            
-            // Find the closest match in the sorted index
-            Map.Entry<String, List<PostEntity>> entry = titleIndex.ceilingEntry(searchTitle);
-            if (entry != null && entry.getKey().startsWith(searchTitle)) {
-                results.addAll(entry.getValue());
-            }
-            
-            // Also check for exact matches in nearby entries
-            Map.Entry<String, List<PostEntity>> floorEntry = titleIndex.floorEntry(searchTitle);
-            if (floorEntry != null && floorEntry.getKey().startsWith(searchTitle)) {
-                results.addAll(floorEntry.getValue());
+            for (List<PostEntity> posts : titleIndex.subMap(searchTitle, true, searchTitle + Character.MAX_VALUE, false).values()) {
+                results.addAll(posts);
             }
             
-            // Remove duplicates
-            results = new ArrayList<>(new HashSet<>(results));
-            
             long endTime = System.nanoTime();
             recordPerformanceMetric("binary_search", endTime - startTime);
             
@@ -202,26 +554,33 @@ public class AdvancedSearchService {
                 throw new ValidationException("KEYWORD_REQUIRED", "keyword", "Keyword cannot be null or empty");
             }
             
-            String normalizedKeyword = keyword.toLowerCase().trim();
+            // Analyzed like the indexed words; a stopword or too short a word is looked up as it is
+            List<String> words = TextAnalyzer.DEFAULT.words(keyword);
+            String normalizedKeyword = words.isEmpty() ? TextAnalyzer.fold(keyword) : words.get(0);
             
             // Ensure indexes are built
-            if (keywordIndex.isEmpty()) {
-                buildIndexes();
-            }
+            ensureIndexesBuilt();
             
-            // Hash-based lookup
-            List<PostEntity> results = keywordIndex.get(normalizedKeyword);
+            // Hash lookup in the term dictionary, then resolve the posting list through the doc store
+            InvertedIndex current = index;
+            PostingList postings = current.keywords().get(normalizedKeyword);
             
-            if (results != null) {
+            if (!postings.isEmpty()) {
                 cacheHits++;
+                List<PostEntity> results = current.docs().resolve(postings);
                 long endTime = System.nanoTime();
                 recordPerformanceMetric("hash_search_hit", endTime - startTime);
-                return new ArrayList<>(results);
+                return results;
             } else {
                 cacheMisses++;
+                // Possibly misspelled: fall back to the closest indexed words
+                Set<PostEntity> fuzzyResults = new LinkedHashSet<>();
+                for (String correction : correctionsOf(current, normalizedKeyword)) {
+                    fuzzyResults.addAll(current.docs().resolve(current.keywords().get(correction)));
+                }
                 long endTime = System.nanoTime();
-                recordPerformanceMetric("hash_search_miss", endTime - startTime);
-                return new ArrayList<>();
+                recordPerformanceMetric(fuzzyResults.isEmpty() ? "hash_search_miss" : "hash_search_fuzzy", endTime - startTime);
+                return new ArrayList<>(fuzzyResults);
             }
             
         } catch (Exception e) {
@@ -240,18 +599,46 @@ public class AdvancedSearchService {
                 throw new ValidationException("QUERY_REQUIRED", "query", "Search query cannot be null or empty");
             }
             
+            String searchType = options.getSearchType().toLowerCase();
+            boolean byRelevance = SORT_RELEVANCE.equalsIgnoreCase(options.getSortBy());
+            if (byRelevance && !searchType.equals("binary") && !searchType.equals("linear")) {
+                return searchType.equals(SEARCH_TYPE_BOOLEAN) || QueryParser.usesOperators(query)
+                        ? rankedBooleanSearch(query, options, startTime)
+                        : rankedSearch(query, options, startTime);
+            }
+            
+            // Linear search reads the database rather than the indexes, so it is never cached
+            SearchResultCache.Key key = searchType.equals("linear") ? null
+                    : resultKeyOf(searchType, query, options.getSortBy(), options.getSortOrder());
+            long generation = indexGeneration;
+            if (key != null) {
+                SearchResultCache.Entry cached = resultCache.get(key, generation, depthOf(options));
+                if (cached != null) {
+                    return pageOf(cached, index, options, startTime, true);
+                }
+            }
+            
             List<PostEntity> results = new ArrayList<>();
             String algorithmUsed = "";
             
             // Choose algorithm based on search type
-            switch (options.getSearchType().toLowerCase()) {
+            switch (searchType) {
                 case "binary":
                     results = binarySearchByTitle(query);
                     algorithmUsed = "binary_search";
                     break;
                 case "hash":
-                    results = hashSearchByKeyword(query);
-                    algorithmUsed = "hash_search";
+                    if (isBooleanQuery(query)) {
+                        results = booleanSearch(query);
+                        algorithmUsed = "boolean_search";
+                    } else {
+                        results = hashSearchByKeyword(query);
+                        algorithmUsed = "hash_search";
+                    }
+                    break;
+                case SEARCH_TYPE_BOOLEAN:
+                    results = booleanSearch(query);
+                    algorithmUsed = "boolean_search";
                     break;
                 case "linear":
                     results = linearSearch(query);
@@ -262,17 +649,26 @@ public class AdvancedSearchService {
                     algorithmUsed = "hybrid_search";
                     break;
                 default:
-                    results = hashSearchByKeyword(query);
-                    algorithmUsed = "hash_search";
+                    if (isBooleanQuery(query)) {
+                        results = booleanSearch(query);
+                        algorithmUsed = "boolean_search";
+                    } else {
+                        results = hashSearchByKeyword(query);
+                        algorithmUsed = "hash_search";
+                    }
             }
             
-            // Apply sorting if requested
-            if (options.getSortBy() != null && !options.getSortBy().isEmpty()) {
+            // Apply sorting if requested; title and linear matches keep their own order under relevance
+            if (options.getSortBy() != null && !options.getSortBy().isEmpty() && !byRelevance) {
                 results = quickSortPosts(results, options.getSortBy(), options.getSortOrder());
             }
+            if (key != null) {
+                resultCache.put(key, new SearchResultCache.Entry(postIdsOf(results), results.size(), true,
+                        algorithmUsed, generation));
+            }
             
             // Apply pagination
-            int start = (options.getPage() - 1) * options.getPageSize();
+            int start = Math.min((options.getPage() - 1) * options.getPageSize(), results.size());
             int end = Math.min(start + options.getPageSize(), results.size());
             List<PostEntity> paginatedResults = results.subList(start, end);
             
@@ -291,6 +687,283 @@ public class AdvancedSearchService {
         }
     }
     
+    /**
+     * Boolean search over the index: AND, OR and NOT, quoted phrases, grouping and
+     * author:, tag: and title: prefixes, as described in {@link QueryParser}. Plain words must
+     * all match. Returns the matching posts in ID order.
+     */
+    public List<PostEntity> booleanSearch(String query) throws ValidationException, DatabaseException {
+        long startTime = System.nanoTime();
+        if (query == null || query.trim().isEmpty()) {
+            throw new ValidationException("QUERY_REQUIRED", "query", "Search query cannot be null or empty");
+        }
+        ensureIndexesBuilt();
+        Query parsed = parseQuery(query);
+        SearchResultCache.Key key = new SearchResultCache.Key(SEARCH_TYPE_BOOLEAN, parsed.toString(), null, null);
+        long generation = indexGeneration;
+        InvertedIndex current = index;
+        SearchResultCache.Entry cached = resultCache.get(key, generation, Integer.MAX_VALUE);
+        int[] docIds;
+        if (cached != null) {
+            docIds = cached.postIds();
+        } else {
+            docIds = new QueryEvaluator(current).evaluate(parsed);
+            resultCache.put(key, new SearchResultCache.Entry(docIds, docIds.length, true, "boolean_search", generation));
+        }
+        
+        List<PostEntity> results = new ArrayList<>(docIds.length);
+        for (int docId : docIds) {
+            PostEntity post = current.docs().get(docId);
+            if (post != null) {
+                results.add(post);
+            }
+        }
+        recordPerformanceMetric(cached != null ? "result_cache_hit" : "boolean_search", System.nanoTime() - startTime);
+        return results;
+    }
+    
+    private static Query parseQuery(String query) throws ValidationException {
+        try {
+            return QueryParser.parse(query);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("INVALID_QUERY", "query", e.getMessage());
+        }
+    }
+    
+    /**
+     * A single word goes to the hash index; anything more needs boolean evaluation
+     */
+    private static boolean isBooleanQuery(String query) {
+        return QueryParser.usesOperators(query) || query.trim().split("\\s+").length > 1;
+    }
+    
+    /**
+     * Evaluates a boolean query and ranks only its matches with BM25, by the terms it searches for
+     */
+    private SearchResult rankedBooleanSearch(String query, SearchOptions options, long startTime)
+            throws ValidationException, DatabaseException {
+        ensureIndexesBuilt();
+        Query parsed = parseQuery(query);
+        SearchResultCache.Key key = new SearchResultCache.Key("boolean_ranking", parsed.toString(), null, null);
+        long generation = indexGeneration;
+        InvertedIndex current = index;
+        SearchResultCache.Entry cached = resultCache.get(key, generation, depthOf(options));
+        if (cached != null) {
+            return pageOf(cached, current, options, startTime, true);
+        }
+        int[] matches = new QueryEvaluator(current).evaluate(parsed);
+        
+        List<String> contentTerms = new ArrayList<>();
+        parsed.collectTerms(Query.Field.KEYWORD, contentTerms);
+        parsed.collectTerms(Query.Field.TITLE, contentTerms);
+        List<String> authorTerms = new ArrayList<>();
+        parsed.collectTerms(Query.Field.AUTHOR, authorTerms);
+        List<String> tagTerms = new ArrayList<>();
+        parsed.collectTerms(Query.Field.TAG, tagTerms);
+        
+        int depth = prefetchDepthOf(options);
+        Bm25Ranker.TopDocs top = new Bm25Ranker(current).rank(matches, contentTerms, authorTerms, tagTerms, depth);
+        
+        SearchResultCache.Entry entry = new SearchResultCache.Entry(top.getDocIds(), top.getTotalHits(),
+                top.getDocIds().length < depth, "boolean_ranking", generation);
+        resultCache.put(key, entry);
+        return pageOf(entry, current, options, startTime, false);
+    }
+    
+    /**
+     * Ranks keyword, title, author and tag matches with BM25 and resolves only the requested page.
+     * Only page * pageSize posts are ever ranked, however many match.
+     *
+     * Query words that match nothing are treated as misspelled and replaced with the closest
+     * indexed words. Posts found only through such corrections are ranked after every exact match.
+     */
+    private SearchResult rankedSearch(String query, SearchOptions options, long startTime) throws DatabaseException {
+        ensureIndexesBuilt();
+        SearchResultCache.Key key = new SearchResultCache.Key("bm25_ranking", TextAnalyzer.fold(query), null, null);
+        long generation = indexGeneration;
+        InvertedIndex current = index;
+        SearchResultCache.Entry cached = resultCache.get(key, generation, depthOf(options));
+        if (cached != null) {
+            return pageOf(cached, current, options, startTime, true);
+        }
+        
+        List<String> words = TextAnalyzer.DEFAULT.words(query);
+        // Author names are indexed whole, e.g. "jane doe"
+        List<String> authorTerms = new ArrayList<>(words);
+        authorTerms.add(TextAnalyzer.fold(query));
+        // Any word may be a tag, with or without its #
+        List<String> tagTerms = new ArrayList<>();
+        TextAnalyzer.VERBATIM.analyze(query, token -> tagTerms.add(token.term()));
+        
+        int depth = prefetchDepthOf(options);
+        Bm25Ranker ranker = new Bm25Ranker(current);
+        Bm25Ranker.TopDocs top = ranker.topK(words, authorTerms, tagTerms, depth);
+        
+        int[] docIds = top.getDocIds();
+        int totalHits = top.getTotalHits();
+        String algorithm = "bm25_ranking";
+        List<String> correctedWords = correctedWordsOf(current, words);
+        if (correctedWords != null) {
+            // Corrections only add matches, so the corrected query matches a superset
+            Bm25Ranker.TopDocs fuzzy = ranker.topK(correctedWords, authorTerms, tagTerms, depth + docIds.length);
+            docIds = appendMissing(docIds, fuzzy.getDocIds(), depth);
+            totalHits = Math.max(totalHits, fuzzy.getTotalHits());
+            algorithm = "bm25_fuzzy";
+        }
+        
+        SearchResultCache.Entry entry = new SearchResultCache.Entry(docIds, totalHits, docIds.length < depth,
+                algorithm, generation);
+        resultCache.put(key, entry);
+        return pageOf(entry, current, options, startTime, false);
+    }
+    
+    /**
+     * Ranked searches rank one page beyond the requested one, so that the next page is served
+     * from the result cache
+     */
+    private static int prefetchDepthOf(SearchOptions options) {
+        return depthOf(options) + Math.max(1, options.getPageSize());
+    }
+    
+    /**
+     * Returns how many leading results the requested page reaches into
+     */
+    private static int depthOf(SearchOptions options) {
+        return Math.max(1, options.getPage()) * Math.max(1, options.getPageSize());
+    }
+    
+    /**
+     * Resolves the requested page of a result through the doc store
+     * @param cached whether the result came from the cache rather than from evaluating the query
+     */
+    private SearchResult pageOf(SearchResultCache.Entry entry, InvertedIndex current, SearchOptions options,
+                                long startTime, boolean cached) {
+        int pageSize = Math.max(1, options.getPageSize());
+        int[] postIds = entry.postIds();
+        int end = Math.min(postIds.length, depthOf(options));
+        List<PostEntity> posts = new ArrayList<>(pageSize);
+        for (int i = depthOf(options) - pageSize; i < end; i++) {
+            PostEntity post = current.docs().get(postIds[i]);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        
+        long elapsed = System.nanoTime() - startTime;
+        recordPerformanceMetric(cached ? "result_cache_hit" : entry.algorithm(), elapsed);
+        return new SearchResult(posts, entry.totalHits(), entry.algorithm(), elapsed, options);
+    }
+    
+    /**
+     * Returns the cache key of a search that is not ranked by relevance: the canonical form of
+     * the query where it is evaluated as a boolean query, the lower-cased query otherwise
+     * @return null if the query does not parse, so that the search reports the error
+     */
+    private static SearchResultCache.Key resultKeyOf(String searchType, String query, String sortBy, String sortOrder) {
+        String normalized;
+        boolean parsed = searchType.equals(SEARCH_TYPE_BOOLEAN)
+                || (!searchType.equals("binary") && !searchType.equals("hybrid") && isBooleanQuery(query));
+        if (parsed) {
+            try {
+                normalized = QueryParser.parse(query).toString();
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        } else {
+            // As title searches normalize it; keyword searches fold it further
+            normalized = query.toLowerCase().trim();
+        }
+        return new SearchResultCache.Key(searchType, normalized,
+                sortBy != null ? sortBy.toLowerCase() : null, sortOrder != null ? sortOrder.toLowerCase() : null);
+    }
+    
+    private static int[] postIdsOf(List<PostEntity> posts) {
+        int[] postIds = new int[posts.size()];
+        for (int i = 0; i < postIds.length; i++) {
+            postIds[i] = posts.get(i).getPostId();
+        }
+        return postIds;
+    }
+    
+    /**
+     * Returns hit and eviction counts of the cache of search results
+     */
+    public SearchResultCache.Stats getResultCacheStats() {
+        return resultCache.getStats();
+    }
+    
+    /**
+     * Returns the query words with every word that matches no post replaced by its corrections,
+     * or null if all words match or none could be corrected
+     */
+    private static List<String> correctedWordsOf(InvertedIndex current, List<String> words) {
+        List<String> corrected = new ArrayList<>();
+        boolean changed = false;
+        for (String word : words) {
+            if (current.keywords().contains(word) || current.tags().contains(word) || current.authors().contains(word)) {
+                corrected.add(word);
+                continue;
+            }
+            List<String> corrections = correctionsOf(current, word);
+            corrected.addAll(corrections);
+            changed |= !corrections.isEmpty();
+        }
+        return changed ? corrected : null;
+    }
+    
+    /**
+     * Returns the indexed keywords closest to a word, most common first, excluding words whose
+     * posts are all gone
+     */
+    private static List<String> correctionsOf(InvertedIndex current, String word) {
+        List<String> corrections = new ArrayList<>();
+        int closest = Integer.MAX_VALUE;
+        for (FuzzyTermIndex.Match match : current.fuzzyKeywords().lookup(word)) {
+            if (match.getDistance() > closest) {
+                break;
+            }
+            if (current.keywords().contains(match.getTerm())) {
+                closest = match.getDistance();
+                corrections.add(match.getTerm());
+            }
+        }
+        corrections.sort(Comparator.comparingInt((String term) -> current.keywords().get(term).size()).reversed());
+        return corrections.subList(0, Math.min(FUZZY_EXPANSIONS, corrections.size()));
+    }
+    
+    /**
+     * Appends the IDs of more that are not yet in first, up to limit IDs in total
+     */
+    private static int[] appendMissing(int[] first, int[] more, int limit) {
+        Set<Integer> seen = new HashSet<>();
+        int[] merged = Arrays.copyOf(first, Math.max(first.length, limit));
+        int count = first.length;
+        for (int docId : first) {
+            seen.add(docId);
+        }
+        for (int i = 0; i < more.length && count < limit; i++) {
+            if (seen.add(more[i])) {
+                merged[count++] = more[i];
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+    
+    /**
+     * Completes a prefix typed into a search box with post titles, tags and authors, most popular
+     * first. Answers from the last built index and returns nothing before the first build, so it
+     * is cheap enough to call on every keystroke.
+     */
+    public List<AutocompleteIndex.Suggestion> autocomplete(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        long startTime = System.nanoTime();
+        List<AutocompleteIndex.Suggestion> suggestions = autocomplete.complete(prefix.trim(), limit);
+        recordPerformanceMetric("autocomplete", System.nanoTime() - startTime);
+        return suggestions;
+    }
+    
     /**
      * Hybrid search combining multiple strategies
      */
@@ -303,8 +976,8 @@ public class AdvancedSearchService {
         // Try binary search on titles
         allResults.addAll(binarySearchByTitle(query));
         
-        // Remove duplicates and sort by relevance
-        return new ArrayList<>(new HashSet<>(allResults));
+        // Remove duplicates, keeping keyword hits ahead of title matches
+        return new ArrayList<>(new LinkedHashSet<>(allResults));
     }
     
     /**
@@ -397,65 +1070,267 @@ public class AdvancedSearchService {
         return new AlgorithmComparison(executionTimes, results);
     }
     
+    // ====== INCREMENTAL INDEX MAINTENANCE ======
+    
+    /**
+     * Adds a newly created post to the indexes, or replaces the indexed version of an updated one
+     */
+    public void indexPost(PostEntity post) {
+        applyChanges(List.of(post), List.of());
+    }
+    
     /**
-     * Index management methods
+     * Removes a deleted post from the indexes
      */
-    private void indexPostByKeywords(PostEntity post) {
-        if (post.getTitle() != null) {
-            String[] words = post.getTitle().toLowerCase().split("\\s+");
-            for (String word : words) {
-                if (word.length() > 2) { // Ignore very short words
-                    keywordIndex.computeIfAbsent(word, k -> new ArrayList<>()).add(post);
-                }
-            }
+    public void removeFromIndex(int postId) {
+        applyChanges(List.of(), List.of(postId));
+    }
+    
+    /**
+     * Applies a batch of changed and deleted posts without rebuilding the indexes.
+     * Each post costs time in its own number of terms: its old terms are removed and its new
+     * terms added to small per-term write lists, and the long base posting lists are only
+     * rewritten by compaction. Affected lists are replaced rather than modified, so concurrent
+     * searches never observe a list while it is being changed.
+     */
+    public synchronized void applyChanges(Collection<PostEntity> changedPosts, Collection<Integer> deletedPostIds) {
+        // Echoes of writes already applied leave cached results valid
+        if (updateIndexes(changedPosts, deletedPostIds)) {
+            indexGeneration++;
+        }
+    }
+    
+    /**
+     * Applies the changes to the current indexes without touching the index generation
+     * @return true if any post was added, replaced or removed
+     */
+    private boolean updateIndexes(Collection<PostEntity> changedPosts, Collection<Integer> deletedPostIds) {
+        if (writesDuringBuild != null) {
+            deletedPostIds.forEach(postId -> writesDuringBuild.put(postId, null));
+            changedPosts.forEach(post -> writesDuringBuild.put(post.getPostId(), post));
+        } else if (segmentStore != null) {
+            deletedPostIds.forEach(postId -> unpersistedWrites.put(postId, null));
+            changedPosts.forEach(post -> unpersistedWrites.put(post.getPostId(), post));
         }
         
-        if (post.getContent() != null) {
-            String[] words = post.getContent().toLowerCase().split("\\s+");
-            for (String word : words) {
-                if (word.length() > 2) {
-                    keywordIndex.computeIfAbsent(word, k -> new ArrayList<>()).add(post);
-                }
+        InvertedIndex current = index;
+        boolean changed = false;
+        for (int postId : deletedPostIds) {
+            PostEntity previous = current.docs().remove(postId);
+            if (previous != null) {
+                updateTerms(current, postId, previous, null);
+                current.markStale(postId);
+                writesSinceCompaction++;
+                changed = true;
             }
         }
+        for (PostEntity post : changedPosts) {
+            int postId = post.getPostId();
+            PostEntity previous = current.docs().get(postId);
+            // The change feed echoes writes this instance already applied; posts_bump_version
+            // gives every content change a new version, whoever made it
+            if (previous != null && previous.getVersion() > 0 && previous.getVersion() == post.getVersion()) {
+                continue;
+            }
+            
+            updateTerms(current, postId, previous, post);
+            if (post.getTitle() != null) {
+                addToIndex(titleIndex, post.getTitle().toLowerCase(), post);
+            }
+            current.docs().put(post);
+            if (previous != null) {
+                // Hides the previous version in base lists; its current terms are already in the write lists
+                current.markStale(postId);
+            }
+            writesSinceCompaction++;
+            changed = true;
+        }
+        if (!changed) {
+            return false;
+        }
+        lastIndexUpdate = LocalDateTime.now();
+        
+        if (writesSinceCompaction >= COMPACTION_WRITE_THRESHOLD && compactionScheduler != null) {
+            compactionScheduler.execute(this::compactQuietly);
+        }
+        return true;
     }
     
-    private void indexPostByAuthor(PostEntity post) {
-        if (post.getAuthorName() != null) {
-            String author = post.getAuthorName().toLowerCase();
-            authorIndex.computeIfAbsent(author, k -> new ArrayList<>()).add(post);
+    /**
+     * Moves a post from the terms of its indexed version to those of its new version in every field.
+     * Current terms go in before the previous ones come out, so a post that keeps a term never
+     * drops out of its list in between.
+     * @param previous the indexed version, or null for a new post
+     * @param post the new version, or null for a deleted post
+     */
+    private void updateTerms(InvertedIndex current, int postId, PostEntity previous, PostEntity post) {
+        updateField(current.keywords(), postId, previous, post, AdvancedSearchService::keywordsOf);
+        if (post != null) {
+            List<String> keywords = keywordsOf(post);
+            current.fuzzyKeywords().addAll(keywords);
+            current.positions().put(postId, keywords);
+        } else {
+            current.positions().remove(postId);
+        }
+        updateField(current.titles(), postId, previous, post, AdvancedSearchService::titleWordsOf);
+        updateField(current.authors(), postId, previous, post, AdvancedSearchService::authorTermsOf);
+        updateField(current.tags(), postId, previous, post, AdvancedSearchService::tagsOf);
+        if (previous != null && previous.getTitle() != null) {
+            removeFromIndex(titleIndex, previous.getTitle().toLowerCase(), postId);
+        }
+        if (previous != null) {
+            removeCompletions(autocomplete, previous);
+        }
+        if (post != null) {
+            addCompletions(autocomplete, post);
         }
     }
     
-    private void indexPostByTags(PostEntity post) {
-        if (post.getContent() != null) {
-            String[] tags = post.getContent().toLowerCase().split("#");
-            for (int i = 1; i < tags.length; i++) {
-                String tag = tags[i].split("\\s+")[0]; // Get first word after #
-                if (tag.length() > 0) {
-                    tagIndex.computeIfAbsent(tag, k -> new ArrayList<>()).add(post);
-                }
-            }
+    /**
+     * Titles are weighted by views; tags and authors by the number of their posts
+     */
+    private static void addCompletions(AutocompleteIndex completions, PostEntity post) {
+        completions.add(AutocompleteIndex.Kind.TITLE, post.getTitle(), post.getViews());
+        completions.add(AutocompleteIndex.Kind.AUTHOR, post.getAuthorName(), 1);
+        for (String tag : new LinkedHashSet<>(tagsOf(post))) {
+            completions.add(AutocompleteIndex.Kind.TAG, tag, 1);
         }
     }
     
-    private void indexPostByTitle(PostEntity post) {
-        if (post.getTitle() != null) {
-            String title = post.getTitle().toLowerCase();
-            titleIndex.computeIfAbsent(title, k -> new ArrayList<>()).add(post);
+    private static void addCompletions(AutocompleteIndex.Builder completions, PostEntity post) {
+        completions.add(AutocompleteIndex.Kind.TITLE, post.getTitle(), post.getViews())
+                .add(AutocompleteIndex.Kind.AUTHOR, post.getAuthorName(), 1);
+        for (String tag : new LinkedHashSet<>(tagsOf(post))) {
+            completions.add(AutocompleteIndex.Kind.TAG, tag, 1);
+        }
+    }
+    
+    private static void removeCompletions(AutocompleteIndex completions, PostEntity post) {
+        completions.remove(AutocompleteIndex.Kind.TITLE, post.getTitle(), post.getViews());
+        completions.remove(AutocompleteIndex.Kind.AUTHOR, post.getAuthorName(), 1);
+        for (String tag : new LinkedHashSet<>(tagsOf(post))) {
+            completions.remove(AutocompleteIndex.Kind.TAG, tag, 1);
         }
     }
     
-    private void indexPostById(PostEntity post) {
-        postByIdIndex.put(post.getPostId(), post);
+    private static void updateField(TermIndex field, int postId, PostEntity previous, PostEntity post,
+                                    Function<PostEntity, List<String>> terms) {
+        field.update(postId, previous == null ? List.of() : terms.apply(previous),
+                post == null ? List.of() : terms.apply(post));
     }
     
-    private void clearIndexes() {
-        keywordIndex.clear();
-        authorIndex.clear();
-        tagIndex.clear();
-        titleIndex.clear();
-        postByIdIndex.clear();
+    /**
+     * Folds incremental writes into the base posting lists
+     * @return the number of posting lists rewritten
+     */
+    public synchronized int compactIndex() {
+        if (writesSinceCompaction == 0) {
+            return 0;
+        }
+        long startTime = System.nanoTime();
+        int rewritten = index.compact();
+        writesSinceCompaction = 0;
+        recordPerformanceMetric("index_compaction", System.nanoTime() - startTime);
+        return rewritten;
+    }
+    
+    /**
+     * Starts compacting the index in the background every interval, and as soon as
+     * {@value #COMPACTION_WRITE_THRESHOLD} writes are pending; does nothing if already running.
+     * Each pass also persists the writes if persistence is enabled; see {@link #persistIndex()}.
+     */
+    public synchronized void startBackgroundCompaction(long intervalMillis) {
+        if (compactionScheduler != null) {
+            return;
+        }
+        compactionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SearchIndex-Compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactionScheduler.scheduleWithFixedDelay(this::compactQuietly, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+    
+    public synchronized void stopBackgroundCompaction() {
+        if (compactionScheduler != null) {
+            compactionScheduler.shutdownNow();
+            compactionScheduler = null;
+        }
+    }
+    
+    private void compactQuietly() {
+        try {
+            compactIndex();
+        } catch (Exception e) {
+            // Writes stay visible through the write lists; the next pass retries
+            System.err.println("❌ Search index compaction failed: " + e.getMessage());
+        }
+        persistIndex();
+    }
+    
+    /**
+     * Returns the number of post writes applied since the last compaction
+     */
+    public synchronized int getPendingWriteCount() {
+        return writesSinceCompaction;
+    }
+    
+    private static void addToIndex(Map<String, List<PostEntity>> index, String key, PostEntity post) {
+        List<PostEntity> current = index.get(key);
+        List<PostEntity> updated = current == null ? new ArrayList<>(1) : new ArrayList<>(current);
+        updated.add(post);
+        index.put(key, updated);
+    }
+    
+    private static void removeFromIndex(Map<String, List<PostEntity>> index, String key, int postId) {
+        List<PostEntity> current = index.get(key);
+        if (current == null) {
+            return;
+        }
+        List<PostEntity> remaining = new ArrayList<>(current);
+        remaining.removeIf(post -> post.getPostId() == postId);
+        if (remaining.isEmpty()) {
+            index.remove(key);
+        } else {
+            index.put(key, remaining);
+        }
+    }
+    
+    /**
+     * Term extraction shared by full builds and incremental updates
+     */
+    private static String authorOf(PostEntity post) {
+        return TextAnalyzer.fold(post.getAuthorName());
+    }
+    
+    private static List<String> authorTermsOf(PostEntity post) {
+        String author = authorOf(post);
+        return author != null ? List.of(author) : List.of();
+    }
+    
+    private static List<String> keywordsOf(PostEntity post) {
+        List<String> keywords = new ArrayList<>();
+        TextAnalyzer.DEFAULT.addWords(post.getTitle(), keywords);
+        TextAnalyzer.DEFAULT.addWords(post.getContent(), keywords);
+        return keywords;
+    }
+    
+    private static List<String> titleWordsOf(PostEntity post) {
+        return TextAnalyzer.DEFAULT.words(post.getTitle());
+    }
+    
+    private static List<String> tagsOf(PostEntity post) {
+        List<String> tags = new ArrayList<>();
+        TextAnalyzer.DEFAULT.addHashtags(post.getContent(), tags);
+        return tags;
+    }
+    
+    private static void indexPostByTitle(NavigableMap<String, List<PostEntity>> titles, PostEntity post) {
+        if (post.getTitle() != null) {
+            String title = post.getTitle().toLowerCase();
+            titles.computeIfAbsent(title, k -> new ArrayList<>()).add(post);
+        }
     }
     
     private Comparator<PostEntity> getComparator(String sortBy) {
@@ -474,6 +1349,48 @@ public class AdvancedSearchService {
         algorithmPerformanceMetrics.computeIfAbsent(algorithm, k -> new ArrayList<>()).add(executionTime);
     }
     
+    public int getIndexBuildParallelism() {
+        return indexBuildParallelism;
+    }
+    
+    /**
+     * Sets the number of threads the next full build indexes posts on
+     */
+    public void setIndexBuildParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.indexBuildParallelism = parallelism;
+    }
+    
+    /**
+     * Returns true once buildIndexes has completed at least once
+     */
+    public boolean isIndexBuilt() {
+        return indexesBuilt;
+    }
+    
+    /**
+     * Returns the number of posts currently in the indexes
+     */
+    public int getIndexedPostCount() {
+        return index.docs().size();
+    }
+    
+    /**
+     * Returns the approximate heap used by the keyword, author and tag dictionaries and their posting lists
+     */
+    public long getIndexMemoryBytes() {
+        return index.getEstimatedBytes();
+    }
+    
+    /**
+     * Returns when the indexes were last built or incrementally updated
+     */
+    public LocalDateTime getLastIndexUpdate() {
+        return lastIndexUpdate;
+    }
+    
     /**
      * Get comprehensive performance statistics
      */
@@ -500,9 +1417,9 @@ public class AdvancedSearchService {
             cacheHits,
             cacheMisses,
             lastIndexUpdate,
-            keywordIndex.size(),
-            authorIndex.size(),
-            tagIndex.size(),
+            index.keywords().getTermCount(),
+            index.authors().getTermCount(),
+            index.tags().getTermCount(),
             titleIndex.size()
         );
     }
@@ -512,6 +1429,7 @@ public class AdvancedSearchService {
      */
     public static class SearchOptions {
         private String searchType = "hash";
+        // title, views, created, author or relevance
         private String sortBy = "created";
         private String sortOrder = "desc";
         private int page = 1;
@@ -0,0 +1,124 @@
+package org.example.bloggingapp.Services;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Collects the keys requested during one unit of work and resolves them with a single batched call.
+ *
+ * Callers ask for values with {@link #load(Object)} and receive a future; nothing is fetched until
+ * {@link #dispatch()} runs, at which point every pending key is handed to the batch function at once.
+ * Each key is fetched at most once per loader, so repeated requests are served from the memo.
+ *
+ * A loader is meant to live for a single render pass or request and is not thread safe.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BatchLoader<K, V> {
+
+    /**
+     * Resolves a set of keys in one round trip
+     */
+    @FunctionalInterface
+    public interface BatchFunction<K, V> {
+        Map<K, V> load(Set<K> keys) throws Exception;
+    }
+
+    private final BatchFunction<K, V> batchFunction;
+    private final V missingValue;
+    private final Map<K, CompletableFuture<V>> memo = new HashMap<>();
+    private final Set<K> pending = new LinkedHashSet<>();
+    private int batchCount;
+
+    /**
+     * @param batchFunction resolves all pending keys at once
+     * @param missingValue value given to keys the batch function did not return
+     */
+    public BatchLoader(BatchFunction<K, V> batchFunction, V missingValue) {
+        this.batchFunction = batchFunction;
+        this.missingValue = missingValue;
+    }
+
+    /**
+     * Requests a value; the returned future completes on the next {@link #dispatch()}
+     * or immediately if the key was already loaded
+     */
+    public CompletableFuture<V> load(K key) {
+        CompletableFuture<V> future = memo.get(key);
+        if (future == null) {
+            future = new CompletableFuture<>();
+            memo.put(key, future);
+            pending.add(key);
+        }
+        return future;
+    }
+
+    /**
+     * Requests several values; the returned future completes once all of them are available
+     */
+    public CompletableFuture<Map<K, V>> loadMany(Collection<K> keys) {
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        for (K key : keys) {
+            futures.put(key, load(key));
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    Map<K, V> values = new LinkedHashMap<>();
+                    futures.forEach((key, future) -> values.put(key, future.join()));
+                    return values;
+                });
+    }
+
+    /**
+     * Resolves every pending key with one call to the batch function.
+     * Callbacks attached to the futures run before this method returns and may queue further keys.
+     * @return true if a batch was executed
+     */
+    public boolean dispatch() {
+        if (pending.isEmpty()) {
+            return false;
+        }
+
+        Set<K> keys = new LinkedHashSet<>(pending);
+        pending.clear();
+        batchCount++;
+
+        Map<K, V> results;
+        try {
+            results = batchFunction.load(keys);
+        } catch (Exception e) {
+            for (K key : keys) {
+                // Failed keys are forgotten so a later load can retry them
+                memo.remove(key).completeExceptionally(e);
+            }
+            return true;
+        }
+
+        for (K key : keys) {
+            V value = results != null ? results.get(key) : null;
+            memo.get(key).complete(value != null ? value : missingValue);
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if keys are waiting for the next dispatch
+     */
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Returns how many batches this loader has executed
+     */
+    public int getBatchCount() {
+        return batchCount;
+    }
+}
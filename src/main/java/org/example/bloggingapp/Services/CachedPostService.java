@@ -7,17 +7,21 @@ import org.example.bloggingapp.Database.Repositories.PostRepository;
 import org.example.bloggingapp.Models.PostEntity;
 import org.example.bloggingapp.Utils.Exceptions.DatabaseException;
 import org.example.bloggingapp.Utils.Exceptions.EntityNotFoundException;
-import org.example.bloggingapp.Utils.Exceptions.ServiceException;
 import org.example.bloggingapp.Utils.Exceptions.ValidationException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Cached version of PostService that provides fast loading through in-memory caching
  */
 public class CachedPostService extends PostService {
     
+    private static final int PREPOPULATE_LIMIT = 500; // matches the individual post cache capacity
+    
     private final CacheService<Integer, PostEntity> postCache;
     private final CacheService<String, PostEntity> postByTitleCache;
     private final CacheService<Integer, List<PostEntity>> userPostsCache;
@@ -123,21 +127,15 @@ public class CachedPostService extends PostService {
     }
     
     @Override
-    public PostEntity create(PostEntity post) throws DatabaseException, ServiceException, ValidationException {
-        try {
-            PostEntity createdPost = super.create(post);
-            
-            // Cache the newly created post
-            postCache.put(createdPost.getPostId(), createdPost);
-            postByTitleCache.put(createdPost.getTitle(), createdPost);
-            
-            // Invalidate related caches
-            invalidateRelatedCaches(createdPost.getUserId());
-            
-            return createdPost;
-        } catch (Exception e) {
-            throw e;
-        }
+    public void cacheCreatedPost(PostEntity createdPost) {
+        super.cacheCreatedPost(createdPost);
+        
+        // Cache the newly created post
+        postCache.put(createdPost.getPostId(), createdPost);
+        postByTitleCache.put(createdPost.getTitle(), createdPost);
+        
+        // Invalidate related caches
+        invalidateRelatedCaches(createdPost.getUserId());
     }
     
     @Override
@@ -146,7 +144,8 @@ public class CachedPostService extends PostService {
             PostEntity updatedPost = super.update(id, post);
             
             if (updatedPost != null) {
-                // Update cache
+                // Update cache, dropping the title entry of the previous revision
+                postCache.get(id).ifPresent(previous -> postByTitleCache.remove(previous.getTitle()));
                 postCache.put(id, updatedPost);
                 postByTitleCache.put(updatedPost.getTitle(), updatedPost);
                 
@@ -163,20 +162,17 @@ public class CachedPostService extends PostService {
     @Override
     public boolean delete(int id) throws DatabaseException, EntityNotFoundException, ValidationException {
         try {
-            // Get post before deletion to invalidate caches
-            PostEntity postToDelete = findById(id);
-            boolean deleted = super.delete(id);
+            // The deleted row comes back from the delete itself, so no read is needed first
+            PostEntity deletedPost = deletePost(id);
             
-            if (deleted) {
-                // Remove from caches
-                postCache.remove(id);
-                postByTitleCache.remove(postToDelete.getTitle());
-                
-                // Invalidate related caches
-                invalidateRelatedCaches(postToDelete.getUserId());
-            }
+            // Remove from caches
+            postCache.remove(id);
+            postByTitleCache.remove(deletedPost.getTitle());
+            
+            // Invalidate related caches
+            invalidateRelatedCaches(deletedPost.getUserId());
             
-            return deleted;
+            return true;
         } catch (Exception e) {
             throw e;
         }
@@ -214,6 +210,33 @@ public class CachedPostService extends PostService {
         return findByString(title); // Reuse the cached findByString method
     }
     
+    @Override
+    public void applyExternalChanges(Collection<PostEntity> changedPosts, Collection<Integer> deletedPostIds) {
+        super.applyExternalChanges(changedPosts, deletedPostIds);
+        
+        for (PostEntity post : changedPosts) {
+            postCache.get(post.getPostId()).ifPresent(previous -> postByTitleCache.remove(previous.getTitle()));
+            postCache.put(post.getPostId(), post);
+            postByTitleCache.put(post.getTitle(), post);
+        }
+        for (int postId : deletedPostIds) {
+            postCache.get(postId).ifPresent(previous -> postByTitleCache.remove(previous.getTitle()));
+            postCache.remove(postId);
+        }
+        
+        allPostsCache.remove("all");
+        userPostsCache.clear();
+    }
+    
+    @Override
+    public void refreshViews(Map<Integer, Integer> storedViews) {
+        super.refreshViews(storedViews);
+        
+        storedViews.forEach((postId, views) -> postCache.get(postId)
+                .filter(post -> post.getViews() < views)
+                .ifPresent(post -> post.setViews(views)));
+    }
+    
     /**
      * Invalidates caches that might be affected by changes to posts
      * @param userId the user ID whose posts cache should be invalidated
@@ -224,27 +247,16 @@ public class CachedPostService extends PostService {
     }
     
     /**
-     * Pre-populates cache with real database values for better initial performance
+     * Pre-populates cache with real database values for better initial performance.
+     * Rows are streamed and reading stops once the post cache is full, so start-up
+     * memory stays bounded regardless of table size.
      */
     private void prepopulateCacheFromDatabase() {
-        try {
-            // Load all posts from database and cache them
-            List<PostEntity> allPosts = super.findAll();
-            if (!allPosts.isEmpty()) {
-                allPostsCache.put("all", allPosts);
-                
-                // Cache individual posts and create user post mappings
-                for (PostEntity post : allPosts) {
-                    postCache.put(post.getPostId(), post);
-                    postByTitleCache.put(post.getTitle(), post);
-                    
-                    // Add to user posts cache
-                    List<PostEntity> existingUserPosts = userPostsCache.get(post.getUserId()).orElse(null);
-                    List<PostEntity> userPosts = existingUserPosts != null ? existingUserPosts : new java.util.ArrayList<>();
-                    userPosts.add(post);
-                    userPostsCache.put(post.getUserId(), userPosts);
-                }
-            }
+        try (Stream<PostEntity> posts = streamAll().limit(PREPOPULATE_LIMIT)) {
+            posts.forEach(post -> {
+                postCache.put(post.getPostId(), post);
+                postByTitleCache.put(post.getTitle(), post);
+            });
         } catch (Exception e) {
             System.err.println("Warning: Failed to pre-populate cache from database: " + e.getMessage());
             // Continue without pre-population - cache will be populated on-demand
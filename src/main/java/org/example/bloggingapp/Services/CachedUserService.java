@@ -3,7 +3,6 @@ package org.example.bloggingapp.Services;
 import org.example.bloggingapp.Database.DbInterfaces.CacheService;
 import org.example.bloggingapp.Cache.InMemoryCacheService;
 import org.example.bloggingapp.Cache.CacheManager;
-import org.example.bloggingapp.Database.DbInterfaces.Repository;
 import org.example.bloggingapp.Database.Repositories.UserRepository;
 import org.example.bloggingapp.Models.UserEntity;
 import org.example.bloggingapp.Utils.Exceptions.DatabaseException;
@@ -14,13 +13,16 @@ import org.example.bloggingapp.Utils.Exceptions.ValidationException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Cached version of UserService that provides fast loading through in-memory caching
  */
 public class CachedUserService implements org.example.bloggingapp.Database.DbInterfaces.IService<UserEntity> {
     
-    private final Repository<UserEntity> userRepository;
+    private static final int PREPOPULATE_LIMIT = 1000; // matches the individual user cache capacity
+    
+    private final UserRepository userRepository;
     private final CacheService<Integer, UserEntity> userCache;
     private final CacheService<String, UserEntity> userByEmailCache;
     private final CacheService<String, UserEntity> userByUsernameCache;
@@ -247,12 +249,8 @@ public class CachedUserService implements org.example.bloggingapp.Database.DbInt
                 return cachedUser.get();
             }
             
-            // Cache miss - fetch from database
-            List<UserEntity> users = findAll();
-            UserEntity user = users.stream()
-                    .filter(u -> email.equalsIgnoreCase(u.getEmail()))
-                    .findFirst()
-                    .orElse(null);
+            // Cache miss - indexed lookup in the database
+            UserEntity user = userRepository.findByEmail(email);
             
             if (user != null) {
                 // Cache the result
@@ -284,12 +282,8 @@ public class CachedUserService implements org.example.bloggingapp.Database.DbInt
                 return cachedUser.get();
             }
             
-            // Cache miss - fetch from database
-            List<UserEntity> users = findAll();
-            UserEntity user = users.stream()
-                    .filter(u -> username.equalsIgnoreCase(u.getUserName()))
-                    .findFirst()
-                    .orElse(null);
+            // Cache miss - indexed lookup in the database
+            UserEntity user = userRepository.findByUsername(username);
             
             if (user != null) {
                 // Cache the result
@@ -307,22 +301,18 @@ public class CachedUserService implements org.example.bloggingapp.Database.DbInt
     }
     
     /**
-     * Pre-populates cache with real database values for better initial performance
+     * Pre-populates cache with real database values for better initial performance.
+     * Rows are streamed and reading stops once the user cache is full, so start-up
+     * memory stays bounded regardless of table size.
      */
     private void prepopulateCacheFromDatabase() {
-        try {
-            // Load all users from database and cache them
-            List<UserEntity> allUsers = userRepository.findAll();
-            if (!allUsers.isEmpty()) {
-                allUsersCache.put("all", allUsers);
-                
-                // Cache individual users with multiple lookup keys
-                for (UserEntity user : allUsers) {
-                    userCache.put(user.getUserId(), user);
-                    userByEmailCache.put(user.getEmail(), user);
-                    userByUsernameCache.put(user.getUserName(), user);
-                }
-            }
+        try (Stream<UserEntity> users = userRepository.streamAll().limit(PREPOPULATE_LIMIT)) {
+            // Cache individual users with multiple lookup keys
+            users.forEach(user -> {
+                userCache.put(user.getUserId(), user);
+                userByEmailCache.put(user.getEmail(), user);
+                userByUsernameCache.put(user.getUserName(), user);
+            });
         } catch (Exception e) {
             System.err.println("Warning: Failed to pre-populate cache from database: " + e.getMessage());
             // Continue without pre-population - cache will be populated on-demand
@@ -6,6 +6,7 @@ import org.example.bloggingapp.Models.CommentEntity;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public class CommentService implements IService<CommentEntity> {
     
@@ -35,6 +36,10 @@ public class CommentService implements IService<CommentEntity> {
         return commentRepository.findByInteger(id);
     }
     
+    public Map<Integer, CommentEntity> findByIds(int[] ids) {
+        return commentRepository.findByIds(ids);
+    }
+    
     @Override
     public CommentEntity findByString(String identifier) {
         return commentRepository.findByString(identifier);
@@ -67,14 +72,14 @@ public class CommentService implements IService<CommentEntity> {
     }
     
     public List<CommentEntity> findByPostId(int postId) {
-        return findAll().stream()
-                .filter(comment -> comment.getPostId() == postId)
-                .toList();
+        return commentRepository.findByPostId(postId);
+    }
+    
+    public Map<Integer, List<CommentEntity>> findByPostIds(int[] postIds) {
+        return commentRepository.findByPostIds(postIds);
     }
     
     public List<CommentEntity> findByUserId(int userId) {
-        return findAll().stream()
-                .filter(comment -> comment.getUserId() == userId)
-                .toList();
+        return commentRepository.findByUserId(userId);
     }
 }
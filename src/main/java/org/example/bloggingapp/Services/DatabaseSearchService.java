@@ -0,0 +1,52 @@
+package org.example.bloggingapp.Services;
+
+import org.example.bloggingapp.Database.Repositories.PostRepository;
+import org.example.bloggingapp.Models.SearchPage;
+import org.example.bloggingapp.Utils.Exceptions.DatabaseException;
+import org.example.bloggingapp.Utils.Exceptions.ValidationException;
+
+/**
+ * Full-text search executed by PostgreSQL.
+ *
+ * Matching, ranking (ts_rank) and paging all happen on the database side against the
+ * idx_posts_fulltext GIN index, so only the requested page is transferred and the cost
+ * does not grow with the number of posts held in memory.
+ */
+public class DatabaseSearchService {
+    
+    public static final String ENGINE_NAME = "postgres_fts";
+    private static final int MAX_PAGE_SIZE = 200;
+    
+    private final PostRepository postRepository;
+    
+    public DatabaseSearchService(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+    
+    /**
+     * Returns one page of ranked matches, best first
+     * @param query search text in web search syntax ("quoted phrase", or, -excluded)
+     * @param page 1-based page number
+     * @param pageSize number of posts per page
+     */
+    public SearchPage search(String query, int page, int pageSize) throws DatabaseException, ValidationException {
+        try {
+            if (query == null || query.trim().isEmpty()) {
+                throw new ValidationException("QUERY_REQUIRED", "query", "Search query cannot be null or empty");
+            }
+            if (page < 1) {
+                throw new ValidationException("INVALID_PAGE", "page", "Page number must be at least 1");
+            }
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new ValidationException("INVALID_PAGE_SIZE", "pageSize",
+                        "Page size must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            
+            return postRepository.searchFullText(query.trim(), pageSize, (page - 1) * pageSize);
+        } catch (ValidationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DatabaseException("FULLTEXT_SEARCH_ERROR", "Failed to search posts for '" + query + "'", e);
+        }
+    }
+}
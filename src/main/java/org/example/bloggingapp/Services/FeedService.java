@@ -0,0 +1,84 @@
+package org.example.bloggingapp.Services;
+
+import org.example.bloggingapp.Cache.CacheManager;
+import org.example.bloggingapp.Cache.InMemoryCacheService;
+import org.example.bloggingapp.Database.DbInterfaces.CacheService;
+import org.example.bloggingapp.Database.Repositories.FeedRepository;
+import org.example.bloggingapp.Models.FeedItem;
+import org.example.bloggingapp.Utils.Exceptions.DatabaseException;
+import org.example.bloggingapp.Utils.Exceptions.ValidationException;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves feed pages from the feed projection query with a short-lived page cache
+ */
+public class FeedService {
+    
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    
+    private final FeedRepository feedRepository;
+    
+    // Pages are keyed by "page:pageSize"; kept short because comment counts change often
+    private final CacheService<String, List<FeedItem>> feedPageCache;
+    
+    public FeedService(FeedRepository feedRepository) {
+        this.feedRepository = feedRepository;
+        this.feedPageCache = new InMemoryCacheService<>(20, 30 * 1000); // 20 pages, 30 seconds
+        
+        CacheManager.getInstance().registerCache("feedPages", (InMemoryCacheService<?, ?>) feedPageCache);
+    }
+    
+    /**
+     * Returns one page of the feed, newest posts first
+     * @param page 1-based page number
+     * @param pageSize number of items per page
+     */
+    public List<FeedItem> getFeedPage(int page, int pageSize) throws DatabaseException, ValidationException {
+        try {
+            if (page < 1) {
+                throw new ValidationException("INVALID_PAGE", "page", "Page number must be at least 1");
+            }
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new ValidationException("INVALID_PAGE_SIZE", "pageSize",
+                        "Page size must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            
+            String cacheKey = page + ":" + pageSize;
+            
+            // Try cache first
+            Optional<List<FeedItem>> cachedPage = feedPageCache.get(cacheKey);
+            if (cachedPage.isPresent()) {
+                return cachedPage.get();
+            }
+            
+            // Cache miss - single projection query
+            List<FeedItem> items = feedRepository.findPage(pageSize, (page - 1) * pageSize);
+            
+            // Cache the result
+            feedPageCache.put(cacheKey, items);
+            
+            return items;
+        } catch (ValidationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DatabaseException("FEED_LOAD_ERROR", "Failed to load feed page " + page, e);
+        }
+    }
+    
+    /**
+     * Drops all cached pages; call after posts, comments or reviews are written
+     */
+    public void invalidate() {
+        feedPageCache.clear();
+    }
+    
+    /**
+     * Returns cache statistics for monitoring
+     */
+    public String getCacheStats() {
+        return "Feed Cache Stats:\n  Feed Pages: " + feedPageCache.getStats();
+    }
+}
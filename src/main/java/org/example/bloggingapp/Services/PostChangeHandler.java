@@ -0,0 +1,75 @@
+package org.example.bloggingapp.Services;
+
+import org.example.bloggingapp.Database.ChangeFeed.ChangeEvent;
+import org.example.bloggingapp.Database.ChangeFeed.ChangeListener;
+import org.example.bloggingapp.Database.Repositories.PostRepository;
+import org.example.bloggingapp.Database.Routing.RoutingConnectionFactory;
+import org.example.bloggingapp.Models.PostEntity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Applies post changes from the change feed to the post caches, the feed page cache and any
+ * registered search indexes. Changed rows are reloaded with one batched query per dispatch.
+ */
+public class PostChangeHandler implements ChangeListener {
+
+    private final PostRepository postRepository;
+    private final PostService postService;
+    private final FeedService feedService;
+    private final List<AdvancedSearchService> searchIndexes = new CopyOnWriteArrayList<>();
+
+    public PostChangeHandler(PostRepository postRepository, PostService postService, FeedService feedService) {
+        this.postRepository = postRepository;
+        this.postService = postService;
+        this.feedService = feedService;
+    }
+
+    /**
+     * Keeps a search index current from now on
+     */
+    public void registerSearchIndex(AdvancedSearchService searchIndex) {
+        searchIndexes.add(searchIndex);
+    }
+
+    public void unregisterSearchIndex(AdvancedSearchService searchIndex) {
+        searchIndexes.remove(searchIndex);
+    }
+
+    @Override
+    public void onChanges(List<ChangeEvent> events) {
+        Set<Integer> changedIds = new LinkedHashSet<>();
+        Set<Integer> deletedIds = new LinkedHashSet<>();
+        for (ChangeEvent event : events) {
+            if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+                deletedIds.add(event.getRowId());
+                changedIds.remove(event.getRowId());
+            } else {
+                changedIds.add(event.getRowId());
+                deletedIds.remove(event.getRowId());
+            }
+        }
+
+        // Notifications come from the primary; a replica may not have replayed these rows yet
+        int[] ids = changedIds.stream().mapToInt(Integer::intValue).toArray();
+        Map<Integer, PostEntity> reloaded = RoutingConnectionFactory.onPrimary(() -> postRepository.findByIds(ids));
+        List<PostEntity> changedPosts = new ArrayList<>(reloaded.values());
+        for (int postId : changedIds) {
+            // Deleted again before we could read it
+            if (!reloaded.containsKey(postId)) {
+                deletedIds.add(postId);
+            }
+        }
+
+        postService.applyExternalChanges(changedPosts, deletedIds);
+        for (AdvancedSearchService searchIndex : searchIndexes) {
+            searchIndex.applyChanges(changedPosts, deletedIds);
+        }
+        feedService.invalidate();
+    }
+}
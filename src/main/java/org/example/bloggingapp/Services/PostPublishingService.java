@@ -0,0 +1,102 @@
+package org.example.bloggingapp.Services;
+
+import org.example.bloggingapp.Database.Jdbc.UnitOfWork;
+import org.example.bloggingapp.Database.Repositories.PostRepository;
+import org.example.bloggingapp.Database.Repositories.PostTagRepository;
+import org.example.bloggingapp.Database.Repositories.TagRepository;
+import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Models.TagEntity;
+import org.example.bloggingapp.Search.TextAnalyzer;
+import org.example.bloggingapp.Utils.Exceptions.DatabaseException;
+import org.example.bloggingapp.Utils.Exceptions.ValidationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates a post together with its hashtags in a single transaction.
+ *
+ * The post insert, the tag upsert and the post_tags links share one connection, so publishing
+ * a post costs three or four round trips however many tags it has, and a failure leaves nothing
+ * behind. Caches and the search index only learn about the post after the commit.
+ */
+public class PostPublishingService {
+
+    /**
+     * Longest tag name the tags table accepts
+     */
+    public static final int MAX_TAG_LENGTH = 50;
+
+    private final PostRepository postRepository;
+    private final TagRepository tagRepository;
+    private final PostTagRepository postTagRepository;
+    private final PostService postService;
+
+    public PostPublishingService(PostRepository postRepository, TagRepository tagRepository,
+                                 PostTagRepository postTagRepository, PostService postService) {
+        this.postRepository = postRepository;
+        this.tagRepository = tagRepository;
+        this.postTagRepository = postTagRepository;
+        this.postService = postService;
+    }
+
+    /**
+     * Inserts the post, creates any missing tags and links them, all or nothing
+     * @param post the post to create; its ID is set on success
+     * @param hashtags tag names without the leading '#'
+     * @return the created post
+     */
+    public PostEntity publish(PostEntity post, Collection<String> hashtags) throws DatabaseException, ValidationException {
+        postService.validateNewPost(post);
+        Set<String> tagNames = normalizeTags(hashtags);
+
+        try {
+            return UnitOfWork.execute(postRepository.getConnectionFactory(), unitOfWork -> {
+                postRepository.create(unitOfWork.connection(), post);
+
+                Map<String, TagEntity> tags = tagRepository.upsertByNames(unitOfWork.connection(), tagNames);
+                List<Integer> tagIds = new ArrayList<>(tags.size());
+                for (TagEntity tag : tags.values()) {
+                    tagIds.add(tag.getTagId());
+                }
+                postTagRepository.linkAll(unitOfWork.connection(), post.getPostId(), tagIds);
+
+                unitOfWork.afterCommit(() -> postService.cacheCreatedPost(post));
+                return post;
+            });
+        } catch (Exception e) {
+            throw new DatabaseException("POST_PUBLISH_ERROR", "Failed to publish post with tags", e);
+        }
+    }
+
+    /**
+     * Extracts the distinct, lower-cased #hashtags of a post body in order of appearance
+     */
+    public static List<String> extractHashtags(String content) {
+        // Same hashtags as the search index sees, e.g. "#Java," is java
+        return TextAnalyzer.DEFAULT.hashtags(content);
+    }
+
+    private static Set<String> normalizeTags(Collection<String> hashtags) {
+        Set<String> names = new LinkedHashSet<>();
+        if (hashtags == null) {
+            return names;
+        }
+
+        for (String hashtag : hashtags) {
+            if (hashtag == null) {
+                continue;
+            }
+            String name = TextAnalyzer.fold(hashtag);
+            // An over-long tag would abort the whole transaction, so it is skipped instead
+            if (!name.isEmpty() && name.length() <= MAX_TAG_LENGTH) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+}
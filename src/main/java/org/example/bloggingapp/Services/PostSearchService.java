@@ -1,20 +1,29 @@
 package org.example.bloggingapp.Services;
 
 import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Search.SearchResultCache;
 import org.example.bloggingapp.Utils.Exceptions.DatabaseException;
 import org.example.bloggingapp.Utils.Exceptions.ValidationException;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class PostSearchService {
     
+    private static final String KEYWORD_SEARCH = "keyword";
+    private static final String AUTHOR_SEARCH = "author";
+    private static final String TAG_SEARCH = "tag";
+    
     private final PostService postService;
-    private final Map<String, List<PostEntity>> keywordCache;
-    private final Map<String, List<PostEntity>> authorCache;
-    private final Map<String, List<PostEntity>> tagCache;
+    // Evaluates searchAll queries over the inverted index when present
+    private final AdvancedSearchService searchIndex;
+    // Post IDs of keyword, author and tag searches, resolved through postCache
+    private final SearchResultCache resultCache;
+    // Bumped by invalidateCache, which makes every cached result stale
+    private final AtomicLong cacheGeneration = new AtomicLong();
     private final Map<Integer, PostEntity> postCache;
     private volatile LocalDateTime lastCacheUpdate;
     private final int cacheMaxSize;
@@ -25,12 +34,15 @@ public class PostSearchService {
     private long totalSearchTime = 0;
     
     public PostSearchService(PostService postService) {
+        this(postService, null);
+    }
+    
+    public PostSearchService(PostService postService, AdvancedSearchService searchIndex) {
         this.postService = postService;
-        this.keywordCache = new ConcurrentHashMap<>();
-        this.authorCache = new ConcurrentHashMap<>();
-        this.tagCache = new ConcurrentHashMap<>();
+        this.searchIndex = searchIndex;
         this.postCache = new ConcurrentHashMap<>();
         this.cacheMaxSize = 1000;
+        this.resultCache = new SearchResultCache(cacheMaxSize, SearchResultCache.DEFAULT_MAX_POST_IDS);
         this.lastCacheUpdate = LocalDateTime.now();
     }
     
@@ -50,10 +62,11 @@ public class PostSearchService {
             String normalizedKeyword = keyword.toLowerCase().trim();
             
             // Check cache first
-            List<PostEntity> cachedResults = keywordCache.get(normalizedKeyword);
+            long generation = cacheGeneration.get();
+            List<PostEntity> cachedResults = cachedResults(KEYWORD_SEARCH, normalizedKeyword, generation);
             if (cachedResults != null) {
                 cacheHits++;
-                return new ArrayList<>(cachedResults);
+                return cachedResults;
             }
             
             // Perform search
@@ -64,7 +77,7 @@ public class PostSearchService {
                     .collect(Collectors.toList());
             
             // Cache results
-            cacheKeywordResults(normalizedKeyword, results);
+            cacheResults(KEYWORD_SEARCH, normalizedKeyword, generation, results);
             
             long endTime = System.nanoTime();
             totalSearchTime += (endTime - startTime);
@@ -90,10 +103,11 @@ public class PostSearchService {
             String normalizedAuthor = authorName.toLowerCase().trim();
             
             // Check cache first
-            List<PostEntity> cachedResults = authorCache.get(normalizedAuthor);
+            long generation = cacheGeneration.get();
+            List<PostEntity> cachedResults = cachedResults(AUTHOR_SEARCH, normalizedAuthor, generation);
             if (cachedResults != null) {
                 cacheHits++;
-                return new ArrayList<>(cachedResults);
+                return cachedResults;
             }
             
             // Perform search
@@ -104,7 +118,7 @@ public class PostSearchService {
                     .collect(Collectors.toList());
             
             // Cache results
-            cacheAuthorResults(normalizedAuthor, results);
+            cacheResults(AUTHOR_SEARCH, normalizedAuthor, generation, results);
             
             long endTime = System.nanoTime();
             totalSearchTime += (endTime - startTime);
@@ -130,10 +144,11 @@ public class PostSearchService {
             String normalizedTag = tagName.toLowerCase().trim();
             
             // Check cache first
-            List<PostEntity> cachedResults = tagCache.get(normalizedTag);
+            long generation = cacheGeneration.get();
+            List<PostEntity> cachedResults = cachedResults(TAG_SEARCH, normalizedTag, generation);
             if (cachedResults != null) {
                 cacheHits++;
-                return new ArrayList<>(cachedResults);
+                return cachedResults;
             }
             
             // For now, simulate tag search by looking for hashtags in content
@@ -144,7 +159,7 @@ public class PostSearchService {
                     .collect(Collectors.toList());
             
             // Cache results
-            cacheTagResults(normalizedTag, results);
+            cacheResults(TAG_SEARCH, normalizedTag, generation, results);
             
             long endTime = System.nanoTime();
             totalSearchTime += (endTime - startTime);
@@ -156,13 +171,23 @@ public class PostSearchService {
     }
     
     /**
-     * Combined search across all fields
+     * Combined search across all fields. With a search index the query may use AND, OR, NOT,
+     * quoted phrases and author:, tag: and title: prefixes; see {@link AdvancedSearchService#booleanSearch}.
      */
     public List<PostEntity> searchAll(String query) throws ValidationException, DatabaseException {
         if (query == null || query.trim().isEmpty()) {
             throw new ValidationException("QUERY_REQUIRED", "query", "Search query cannot be null or empty");
         }
         
+        if (searchIndex != null) {
+            long startTime = System.nanoTime();
+            searchCount++;
+            List<PostEntity> results = new ArrayList<>(searchIndex.booleanSearch(query));
+            results.sort((p1, p2) -> p2.getCreatedAt().compareTo(p1.getCreatedAt()));
+            totalSearchTime += System.nanoTime() - startTime;
+            return results;
+        }
+        
         Set<PostEntity> allResults = new HashSet<>();
         
         try {
@@ -221,38 +246,45 @@ public class PostSearchService {
     /**
      * Cache management methods
      */
-    private void cacheKeywordResults(String keyword, List<PostEntity> results) {
-        if (keywordCache.size() >= cacheMaxSize) {
-            // Remove oldest entries (simple LRU simulation)
-            keywordCache.clear();
+    private List<PostEntity> cachedResults(String kind, String query, long generation) {
+        SearchResultCache.Entry entry = resultCache.get(new SearchResultCache.Key(kind, query, null, null),
+                generation, Integer.MAX_VALUE);
+        if (entry == null) {
+            return null;
         }
-        keywordCache.put(keyword, new ArrayList<>(results));
-        lastCacheUpdate = LocalDateTime.now();
-    }
-    
-    private void cacheAuthorResults(String author, List<PostEntity> results) {
-        if (authorCache.size() >= cacheMaxSize) {
-            authorCache.clear();
+        List<PostEntity> results = new ArrayList<>(entry.postIds().length);
+        for (int postId : entry.postIds()) {
+            PostEntity post = postCache.get(postId);
+            if (post == null) {
+                return null;
+            }
+            results.add(post);
         }
-        authorCache.put(author, new ArrayList<>(results));
-        lastCacheUpdate = LocalDateTime.now();
+        return results;
     }
     
-    private void cacheTagResults(String tag, List<PostEntity> results) {
-        if (tagCache.size() >= cacheMaxSize) {
-            tagCache.clear();
+    /**
+     * Caches a result computed from the posts as of the given generation; a result computed
+     * while the cache was invalidated is stale as soon as it is stored
+     */
+    private void cacheResults(String kind, String query, long generation, List<PostEntity> results) {
+        int[] postIds = new int[results.size()];
+        for (int i = 0; i < postIds.length; i++) {
+            PostEntity post = results.get(i);
+            postIds[i] = post.getPostId();
+            postCache.put(post.getPostId(), post);
         }
-        tagCache.put(tag, new ArrayList<>(results));
+        resultCache.put(new SearchResultCache.Key(kind, query, null, null),
+                new SearchResultCache.Entry(postIds, postIds.length, true, kind + "_search", generation));
         lastCacheUpdate = LocalDateTime.now();
     }
     
     /**
-     * Invalidate cache when posts are updated
+     * Invalidate cache when posts are updated. Cached results are dropped lazily, as they are
+     * next looked up or evicted
      */
     public void invalidateCache() {
-        keywordCache.clear();
-        authorCache.clear();
-        tagCache.clear();
+        cacheGeneration.incrementAndGet();
         postCache.clear();
         lastCacheUpdate = LocalDateTime.now();
     }
@@ -262,19 +294,19 @@ public class PostSearchService {
      */
     public void invalidateKeywordCache(String keyword) {
         if (keyword != null) {
-            keywordCache.remove(keyword.toLowerCase());
+            resultCache.remove(new SearchResultCache.Key(KEYWORD_SEARCH, keyword.toLowerCase().trim(), null, null));
         }
     }
     
     public void invalidateAuthorCache(String author) {
         if (author != null) {
-            authorCache.remove(author.toLowerCase());
+            resultCache.remove(new SearchResultCache.Key(AUTHOR_SEARCH, author.toLowerCase().trim(), null, null));
         }
     }
     
     public void invalidateTagCache(String tag) {
         if (tag != null) {
-            tagCache.remove(tag.toLowerCase());
+            resultCache.remove(new SearchResultCache.Key(TAG_SEARCH, tag.toLowerCase().trim(), null, null));
         }
     }
     
@@ -288,9 +320,13 @@ public class PostSearchService {
         metrics.put("cacheHitRate", searchCount > 0 ? (double) cacheHits / searchCount : 0.0);
         metrics.put("averageSearchTimeMs", searchCount > 0 ? (double) totalSearchTime / searchCount / 1_000_000 : 0.0);
         metrics.put("lastCacheUpdate", lastCacheUpdate);
-        metrics.put("keywordCacheSize", keywordCache.size());
-        metrics.put("authorCacheSize", authorCache.size());
-        metrics.put("tagCacheSize", tagCache.size());
+        metrics.put("keywordCacheSize", resultCache.size(KEYWORD_SEARCH));
+        metrics.put("authorCacheSize", resultCache.size(AUTHOR_SEARCH));
+        metrics.put("tagCacheSize", resultCache.size(TAG_SEARCH));
+        SearchResultCache.Stats stats = resultCache.getStats();
+        metrics.put("resultCacheHitRate", stats.hitRate());
+        metrics.put("resultCacheStaleMisses", stats.staleMisses());
+        metrics.put("resultCacheEvictions", stats.evictions());
         return metrics;
     }
     
@@ -299,6 +335,7 @@ public class PostSearchService {
      */
     public void preloadCache() throws DatabaseException {
         try {
+            long generation = cacheGeneration.get();
             List<PostEntity> allPosts = postService.findAll();
             
             // Pre-cache common keywords (simulate popular searches)
@@ -308,7 +345,7 @@ public class PostSearchService {
                         .filter(post -> post.getTitle() != null && post.getTitle().toLowerCase().contains(keyword))
                         .collect(Collectors.toList());
                 if (!results.isEmpty()) {
-                    cacheKeywordResults(keyword, results);
+                    cacheResults(KEYWORD_SEARCH, keyword, generation, results);
                 }
             }
             
@@ -323,7 +360,7 @@ public class PostSearchService {
                         .filter(post -> author.equals(post.getAuthorName()))
                         .collect(Collectors.toList());
                 if (!authorPosts.isEmpty()) {
-                    cacheAuthorResults(author.toLowerCase(), authorPosts);
+                    cacheResults(AUTHOR_SEARCH, author.toLowerCase().trim(), generation, authorPosts);
                 }
             }
             
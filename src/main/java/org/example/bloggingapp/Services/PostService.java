@@ -12,13 +12,23 @@ import org.example.bloggingapp.Cache.InMemoryCacheService;
 import org.example.bloggingapp.Cache.CacheManager;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 public class PostService implements IService<PostEntity> {
     
+    private static final int PREPOPULATE_LIMIT = 500; // matches the individual post cache capacity
+    
     private final PostRepository postRepository;
     private PostSearchService searchService;
+    private final List<AdvancedSearchService> searchIndexes = new CopyOnWriteArrayList<>();
     
     // Cache instances for performance optimization
     private final CacheService<Integer, PostEntity> postCache;
@@ -50,36 +60,25 @@ public class PostService implements IService<PostEntity> {
         this.searchService = searchService;
     }
     
+    /**
+     * Updates a search index on every post written through this service, so it does not wait
+     * for the change feed, which may be disconnected
+     */
+    public void registerSearchIndex(AdvancedSearchService searchIndex) {
+        searchIndexes.add(searchIndex);
+    }
+    
+    public void unregisterSearchIndex(AdvancedSearchService searchIndex) {
+        searchIndexes.remove(searchIndex);
+    }
+    
     @Override
     public PostEntity create(PostEntity post) throws DatabaseException, ServiceException, ValidationException {
         try {
-            if (post == null) {
-                throw new ValidationException("POST_NULL", "post", "Post entity cannot be null");
-            }
-            if (post.getTitle() == null || post.getTitle().trim().isEmpty()) {
-                throw new ValidationException("TITLE_REQUIRED", "title", "Post title is required");
-            }
-            if (post.getContent() == null || post.getContent().trim().isEmpty()) {
-                throw new ValidationException("CONTENT_REQUIRED", "content", "Post content is required");
-            }
-            
-            if (post.getCreatedAt() == null) {
-                post.setCreatedAt(LocalDateTime.now());
-            }
+            validateNewPost(post);
             
             postRepository.create(post);
-            
-            // Cache the newly created post
-            postCache.put(post.getPostId(), post);
-            postByTitleCache.put(post.getTitle(), post);
-            
-            // Invalidate related caches
-            invalidateRelatedCaches(post.getUserId());
-            
-            // Invalidate search service cache
-            if (searchService != null) {
-                searchService.invalidateCache();
-            }
+            cacheCreatedPost(post);
             
             return post;
         } catch (ValidationException e) {
@@ -89,6 +88,46 @@ public class PostService implements IService<PostEntity> {
         }
     }
     
+    /**
+     * Checks the fields required to insert a post and defaults its creation time
+     */
+    public void validateNewPost(PostEntity post) throws ValidationException {
+        if (post == null) {
+            throw new ValidationException("POST_NULL", "post", "Post entity cannot be null");
+        }
+        if (post.getTitle() == null || post.getTitle().trim().isEmpty()) {
+            throw new ValidationException("TITLE_REQUIRED", "title", "Post title is required");
+        }
+        if (post.getContent() == null || post.getContent().trim().isEmpty()) {
+            throw new ValidationException("CONTENT_REQUIRED", "content", "Post content is required");
+        }
+        
+        if (post.getCreatedAt() == null) {
+            post.setCreatedAt(LocalDateTime.now());
+        }
+    }
+    
+    /**
+     * Publishes a newly inserted post to the caches and search index.
+     * Posts inserted inside a unit of work must only be passed here after the commit.
+     */
+    public void cacheCreatedPost(PostEntity post) {
+        // Cache the newly created post
+        postCache.put(post.getPostId(), post);
+        postByTitleCache.put(post.getTitle(), post);
+        
+        // Invalidate related caches
+        invalidateRelatedCaches(post.getUserId());
+        
+        // Invalidate search service cache
+        if (searchService != null) {
+            searchService.invalidateCache();
+        }
+        for (AdvancedSearchService searchIndex : searchIndexes) {
+            searchIndex.indexPost(post);
+        }
+    }
+    
     @Override
     public PostEntity findById(int id) throws DatabaseException, EntityNotFoundException, ValidationException {
         try {
@@ -119,6 +158,42 @@ public class PostService implements IService<PostEntity> {
         }
     }
     
+    /**
+     * Resolves many posts at once. Cached posts are served from memory and only the
+     * missing IDs are fetched, in a single batched query.
+     * @return posts keyed by ID; unknown IDs are absent
+     */
+    public Map<Integer, PostEntity> findByIds(int[] ids) throws DatabaseException {
+        try {
+            Map<Integer, PostEntity> posts = new LinkedHashMap<>();
+            Set<Integer> missingIds = new LinkedHashSet<>();
+            
+            // Try cache first
+            for (int id : ids) {
+                Optional<PostEntity> cachedPost = postCache.get(id);
+                if (cachedPost.isPresent()) {
+                    posts.put(id, cachedPost.get());
+                } else if (id > 0) {
+                    missingIds.add(id);
+                }
+            }
+            
+            // Cache misses - one batched query for all of them
+            if (!missingIds.isEmpty()) {
+                Map<Integer, PostEntity> loaded = postRepository.findByIds(
+                        missingIds.stream().mapToInt(Integer::intValue).toArray());
+                loaded.forEach((id, post) -> {
+                    postCache.put(id, post);
+                    posts.put(id, post);
+                });
+            }
+            
+            return posts;
+        } catch (Exception e) {
+            throw new DatabaseException("POST_FIND_IDS_ERROR", "Failed to find posts by IDs", e);
+        }
+    }
+    
     @Override
     public PostEntity findByString(String identifier) throws DatabaseException, ValidationException {
         try {
@@ -171,6 +246,18 @@ public class PostService implements IService<PostEntity> {
         }
     }
     
+    /**
+     * Streams all posts straight from the database through a server-side cursor.
+     * Bypasses the caches so large scans don't evict hot entries; the stream must be closed by the caller.
+     */
+    public Stream<PostEntity> streamAll() throws DatabaseException {
+        try {
+            return postRepository.streamAll();
+        } catch (Exception e) {
+            throw new DatabaseException("POST_STREAM_ERROR", "Failed to stream posts", e);
+        }
+    }
+    
     @Override
     public PostEntity update(int id, PostEntity post) throws DatabaseException, EntityNotFoundException, ValidationException {
         try {
@@ -178,27 +265,35 @@ public class PostService implements IService<PostEntity> {
                 throw new ValidationException("POST_NULL", "post", "Post entity cannot be null");
             }
             
-            PostEntity existingPost = findById(id);
-            if (existingPost != null) {
-                post.setPostId(id);
-                postRepository.updatePost(id, post);
-                
-                // Update cache
-                postCache.put(id, post);
-                postByTitleCache.put(post.getTitle(), post);
-                
-                // Invalidate related caches
-                invalidateRelatedCaches(post.getUserId());
-                
-                // Invalidate search service cache
-                if (searchService != null) {
-                    searchService.invalidateCache();
+            // Single round trip: the stored row comes back from UPDATE ... RETURNING
+            PostEntity updatedPost = postRepository.updateReturning(id, post, post.getVersion());
+            if (updatedPost == null) {
+                // Failure path only: tell a stale version apart from a missing post
+                if (post.getVersion() > 0 && postRepository.findByInteger(id) != null) {
+                    throw new ValidationException("POST_VERSION_CONFLICT", "version",
+                            "Post was modified by someone else; reload it and try again");
                 }
-                
-                return post;
+                throw new EntityNotFoundException("Post", id);
+            }
+            
+            // Update cache, dropping the title entry of the previous revision
+            postCache.get(id).ifPresent(previous -> postByTitleCache.remove(previous.getTitle()));
+            postCache.put(id, updatedPost);
+            postByTitleCache.put(updatedPost.getTitle(), updatedPost);
+            
+            // Invalidate related caches
+            invalidateRelatedCaches(updatedPost.getUserId());
+            
+            // Invalidate search service cache
+            if (searchService != null) {
+                searchService.invalidateCache();
             }
-            return null;
-        } catch (ValidationException | EntityNotFoundException | DatabaseException e) {
+            for (AdvancedSearchService searchIndex : searchIndexes) {
+                searchIndex.indexPost(updatedPost);
+            }
+            
+            return updatedPost;
+        } catch (ValidationException | EntityNotFoundException e) {
             throw e;
         } catch (Exception e) {
             throw new DatabaseException("POST_UPDATE_ERROR", "Failed to update post: " + id, e);
@@ -207,32 +302,42 @@ public class PostService implements IService<PostEntity> {
     
     @Override
     public boolean delete(int id) throws DatabaseException, EntityNotFoundException, ValidationException {
+        deletePost(id);
+        return true;
+    }
+    
+    /**
+     * Deletes a post and returns the removed row, which DELETE ... RETURNING
+     * supplies so that no read is needed before the write
+     */
+    public PostEntity deletePost(int id) throws DatabaseException, EntityNotFoundException, ValidationException {
         try {
             if (id <= 0) {
                 throw new ValidationException("INVALID_ID", "id", "Post ID must be positive");
             }
             
-            // Get post before deletion to invalidate caches
-            PostEntity postToDelete = findById(id);
-            if (postToDelete != null) {
-                postRepository.delete(id);
-                
-                // Remove from caches
-                postCache.remove(id);
-                postByTitleCache.remove(postToDelete.getTitle());
-                
-                // Invalidate related caches
-                invalidateRelatedCaches(postToDelete.getUserId());
-                
-                // Invalidate search service cache
-                if (searchService != null) {
-                    searchService.invalidateCache();
-                }
-                
-                return true;
+            PostEntity deletedPost = postRepository.deleteReturning(id);
+            if (deletedPost == null) {
+                throw new EntityNotFoundException("Post", id);
             }
-            return false;
-        } catch (ValidationException | EntityNotFoundException | DatabaseException e) {
+            
+            // Remove from caches
+            postCache.remove(id);
+            postByTitleCache.remove(deletedPost.getTitle());
+            
+            // Invalidate related caches
+            invalidateRelatedCaches(deletedPost.getUserId());
+            
+            // Invalidate search service cache
+            if (searchService != null) {
+                searchService.invalidateCache();
+            }
+            for (AdvancedSearchService searchIndex : searchIndexes) {
+                searchIndex.removeFromIndex(id);
+            }
+            
+            return deletedPost;
+        } catch (ValidationException | EntityNotFoundException e) {
             throw e;
         } catch (Exception e) {
             throw new DatabaseException("POST_DELETE_ERROR", "Failed to delete post: " + id, e);
@@ -271,6 +376,40 @@ public class PostService implements IService<PostEntity> {
         return findByString(title); // Reuse the cached findByString method
     }
     
+    /**
+     * Applies post changes reported by the change feed, e.g. from other instances or admin SQL.
+     * Changed rows replace their cached copies and deleted posts are evicted. Per-user and
+     * all-post lists are dropped because a change may have moved a post between users.
+     */
+    public void applyExternalChanges(Collection<PostEntity> changedPosts, Collection<Integer> deletedPostIds) {
+        for (PostEntity post : changedPosts) {
+            postCache.get(post.getPostId()).ifPresent(previous -> postByTitleCache.remove(previous.getTitle()));
+            postCache.put(post.getPostId(), post);
+            postByTitleCache.put(post.getTitle(), post);
+        }
+        for (int postId : deletedPostIds) {
+            postCache.get(postId).ifPresent(previous -> postByTitleCache.remove(previous.getTitle()));
+            postCache.remove(postId);
+        }
+        
+        allPostsCache.remove("all");
+        userPostsCache.clear();
+        
+        if (searchService != null) {
+            searchService.invalidateCache();
+        }
+    }
+    
+    /**
+     * Raises the view count of cached posts to the counts stored by a view flush
+     * @param storedViews stored view counts keyed by post ID
+     */
+    public void refreshViews(Map<Integer, Integer> storedViews) {
+        storedViews.forEach((postId, views) -> postCache.get(postId)
+                .filter(post -> post.getViews() < views)
+                .ifPresent(post -> post.setViews(views)));
+    }
+    
     /**
      * Invalidates caches that might be affected by changes to posts
      * @param userId the user ID whose posts cache should be invalidated
@@ -281,27 +420,16 @@ public class PostService implements IService<PostEntity> {
     }
     
     /**
-     * Pre-populates cache with real database values for better initial performance
+     * Pre-populates cache with real database values for better initial performance.
+     * Rows are streamed and reading stops once the post cache is full, so start-up
+     * memory stays bounded regardless of table size.
      */
     private void prepopulateCacheFromDatabase() {
-        try {
-            // Load all posts from database and cache them
-            List<PostEntity> allPosts = postRepository.findAll();
-            if (!allPosts.isEmpty()) {
-                allPostsCache.put("all", allPosts);
-                
-                // Cache individual posts and create user post mappings
-                for (PostEntity post : allPosts) {
-                    postCache.put(post.getPostId(), post);
-                    postByTitleCache.put(post.getTitle(), post);
-                    
-                    // Add to user posts cache
-                    List<PostEntity> existingUserPosts = userPostsCache.get(post.getUserId()).orElse(null);
-                    List<PostEntity> userPosts = existingUserPosts != null ? existingUserPosts : new java.util.ArrayList<>();
-                    userPosts.add(post);
-                    userPostsCache.put(post.getUserId(), userPosts);
-                }
-            }
+        try (Stream<PostEntity> posts = postRepository.streamAll().limit(PREPOPULATE_LIMIT)) {
+            posts.forEach(post -> {
+                postCache.put(post.getPostId(), post);
+                postByTitleCache.put(post.getTitle(), post);
+            });
         } catch (Exception e) {
             System.err.println("Warning: Failed to pre-populate cache from database: " + e.getMessage());
             // Continue without pre-population - cache will be populated on-demand
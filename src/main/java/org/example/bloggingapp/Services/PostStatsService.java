@@ -0,0 +1,175 @@
+package org.example.bloggingapp.Services;
+
+import org.example.bloggingapp.Cache.CacheManager;
+import org.example.bloggingapp.Cache.InMemoryCacheService;
+import org.example.bloggingapp.Database.ChangeFeed.ChangeEvent;
+import org.example.bloggingapp.Database.DbInterfaces.CacheService;
+import org.example.bloggingapp.Database.Repositories.PostStatsRepository;
+import org.example.bloggingapp.Models.PostStats;
+import org.example.bloggingapp.Utils.Exceptions.DatabaseException;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Serves per-post comment, review, rating and view counters.
+ *
+ * The counters live in post_stats, which triggers update in the same transaction as each
+ * post, comment or review write, so a lookup is one cache hit or one primary-key read.
+ * Cached entries are evicted from the change feed when the underlying rows change.
+ */
+public class PostStatsService {
+    
+    private final PostStatsRepository postStatsRepository;
+    
+    private final CacheService<Integer, PostStats> statsCache;
+    // Holds "total" and "user:<id>" post counts
+    private final CacheService<String, Integer> countCache;
+    
+    public PostStatsService(PostStatsRepository postStatsRepository) {
+        this.postStatsRepository = postStatsRepository;
+        this.statsCache = new InMemoryCacheService<>(2000, 5 * 60 * 1000); // 2000 posts, 5 minutes
+        this.countCache = new InMemoryCacheService<>(500, 60 * 1000); // 500 counts, 1 minute
+        
+        CacheManager.getInstance().registerCache("postStats", (InMemoryCacheService<?, ?>) statsCache);
+        CacheManager.getInstance().registerCache("postCounts", (InMemoryCacheService<?, ?>) countCache);
+    }
+    
+    /**
+     * Returns the counters of one post; posts without a stats row report zeros
+     */
+    public PostStats getStats(int postId) throws DatabaseException {
+        try {
+            // Try cache first
+            Optional<PostStats> cachedStats = statsCache.get(postId);
+            if (cachedStats.isPresent()) {
+                return cachedStats.get();
+            }
+            
+            PostStats stats = postStatsRepository.findByPostId(postId);
+            if (stats == null) {
+                // Not cached: the row may simply not be committed yet
+                return PostStats.empty(postId);
+            }
+            statsCache.put(postId, stats);
+            return stats;
+        } catch (Exception e) {
+            throw new DatabaseException("POST_STATS_ERROR", "Failed to load stats for post " + postId, e);
+        }
+    }
+    
+    /**
+     * Returns the counters of many posts. Cached entries are served from memory and the
+     * rest are fetched in a single batched query.
+     * @return stats for every requested ID; posts without a stats row report zeros
+     */
+    public Map<Integer, PostStats> getStats(int[] postIds) throws DatabaseException {
+        try {
+            Map<Integer, PostStats> result = new LinkedHashMap<>();
+            Set<Integer> missingIds = new LinkedHashSet<>();
+            
+            for (int postId : postIds) {
+                Optional<PostStats> cachedStats = statsCache.get(postId);
+                if (cachedStats.isPresent()) {
+                    result.put(postId, cachedStats.get());
+                } else if (postId > 0) {
+                    missingIds.add(postId);
+                }
+            }
+            
+            if (!missingIds.isEmpty()) {
+                Map<Integer, PostStats> loaded = postStatsRepository.findByPostIds(
+                        missingIds.stream().mapToInt(Integer::intValue).toArray());
+                for (Integer postId : missingIds) {
+                    PostStats stats = loaded.get(postId);
+                    if (stats != null) {
+                        statsCache.put(postId, stats);
+                        result.put(postId, stats);
+                    } else {
+                        result.put(postId, PostStats.empty(postId));
+                    }
+                }
+            }
+            
+            return result;
+        } catch (Exception e) {
+            throw new DatabaseException("POST_STATS_ERROR", "Failed to load stats for posts", e);
+        }
+    }
+    
+    /**
+     * Returns the number of posts written by a user
+     */
+    public int getPostCountByUser(int userId) throws DatabaseException {
+        try {
+            String cacheKey = "user:" + userId;
+            Optional<Integer> cachedCount = countCache.get(cacheKey);
+            if (cachedCount.isPresent()) {
+                return cachedCount.get();
+            }
+            
+            int count = postStatsRepository.getPostCountByUser(userId);
+            countCache.put(cacheKey, count);
+            return count;
+        } catch (Exception e) {
+            throw new DatabaseException("POST_STATS_ERROR", "Failed to load post count for user " + userId, e);
+        }
+    }
+    
+    /**
+     * Returns the total number of posts
+     */
+    public int getTotalPosts() throws DatabaseException {
+        try {
+            Optional<Integer> cachedCount = countCache.get("total");
+            if (cachedCount.isPresent()) {
+                return cachedCount.get();
+            }
+            
+            int count = postStatsRepository.getTotalPosts();
+            countCache.put("total", count);
+            return count;
+        } catch (Exception e) {
+            throw new DatabaseException("POST_STATS_ERROR", "Failed to load total post count", e);
+        }
+    }
+    
+    /**
+     * Evicts the cached counters of one post
+     */
+    public void invalidate(int postId) {
+        statsCache.remove(postId);
+    }
+    
+    /**
+     * Evicts the posts touched by a batch of change events. Post events carry the post ID
+     * as their row ID; comment and review events carry it as their secondary ID.
+     */
+    public void onChanges(List<ChangeEvent> events) {
+        boolean postsChanged = false;
+        for (ChangeEvent event : events) {
+            if ("posts".equals(event.getTable())) {
+                invalidate(event.getRowId());
+                postsChanged = true;
+            } else if (event.getSecondaryId() > 0) {
+                invalidate(event.getSecondaryId());
+            }
+        }
+        if (postsChanged) {
+            countCache.clear();
+        }
+    }
+    
+    /**
+     * Returns cache statistics for monitoring
+     */
+    public String getCacheStats() {
+        return "Post Stats Cache Stats:\n" +
+               "  Post Stats: " + statsCache.getStats() + "\n" +
+               "  Post Counts: " + countCache.getStats();
+    }
+}
@@ -5,6 +5,7 @@ import org.example.bloggingapp.Database.Repositories.PostTagRepository;
 import org.example.bloggingapp.Models.PostTagEntity;
 
 import java.util.List;
+import java.util.Map;
 
 public class PostTagService implements IService<PostTagEntity> {
     
@@ -56,15 +57,18 @@ public class PostTagService implements IService<PostTagEntity> {
     }
     
     public List<PostTagEntity> findByPostId(int postId) {
-        return findAll().stream()
-                .filter(postTag -> postTag.getPostId() == postId)
-                .toList();
+        return postTagRepository.findByPostId(postId);
+    }
+    
+    /**
+     * Finds the tag links of many posts in one query; posts without tags map to an empty list
+     */
+    public Map<Integer, List<PostTagEntity>> findByPostIds(int[] postIds) {
+        return postTagRepository.findByPostIds(postIds);
     }
     
     public List<PostTagEntity> findByTagId(int tagId) {
-        return findAll().stream()
-                .filter(postTag -> postTag.getTagId() == tagId)
-                .toList();
+        return postTagRepository.findByTagId(tagId);
     }
     
     public boolean addTagToPost(int postId, int tagId) {
@@ -74,14 +78,7 @@ public class PostTagService implements IService<PostTagEntity> {
     }
     
     public boolean removeTagFromPost(int postId, int tagId) {
-        List<PostTagEntity> existingRelations = findAll().stream()
-                .filter(pt -> pt.getPostId() == postId && pt.getTagId() == tagId)
-                .toList();
-        
-        if (!existingRelations.isEmpty()) {
-            postTagRepository.delete(existingRelations.get(0).getPostId());
-            return true;
-        }
-        return false;
+        // Delete only the (post, tag) pair; the generic delete(id) would drop every tag of the post
+        return postTagRepository.deleteByPostAndTag(postId, tagId);
     }
 }
@@ -0,0 +1,81 @@
+package org.example.bloggingapp.Services;
+
+import org.example.bloggingapp.Models.CommentEntity;
+import org.example.bloggingapp.Models.PostStats;
+import org.example.bloggingapp.Models.ReviewEntity;
+import org.example.bloggingapp.Models.UserEntity;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Request-scoped loaders for the data shown next to each post while a view is rendered.
+ *
+ * Create one instance per render pass, register lookups while building the UI and call
+ * {@link #dispatchAll()} once at the end. Rendering a page of N posts then costs one query
+ * for comments, one for reviews and one for comment authors instead of one of each per post.
+ */
+public class RenderLoaders {
+
+    private final BatchLoader<Integer, List<CommentEntity>> commentsByPost;
+    private final BatchLoader<Integer, List<ReviewEntity>> reviewsByPost;
+    private final BatchLoader<Integer, UserEntity> usersById;
+    private final BatchLoader<Integer, PostStats> statsByPost;
+
+    public RenderLoaders(CommentService commentService, ReviewService reviewService, UserService userService,
+                         PostStatsService postStatsService) {
+        this.commentsByPost = new BatchLoader<>(postIds -> commentService.findByPostIds(toArray(postIds)), List.of());
+        this.reviewsByPost = new BatchLoader<>(postIds -> reviewService.findByPostIds(toArray(postIds)), List.of());
+        this.usersById = new BatchLoader<>(userIds -> userService.findByIds(toArray(userIds)), null);
+        this.statsByPost = new BatchLoader<>(postIds -> postStatsService.getStats(toArray(postIds)), null);
+    }
+
+    public BatchLoader<Integer, List<CommentEntity>> commentsByPost() {
+        return commentsByPost;
+    }
+
+    public BatchLoader<Integer, List<ReviewEntity>> reviewsByPost() {
+        return reviewsByPost;
+    }
+
+    public BatchLoader<Integer, UserEntity> usersById() {
+        return usersById;
+    }
+
+    public BatchLoader<Integer, PostStats> statsByPost() {
+        return statsByPost;
+    }
+
+    /**
+     * Dispatches all loaders until no keys remain. Keys queued by callbacks (e.g. comment
+     * authors discovered once comments arrive) are picked up in the following round.
+     */
+    public void dispatchAll() {
+        boolean dispatched;
+        do {
+            dispatched = commentsByPost.dispatch();
+            dispatched |= reviewsByPost.dispatch();
+            dispatched |= usersById.dispatch();
+            dispatched |= statsByPost.dispatch();
+        } while (dispatched);
+    }
+
+    /**
+     * Returns the number of batched queries issued so far
+     */
+    public int getQueryCount() {
+        return commentsByPost.getBatchCount() + reviewsByPost.getBatchCount() + usersById.getBatchCount()
+                + statsByPost.getBatchCount();
+    }
+
+    /**
+     * Returns the display name for a comment or post author, falling back to the ID
+     */
+    public static String displayName(UserEntity user, int userId) {
+        return user != null && user.getUserName() != null ? user.getUserName() : "User " + userId;
+    }
+
+    private static int[] toArray(Set<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -5,6 +5,7 @@ import org.example.bloggingapp.Database.Repositories.ReviewRepository;
 import org.example.bloggingapp.Models.ReviewEntity;
 
 import java.util.List;
+import java.util.Map;
 
 public class ReviewService implements IService<ReviewEntity> {
     
@@ -25,6 +26,10 @@ public class ReviewService implements IService<ReviewEntity> {
         return reviewRepository.findByInteger(id);
     }
     
+    public Map<Integer, ReviewEntity> findByIds(int[] ids) {
+        return reviewRepository.findByIds(ids);
+    }
+    
     @Override
     public ReviewEntity findByString(String identifier) {
         return reviewRepository.findByString(identifier);
@@ -57,20 +62,18 @@ public class ReviewService implements IService<ReviewEntity> {
     }
     
     public List<ReviewEntity> findByPostId(int postId) {
-        return findAll().stream()
-                .filter(review -> review.getPostId() == postId)
-                .toList();
+        return reviewRepository.findByPostId(postId);
+    }
+    
+    public Map<Integer, List<ReviewEntity>> findByPostIds(int[] postIds) {
+        return reviewRepository.findByPostIds(postIds);
     }
     
     public List<ReviewEntity> findByUserId(int userId) {
-        return findAll().stream()
-                .filter(review -> review.getUserId() == userId)
-                .toList();
+        return reviewRepository.findByUserId(userId);
     }
     
     public List<ReviewEntity> findByRating(int rating) {
-        return findAll().stream()
-                .filter(review -> review.getRating() == rating)
-                .toList();
+        return reviewRepository.findByRating(rating);
     }
 }
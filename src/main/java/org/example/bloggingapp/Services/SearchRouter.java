@@ -0,0 +1,262 @@
+package org.example.bloggingapp.Services;
+
+import org.example.bloggingapp.Models.SearchPage;
+import org.example.bloggingapp.Search.AutocompleteIndex;
+import org.example.bloggingapp.Search.QueryParser;
+import org.example.bloggingapp.Utils.Exceptions.DatabaseException;
+import org.example.bloggingapp.Utils.Exceptions.ValidationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Chooses between the in-memory search index and PostgreSQL full-text search for each query.
+ *
+ * The in-memory index answers queries fastest and evaluates the full query syntax of
+ * {@link QueryParser}: boolean operators, phrases and author:, tag: and title: fields. But it
+ * must hold every post and only stays correct while it receives change feed updates.
+ * PostgreSQL handles any corpus size and its web search syntax. The router therefore sends a
+ * query to memory when the corpus is small, the index is built and the index is fresh; everything
+ * else, and input the query parser rejects (e.g. only excluded terms), goes to the database. Each result names the engine that served it in
+ * {@link AdvancedSearchService.SearchResult#getAlgorithmUsed()}.
+ */
+public class SearchRouter {
+
+    public static final String MEMORY_ENGINE_NAME = "memory_index";
+
+    public static final int DEFAULT_MEMORY_CORPUS_LIMIT = 5000;
+    public static final long DEFAULT_MAX_INDEX_AGE_MILLIS = 2 * 60 * 1000;
+
+    /**
+     * Search engines the router can dispatch to
+     */
+    public enum Engine { MEMORY, DATABASE }
+
+    /**
+     * A routing decision and the reason it was made
+     */
+    public static final class Route {
+        private final Engine engine;
+        private final String reason;
+
+        Route(Engine engine, String reason) {
+            this.engine = engine;
+            this.reason = reason;
+        }
+
+        public Engine getEngine() { return engine; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return engine + " (" + reason + ")";
+        }
+    }
+
+    private final AdvancedSearchService memoryIndex;
+    private final DatabaseSearchService databaseSearch;
+    private final IntSupplier corpusSize;
+    private final BooleanSupplier liveUpdates;
+
+    private volatile int memoryCorpusLimit = DEFAULT_MEMORY_CORPUS_LIMIT;
+    private volatile long maxIndexAgeMillis = DEFAULT_MAX_INDEX_AGE_MILLIS;
+
+    private final ExecutorService indexBuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SearchRouter-IndexBuilder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean buildScheduled = new AtomicBoolean();
+
+    private final AtomicLong memoryQueries = new AtomicLong();
+    private final AtomicLong databaseQueries = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private volatile Route lastRoute;
+
+    /**
+     * @param memoryIndex the in-memory index, kept current through the change feed
+     * @param databaseSearch the PostgreSQL full-text engine
+     * @param corpusSize current number of posts, or a negative value if unknown
+     * @param liveUpdates true while the in-memory index is receiving change feed updates
+     */
+    public SearchRouter(AdvancedSearchService memoryIndex, DatabaseSearchService databaseSearch,
+                        IntSupplier corpusSize, BooleanSupplier liveUpdates) {
+        this.memoryIndex = memoryIndex;
+        this.databaseSearch = databaseSearch;
+        this.corpusSize = corpusSize;
+        this.liveUpdates = liveUpdates;
+    }
+
+    public void setMemoryCorpusLimit(int memoryCorpusLimit) {
+        this.memoryCorpusLimit = memoryCorpusLimit;
+    }
+
+    public void setMaxIndexAgeMillis(long maxIndexAgeMillis) {
+        this.maxIndexAgeMillis = maxIndexAgeMillis;
+    }
+
+    // ====== SEARCH ======
+
+    /**
+     * Searches with whichever engine suits the query and the current state of the index.
+     * If the chosen engine fails, the other one is tried before giving up.
+     * @param query search text
+     * @param page 1-based page number
+     * @param pageSize number of posts per page
+     */
+    public AdvancedSearchService.SearchResult search(String query, int page, int pageSize)
+            throws ValidationException, DatabaseException {
+        if (query == null || query.trim().isEmpty()) {
+            throw new ValidationException("QUERY_REQUIRED", "query", "Search query cannot be null or empty");
+        }
+
+        Route route = route(query);
+        lastRoute = route;
+        long startTime = System.nanoTime();
+
+        AdvancedSearchService.SearchResult result;
+        try {
+            result = execute(route.getEngine(), query, page, pageSize, startTime);
+        } catch (DatabaseException e) {
+            Engine other = route.getEngine() == Engine.DATABASE ? Engine.MEMORY : Engine.DATABASE;
+            if (other == Engine.MEMORY && !memoryIndex.isIndexBuilt()) {
+                throw e;
+            }
+            fallbacks.incrementAndGet();
+            System.err.println("❌ " + route.getEngine() + " search failed, falling back to " + other + ": " + e.getMessage());
+            lastRoute = new Route(other, "fallback after " + route.getEngine() + " failure");
+            result = execute(other, query, page, pageSize, startTime);
+        }
+
+        System.out.println("🔎 '" + query + "' served by " + result.getAlgorithmUsed() + " - " + lastRoute.getReason()
+                + " (" + result.getExecutionTime() / 1_000_000 + "ms)");
+        return result;
+    }
+
+    /**
+     * Completes a prefix from the in-memory index. Until the index is built there are no
+     * suggestions; the first call schedules the build.
+     */
+    public List<AutocompleteIndex.Suggestion> complete(String prefix, int limit) {
+        if (!memoryIndex.isIndexBuilt()) {
+            scheduleIndexBuild();
+            return List.of();
+        }
+        return memoryIndex.autocomplete(prefix, limit);
+    }
+
+    /**
+     * Decides which engine should answer a query, without running it
+     */
+    public Route route(String query) {
+        if (QueryParser.usesOperators(query) && !isIndexQuery(query)) {
+            return new Route(Engine.DATABASE, "query is not valid index query syntax");
+        }
+
+        int posts = corpusSize.getAsInt();
+        if (posts < 0) {
+            posts = memoryIndex.getIndexedPostCount();
+        }
+        if (posts > memoryCorpusLimit) {
+            return new Route(Engine.DATABASE, "corpus of " + posts + " posts exceeds memory limit of " + memoryCorpusLimit);
+        }
+
+        if (!memoryIndex.isIndexBuilt()) {
+            scheduleIndexBuild();
+            return new Route(Engine.DATABASE, "memory index not built yet");
+        }
+
+        if (!liveUpdates.getAsBoolean()) {
+            LocalDateTime lastUpdate = memoryIndex.getLastIndexUpdate();
+            long ageMillis = Duration.between(lastUpdate, LocalDateTime.now()).toMillis();
+            if (ageMillis > maxIndexAgeMillis) {
+                scheduleIndexBuild();
+                return new Route(Engine.DATABASE, "memory index is " + ageMillis / 1000 + "s old without live updates");
+            }
+        }
+
+        return new Route(Engine.MEMORY, "small corpus with a fresh index");
+    }
+
+    private AdvancedSearchService.SearchResult execute(Engine engine, String query, int page, int pageSize,
+                                                       long startTime) throws ValidationException, DatabaseException {
+        AdvancedSearchService.SearchOptions options = new AdvancedSearchService.SearchOptions();
+        options.setPage(page);
+        options.setPageSize(pageSize);
+        // Both engines rank by relevance, so results do not reorder when the route changes
+        options.setSortBy(AdvancedSearchService.SORT_RELEVANCE);
+
+        if (engine == Engine.DATABASE) {
+            SearchPage searchPage = databaseSearch.search(query, page, pageSize);
+            databaseQueries.incrementAndGet();
+            options.setSearchType(DatabaseSearchService.ENGINE_NAME);
+            return new AdvancedSearchService.SearchResult(searchPage.getPosts(), searchPage.getTotalMatches(),
+                    DatabaseSearchService.ENGINE_NAME, System.nanoTime() - startTime, options);
+        }
+
+        options.setSearchType("hash");
+        AdvancedSearchService.SearchResult memoryResult = memoryIndex.advancedSearch(query, options);
+        memoryQueries.incrementAndGet();
+        return new AdvancedSearchService.SearchResult(memoryResult.getPosts(), memoryResult.getTotalResults(),
+                MEMORY_ENGINE_NAME, System.nanoTime() - startTime, options);
+    }
+
+    // ====== INDEX WARM-UP ======
+
+    /**
+     * Builds the in-memory index in the background unless a build is already pending
+     */
+    public void scheduleIndexBuild() {
+        if (!buildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        indexBuilder.execute(() -> {
+            try {
+                if (memoryIndex.isIndexBuilt()) {
+                    memoryIndex.buildIndexes();
+                } else {
+                    // Loads persisted segments when there are any
+                    memoryIndex.ensureIndexesBuilt();
+                }
+            } catch (Exception e) {
+                System.err.println("❌ Background search index build failed: " + e.getMessage());
+            } finally {
+                buildScheduled.set(false);
+            }
+        });
+    }
+
+    // ====== HELPERS ======
+
+    /**
+     * Returns true if the in-memory index can evaluate the query
+     */
+    private static boolean isIndexQuery(String query) {
+        try {
+            QueryParser.parse(query);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the decision made for the most recent query, or null before the first one
+     */
+    public Route getLastRoute() {
+        return lastRoute;
+    }
+
+    public String getStats() {
+        return String.format("SearchRouter[memory=%d, database=%d, fallbacks=%d, indexBuilt=%s, indexedPosts=%d]",
+                memoryQueries.get(), databaseQueries.get(), fallbacks.get(),
+                memoryIndex.isIndexBuilt(), memoryIndex.getIndexedPostCount());
+    }
+}
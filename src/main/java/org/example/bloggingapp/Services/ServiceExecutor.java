@@ -0,0 +1,240 @@
+package org.example.bloggingapp.Services;
+
+import javafx.application.Platform;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs blocking service and repository calls on virtual threads, off the JavaFX Application Thread.
+ *
+ * Each call belongs to a {@link Subsystem} whose semaphore caps how many of its calls may hold a
+ * database connection at once. The permits add up to the connection budget, so hundreds of
+ * queued lookups cost only cheap parked virtual threads rather than hundreds of connections,
+ * and background work cannot take every connection from UI reads. A call that cannot get a
+ * permit and finish within its timeout completes with a {@link TimeoutException}.
+ *
+ * Results are handed back to the UI with {@link #supplyToUi}, which runs the callbacks on the
+ * FX thread. The JDBC driver guards its I/O with locks rather than synchronized blocks, so
+ * virtual threads blocked on queries release their carrier threads.
+ */
+public class ServiceExecutor implements AutoCloseable {
+
+    /**
+     * Groups of calls that share a concurrency limit. The defaults add up to 20 connections,
+     * well below PostgreSQL's default max_connections of 100.
+     */
+    public enum Subsystem {
+        /** Feed pages, entity lookups and other reads the user is waiting for */
+        READS(10),
+        /** Creates, updates and deletes */
+        WRITES(4),
+        /** Full-text and index searches */
+        SEARCH(4),
+        /** Dashboard metrics and other periodic background work */
+        BACKGROUND(2);
+
+        private final int defaultPermits;
+
+        Subsystem(int defaultPermits) {
+            this.defaultPermits = defaultPermits;
+        }
+
+        public int getDefaultPermits() {
+            return defaultPermits;
+        }
+    }
+
+    /**
+     * A blocking call, typically a service method that may throw checked exceptions
+     */
+    @FunctionalInterface
+    public interface BlockingCall<T> {
+        T call() throws Exception;
+    }
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ExecutorService virtualThreads;
+    private final Executor uiExecutor;
+    private final Duration defaultTimeout;
+    private final Map<Subsystem, Semaphore> permits = new EnumMap<>(Subsystem.class);
+    private final Map<Subsystem, SubsystemStats> stats = new EnumMap<>(Subsystem.class);
+
+    /**
+     * Creates an executor with the default limits that hands results to the JavaFX thread
+     */
+    public ServiceExecutor() {
+        this(null, DEFAULT_TIMEOUT, ServiceExecutor::runOnFxThread);
+    }
+
+    /**
+     * @param permitOverrides permits per subsystem; missing subsystems use their defaults
+     * @param defaultTimeout time allowed for waiting on a permit plus running the call
+     * @param uiExecutor where UI callbacks run
+     */
+    public ServiceExecutor(Map<Subsystem, Integer> permitOverrides, Duration defaultTimeout, Executor uiExecutor) {
+        this.virtualThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("service-", 0).factory());
+        this.uiExecutor = uiExecutor;
+        this.defaultTimeout = defaultTimeout;
+        for (Subsystem subsystem : Subsystem.values()) {
+            int size = permitOverrides != null
+                    ? permitOverrides.getOrDefault(subsystem, subsystem.getDefaultPermits())
+                    : subsystem.getDefaultPermits();
+            permits.put(subsystem, new Semaphore(size, true));
+            stats.put(subsystem, new SubsystemStats(size));
+        }
+    }
+
+    // ====== SUBMISSION ======
+
+    /**
+     * Runs a blocking call on a virtual thread with the default timeout
+     */
+    public <T> CompletableFuture<T> submit(Subsystem subsystem, BlockingCall<T> call) {
+        return submit(subsystem, call, defaultTimeout);
+    }
+
+    /**
+     * Runs a blocking call on a virtual thread once a permit of its subsystem is free.
+     * If waiting plus running exceeds the timeout, the future fails with a TimeoutException
+     * and the virtual thread is interrupted.
+     */
+    public <T> CompletableFuture<T> submit(Subsystem subsystem, BlockingCall<T> call, Duration timeout) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Semaphore semaphore = permits.get(subsystem);
+        SubsystemStats subsystemStats = stats.get(subsystem);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        subsystemStats.submitted.incrementAndGet();
+
+        Future<?> task = virtualThreads.submit(() -> {
+            boolean acquired = false;
+            try {
+                acquired = semaphore.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (!acquired) {
+                    result.completeExceptionally(new TimeoutException(
+                            subsystem + " is saturated; no permit within " + timeout.toMillis() + "ms"));
+                    return;
+                }
+                subsystemStats.active.incrementAndGet();
+                try {
+                    result.complete(call.call());
+                } finally {
+                    subsystemStats.active.decrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.completeExceptionally(e);
+            } catch (Throwable e) {
+                subsystemStats.failed.incrementAndGet();
+                result.completeExceptionally(e);
+            } finally {
+                if (acquired) {
+                    semaphore.release();
+                }
+            }
+        });
+
+        // Bound the running time too; the call sees an interrupt and its permit is released
+        long remaining = deadline - System.nanoTime();
+        result.orTimeout(Math.max(remaining, 0), TimeUnit.NANOSECONDS).whenComplete((value, error) -> {
+            if (error instanceof TimeoutException) {
+                subsystemStats.timedOut.incrementAndGet();
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Runs a blocking call off the UI thread and delivers the outcome on the UI thread
+     * @param onSuccess receives the result on the UI thread
+     * @param onError receives the failure cause on the UI thread
+     */
+    public <T> CompletableFuture<T> supplyToUi(Subsystem subsystem, BlockingCall<T> call,
+                                               Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        CompletableFuture<T> future = submit(subsystem, call);
+        future.whenComplete((value, error) -> uiExecutor.execute(() -> {
+            if (error == null) {
+                onSuccess.accept(value);
+            } else {
+                onError.accept(unwrap(error));
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Runs the action on the JavaFX Application Thread, immediately if already on it
+     */
+    public static void runOnFxThread(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    // ====== LIFECYCLE & MONITORING ======
+
+    /**
+     * Returns the number of calls of a subsystem currently holding a permit
+     */
+    public int getActiveCount(Subsystem subsystem) {
+        return stats.get(subsystem).active.intValue();
+    }
+
+    /**
+     * Returns the number of calls of a subsystem waiting for a permit
+     */
+    public int getQueuedCount(Subsystem subsystem) {
+        return permits.get(subsystem).getQueueLength();
+    }
+
+    public String getStats() {
+        StringBuilder report = new StringBuilder("ServiceExecutor:");
+        for (Subsystem subsystem : Subsystem.values()) {
+            SubsystemStats subsystemStats = stats.get(subsystem);
+            report.append(String.format("%n  %-10s permits=%d active=%d queued=%d submitted=%d failed=%d timedOut=%d",
+                    subsystem, subsystemStats.permits, subsystemStats.active.get(), getQueuedCount(subsystem),
+                    subsystemStats.submitted.get(), subsystemStats.failed.get(), subsystemStats.timedOut.get()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Stops accepting work and interrupts running calls
+     */
+    @Override
+    public void close() {
+        virtualThreads.shutdownNow();
+    }
+
+    private static final class SubsystemStats {
+        private final int permits;
+        private final AtomicLong active = new AtomicLong();
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong timedOut = new AtomicLong();
+
+        private SubsystemStats(int permits) {
+            this.permits = permits;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.example.bloggingapp.Database.Repositories.TagRepository;
 import org.example.bloggingapp.Models.TagEntity;
 
 import java.util.List;
+import java.util.Map;
 
 public class TagService implements IService<TagEntity> {
     
@@ -25,6 +26,10 @@ public class TagService implements IService<TagEntity> {
         return tagRepository.findByInteger(id);
     }
     
+    public Map<Integer, TagEntity> findByIds(int[] ids) {
+        return tagRepository.findByIds(ids);
+    }
+    
     @Override
     public TagEntity findByString(String identifier) {
         return tagRepository.findByString(identifier);
@@ -12,8 +12,12 @@ import org.example.bloggingapp.Database.DbInterfaces.CacheService;
 import org.example.bloggingapp.Cache.InMemoryCacheService;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public class UserService implements IService<UserEntity> {
     
@@ -108,6 +112,44 @@ public class UserService implements IService<UserEntity> {
         }
     }
     
+    /**
+     * Resolves many users at once. Cached users are served from memory and only the
+     * missing IDs are fetched, in a single batched query.
+     * @return users keyed by ID; unknown IDs are absent
+     */
+    public Map<Integer, UserEntity> findByIds(int[] ids) throws DatabaseException {
+        try {
+            Map<Integer, UserEntity> users = new LinkedHashMap<>();
+            Set<Integer> missingIds = new LinkedHashSet<>();
+            
+            // Try cache first
+            for (int id : ids) {
+                Optional<UserEntity> cachedUser = userCache.get(id);
+                if (cachedUser.isPresent()) {
+                    users.put(id, cachedUser.get());
+                } else if (id > 0) {
+                    missingIds.add(id);
+                }
+            }
+            
+            // Cache misses - one batched query for all of them
+            if (!missingIds.isEmpty()) {
+                Map<Integer, UserEntity> loaded = userRepository.findByIds(
+                        missingIds.stream().mapToInt(Integer::intValue).toArray());
+                loaded.forEach((id, user) -> {
+                    userCache.put(id, user);
+                    userByEmailCache.put(user.getEmail(), user);
+                    userByUsernameCache.put(user.getUserName(), user);
+                    users.put(id, user);
+                });
+            }
+            
+            return users;
+        } catch (Exception e) {
+            throw new DatabaseException("USER_FIND_IDS_ERROR", "Failed to find users by IDs", e);
+        }
+    }
+    
     @Override
     public UserEntity findByString(String identifier) throws DatabaseException, ValidationException {
         try {
@@ -225,12 +267,13 @@ public class UserService implements IService<UserEntity> {
                 return cachedUser.get();
             }
             
-            // Cache miss - fetch from database
-            List<UserEntity> users = findAll();
-            UserEntity user = users.stream()
-                    .filter(u -> email.equalsIgnoreCase(u.getEmail()))
-                    .findFirst()
-                    .orElse(null);
+            // Cache miss - indexed lookup in the database, scanning only for other repository types
+            UserEntity user = userRepository instanceof UserRepository repository
+                    ? repository.findByEmail(email)
+                    : findAll().stream()
+                            .filter(u -> email.equalsIgnoreCase(u.getEmail()))
+                            .findFirst()
+                            .orElse(null);
             
             if (user != null) {
                 // Cache the result
@@ -262,12 +305,13 @@ public class UserService implements IService<UserEntity> {
                 return cachedUser.get();
             }
             
-            // Cache miss - fetch from database
-            List<UserEntity> users = findAll();
-            UserEntity user = users.stream()
-                    .filter(u -> username.equalsIgnoreCase(u.getUserName()))
-                    .findFirst()
-                    .orElse(null);
+            // Cache miss - indexed lookup in the database, scanning only for other repository types
+            UserEntity user = userRepository instanceof UserRepository repository
+                    ? repository.findByUsername(username)
+                    : findAll().stream()
+                            .filter(u -> username.equalsIgnoreCase(u.getUserName()))
+                            .findFirst()
+                            .orElse(null);
             
             if (user != null) {
                 // Cache the result
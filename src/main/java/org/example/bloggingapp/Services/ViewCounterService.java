@@ -0,0 +1,397 @@
+package org.example.bloggingapp.Services;
+
+import org.example.bloggingapp.Models.PostEntity;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts post views in memory and writes them to the database in the background.
+ *
+ * Recording a view is a lock-free {@link LongAdder} increment, so concurrent viewers of the same
+ * post do not contend. Views then move through two stages:
+ * <ol>
+ *   <li>Every {@code journalIntervalMillis} the counters are drained and the increments are
+ *       appended to a local log and forced to disk. From then on they survive a crash.</li>
+ *   <li>Every {@code flushIntervalMillis} all journaled increments are written with one batched
+ *       UPDATE. On success the log is rewritten to hold only what is still unflushed.</li>
+ * </ol>
+ * On startup the log is replayed, so views recorded before a crash are flushed on the next run.
+ * A crash between a committed flush and the log rewrite replays that batch again; for view
+ * counts this rare over-count is preferred to losing views.
+ *
+ * Until a flush commits, readers merge the unflushed increments into the stored count through
+ * {@link #currentViews(PostEntity)}, so a viewer sees their own view immediately.
+ *
+ * Counters of posts that went unviewed for a journal interval are dropped. Once more than
+ * {@code maxPendingPosts} posts have views waiting, a flush is started early instead of waiting
+ * for the next interval; while the database is down the unflushed views stay in memory and in
+ * the log, as dropping them would lose views.
+ */
+public class ViewCounterService implements AutoCloseable {
+
+    /**
+     * Destination of flushed increments, normally {@code PostRepository::addViews}
+     */
+    @FunctionalInterface
+    public interface ViewStore {
+        /**
+         * Adds the increments and returns the resulting stored counts of the posts that exist
+         */
+        Map<Integer, Integer> addViews(Map<Integer, Long> increments) throws Exception;
+    }
+
+    /**
+     * Called after each committed flush with the new stored counts
+     */
+    @FunctionalInterface
+    public interface FlushListener {
+        void onFlushed(Map<Integer, Integer> storedViews);
+    }
+
+    public static final long DEFAULT_JOURNAL_INTERVAL_MILLIS = 1000;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10_000;
+    public static final int DEFAULT_MAX_PENDING_POSTS = 10_000;
+
+    private final ViewStore viewStore;
+    private final Path logFile;
+    private final long journalIntervalMillis;
+    private final long flushIntervalMillis;
+    private final int maxPendingPosts;
+
+    // Stage 0: hot counters, written by any thread
+    private final Map<Integer, LongAdder> counters = new ConcurrentHashMap<>();
+    // Stage 1: journaled but not yet committed; written under the instance lock
+    private final Map<Integer, Long> unflushed = new ConcurrentHashMap<>();
+    // Highest stored count seen for each post, as returned by our own flushes
+    private final Map<Integer, Integer> storedViews = new ConcurrentHashMap<>();
+
+    private final AtomicLong viewsRecorded = new AtomicLong();
+    private final AtomicLong viewsFlushed = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicBoolean earlyFlushQueued = new AtomicBoolean();
+
+    private volatile ScheduledExecutorService scheduler;
+    private FlushListener flushListener;
+
+    public ViewCounterService(ViewStore viewStore, Path logFile) {
+        this(viewStore, logFile, DEFAULT_JOURNAL_INTERVAL_MILLIS, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    public ViewCounterService(ViewStore viewStore, Path logFile, long journalIntervalMillis, long flushIntervalMillis) {
+        this(viewStore, logFile, journalIntervalMillis, flushIntervalMillis, DEFAULT_MAX_PENDING_POSTS);
+    }
+
+    /**
+     * @param maxPendingPosts number of posts with waiting views beyond which a flush starts early
+     */
+    public ViewCounterService(ViewStore viewStore, Path logFile, long journalIntervalMillis, long flushIntervalMillis,
+                              int maxPendingPosts) {
+        if (maxPendingPosts <= 0) {
+            throw new IllegalArgumentException("maxPendingPosts must be positive");
+        }
+        this.viewStore = viewStore;
+        this.logFile = logFile;
+        this.journalIntervalMillis = journalIntervalMillis;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxPendingPosts = maxPendingPosts;
+        replayLog();
+    }
+
+    public void setFlushListener(FlushListener flushListener) {
+        this.flushListener = flushListener;
+    }
+
+    // ====== RECORDING ======
+
+    /**
+     * Records one view of a post
+     */
+    public void recordView(int postId) {
+        if (postId <= 0) {
+            return;
+        }
+        addToCounter(postId, 1);
+        viewsRecorded.incrementAndGet();
+        if (counters.size() > maxPendingPosts) {
+            requestEarlyFlush();
+        }
+    }
+
+    /**
+     * Adds views to the counter of a post. If the journal dropped the counter as idle while the
+     * views were being added, whatever is left in it is moved to the post's new counter.
+     */
+    private void addToCounter(int postId, long views) {
+        while (views > 0) {
+            LongAdder counter = counters.computeIfAbsent(postId, id -> new LongAdder());
+            counter.add(views);
+            if (counters.get(postId) == counter) {
+                return;
+            }
+            views = counter.sumThenReset();
+        }
+    }
+
+    /**
+     * Returns the views of a post that are not yet in the database
+     */
+    public long getPendingViews(int postId) {
+        LongAdder counter = counters.get(postId);
+        long hot = counter != null ? counter.sum() : 0;
+        return hot + unflushed.getOrDefault(postId, 0L);
+    }
+
+    /**
+     * Returns the current view count of a post: the best known stored count plus pending views.
+     * View counts only grow, so the larger of the entity's count and the count returned by our
+     * last flush is the more recent one.
+     */
+    public int currentViews(int postId, int storedCount) {
+        int stored = Math.max(storedCount, storedViews.getOrDefault(postId, 0));
+        return (int) Math.min(Integer.MAX_VALUE, stored + getPendingViews(postId));
+    }
+
+    public int currentViews(PostEntity post) {
+        return currentViews(post.getPostId(), post.getViews());
+    }
+
+    // ====== BACKGROUND STAGES ======
+
+    /**
+     * Starts the journal and flush tasks; does nothing if already running
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ViewCounter-Flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::journalQuietly, journalIntervalMillis, journalIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drains the hot counters into the unflushed set and appends them to the log
+     * @return the number of posts journaled
+     */
+    public synchronized int journal() throws IOException {
+        Map<Integer, Long> drained = new TreeMap<>();
+        for (Map.Entry<Integer, LongAdder> entry : counters.entrySet()) {
+            LongAdder counter = entry.getValue();
+            long views = counter.sumThenReset();
+            if (views > 0) {
+                drained.put(entry.getKey(), views);
+            } else if (counters.remove(entry.getKey(), counter)) {
+                // Idle for a whole interval; views added before the removal are still drained,
+                // later ones are moved to a new counter by addToCounter
+                long late = counter.sumThenReset();
+                if (late > 0) {
+                    drained.put(entry.getKey(), late);
+                }
+            }
+        }
+        if (drained.isEmpty()) {
+            return 0;
+        }
+
+        drained.forEach((postId, views) -> unflushed.merge(postId, views, Long::sum));
+        if (logFile != null) {
+            appendToLog(drained);
+        }
+        if (unflushed.size() > maxPendingPosts) {
+            requestEarlyFlush();
+        }
+        return drained.size();
+    }
+
+    /**
+     * Journals pending views and writes everything unflushed to the database in one batch
+     * @return the number of posts updated
+     */
+    public synchronized int flush() throws Exception {
+        journal();
+        if (unflushed.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, Long> batch = new TreeMap<>(unflushed);
+        Map<Integer, Integer> stored;
+        try {
+            stored = viewStore.addViews(batch);
+        } catch (Exception e) {
+            failedFlushes.incrementAndGet();
+            throw e;
+        }
+
+        // Publish stored counts before releasing the batch: a reader may briefly over-count, never miss a view
+        if (storedViews.size() + stored.size() > maxPendingPosts) {
+            // Older counts only matter for entities read before their flush; cached posts are
+            // raised by the flush listener
+            storedViews.clear();
+        }
+        stored.forEach((postId, views) -> storedViews.merge(postId, views, Math::max));
+        batch.forEach((postId, views) -> unflushed.computeIfPresent(postId,
+                (id, remaining) -> remaining - views > 0 ? remaining - views : null));
+        // Posts deleted since the views were recorded are dropped with the batch
+
+        long flushedViews = batch.values().stream().mapToLong(Long::longValue).sum();
+        viewsFlushed.addAndGet(flushedViews);
+        flushCount.incrementAndGet();
+        if (logFile != null) {
+            rewriteLog();
+        }
+
+        FlushListener listener = flushListener;
+        if (listener != null && !stored.isEmpty()) {
+            listener.onFlushed(stored);
+        }
+        return stored.size();
+    }
+
+    /**
+     * Stops the background tasks after a final flush
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            // Still journaled, so the next start replays it
+            System.err.println("❌ Final view flush failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queues one flush ahead of the schedule; does nothing if one is already queued or the
+     * background tasks are not running
+     */
+    private void requestEarlyFlush() {
+        ScheduledExecutorService current = scheduler;
+        if (current != null && earlyFlushQueued.compareAndSet(false, true)) {
+            try {
+                current.execute(() -> {
+                    earlyFlushQueued.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                earlyFlushQueued.set(false);
+            }
+        }
+    }
+
+    private void journalQuietly() {
+        try {
+            journal();
+        } catch (Exception e) {
+            System.err.println("❌ Failed to journal views: " + e.getMessage());
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("❌ Failed to flush views, will retry: " + e.getMessage());
+        }
+    }
+
+    // ====== APPEND LOG ======
+
+    private void appendToLog(Map<Integer, Long> increments) throws IOException {
+        Path parent = logFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(format(increments).getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        }
+    }
+
+    private void rewriteLog() throws IOException {
+        if (unflushed.isEmpty()) {
+            Files.deleteIfExists(logFile);
+            return;
+        }
+        Path temp = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(format(unflushed).getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        }
+        Files.move(temp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void replayLog() {
+        if (logFile == null || !Files.exists(logFile)) {
+            return;
+        }
+        Map<Integer, Long> replayed = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(" ");
+                if (parts.length != 2) {
+                    continue; // torn write at the end of the log
+                }
+                try {
+                    replayed.merge(Integer.parseInt(parts[0]), Long.parseLong(parts[1]), Long::sum);
+                } catch (NumberFormatException e) {
+                    // Skip the damaged line and keep the rest
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Failed to replay view log " + logFile + ": " + e.getMessage());
+            return;
+        }
+        replayed.forEach((postId, views) -> unflushed.merge(postId, views, Long::sum));
+        if (!replayed.isEmpty()) {
+            System.out.println("🔁 Replayed unflushed views for " + replayed.size() + " posts from " + logFile);
+        }
+    }
+
+    private static String format(Map<Integer, Long> increments) {
+        StringBuilder lines = new StringBuilder();
+        increments.forEach((postId, views) -> lines.append(postId).append(' ').append(views).append('\n'));
+        return lines.toString();
+    }
+
+    // ====== MONITORING ======
+
+    public String getStats() {
+        long pending = counters.values().stream().mapToLong(LongAdder::sum).sum()
+                + unflushed.values().stream().mapToLong(Long::longValue).sum();
+        return String.format("ViewCounter[recorded=%d, flushed=%d, pending=%d, flushes=%d, failedFlushes=%d]",
+                viewsRecorded.get(), viewsFlushed.get(), pending, flushCount.get(), failedFlushes.get());
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.bloggingapp.Utils;
+
+import org.example.bloggingapp.Database.DbInterfaces.RowMapper;
+import org.example.bloggingapp.Database.Repositories.EntityMappers;
+import org.example.bloggingapp.Database.factories.ConnectionFactory;
+import org.example.bloggingapp.Models.PostEntity;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares name-based row mapping with the compiled, index-based mappers on a large result set.
+ *
+ * The rows are generated by PostgreSQL with generate_series in the shape of the posts table, so
+ * the benchmark needs a reachable database but no data. The result set is fetched once and
+ * scrolled repeatedly, so only mapping is measured, not the network or the query.
+ *
+ * Run with: mvn exec:java -Dexec.mainClass=org.example.bloggingapp.Utils.RowMapperBenchmark [-Dexec.args=rows]
+ */
+public class RowMapperBenchmark {
+
+    private static final int DEFAULT_ROWS = 200_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private static final String ROWS_QUERY =
+            "SELECT g AS post_id, 'Post title ' || g AS title, repeat('lorem ipsum ', 20) AS content, " +
+            "       TIMESTAMP '2024-01-01' + g * INTERVAL '1 minute' AS created_at, g % 500 AS user_id, " +
+            "       g % 1000 AS views, 'Published' AS status, 'author' || (g % 500) AS author_name, 1 AS version " +
+            "FROM generate_series(1, ?) g";
+
+    // The mapper the repositories used before: every column looked up by name, via Timestamp
+    private static final RowMapper<PostEntity> BY_NAME = resultSet -> {
+        PostEntity post = new PostEntity();
+        post.setPostId(resultSet.getInt("post_id"));
+        post.setTitle(resultSet.getString("title"));
+        post.setContent(resultSet.getString("content"));
+        post.setCreatedAt(resultSet.getTimestamp("created_at").toLocalDateTime());
+        post.setUserId(resultSet.getInt("user_id"));
+        post.setVersion(resultSet.getInt("version"));
+        return post;
+    };
+
+    public static void main(String[] args) throws SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        System.out.println("=== Row Mapper Benchmark (" + rows + " rows) ===");
+
+        try (Connection connection = new ConnectionFactory().createReadConnection();
+             PreparedStatement statement = connection.prepareStatement(ROWS_QUERY,
+                     ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setInt(1, rows);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                double byName = measure("by name + Timestamp", resultSet, BY_NAME);
+                double compiled = measure("compiled by index", resultSet, EntityMappers.POST);
+                System.out.printf("Speed-up: %.2fx%n", byName / compiled);
+            }
+        }
+    }
+
+    /**
+     * Maps every row repeatedly and returns the best time of the measured rounds in milliseconds
+     */
+    private static double measure(String label, ResultSet resultSet, RowMapper<PostEntity> mapper) throws SQLException {
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            checksum += mapAll(resultSet, mapper);
+        }
+
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            checksum += mapAll(resultSet, mapper);
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+
+        double bestMillis = best / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        System.out.printf("%-22s best %8.2f ms, mean %8.2f ms (checksum %d)%n", label, bestMillis,
+                total / (double) MEASURED_ROUNDS / TimeUnit.MILLISECONDS.toNanos(1), checksum);
+        return bestMillis;
+    }
+
+    private static long mapAll(ResultSet resultSet, RowMapper<PostEntity> mapper) throws SQLException {
+        long checksum = 0;
+        resultSet.beforeFirst();
+        RowMapper<PostEntity> rows = mapper.bind(resultSet);
+        while (resultSet.next()) {
+            PostEntity post = rows.map(resultSet);
+            // Consume the result so the JIT cannot drop the mapping
+            checksum += post.getPostId() + post.getCreatedAt().getMinute() + post.getTitle().length();
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,506 @@
+package org.example.bloggingapp.Utils;
+
+import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Search.AutocompleteIndex;
+import org.example.bloggingapp.Search.Bm25Ranker;
+import org.example.bloggingapp.Search.FieldLengths;
+import org.example.bloggingapp.Search.FuzzyTermIndex;
+import org.example.bloggingapp.Search.InvertedIndex;
+import org.example.bloggingapp.Search.ParallelIndexBuilder;
+import org.example.bloggingapp.Search.PostingList;
+import org.example.bloggingapp.Search.SegmentFile;
+import org.example.bloggingapp.Search.TermIndex;
+import org.example.bloggingapp.Search.TextAnalyzer;
+
+import com.sun.management.ThreadMXBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Compares the compact inverted index with the previous keyword map
+ * ({@code Map<String, List<PostEntity>>} with one reference per word occurrence), and BM25
+ * top-k ranking with scoring and sorting every match.
+ *
+ * The corpus is synthetic: post bodies draw words from a Zipf-distributed vocabulary, the way
+ * natural text does, so there are a few very long posting lists and many short ones. Heap use is
+ * measured as the retained heap after a full GC; lookups are timed for frequent, mid-frequency
+ * and rare terms, including turning the hits into posts. Autocomplete is timed for prefixes
+ * matching every title down to a handful, and fuzzy term lookup against a dictionary of a
+ * million random words. Tokenizing is timed with the regex split the index used to rely on and
+ * with the analyzer, including the bytes allocated per post. The index is also built in segments on fork/join pools of increasing
+ * size, to show how the build scales with the number of cores, and saved to a segment file and
+ * loaded back, to compare a start-up from disk with a build.
+ *
+ * Run with: mvn exec:java -Dexec.mainClass=org.example.bloggingapp.Utils.SearchIndexBenchmark [-Dexec.args=posts]
+ */
+public class SearchIndexBenchmark {
+
+    private static final int DEFAULT_POSTS = 100_000;
+    private static final int VOCABULARY_SIZE = 50_000;
+    private static final int WORDS_PER_POST = 120;
+    private static final int LOOKUPS = 20_000;
+    private static final int RANKED_QUERIES = 200;
+    private static final int TOP_K = 10;
+    private static final int FUZZY_DICTIONARY_SIZE = 1_000_000;
+    private static final int FUZZY_LOOKUPS = 2_000;
+    private static final int PARALLEL_SEGMENT_SIZE = 2_000;
+    private static final int PARALLEL_BUILD_RUNS = 3;
+
+    public static void main(String[] args) {
+        int postCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_POSTS;
+        System.out.println("=== Search Index Benchmark (" + postCount + " posts) ===");
+
+        String[] vocabulary = vocabulary();
+        List<PostEntity> posts = generatePosts(postCount, vocabulary, new Random(42));
+
+        long baseline = usedHeap();
+        long start = System.nanoTime();
+        Map<String, List<PostEntity>> legacy = buildLegacyIndex(posts);
+        long legacyBuildNanos = System.nanoTime() - start;
+        long legacyBytes = usedHeap() - baseline;
+
+        baseline = usedHeap();
+        start = System.nanoTime();
+        InvertedIndex compact = buildCompactIndex(posts);
+        long compactBuildNanos = System.nanoTime() - start;
+        long compactBytes = usedHeap() - baseline;
+
+        System.out.printf("%-8s %12s %14s %12s%n", "index", "build (ms)", "heap (MB)", "terms");
+        System.out.printf("%-8s %12d %14.1f %12d%n", "map", TimeUnit.NANOSECONDS.toMillis(legacyBuildNanos),
+                legacyBytes / 1_048_576.0, legacy.size());
+        System.out.printf("%-8s %12d %14.1f %12d%n", "compact", TimeUnit.NANOSECONDS.toMillis(compactBuildNanos),
+                compactBytes / 1_048_576.0, compact.keywords().getTermCount());
+        System.out.printf("Compact posting lists: %d postings, ~%.1f MB estimated%n",
+                compact.keywords().getPostingCount(), compact.getEstimatedBytes() / 1_048_576.0);
+
+        timeTokenizers(posts);
+        timeParallelBuilds(posts, compact);
+        timeSegmentLoad(compact, compactBuildNanos);
+
+        // Rank 1 is the most frequent word
+        String[][] termGroups = {
+                {"frequent", vocabulary[0], vocabulary[1], vocabulary[2]},
+                {"mid", vocabulary[500], vocabulary[1000], vocabulary[2000]},
+                {"rare", vocabulary[20_000], vocabulary[30_000], vocabulary[40_000]},
+        };
+        System.out.printf("%nMicroseconds per lookup; 'get' is the dictionary lookup only, 'posts' also%n"
+                + "materializes the hits (a list copy for the map, doc store resolution for compact)%n");
+        System.out.printf("%-10s %10s %12s %10s %12s %10s%n", "terms", "map get", "compact get", "map posts",
+                "compact posts", "hits");
+        for (String[] group : termGroups) {
+            String[] terms = {group[1], group[2], group[3]};
+            System.out.printf("%-10s %10.2f %12.2f %10.2f %12.2f %10d%n", group[0],
+                    timeLegacy(legacy, terms, false), timeCompact(compact, terms, false),
+                    timeLegacy(legacy, terms, true), timeCompact(compact, terms, true),
+                    compact.keywords().get(terms[0]).size());
+        }
+
+        String[][] queries = {
+                {"frequent+rare", vocabulary[0], vocabulary[20_000]},
+                {"2 frequent", vocabulary[0], vocabulary[1]},
+                {"3 mid", vocabulary[500], vocabulary[1000], vocabulary[2000]},
+        };
+        System.out.printf("%nMilliseconds per ranked query (top %d); 'all' scores every match and sorts them%n", TOP_K);
+        System.out.printf("%-14s %10s %10s %10s %8s%n", "query", "top-k", "all", "matches", "same");
+        for (String[] query : queries) {
+            List<String> terms = Arrays.asList(query).subList(1, query.length);
+            Bm25Ranker ranker = new Bm25Ranker(compact);
+            Bm25Ranker.TopDocs top = null;
+            start = 0;
+            for (int round = 0; round < 2; round++) {
+                start = System.nanoTime();
+                for (int i = 0; i < RANKED_QUERIES; i++) {
+                    top = ranker.topK(terms, List.of(), List.of(), TOP_K);
+                }
+            }
+            double topKMillis = (System.nanoTime() - start) / 1e6 / RANKED_QUERIES;
+            int[] exhaustive = null;
+            for (int round = 0; round < 2; round++) {
+                start = System.nanoTime();
+                for (int i = 0; i < RANKED_QUERIES; i++) {
+                    exhaustive = scoreAll(compact, terms);
+                }
+            }
+            double allMillis = (System.nanoTime() - start) / 1e6 / RANKED_QUERIES;
+            System.out.printf("%-14s %10.3f %10.3f %10d %8s%n", query[0], topKMillis, allMillis,
+                    top.getTotalHits(), Arrays.equals(top.getDocIds(), exhaustive));
+        }
+
+        start = System.nanoTime();
+        AutocompleteIndex.Builder builder = new AutocompleteIndex.Builder();
+        for (PostEntity post : posts) {
+            builder.add(AutocompleteIndex.Kind.TITLE, post.getTitle(), post.getPostId() % 977)
+                    .add(AutocompleteIndex.Kind.AUTHOR, post.getAuthorName(), 1);
+        }
+        AutocompleteIndex completions = builder.build();
+        System.out.printf("%nAutocomplete: %d completions built in %d ms; microseconds per lookup (top 8)%n",
+                completions.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.printf("%-10s %10s %10s%n", "prefix", "micros", "results");
+        for (String prefix : new String[]{"w", "w1", vocabulary[100].substring(0, 3), vocabulary[100] + " w"}) {
+            long checksum = 0;
+            start = 0;
+            for (int round = 0; round < 2; round++) {
+                start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    checksum += completions.complete(prefix, 8).size();
+                }
+            }
+            System.out.printf("%-10s %10.2f %10d%n", prefix, perLookupMicros(System.nanoTime() - start, checksum),
+                    completions.complete(prefix, 8).size());
+        }
+
+        timeFuzzyLookups();
+
+        // Keep both indexes reachable until all measurements are done
+        System.out.println("\n(" + legacy.size() + compact.docs().size() + ")");
+    }
+
+    private static Map<String, List<PostEntity>> buildLegacyIndex(List<PostEntity> posts) {
+        Map<String, List<PostEntity>> index = new HashMap<>();
+        for (PostEntity post : posts) {
+            for (String word : keywordsOf(post)) {
+                index.computeIfAbsent(word, k -> new ArrayList<>()).add(post);
+            }
+        }
+        return index;
+    }
+
+    private static InvertedIndex buildCompactIndex(List<PostEntity> posts) {
+        InvertedIndex.Builder builder = new InvertedIndex.Builder();
+        for (PostEntity post : posts) {
+            builder.add(post, keywordsOf(post), Arrays.asList(post.getTitle().split(" ")), null, List.of());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builds the index on fork/join pools of 1, 2, 4... threads up to the number of cores and
+     * compares each build with the serial one
+     */
+    private static void timeParallelBuilds(List<PostEntity> posts, InvertedIndex serial) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%nParallel build (%d posts per segment, %d cores); best of %d runs%n",
+                PARALLEL_SEGMENT_SIZE, cores, PARALLEL_BUILD_RUNS);
+        System.out.printf("%-8s %12s %10s %8s%n", "threads", "build (ms)", "speedup", "same");
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+        double singleThreadMillis = 0;
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            InvertedIndex built = null;
+            long bestNanos = Long.MAX_VALUE;
+            try {
+                for (int run = 0; run < PARALLEL_BUILD_RUNS; run++) {
+                    built = null;
+                    usedHeap();
+                    long start = System.nanoTime();
+                    InvertedIndex.Builder first = new InvertedIndex.Builder();
+                    ParallelIndexBuilder<InvertedIndex.Builder> builder = new ParallelIndexBuilder<>(pool,
+                            PARALLEL_SEGMENT_SIZE, first::newSegment, (segment, post) -> segment.add(post,
+                            keywordsOf(post), Arrays.asList(post.getTitle().split(" ")), null, List.of()));
+                    built = builder.build(posts.stream(), InvertedIndex::merge);
+                    bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+                }
+            } finally {
+                pool.shutdown();
+            }
+            double millis = bestNanos / 1e6;
+            if (threads == 1) {
+                singleThreadMillis = millis;
+            }
+            System.out.printf("%-8d %12.0f %10.2f %8s%n", threads, millis, singleThreadMillis / millis,
+                    sameIndex(serial, built));
+        }
+    }
+
+    /**
+     * Times tokenizing every post with the regex split and with the analyzer, and counts the bytes
+     * allocated per post by the tokenizing thread
+     */
+    private static void timeTokenizers(List<PostEntity> posts) {
+        long chars = 0;
+        for (PostEntity post : posts) {
+            chars += post.getTitle().length() + post.getContent().length();
+        }
+        System.out.printf("%nTokenizing %d posts (%.1f MB of text); best of %d runs%n", posts.size(),
+                chars / 1_048_576.0, PARALLEL_BUILD_RUNS);
+        System.out.printf("%-10s %12s %12s %14s %10s%n", "tokenizer", "time (ms)", "MB/s", "bytes/post", "tokens");
+        List<String> words = new ArrayList<>();
+        Map<String, ToLongFunction<PostEntity>> tokenizers = new LinkedHashMap<>();
+        tokenizers.put("split", post -> splitKeywordsOf(post).size());
+        tokenizers.put("analyzer", post -> {
+            // The list is reused, as a segment builder would hand the words on and clear it
+            words.clear();
+            TextAnalyzer.DEFAULT.addWords(post.getTitle(), words);
+            TextAnalyzer.DEFAULT.addWords(post.getContent(), words);
+            return words.size();
+        });
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        for (Map.Entry<String, ToLongFunction<PostEntity>> tokenizer : tokenizers.entrySet()) {
+            long bestNanos = Long.MAX_VALUE;
+            long allocated = 0;
+            long tokens = 0;
+            for (int run = 0; run < PARALLEL_BUILD_RUNS; run++) {
+                tokens = 0;
+                long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                for (PostEntity post : posts) {
+                    tokens += tokenizer.getValue().applyAsLong(post);
+                }
+                bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+                allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            }
+            System.out.printf("%-10s %12d %12.1f %14d %10d%n", tokenizer.getKey(),
+                    TimeUnit.NANOSECONDS.toMillis(bestNanos), chars / 1_048_576.0 / (bestNanos / 1e9),
+                    allocated / posts.size(), tokens);
+        }
+    }
+
+    /**
+     * Writes the index to a segment file and times loading it back against building it
+     */
+    private static void timeSegmentLoad(InvertedIndex index, long buildNanos) {
+        try {
+            Path file = Files.createTempFile("search-index", ".full");
+            try {
+                long start = System.nanoTime();
+                SegmentFile.writeFull(file, index, 0, System.currentTimeMillis());
+                long writeNanos = System.nanoTime() - start;
+                InvertedIndex loaded = null;
+                long bestNanos = Long.MAX_VALUE;
+                for (int run = 0; run < PARALLEL_BUILD_RUNS; run++) {
+                    loaded = null;
+                    usedHeap();
+                    start = System.nanoTime();
+                    loaded = SegmentFile.open(file).getIndex();
+                    bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+                }
+                System.out.printf("%nSegment file: %.1f MB written in %d ms; loaded in %d ms (build %d ms, %.1fx), same %s%n",
+                        Files.size(file) / 1_048_576.0, TimeUnit.NANOSECONDS.toMillis(writeNanos),
+                        TimeUnit.NANOSECONDS.toMillis(bestNanos), TimeUnit.NANOSECONDS.toMillis(buildNanos),
+                        (double) buildNanos / bestNanos, sameIndex(index, loaded));
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean sameIndex(InvertedIndex expected, InvertedIndex actual) {
+        if (expected.keywords().getTermCount() != actual.keywords().getTermCount()
+                || expected.keywords().getPostingCount() != actual.keywords().getPostingCount()
+                || expected.docs().size() != actual.docs().size()) {
+            return false;
+        }
+        for (String term : expected.keywords().terms()) {
+            PostingList postings = expected.keywords().get(term);
+            if (!postings.equals(actual.keywords().get(term))
+                    || !Arrays.equals(postings.freqsToArray(), actual.keywords().get(term).freqsToArray())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double timeLegacy(Map<String, List<PostEntity>> index, String[] terms, boolean materialize) {
+        long checksum = 0;
+        long start = 0;
+        for (int round = 0; round < 2; round++) {
+            // The first round warms up the JIT
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                List<PostEntity> hits = index.get(terms[i % terms.length]);
+                if (hits != null) {
+                    checksum += materialize ? new ArrayList<>(hits).size() : hits.size();
+                }
+            }
+        }
+        return perLookupMicros(System.nanoTime() - start, checksum);
+    }
+
+    private static double timeCompact(InvertedIndex index, String[] terms, boolean materialize) {
+        long checksum = 0;
+        long start = 0;
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                PostingList hits = index.keywords().get(terms[i % terms.length]);
+                checksum += materialize ? index.docs().resolve(hits).size() : hits.size();
+            }
+        }
+        return perLookupMicros(System.nanoTime() - start, checksum);
+    }
+
+    /**
+     * The straightforward ranking: every match of every term is scored into an accumulator,
+     * then all matches are sorted
+     */
+    private static int[] scoreAll(InvertedIndex index, List<String> terms) {
+        double[] scores = new double[index.docs().size() + 2];
+        List<Integer> matches = new ArrayList<>();
+        int docCount = index.docs().size();
+        for (String term : terms) {
+            accumulate(index.keywords(), term, Bm25Ranker.CONTENT_BOOST, docCount, scores, matches);
+            accumulate(index.titles(), term, Bm25Ranker.TITLE_BOOST, docCount, scores, matches);
+        }
+        matches.sort((a, b) -> scores[a] != scores[b] ? Double.compare(scores[b], scores[a]) : Integer.compare(b, a));
+        int[] top = new int[Math.min(TOP_K, matches.size())];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = matches.get(i);
+        }
+        return top;
+    }
+
+    private static void accumulate(TermIndex field, String term, double boost, int docCount, double[] scores,
+                                   List<Integer> matches) {
+        PostingList postings = field.get(term);
+        FieldLengths lengths = field.lengths();
+        double idf = Math.log(1 + (docCount - postings.size() + 0.5) / (postings.size() + 0.5));
+        double average = lengths.getAverage();
+        PostingList.Cursor cursor = postings.cursor();
+        for (int doc = cursor.next(); doc != PostingList.NO_MORE_DOCS; doc = cursor.next()) {
+            double norm = 1 - Bm25Ranker.B + Bm25Ranker.B * Math.max(1, lengths.get(doc)) / average;
+            if (scores[doc] == 0) {
+                matches.add(doc);
+            }
+            scores[doc] += boost * idf * cursor.freq() * (Bm25Ranker.K1 + 1) / (cursor.freq() + Bm25Ranker.K1 * norm);
+        }
+    }
+
+    private static void timeFuzzyLookups() {
+        Random random = new Random(7);
+        List<String> dictionary = new ArrayList<>(FUZZY_DICTIONARY_SIZE);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < FUZZY_DICTIONARY_SIZE; i++) {
+            word.setLength(0);
+            int length = 4 + random.nextInt(9);
+            for (int c = 0; c < length; c++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            dictionary.add(word.toString());
+        }
+        long start = System.nanoTime();
+        FuzzyTermIndex fuzzy = FuzzyTermIndex.of(dictionary);
+        System.out.printf("%nFuzzy lookup: %d terms indexed in %d ms; microseconds per misspelled lookup%n",
+                fuzzy.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.printf("%-10s %10s %10s%n", "length", "micros", "matches");
+        for (int length : new int[]{5, 8, 12}) {
+            String[] queries = new String[FUZZY_LOOKUPS];
+            for (int i = 0; i < queries.length; i++) {
+                String target;
+                do {
+                    target = dictionary.get(random.nextInt(dictionary.size()));
+                } while (target.length() != length);
+                // One substitution
+                int at = random.nextInt(length);
+                queries[i] = target.substring(0, at) + (char) ('a' + (target.charAt(at) - 'a' + 1) % 26)
+                        + target.substring(at + 1);
+            }
+            long matches = 0;
+            long nanos = 0;
+            for (int round = 0; round < 2; round++) {
+                matches = 0;
+                start = System.nanoTime();
+                for (String query : queries) {
+                    matches += fuzzy.lookup(query).size();
+                }
+                nanos = System.nanoTime() - start;
+            }
+            System.out.printf("%-10d %10.1f %10.1f%n", length, nanos / 1000.0 / FUZZY_LOOKUPS,
+                    (double) matches / FUZZY_LOOKUPS);
+        }
+    }
+
+    private static double perLookupMicros(long nanos, long checksum) {
+        if (checksum == 42) {
+            System.out.print("");
+        }
+        return nanos / 1000.0 / LOOKUPS;
+    }
+
+    // Same tokenization as AdvancedSearchService
+    private static List<String> keywordsOf(PostEntity post) {
+        List<String> keywords = new ArrayList<>();
+        TextAnalyzer.DEFAULT.addWords(post.getTitle(), keywords);
+        TextAnalyzer.DEFAULT.addWords(post.getContent(), keywords);
+        return keywords;
+    }
+
+    // The tokenization before TextAnalyzer: a lower-cased copy split on a regular expression
+    private static List<String> splitKeywordsOf(PostEntity post) {
+        List<String> keywords = new ArrayList<>();
+        for (String text : new String[]{post.getTitle(), post.getContent()}) {
+            for (String word : text.toLowerCase().split("\\s+")) {
+                if (word.length() > 2) {
+                    keywords.add(word);
+                }
+            }
+        }
+        return keywords;
+    }
+
+    private static String[] vocabulary() {
+        String[] words = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            words[i] = "w" + Integer.toString(i, 36) + "x";
+        }
+        return words;
+    }
+
+    private static List<PostEntity> generatePosts(int count, String[] vocabulary, Random random) {
+        // Cumulative Zipf weights (s = 1) for inverse-transform sampling
+        double[] cumulative = new double[vocabulary.length];
+        double total = 0;
+        for (int i = 0; i < vocabulary.length; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+
+        List<PostEntity> posts = new ArrayList<>(count);
+        StringBuilder content = new StringBuilder();
+        for (int postId = 1; postId <= count; postId++) {
+            content.setLength(0);
+            for (int w = 0; w < WORDS_PER_POST; w++) {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                content.append(vocabulary[rank < 0 ? -rank - 1 : rank]).append(' ');
+            }
+            String title = vocabulary[random.nextInt(2000)] + " " + vocabulary[random.nextInt(2000)];
+            posts.add(new PostEntity(postId, title, content.toString(), LocalDateTime.now(), postId % 1000,
+                    "Published", 0, "author" + (postId % 1000)));
+        }
+        return posts;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
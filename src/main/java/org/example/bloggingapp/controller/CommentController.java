@@ -16,9 +16,11 @@ import javafx.stage.StageStyle;
 
 import org.example.bloggingapp.Models.PostEntity;
 import org.example.bloggingapp.Models.CommentEntity;
+import org.example.bloggingapp.Models.UserEntity;
 import org.example.bloggingapp.Database.factories.ServiceFactory;
 import org.example.bloggingapp.Services.CommentService;
 import org.example.bloggingapp.Services.UserService;
+import org.example.bloggingapp.Services.RenderLoaders;
 import org.example.bloggingapp.Utils.RegexPatterns;
 
 import java.time.LocalDateTime;
@@ -236,9 +238,14 @@ public class CommentController {
                 noCommentsLabel.setStyle("-fx-text-fill: #6c757d; -fx-font-style: italic; -fx-padding: 20;");
                 commentsContainer.getChildren().add(noCommentsLabel);
             } else {
+                // Resolve every comment author with one batched lookup
+                Map<Integer, UserEntity> authors = userService.findByIds(
+                        comments.stream().mapToInt(CommentEntity::getUserId).toArray());
+                
                 // Load each comment
                 for (CommentEntity comment : comments) {
-                    addCommentToUI(comment);
+                    UserEntity author = authors.get(comment.getUserId());
+                    addCommentToUI(comment, RenderLoaders.displayName(author, comment.getUserId()));
                 }
             }
         } catch (Exception e) {
@@ -253,6 +260,13 @@ public class CommentController {
      * Adds a comment to the UI
      */
     private void addCommentToUI(CommentEntity comment) {
+        addCommentToUI(comment, "User " + comment.getUserId());
+    }
+    
+    /**
+     * Adds a comment to the UI with a resolved author name
+     */
+    private void addCommentToUI(CommentEntity comment, String authorName) {
         HBox commentBox = new HBox(12);
         commentBox.setStyle("-fx-padding: 10; -fx-background-color: #f8f9fa; -fx-background-radius: 8;");
         
@@ -269,7 +283,7 @@ public class CommentController {
         HBox headerBox = new HBox(10);
         headerBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
         
-        Label authorLabel = new Label("User " + comment.getUserId());
+        Label authorLabel = new Label(authorName);
         authorLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: #495057;");
         
         Label timeLabel = new Label(formatTime(comment.getCreatedAt()));
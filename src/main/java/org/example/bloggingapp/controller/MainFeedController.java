@@ -2,23 +2,30 @@ package org.example.bloggingapp.controller;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.geometry.Side;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 
 import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Models.FeedItem;
 import org.example.bloggingapp.Models.CommentEntity;
 import org.example.bloggingapp.Models.UserEntity;
 import org.example.bloggingapp.Models.ReviewEntity;
-import org.example.bloggingapp.Models.TagEntity;
-import org.example.bloggingapp.Models.PostTagEntity;
 import org.example.bloggingapp.Database.factories.ServiceFactory;
+import org.example.bloggingapp.Search.AutocompleteIndex;
+import org.example.bloggingapp.Search.TextAnalyzer;
 import org.example.bloggingapp.Services.PostService;
+import org.example.bloggingapp.Services.PostPublishingService;
+import org.example.bloggingapp.Services.FeedService;
 import org.example.bloggingapp.Services.CommentService;
 import org.example.bloggingapp.Services.UserService;
 import org.example.bloggingapp.Services.ReviewService;
 import org.example.bloggingapp.Services.TagService;
 import org.example.bloggingapp.Services.PostTagService;
+import org.example.bloggingapp.Services.RenderLoaders;
+import org.example.bloggingapp.Services.ServiceExecutor;
+import org.example.bloggingapp.Services.ViewCounterService;
 import org.example.bloggingapp.Utils.RegexPatterns;
 
 import java.time.LocalDateTime;
@@ -26,6 +33,9 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 🧩 Main Feed Controller - Modern Social Media Style Blogging Interface
@@ -39,6 +49,11 @@ import java.util.HashMap;
  */
 public class MainFeedController {
     
+    // Shorter queries are filtered locally; one or two letters match almost everything
+    private static final int MIN_ROUTED_QUERY_LENGTH = 3;
+    
+    private static final int MAX_SUGGESTIONS = 8;
+    
     // ==================== FXML COMPONENTS ===================
     
     // Header Components
@@ -76,6 +91,10 @@ public class MainFeedController {
     private ReviewService reviewService;
     private TagService tagService;
     private PostTagService postTagService;
+    private FeedService feedService;
+    private PostPublishingService postPublishingService;
+    private ViewCounterService viewCounterService;
+    private ServiceExecutor serviceExecutor;
     
     // ==================== DATA LAYER ===================
     
@@ -86,10 +105,36 @@ public class MainFeedController {
     private int selectedRating = 0;
     private int currentUserId = 1; // This would come from user session
     
+    // Feed projection rows (author, comment count, rating) keyed by post ID
+    private Map<Integer, FeedItem> feedItems = new HashMap<>();
+    
+    // Feed pages loaded so far; further pages load on scrolling to the end or with the button
+    private int feedPage;
+    private boolean feedHasMore;
+    private boolean loadingMore;
+    private boolean searchActive;
+    private final Button loadMoreButton = new Button("Load more posts");
+    
     // Comment data
     private Map<Integer, List<CommentEntity>> postComments = new HashMap<>();
     private Map<Integer, VBox> commentUIComponents = new HashMap<>();
     
+    // Batched comment/review/author lookups for the current render pass
+    private RenderLoaders renderLoaders;
+    
+    // Incremented per keystroke so only the latest search updates the feed
+    private long searchSequence;
+    
+    // Node property holding the pending comment load of an inline comments section
+    private static final String LOAD_COMMENTS = "loadComments";
+    
+    // Posts already counted as viewed in this session, so opening a post again does not inflate views
+    private Set<Integer> viewedPosts = new HashSet<>();
+    
+    // Title, tag and author completions shown under the search field
+    private final ContextMenu suggestionsMenu = new ContextMenu();
+    private boolean applyingSuggestion;
+    
     // ==================== USER SESSION MANAGEMENT ===================
     
     /**
@@ -128,6 +173,10 @@ public class MainFeedController {
             this.reviewService = serviceFactory.getReviewService();
             this.tagService = serviceFactory.getTagService();
             this.postTagService = serviceFactory.getPostTagService();
+            this.feedService = serviceFactory.getFeedService();
+            this.postPublishingService = serviceFactory.getPostPublishingService();
+            this.viewCounterService = serviceFactory.getViewCounterService();
+            this.serviceExecutor = serviceFactory.getServiceExecutor();
             
             // Initialize data structures
             allPosts = new ArrayList<>();
@@ -148,7 +197,17 @@ public class MainFeedController {
     
     private void setupEventHandlers() {
         // Search functionality
-        searchField.textProperty().addListener((obs, oldVal, newVal) -> searchPosts(newVal));
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> {
+            searchPosts(newVal);
+            if (!applyingSuggestion) {
+                showSuggestions(newVal);
+            }
+        });
+        searchField.focusedProperty().addListener((obs, wasFocused, focused) -> {
+            if (!focused) {
+                suggestionsMenu.hide();
+            }
+        });
         
         // Character counter for post content
         postContentField.textProperty().addListener((obs, oldVal, newVal) -> {
@@ -157,6 +216,16 @@ public class MainFeedController {
             charCountLabel.setStyle(length > 280 ? "-fx-text-fill: #ff4444;" : "-fx-text-fill: #666666;");
         });
         
+        // Load the next feed page once the feed is scrolled near its end
+        loadMoreButton.setStyle("-fx-background-color: transparent; -fx-border-color: #1d9bf0; " +
+                "-fx-border-radius: 20; -fx-text-fill: #1d9bf0; -fx-cursor: hand;");
+        loadMoreButton.setOnAction(e -> loadMorePosts());
+        feedScrollPane.vvalueProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal.doubleValue() >= feedScrollPane.getVmax() * 0.9) {
+                loadMorePosts();
+            }
+        });
+        
         // Setup star rating handlers
         setupStarRatingHandlers();
     }
@@ -212,32 +281,80 @@ public class MainFeedController {
      * 📝 Load posts from service layer
      */
     private void loadPosts() {
-        try {
-            // Load posts from database using service layer
-            allPosts = postService.findAll();
-            
-            // Update author names using user service
-            for (PostEntity post : allPosts) {
-                if (post.getUserId() > 0) {
-                    UserEntity user = userService.findById(post.getUserId());
-                    if (user != null) {
-                        post.setAuthorName(user.getUserName());
-                    } else {
-                        post.setAuthorName("Unknown User");
-                    }
-                } else {
-                    post.setAuthorName("Anonymous");
-                }
+        // One projection query returns posts with author names, comment counts and ratings;
+        // it runs on a virtual thread and the feed is rebuilt on the FX thread
+        serviceExecutor.supplyToUi(ServiceExecutor.Subsystem.READS,
+                () -> feedService.getFeedPage(1, FeedService.DEFAULT_PAGE_SIZE),
+                this::showFeedPage,
+                error -> {
+                    System.err.println("❌ Error loading posts: " + error.getMessage());
+                    showAlert("Database Error", "Failed to load posts from database. Please check your connection.");
+                });
+    }
+    
+    private void showFeedPage(List<FeedItem> feed) {
+        allPosts = new ArrayList<>();
+        feedItems.clear();
+        for (FeedItem item : feed) {
+            allPosts.add(item.toPostEntity());
+            feedItems.put(item.getPostId(), item);
+        }
+        feedPage = 1;
+        feedHasMore = feed.size() == FeedService.DEFAULT_PAGE_SIZE;
+        
+        filteredPosts = new ArrayList<>(allPosts);
+        searchActive = false;
+        refreshFeed();
+        
+        System.out.println("📋 Loaded " + allPosts.size() + " posts from database");
+    }
+    
+    /**
+     * Loads the feed page after the last one shown and appends it; does nothing while searching
+     * or while a page is already loading
+     */
+    private void loadMorePosts() {
+        if (loadingMore || !feedHasMore || searchActive) {
+            return;
+        }
+        loadingMore = true;
+        int nextPage = feedPage + 1;
+        serviceExecutor.supplyToUi(ServiceExecutor.Subsystem.READS,
+                () -> feedService.getFeedPage(nextPage, FeedService.DEFAULT_PAGE_SIZE),
+                feed -> appendFeedPage(nextPage, feed),
+                error -> {
+                    loadingMore = false;
+                    System.err.println("❌ Error loading feed page " + nextPage + ": " + error.getMessage());
+                });
+    }
+    
+    private void appendFeedPage(int page, List<FeedItem> feed) {
+        loadingMore = false;
+        feedPage = page;
+        feedHasMore = feed.size() == FeedService.DEFAULT_PAGE_SIZE;
+        
+        // Posts published since the first page shift later pages, so a post may come again
+        List<PostEntity> added = new ArrayList<>();
+        for (FeedItem item : feed) {
+            if (feedItems.putIfAbsent(item.getPostId(), item) == null) {
+                PostEntity post = item.toPostEntity();
+                allPosts.add(post);
+                added.add(post);
             }
-            
-            filteredPosts = new ArrayList<>(allPosts);
+        }
+        if (searchActive) {
+            return;
+        }
+        
+        boolean wasEmpty = filteredPosts.isEmpty();
+        filteredPosts = new ArrayList<>(filteredPosts);
+        filteredPosts.addAll(added);
+        if (wasEmpty) {
             refreshFeed();
-            
-            System.out.println("📋 Loaded " + allPosts.size() + " posts from database");
-        } catch (Exception e) {
-            System.err.println("❌ Error loading posts: " + e.getMessage());
-            showAlert("Database Error", "Failed to load posts from database. Please check your connection.");
+        } else {
+            renderCards(added);
         }
+        System.out.println("📋 Loaded page " + page + " with " + added.size() + " more posts");
     }
     
     /**
@@ -258,115 +375,158 @@ public class MainFeedController {
             return;
         }
         
-        try {
-            // Create new post entity
-            PostEntity newPost = new PostEntity();
-            newPost.setTitle(extractTitleFromContent(content));
-            newPost.setContent(content);
-            newPost.setCreatedAt(LocalDateTime.now());
-            newPost.setUserId(currentUserId);
-            newPost.setStatus("Published");
-            newPost.setViews(0);
-            
-            // Get current user info for author name
-            UserEntity currentUser = userService.findById(currentUserId);
-            if (currentUser != null) {
-                newPost.setAuthorName(currentUser.getUserName());
-            } else {
-                newPost.setAuthorName("Current User");
-            }
-            
-            // Save post to database using service layer
-            PostEntity createdPost = postService.create(newPost);
-            
-            // Extract and save hashtags
-            List<String> extractedTags = extractAndSaveTags(content, createdPost.getPostId());
-            System.out.println("🏷️ Extracted and saved " + extractedTags.size() + " tags: " + extractedTags);
-            
-            // Add to local list
-            allPosts.add(0, createdPost);
-            
-            // Clear form
-            postContentField.clear();
-            charCountLabel.setText("0/280");
-            
-            // Refresh feed
-            filteredPosts = new ArrayList<>(allPosts);
-            refreshFeed();
-            
-            showAlert("Success", "Post published successfully!");
-            System.out.println("✅ Created new post with ID: " + createdPost.getPostId());
-            
-        } catch (Exception e) {
-            System.err.println("❌ Error creating post: " + e.getMessage());
-            showAlert("Error", "Failed to create post. Please try again.");
-        }
+        // Create new post entity
+        PostEntity newPost = new PostEntity();
+        newPost.setTitle(extractTitleFromContent(content));
+        newPost.setContent(content);
+        newPost.setCreatedAt(LocalDateTime.now());
+        newPost.setUserId(currentUserId);
+        newPost.setStatus("Published");
+        newPost.setViews(0);
+        int authorId = currentUserId;
+        List<String> extractedTags = PostPublishingService.extractHashtags(content);
+        
+        // The author lookup and the insert run on a virtual thread; the feed is updated on the FX thread
+        postButton.setDisable(true);
+        serviceExecutor.supplyToUi(ServiceExecutor.Subsystem.WRITES,
+                () -> {
+                    // Get current user info for author name
+                    UserEntity currentUser = userService.findById(authorId);
+                    newPost.setAuthorName(currentUser != null ? currentUser.getUserName() : "Current User");
+                    
+                    // Save post, its tags and the post-tag links in one transaction
+                    PostEntity createdPost = postPublishingService.publish(newPost, extractedTags);
+                    
+                    // Cached feed pages no longer include the new post
+                    feedService.invalidate();
+                    return createdPost;
+                },
+                createdPost -> {
+                    postButton.setDisable(false);
+                    System.out.println("🏷️ Saved post with " + extractedTags.size() + " tags: " + extractedTags);
+                    
+                    // Add to local list
+                    allPosts.add(0, createdPost);
+                    
+                    // Clear form
+                    postContentField.clear();
+                    charCountLabel.setText("0/280");
+                    
+                    // Refresh feed
+                    filteredPosts = new ArrayList<>(allPosts);
+                    searchActive = false;
+                    refreshFeed();
+                    
+                    showAlert("Success", "Post published successfully!");
+                    System.out.println("✅ Created new post with ID: " + createdPost.getPostId());
+                },
+                error -> {
+                    postButton.setDisable(false);
+                    System.err.println("❌ Error creating post: " + error.getMessage());
+                    showAlert("Error", "Failed to create post. Please try again.");
+                });
     }
     
     /**
-     * 🏷️ Extract hashtags from content and save via service
+     * 🔍 Search posts by content, title, or tags
      */
-    private List<String> extractAndSaveTags(String content, int postId) {
-        List<String> hashtags = new ArrayList<>();
-        
-        // Find all #hashtags
-        String[] words = content.split("\\s+");
-        for (String word : words) {
-            if (word.startsWith("#") && word.length() > 1) {
-                String hashtag = word.substring(1).toLowerCase();
-                if (!hashtags.contains(hashtag)) {
-                    hashtags.add(hashtag);
-                    
-                    try {
-                        // Create or find the tag
-                        TagEntity existingTag = tagService.findByName(hashtag);
-                        TagEntity tag;
-                        
-                        if (existingTag == null) {
-                            // Create new tag
-                            tag = new TagEntity();
-                            tag.setName(hashtag);
-                            tag = tagService.create(tag);
-                            System.out.println("🏷️ Created new tag: " + hashtag + " with ID: " + tag.getTagId());
-                        } else {
-                            tag = existingTag;
-                            System.out.println("🏷️ Using existing tag: " + hashtag + " with ID: " + tag.getTagId());
+    private void searchPosts(String query) {
+        String trimmedQuery = query == null ? "" : query.trim();
+        long sequence = ++searchSequence;
+        
+        if (!trimmedQuery.isEmpty() && !trimmedQuery.startsWith("#") && trimmedQuery.length() >= MIN_ROUTED_QUERY_LENGTH) {
+            // Served by the in-memory index or PostgreSQL full-text search, so posts outside
+            // the loaded page are found too; results of superseded keystrokes are dropped
+            serviceExecutor.supplyToUi(ServiceExecutor.Subsystem.SEARCH,
+                    () -> serviceFactory.getSearchRouter().search(trimmedQuery, 1, FeedService.DEFAULT_PAGE_SIZE),
+                    result -> {
+                        if (sequence == searchSequence) {
+                            showSearchResults(result.getPosts(), query);
                         }
-                        
-                        // Link post to tag
-                        PostTagEntity postTag = new PostTagEntity();
-                        postTag.setPostId(postId);
-                        postTag.setTagId(tag.getTagId());
-                        postTagService.create(postTag);
-                        System.out.println("🔗 Linked post " + postId + " to tag " + hashtag);
-                        
-                    } catch (Exception e) {
-                        System.err.println("❌ Error saving tag " + hashtag + ": " + e.getMessage());
-                        // Continue with other tags even if one fails
-                    }
-                }
-            }
+                    },
+                    error -> {
+                        System.err.println("❌ Routed search failed, filtering loaded posts: " + error.getMessage());
+                        if (sequence == searchSequence) {
+                            showSearchResults(filterLoadedPosts(trimmedQuery), query);
+                        }
+                    });
+            return;
         }
         
-        return hashtags;
+        showSearchResults(trimmedQuery.isEmpty() ? new ArrayList<>(allPosts) : filterLoadedPosts(trimmedQuery), query);
     }
     
     /**
-     * 🔍 Search posts by content, title, or tags
+     * Shows completions of the typed prefix under the search field; a leading # completes tags only.
+     * Answered from the in-memory autocomplete index, which is fast enough for the UI thread.
      */
-    private void searchPosts(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            filteredPosts = new ArrayList<>(allPosts);
-        } else {
-            String searchQuery = query.toLowerCase().trim();
-            filteredPosts = allPosts.stream()
-                .filter(post -> 
-                    post.getTitle().toLowerCase().contains(searchQuery) ||
-                    post.getContent().toLowerCase().contains(searchQuery) ||
-                    post.getContent().contains("#" + searchQuery))
-                .toList();
+    private void showSuggestions(String text) {
+        String prefix = text == null ? "" : text.stripLeading();
+        boolean tagsOnly = prefix.startsWith("#");
+        if (tagsOnly) {
+            prefix = prefix.substring(1);
+        }
+        if (prefix.isBlank()) {
+            suggestionsMenu.hide();
+            return;
+        }
+        
+        List<AutocompleteIndex.Suggestion> suggestions;
+        try {
+            suggestions = serviceFactory.getSearchRouter().complete(prefix,
+                    tagsOnly ? AutocompleteIndex.CACHED_PER_NODE : MAX_SUGGESTIONS);
+        } catch (Exception e) {
+            System.err.println("❌ Autocomplete failed: " + e.getMessage());
+            suggestionsMenu.hide();
+            return;
         }
         
+        List<MenuItem> items = new ArrayList<>();
+        for (AutocompleteIndex.Suggestion suggestion : suggestions) {
+            if (items.size() == MAX_SUGGESTIONS) {
+                break;
+            }
+            if (tagsOnly && suggestion.getKind() != AutocompleteIndex.Kind.TAG) {
+                continue;
+            }
+            MenuItem item = new MenuItem(suggestion.toString());
+            item.setOnAction(e -> applySuggestion(suggestion));
+            items.add(item);
+        }
+        if (items.isEmpty()) {
+            suggestionsMenu.hide();
+            return;
+        }
+        suggestionsMenu.getItems().setAll(items);
+        if (!suggestionsMenu.isShowing()) {
+            suggestionsMenu.show(searchField, Side.BOTTOM, 0, 0);
+        }
+    }
+    
+    private void applySuggestion(AutocompleteIndex.Suggestion suggestion) {
+        applyingSuggestion = true;
+        try {
+            searchField.setText(suggestion.toString());
+            searchField.positionCaret(searchField.getText().length());
+        } finally {
+            applyingSuggestion = false;
+        }
+        suggestionsMenu.hide();
+    }
+    
+    private List<PostEntity> filterLoadedPosts(String query) {
+        String searchQuery = query.toLowerCase();
+        return allPosts.stream()
+            .filter(post -> 
+                post.getTitle().toLowerCase().contains(searchQuery) ||
+                post.getContent().toLowerCase().contains(searchQuery) ||
+                post.getContent().contains("#" + searchQuery))
+            .toList();
+    }
+    
+    private void showSearchResults(List<PostEntity> posts, String query) {
+        filteredPosts = posts;
+        searchActive = query != null && !query.isBlank();
         refreshFeed();
         System.out.println("🔍 Search results: " + filteredPosts.size() + " posts for '" + query + "'");
     }
@@ -438,32 +598,37 @@ public class MainFeedController {
             return;
         }
         
-        try {
-            // Create new review entity
-            ReviewEntity newReview = new ReviewEntity();
-            newReview.setRating(selectedRating);
-            newReview.setComment(reviewText);
-            newReview.setUserId(currentUserId);
-            newReview.setPostId(currentPostForReview.getPostId());
-            newReview.setCreatedAt(LocalDateTime.now());
-            
-            // Save review to database using service layer
-            ReviewEntity createdReview = reviewService.create(newReview);
-            System.out.println("⭐ Added " + selectedRating + "-star review to post " + currentPostForReview.getPostId() + " with review ID: " + createdReview.getReviewId());
-            
-            // Reset form
-            reviewCommentField.clear();
-            selectedRating = 0;
-            updateStarDisplay(0);
-            hideReviewSection();
-            
-            showAlert("Success", "Review submitted successfully!");
-            
-        } catch (Exception e) {
-            System.err.println("❌ Error submitting review: " + e.getMessage());
-            e.printStackTrace();
-            showAlert("Error", "Failed to submit review. Please try again.");
-        }
+        // Create new review entity
+        ReviewEntity newReview = new ReviewEntity();
+        newReview.setRating(selectedRating);
+        newReview.setComment(reviewText);
+        newReview.setUserId(currentUserId);
+        newReview.setPostId(currentPostForReview.getPostId());
+        newReview.setCreatedAt(LocalDateTime.now());
+        
+        // Save review to database using service layer, off the FX thread
+        serviceExecutor.supplyToUi(ServiceExecutor.Subsystem.WRITES,
+                () -> {
+                    ReviewEntity createdReview = reviewService.create(newReview);
+                    feedService.invalidate();
+                    return createdReview;
+                },
+                createdReview -> {
+                    System.out.println("⭐ Added " + newReview.getRating() + "-star review to post " + newReview.getPostId() + " with review ID: " + createdReview.getReviewId());
+                    
+                    // Reset form
+                    reviewCommentField.clear();
+                    selectedRating = 0;
+                    updateStarDisplay(0);
+                    hideReviewSection();
+                    
+                    showAlert("Success", "Review submitted successfully!");
+                },
+                error -> {
+                    System.err.println("❌ Error submitting review: " + error.getMessage());
+                    error.printStackTrace();
+                    showAlert("Error", "Failed to submit review. Please try again.");
+                });
     }
     
     /**
@@ -471,6 +636,7 @@ public class MainFeedController {
      */
     @FXML
     private void refreshPosts(ActionEvent event) {
+        feedService.invalidate();
         loadPosts();
         showAlert("Success", "Posts refreshed!");
     }
@@ -487,10 +653,42 @@ public class MainFeedController {
             return;
         }
         
-        for (PostEntity post : filteredPosts) {
+        renderCards(filteredPosts);
+    }
+    
+    /**
+     * Appends cards for the posts to the feed, followed by the load-more button while the full
+     * feed is shown and has further pages
+     */
+    private void renderCards(List<PostEntity> posts) {
+        feedContainer.getChildren().remove(loadMoreButton);
+        
+        // Cards register their lookups while being built; one dispatch then runs a single
+        // query per entity type instead of one per post
+        renderLoaders = serviceFactory.newRenderLoaders();
+        
+        for (PostEntity post : posts) {
             VBox postCard = createPostCard(post);
             feedContainer.getChildren().add(postCard);
         }
+        
+        // The batched queries run on a virtual thread, which then owns the loaders; callbacks
+        // hand their UI updates back to the FX thread
+        RenderLoaders loaders = renderLoaders;
+        serviceExecutor.submit(ServiceExecutor.Subsystem.READS, () -> {
+            loaders.dispatchAll();
+            return loaders.getQueryCount();
+        }).whenComplete((queries, error) -> {
+            if (error != null) {
+                System.err.println("❌ Error loading post details: " + error.getMessage());
+            } else {
+                System.out.println("📦 Rendered " + posts.size() + " posts with " + queries + " batched queries");
+            }
+        });
+        
+        if (!searchActive && feedHasMore) {
+            feedContainer.getChildren().add(loadMoreButton);
+        }
     }
     
     private VBox createPostCard(PostEntity post) {
@@ -510,55 +708,87 @@ public class MainFeedController {
         contentBox.setPrefWidth(400);
         
         // Parse content and make hashtags clickable
-        String[] contentParts = post.getContent().split("(?=#)");
-        for (String part : contentParts) {
-            if (part.startsWith("#")) {
-                // Extract hashtag
-                String[] hashtagParts = part.split("\\s+", 2);
-                String hashtag = hashtagParts[0].substring(1); // Remove #
-                String remainingText = hashtagParts.length > 1 ? hashtagParts[1] : "";
-                
-                // Create clickable hashtag
-                HBox hashtagBox = new HBox(2);
-                Label hashtagLabel = new Label("#" + hashtag);
-                hashtagLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: #1d9bf0; -fx-cursor: hand;");
-                hashtagLabel.setOnMouseClicked(e -> searchByHashtag(hashtag));
-                
-                hashtagBox.getChildren().add(hashtagLabel);
-                if (!remainingText.isEmpty()) {
-                    Label remainingLabel = new Label(remainingText);
-                    remainingLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #333333; -fx-wrap-text: true;");
-                    hashtagBox.getChildren().add(remainingLabel);
-                }
-                
-                contentBox.getChildren().add(hashtagBox);
-            } else {
-                // Regular text
-                Label textLabel = new Label(part);
-                textLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #333333; -fx-wrap-text: true;");
-                textLabel.setPrefWidth(400);
-                contentBox.getChildren().add(textLabel);
+        String content = post.getContent();
+        List<int[]> hashtagSpans = new ArrayList<>();
+        TextAnalyzer.DEFAULT.analyze(content, token -> {
+            if (token.kind() == TextAnalyzer.Kind.HASHTAG) {
+                hashtagSpans.add(new int[]{token.start(), token.end()});
+            }
+        });
+        int firstHashtag = hashtagSpans.isEmpty() ? content.length() : hashtagSpans.get(0)[0];
+        if (firstHashtag > 0) {
+            // Regular text
+            Label textLabel = new Label(content.substring(0, firstHashtag));
+            textLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #333333; -fx-wrap-text: true;");
+            textLabel.setPrefWidth(400);
+            contentBox.getChildren().add(textLabel);
+        }
+        for (int i = 0; i < hashtagSpans.size(); i++) {
+            int[] span = hashtagSpans.get(i);
+            String hashtag = content.substring(span[0] + 1, span[1]); // Without the #
+            int next = i + 1 < hashtagSpans.size() ? hashtagSpans.get(i + 1)[0] : content.length();
+            String remainingText = content.substring(span[1], next).strip();
+            
+            // Create clickable hashtag
+            HBox hashtagBox = new HBox(2);
+            Label hashtagLabel = new Label("#" + hashtag);
+            hashtagLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: #1d9bf0; -fx-cursor: hand;");
+            hashtagLabel.setOnMouseClicked(e -> searchByHashtag(hashtag));
+            
+            hashtagBox.getChildren().add(hashtagLabel);
+            if (!remainingText.isEmpty()) {
+                Label remainingLabel = new Label(remainingText);
+                remainingLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #333333; -fx-wrap-text: true;");
+                hashtagBox.getChildren().add(remainingLabel);
             }
+            
+            contentBox.getChildren().add(hashtagBox);
         }
         
         // Post actions
         HBox actionsBox = new HBox(10);
         actionsBox.setStyle("-fx-alignment: center-left;");
         
-        Button commentBtn = new Button("💬 " + getCommentCount(post));
+        FeedItem feedItem = feedItems.get(post.getPostId());
+        
+        // Views are written behind; the counter merges pending views into the stored count
+        int storedViews = feedItem != null ? feedItem.getViews() : post.getViews();
+        Label viewsLabel = new Label("👁 " + viewCounterService.currentViews(post.getPostId(), storedViews));
+        viewsLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: #666666;");
+        
+        Button commentBtn = new Button("💬 " + (feedItem != null ? feedItem.getCommentCount() : 0));
         commentBtn.setStyle("-fx-background-color: transparent; -fx-border-color: #1d9bf0; " +
                         "-fx-border-radius: 20; -fx-text-fill: #1d9bf0; -fx-cursor: hand;");
         commentBtn.setOnAction(e -> {
             System.out.println("🔍 Comment button clicked for post: " + post.getPostId());
-            toggleInlineComments(post, card);
+            if (toggleInlineComments(post, card)) {
+                recordView(post, viewsLabel, storedViews);
+            }
         });
         
-        Button reviewBtn = new Button("⭐ Review");
+        Button reviewBtn = new Button(feedItem != null
+                ? getReviewLabel(feedItem.getReviewCount(), feedItem.getAverageRating())
+                : getReviewLabel(0, 0));
         reviewBtn.setStyle("-fx-background-color: transparent; -fx-border-color: #ffd700; " +
                        "-fx-border-radius: 20; -fx-text-fill: #ffd700; -fx-cursor: hand;");
-        reviewBtn.setOnAction(e -> toggleReviewSection(post));
+        reviewBtn.setOnAction(e -> {
+            toggleReviewSection(post);
+            if (reviewSection.isVisible()) {
+                recordView(post, viewsLabel, storedViews);
+            }
+        });
+        
+        if (feedItem == null) {
+            // Search results and posts created in this session are not part of the loaded feed
+            // page; their counts come from post_stats instead of the feed projection
+            renderLoaders.statsByPost().load(post.getPostId()).thenAccept(stats ->
+                    ServiceExecutor.runOnFxThread(() -> {
+                        commentBtn.setText("💬 " + stats.getCommentCount());
+                        reviewBtn.setText(getReviewLabel(stats.getReviewCount(), stats.getAverageRating()));
+                    }));
+        }
         
-        actionsBox.getChildren().addAll(commentBtn, reviewBtn);
+        actionsBox.getChildren().addAll(commentBtn, reviewBtn, viewsLabel);
         
         // Inline comments section (initially hidden)
         VBox inlineCommentsSection = createInlineCommentsSection(post);
@@ -572,6 +802,17 @@ public class MainFeedController {
         return card;
     }
     
+    /**
+     * Counts a view when a post is opened, once per session, and shows the new count on its card.
+     * Scrolling past a card is not a view.
+     */
+    private void recordView(PostEntity post, Label viewsLabel, int storedViews) {
+        if (viewedPosts.add(post.getPostId())) {
+            viewCounterService.recordView(post.getPostId());
+            viewsLabel.setText("👁 " + viewCounterService.currentViews(post.getPostId(), storedViews));
+        }
+    }
+    
     /**
      * 🔍 Search posts by hashtag
      */
@@ -762,14 +1003,11 @@ public class MainFeedController {
         return days + "d ago";
     }
     
-    private int getCommentCount(PostEntity post) {
-        try {
-            List<CommentEntity> comments = commentService.findByPostId(post.getPostId());
-            return comments.size();
-        } catch (Exception e) {
-            System.err.println("❌ Error getting comment count for post " + post.getPostId() + ": " + e.getMessage());
-            return 0;
+    private String getReviewLabel(int reviewCount, double averageRating) {
+        if (reviewCount == 0) {
+            return "⭐ Review";
         }
+        return String.format("⭐ %.1f (%d)", averageRating, reviewCount);
     }
     
     // ==================== ID GENERATORS ===================
@@ -804,28 +1042,8 @@ public class MainFeedController {
         VBox commentsContainer = new VBox(8);
         commentsContainer.setPrefWidth(400);
         
-        // Load existing comments from database
-        try {
-            List<CommentEntity> comments = commentService.findByPostId(post.getPostId());
-            
-            // Store in local cache
-            postComments.put(post.getPostId(), comments);
-            
-            for (CommentEntity comment : comments) {
-                commentsContainer.getChildren().add(createCommentItem(comment));
-            }
-            
-            if (comments.isEmpty()) {
-                Label noCommentsLabel = new Label("No comments yet. Be the first to comment!");
-                noCommentsLabel.setStyle("-fx-text-fill: #6c757d; -fx-font-style: italic;");
-                commentsContainer.getChildren().add(noCommentsLabel);
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error loading comments for post " + post.getPostId() + ": " + e.getMessage());
-            Label errorLabel = new Label("Error loading comments");
-            errorLabel.setStyle("-fx-text-fill: #dc3545; -fx-font-style: italic;");
-            commentsContainer.getChildren().add(errorLabel);
-        }
+        // Comments are only fetched once the section is first opened
+        commentsSection.getProperties().put(LOAD_COMMENTS, (Runnable) () -> loadInlineComments(post, commentsContainer));
         
         // Add comment section
         HBox addCommentBox = new HBox(10);
@@ -849,10 +1067,63 @@ public class MainFeedController {
         return commentsSection;
     }
     
+    /**
+     * Loads the comments of a post and their authors into its inline section, with one query
+     * for each on a virtual thread; the callbacks run on that thread, so the nodes are only
+     * touched on the FX thread
+     */
+    private void loadInlineComments(PostEntity post, VBox commentsContainer) {
+        RenderLoaders loaders = serviceFactory.newRenderLoaders();
+        loaders.commentsByPost().load(post.getPostId()).whenComplete((comments, error) -> {
+            if (error != null) {
+                System.err.println("❌ Error loading comments for post " + post.getPostId() + ": " + error.getMessage());
+                ServiceExecutor.runOnFxThread(() -> {
+                    Label errorLabel = new Label("Error loading comments");
+                    errorLabel.setStyle("-fx-text-fill: #dc3545; -fx-font-style: italic;");
+                    commentsContainer.getChildren().add(errorLabel);
+                });
+                return;
+            }
+            
+            if (comments.isEmpty()) {
+                ServiceExecutor.runOnFxThread(() -> {
+                    postComments.put(post.getPostId(), new ArrayList<>());
+                    Label noCommentsLabel = new Label("No comments yet. Be the first to comment!");
+                    noCommentsLabel.setStyle("-fx-text-fill: #6c757d; -fx-font-style: italic;");
+                    commentsContainer.getChildren().add(noCommentsLabel);
+                });
+                return;
+            }
+            
+            List<Integer> authorIds = comments.stream().map(CommentEntity::getUserId).distinct().collect(Collectors.toList());
+            loaders.usersById().loadMany(authorIds).whenComplete((authors, authorError) ->
+                    ServiceExecutor.runOnFxThread(() -> {
+                        // Store in local cache
+                        postComments.put(post.getPostId(), new ArrayList<>(comments));
+                        for (CommentEntity comment : comments) {
+                            UserEntity author = authors != null ? authors.get(comment.getUserId()) : null;
+                            commentsContainer.getChildren().add(
+                                    createCommentItem(comment, RenderLoaders.displayName(author, comment.getUserId())));
+                        }
+                    }));
+        });
+        serviceExecutor.submit(ServiceExecutor.Subsystem.READS, () -> {
+            loaders.dispatchAll();
+            return null;
+        });
+    }
+    
     /**
      * Creates a comment item UI component
      */
     private HBox createCommentItem(CommentEntity comment) {
+        return createCommentItem(comment, "User " + comment.getUserId());
+    }
+    
+    /**
+     * Creates a comment item UI component with a resolved author name
+     */
+    private HBox createCommentItem(CommentEntity comment, String authorName) {
         HBox commentBox = new HBox(10);
         commentBox.setStyle("-fx-background-color: white; -fx-background-radius: 6; -fx-padding: 10;");
         
@@ -868,7 +1139,7 @@ public class MainFeedController {
         HBox headerBox = new HBox(8);
         headerBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
         
-        Label authorLabel = new Label("User " + comment.getUserId());
+        Label authorLabel = new Label(authorName);
         authorLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 12px; -fx-text-fill: #495057;");
         
         Label timeLabel = new Label(formatTimeAgo(comment.getCreatedAt()));
@@ -888,16 +1159,22 @@ public class MainFeedController {
     
     /**
      * Toggles inline comments visibility for a post
+     * @return true if the comments are now shown
      */
-    private void toggleInlineComments(PostEntity post, VBox card) {
+    private boolean toggleInlineComments(PostEntity post, VBox card) {
         VBox commentsSection = commentUIComponents.get(post.getPostId());
-        if (commentsSection != null) {
-            boolean isVisible = commentsSection.isVisible();
-            commentsSection.setVisible(!isVisible);
-            commentsSection.setManaged(!isVisible);
-            
-            System.out.println("🔄 " + (isVisible ? "Hiding" : "Showing") + " inline comments for post: " + post.getPostId());
+        if (commentsSection == null) {
+            return false;
         }
+        boolean isVisible = commentsSection.isVisible();
+        commentsSection.setVisible(!isVisible);
+        commentsSection.setManaged(!isVisible);
+        if (!isVisible && commentsSection.getProperties().remove(LOAD_COMMENTS) instanceof Runnable loadComments) {
+            loadComments.run();
+        }
+        
+        System.out.println("🔄 " + (isVisible ? "Hiding" : "Showing") + " inline comments for post: " + post.getPostId());
+        return !isVisible;
     }
     
     /**
@@ -911,49 +1188,56 @@ public class MainFeedController {
             return;
         }
         
-        try {
-            // Debug logging
-            System.out.println("🔍 Creating comment with:");
-            System.out.println("   Post ID: " + post.getPostId());
-            System.out.println("   User ID: " + currentUserId);
-            System.out.println("   Content: '" + content + "'");
-            System.out.println("   Created at: " + LocalDateTime.now());
-            
-            // Create new comment entity
-            CommentEntity comment = new CommentEntity();
-            comment.setPostId(post.getPostId());
-            comment.setUserId(currentUserId);
-            comment.setContent(content);
-            comment.setCreatedAt(LocalDateTime.now());
-            
-            // Save comment to database using service layer
-            CommentEntity createdComment = commentService.create(comment);
-            
-            // Add to local data structure
-            List<CommentEntity> comments = postComments.computeIfAbsent(post.getPostId(), k -> new ArrayList<>());
-            comments.add(createdComment);
-            
-            // Remove "no comments" label if present
-            if (!commentsContainer.getChildren().isEmpty() && 
-                commentsContainer.getChildren().get(0) instanceof Label && 
-                ((Label) commentsContainer.getChildren().get(0)).getText().contains("No comments yet")) {
-                commentsContainer.getChildren().clear();
-            }
-            
-            // Add to UI
-            commentsContainer.getChildren().add(createCommentItem(createdComment));
-            
-            // Clear comment field
-            commentField.clear();
-            
-            System.out.println("✅ Comment added to database with ID: " + createdComment.getCommentId());
-            
-        } catch (Exception e) {
-            System.err.println("❌ Error adding comment: " + (e.getMessage() != null ? e.getMessage() : "null message"));
-            System.err.println("❌ Exception type: " + e.getClass().getSimpleName());
-            e.printStackTrace();
-            showAlert("Database Error", "Failed to add comment. Please try again.");
+        // Debug logging
+        System.out.println("🔍 Creating comment with:");
+        System.out.println("   Post ID: " + post.getPostId());
+        System.out.println("   User ID: " + currentUserId);
+        System.out.println("   Content: '" + content + "'");
+        System.out.println("   Created at: " + LocalDateTime.now());
+        
+        // Create new comment entity
+        CommentEntity comment = new CommentEntity();
+        comment.setPostId(post.getPostId());
+        comment.setUserId(currentUserId);
+        comment.setContent(content);
+        comment.setCreatedAt(LocalDateTime.now());
+        
+        // Save comment to database using service layer, off the FX thread
+        serviceExecutor.supplyToUi(ServiceExecutor.Subsystem.WRITES,
+                () -> {
+                    CommentEntity createdComment = commentService.create(comment);
+                    feedService.invalidate();
+                    return createdComment;
+                },
+                createdComment -> showAddedComment(post, createdComment, commentField, commentsContainer),
+                error -> {
+                    System.err.println("❌ Error adding comment: " + (error.getMessage() != null ? error.getMessage() : "null message"));
+                    System.err.println("❌ Exception type: " + error.getClass().getSimpleName());
+                    error.printStackTrace();
+                    showAlert("Database Error", "Failed to add comment. Please try again.");
+                });
+    }
+    
+    private void showAddedComment(PostEntity post, CommentEntity createdComment, TextArea commentField,
+                                  VBox commentsContainer) {
+        // Add to local data structure
+        List<CommentEntity> comments = postComments.computeIfAbsent(post.getPostId(), k -> new ArrayList<>());
+        comments.add(createdComment);
+        
+        // Remove "no comments" label if present
+        if (!commentsContainer.getChildren().isEmpty() && 
+            commentsContainer.getChildren().get(0) instanceof Label && 
+            ((Label) commentsContainer.getChildren().get(0)).getText().contains("No comments yet")) {
+            commentsContainer.getChildren().clear();
         }
+        
+        // Add to UI
+        commentsContainer.getChildren().add(createCommentItem(createdComment));
+        
+        // Clear comment field
+        commentField.clear();
+        
+        System.out.println("✅ Comment added to database with ID: " + createdComment.getCommentId());
     }
     
     /**
@@ -27,7 +27,8 @@ CREATE TABLE posts (
     user_id INT NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
     views INT DEFAULT 0,
     status VARCHAR(50) DEFAULT 'Published',
-    author_name VARCHAR(100) NOT NULL
+    author_name VARCHAR(100) NOT NULL,
+    version INT NOT NULL DEFAULT 1  -- optimistic locking, bumped by posts_bump_version
 );
 
 -- Comments table
@@ -98,6 +99,33 @@ CREATE INDEX idx_posts_user_id ON posts(user_id);
 CREATE INDEX idx_comments_post_id ON comments(post_id);
 CREATE INDEX idx_reviews_post_id ON reviews(post_id);
 
+-- 7b. Foreign-key lookup indexes (for repository findByUserId / findByRating / findByEmail)
+CREATE INDEX idx_comments_user_id ON comments(user_id);
+CREATE INDEX idx_reviews_user_id ON reviews(user_id);
+CREATE INDEX idx_reviews_rating ON reviews(rating);
+CREATE INDEX idx_users_email_lower ON users(LOWER(email));
+CREATE INDEX idx_users_user_name_lower ON users(LOWER(user_name));
+
+-- 7c. Optimistic concurrency for existing databases (no-op on fresh installs)
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 1;
+
+-- Every content change gets a new version, whoever writes it (the application, admin SQL,
+-- migrations), so readers can tell a changed row from an echo of one they already have.
+-- Statements that bump the version themselves are left alone.
+CREATE OR REPLACE FUNCTION bump_post_version()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.version IS NOT DISTINCT FROM OLD.version THEN
+        NEW.version := OLD.version + 1;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS posts_bump_version ON posts;
+CREATE TRIGGER posts_bump_version BEFORE UPDATE OF title, content, user_id, status, author_name ON posts
+    FOR EACH ROW EXECUTE FUNCTION bump_post_version();
+
 -- 8. Full-Text Search Index (for advanced search)
 CREATE INDEX idx_posts_fulltext ON posts USING gin(
     to_tsvector('english', title || ' ' || content || ' ' || COALESCE(author_name, ''))
@@ -139,6 +167,171 @@ CREATE TRIGGER trigger_update_post_search
     FOR EACH ROW
     EXECUTE FUNCTION update_post_search_vector();
 
+-- Aggregate counters, maintained incrementally by triggers in the writing transaction
+-- so counts and averages are single-row lookups instead of scans over comments/reviews
+CREATE TABLE IF NOT EXISTS post_stats (
+    post_id INT PRIMARY KEY REFERENCES posts(post_id) ON DELETE CASCADE,
+    comment_count INT NOT NULL DEFAULT 0,
+    review_count INT NOT NULL DEFAULT 0,
+    rating_sum INT NOT NULL DEFAULT 0,
+    views INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS user_stats (
+    user_id INT PRIMARY KEY REFERENCES users(user_id) ON DELETE CASCADE,
+    post_count INT NOT NULL DEFAULT 0
+);
+
+CREATE OR REPLACE FUNCTION maintain_post_stats_for_posts()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO post_stats (post_id, views) VALUES (NEW.post_id, COALESCE(NEW.views, 0))
+        ON CONFLICT (post_id) DO NOTHING;
+        INSERT INTO user_stats (user_id, post_count) VALUES (NEW.user_id, 1)
+        ON CONFLICT (user_id) DO UPDATE SET post_count = user_stats.post_count + 1;
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF NEW.views IS DISTINCT FROM OLD.views THEN
+            UPDATE post_stats SET views = COALESCE(NEW.views, 0) WHERE post_id = NEW.post_id;
+        END IF;
+        IF NEW.user_id <> OLD.user_id THEN
+            UPDATE user_stats SET post_count = post_count - 1 WHERE user_id = OLD.user_id;
+            INSERT INTO user_stats (user_id, post_count) VALUES (NEW.user_id, 1)
+            ON CONFLICT (user_id) DO UPDATE SET post_count = user_stats.post_count + 1;
+        END IF;
+    ELSIF TG_OP = 'DELETE' THEN
+        -- post_stats rows go with the post through ON DELETE CASCADE
+        UPDATE user_stats SET post_count = post_count - 1 WHERE user_id = OLD.user_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION maintain_post_stats_for_comments()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        UPDATE post_stats SET comment_count = comment_count - 1 WHERE post_id = OLD.post_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        UPDATE post_stats SET comment_count = comment_count + 1 WHERE post_id = NEW.post_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION maintain_post_stats_for_reviews()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        UPDATE post_stats SET review_count = review_count - 1, rating_sum = rating_sum - OLD.rating
+        WHERE post_id = OLD.post_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        UPDATE post_stats SET review_count = review_count + 1, rating_sum = rating_sum + NEW.rating
+        WHERE post_id = NEW.post_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS posts_maintain_stats ON posts;
+CREATE TRIGGER posts_maintain_stats AFTER INSERT OR UPDATE OF views, user_id OR DELETE ON posts
+    FOR EACH ROW EXECUTE FUNCTION maintain_post_stats_for_posts();
+
+DROP TRIGGER IF EXISTS comments_maintain_stats ON comments;
+CREATE TRIGGER comments_maintain_stats AFTER INSERT OR UPDATE OF post_id OR DELETE ON comments
+    FOR EACH ROW EXECUTE FUNCTION maintain_post_stats_for_comments();
+
+DROP TRIGGER IF EXISTS reviews_maintain_stats ON reviews;
+CREATE TRIGGER reviews_maintain_stats AFTER INSERT OR UPDATE OF post_id, rating OR DELETE ON reviews
+    FOR EACH ROW EXECUTE FUNCTION maintain_post_stats_for_reviews();
+
+-- Backfill for databases that already contain data (idempotent)
+INSERT INTO post_stats (post_id, comment_count, review_count, rating_sum, views)
+SELECT p.post_id,
+       (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.post_id),
+       (SELECT COUNT(*) FROM reviews r WHERE r.post_id = p.post_id),
+       (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.post_id = p.post_id),
+       COALESCE(p.views, 0)
+FROM posts p
+ON CONFLICT (post_id) DO UPDATE SET
+    comment_count = EXCLUDED.comment_count,
+    review_count = EXCLUDED.review_count,
+    rating_sum = EXCLUDED.rating_sum,
+    views = EXCLUDED.views;
+
+INSERT INTO user_stats (user_id, post_count)
+SELECT user_id, COUNT(*) FROM posts GROUP BY user_id
+ON CONFLICT (user_id) DO UPDATE SET post_count = EXCLUDED.post_count;
+
+-- Change feed: every row change is logged and announced on the 'row_changes' channel.
+-- The application LISTENs to keep caches and search indexes current and replays
+-- change_log from its last seen change_id after a reconnect.
+CREATE TABLE IF NOT EXISTS change_log (
+    change_id BIGSERIAL PRIMARY KEY,
+    table_name VARCHAR(30) NOT NULL,
+    operation CHAR(1) NOT NULL,          -- I, U or D
+    row_id INT NOT NULL,
+    secondary_id INT,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_change_log_changed_at ON change_log(changed_at);
+
+-- Trigger arguments name the key column and an optional related key column
+CREATE OR REPLACE FUNCTION notify_row_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    row_data JSONB;
+    row_key INT;
+    related_key INT;
+    new_change_id BIGINT;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        row_data := to_jsonb(OLD);
+    ELSE
+        row_data := to_jsonb(NEW);
+    END IF;
+
+    row_key := (row_data ->> TG_ARGV[0])::INT;
+    IF TG_NARGS > 1 THEN
+        related_key := (row_data ->> TG_ARGV[1])::INT;
+    END IF;
+
+    INSERT INTO change_log (table_name, operation, row_id, secondary_id)
+    VALUES (TG_TABLE_NAME, LEFT(TG_OP, 1), row_key, related_key)
+    RETURNING change_id INTO new_change_id;
+
+    -- Payload: change_id|table|op|row_id|secondary_id (delivered on commit)
+    PERFORM pg_notify('row_changes', new_change_id || '|' || TG_TABLE_NAME || '|' || LEFT(TG_OP, 1)
+        || '|' || row_key || '|' || COALESCE(related_key::TEXT, ''));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- View count flushes are left out: they touch every viewed post every few seconds and would
+-- make every listener reload and re-index those posts and drop its cached feed pages
+DROP TRIGGER IF EXISTS posts_change_feed ON posts;
+CREATE TRIGGER posts_change_feed
+    AFTER INSERT OR UPDATE OF title, content, user_id, status, author_name OR DELETE ON posts
+    FOR EACH ROW EXECUTE FUNCTION notify_row_change('post_id');
+
+DROP TRIGGER IF EXISTS comments_change_feed ON comments;
+CREATE TRIGGER comments_change_feed AFTER INSERT OR UPDATE OR DELETE ON comments
+    FOR EACH ROW EXECUTE FUNCTION notify_row_change('comment_id', 'post_id');
+
+DROP TRIGGER IF EXISTS reviews_change_feed ON reviews;
+CREATE TRIGGER reviews_change_feed AFTER INSERT OR UPDATE OR DELETE ON reviews
+    FOR EACH ROW EXECUTE FUNCTION notify_row_change('review_id', 'post_id');
+
+DROP TRIGGER IF EXISTS tags_change_feed ON tags;
+CREATE TRIGGER tags_change_feed AFTER INSERT OR UPDATE OR DELETE ON tags
+    FOR EACH ROW EXECUTE FUNCTION notify_row_change('tag_id');
+
+DROP TRIGGER IF EXISTS post_tags_change_feed ON post_tags;
+CREATE TRIGGER post_tags_change_feed AFTER INSERT OR UPDATE OR DELETE ON post_tags
+    FOR EACH ROW EXECUTE FUNCTION notify_row_change('post_id', 'tag_id');
+
 -- Insert sample data for testing
 INSERT INTO users (user_name, email, password, role) VALUES 
 ('John Doe', 'john@example.com', 'password123', 'user'),
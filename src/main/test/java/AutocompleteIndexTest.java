@@ -0,0 +1,174 @@
+import org.example.bloggingapp.Search.AutocompleteIndex;
+import org.example.bloggingapp.Search.AutocompleteIndex.Kind;
+import org.example.bloggingapp.Search.AutocompleteIndex.Suggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AutocompleteIndex Tests")
+class AutocompleteIndexTest {
+
+    private AutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AutocompleteIndex();
+    }
+
+    @Nested
+    @DisplayName("Completion Tests")
+    class CompletionTests {
+
+        @Test
+        @DisplayName("Should return completions of the prefix, heaviest first, ignoring case")
+        void shouldRankByWeight() {
+            index.add(Kind.TITLE, "Java Streams", 10);
+            index.add(Kind.TITLE, "Java Records", 50);
+            index.add(Kind.TITLE, "JavaFX Layouts", 30);
+            index.add(Kind.TITLE, "Kotlin Coroutines", 100);
+
+            assertEquals(List.of("Java Records", "JavaFX Layouts", "Java Streams"), texts(index.complete("jAvA", 10)));
+            assertEquals(List.of("Java Records", "Java Streams"), texts(index.complete("java ", 10)));
+            assertEquals(List.of("Java Records"), texts(index.complete("java", 1)));
+            assertTrue(index.complete("python", 10).isEmpty());
+            assertTrue(index.complete("java recordsx", 10).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should keep a title and a tag with the same text apart")
+        void shouldSeparateKinds() {
+            index.add(Kind.TITLE, "java", 5);
+            index.add(Kind.TAG, "java", 1);
+            index.add(Kind.TAG, "java", 1);
+
+            List<Suggestion> suggestions = index.complete("ja", 10);
+
+            assertEquals(2, suggestions.size());
+            assertEquals(Kind.TITLE, suggestions.get(0).getKind());
+            assertEquals("#java", suggestions.get(1).toString());
+            assertEquals(2, suggestions.get(1).getPosts());
+        }
+
+        @Test
+        @DisplayName("Should return more completions than a node caches")
+        void shouldCollectBeyondCache() {
+            for (int i = 0; i < 25; i++) {
+                index.add(Kind.AUTHOR, "author " + i, i);
+            }
+
+            List<Suggestion> suggestions = index.complete("auth", 20);
+
+            assertEquals(20, suggestions.size());
+            assertEquals("author 24", suggestions.get(0).getText());
+            assertEquals("author 5", suggestions.get(19).getText());
+        }
+    }
+
+    @Nested
+    @DisplayName("Update Tests")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should drop a completion with its last post and keep its neighbours")
+        void shouldRemoveCompletions() {
+            index.add(Kind.TITLE, "spring", 1);
+            index.add(Kind.TITLE, "spring boot", 2);
+            index.add(Kind.TITLE, "spring cloud", 3);
+            index.add(Kind.TAG, "spring", 1);
+            index.add(Kind.TAG, "spring", 1);
+
+            index.remove(Kind.TITLE, "spring cloud", 3);
+            index.remove(Kind.TAG, "spring", 1);
+
+            assertEquals(List.of("spring boot", "spring", "spring"), texts(index.complete("spr", 10)));
+            assertEquals(1, index.complete("spring b", 10).size());
+            assertTrue(index.complete("spring c", 10).isEmpty());
+            assertEquals(3, index.size());
+
+            index.remove(Kind.TITLE, "spring", 1);
+            index.remove(Kind.TITLE, "spring boot", 2);
+            index.remove(Kind.TAG, "spring", 1);
+
+            assertTrue(index.complete("s", 10).isEmpty());
+            assertEquals(0, index.size());
+        }
+
+        @Test
+        @DisplayName("Should match a brute-force scan after random adds and removes")
+        void shouldMatchBruteForce() {
+            Random random = new Random(7);
+            String[] words = {"a", "ab", "abc", "abd", "b", "ba", "bab", "abcd", "abce", "bb"};
+            List<String> added = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                if (!added.isEmpty() && random.nextInt(3) == 0) {
+                    index.remove(Kind.TITLE, added.remove(random.nextInt(added.size())), 1);
+                } else {
+                    String word = words[random.nextInt(words.length)];
+                    index.add(Kind.TITLE, word, 1);
+                    added.add(word);
+                }
+            }
+
+            for (String prefix : new String[]{"a", "ab", "abc", "b", "ba", "x"}) {
+                List<Suggestion> expected = new ArrayList<>();
+                for (String word : words) {
+                    long count = added.stream().filter(word::equals).count();
+                    if (count > 0 && word.startsWith(prefix)) {
+                        expected.add(new Suggestion(word, Kind.TITLE, count, (int) count));
+                    }
+                }
+                expected.sort(Comparator.comparingLong(Suggestion::getWeight).reversed()
+                        .thenComparingInt(s -> s.getText().length())
+                        .thenComparing(Suggestion::getText));
+
+                assertEquals(texts(expected.subList(0, Math.min(3, expected.size()))), texts(index.complete(prefix, 3)),
+                        "prefix " + prefix);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Builder Tests")
+    class BuilderTests {
+
+        @Test
+        @DisplayName("Should build the same completions as incremental adds, and accept updates")
+        void shouldMatchIncrementalAdds() {
+            Random random = new Random(11);
+            AutocompleteIndex.Builder builder = new AutocompleteIndex.Builder();
+            for (int i = 0; i < 500; i++) {
+                String text = Integer.toString(random.nextInt(3000), 7);
+                Kind kind = Kind.values()[random.nextInt(3)];
+                int weight = random.nextInt(50);
+                builder.add(kind, text, weight);
+                index.add(kind, text, weight);
+            }
+            AutocompleteIndex built = builder.build();
+
+            assertEquals(index.size(), built.size());
+            for (String prefix : new String[]{"1", "12", "2", "33", "6", "1234", "60"}) {
+                assertEquals(describe(index.complete(prefix, 10)), describe(built.complete(prefix, 10)), "prefix " + prefix);
+                assertEquals(describe(index.complete(prefix, 40)), describe(built.complete(prefix, 40)), "prefix " + prefix);
+            }
+
+            built.add(Kind.TITLE, "12 new", 1000);
+            assertEquals("12 new", built.complete("12", 1).get(0).getText());
+        }
+    }
+
+    private static List<String> describe(List<Suggestion> suggestions) {
+        return suggestions.stream().map(s -> s + "/" + s.getWeight() + "/" + s.getPosts()).toList();
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).toList();
+    }
+}
@@ -0,0 +1,128 @@
+import org.example.bloggingapp.Services.BatchLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BatchLoader Tests")
+class BatchLoaderTest {
+
+    private List<Set<Integer>> batches;
+    private BatchLoader<Integer, String> loader;
+
+    @BeforeEach
+    void setUp() {
+        batches = new ArrayList<>();
+        loader = new BatchLoader<>(keys -> {
+            batches.add(keys);
+            Map<Integer, String> values = new HashMap<>();
+            for (Integer key : keys) {
+                if (key % 2 == 0) {
+                    values.put(key, "value" + key);
+                }
+            }
+            return values;
+        }, "missing");
+    }
+
+    @Nested
+    @DisplayName("Batching Tests")
+    class BatchingTests {
+
+        @Test
+        @DisplayName("Should not fetch anything before dispatch")
+        void shouldNotFetchBeforeDispatch() {
+            CompletableFuture<String> future = loader.load(2);
+
+            assertFalse(future.isDone());
+            assertTrue(loader.hasPending());
+            assertTrue(batches.isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should resolve all pending keys with one batch")
+        void shouldResolveAllPendingKeysWithOneBatch() {
+            CompletableFuture<String> first = loader.load(2);
+            CompletableFuture<String> second = loader.load(4);
+            CompletableFuture<String> duplicate = loader.load(2);
+
+            assertTrue(loader.dispatch());
+
+            assertEquals(1, batches.size());
+            assertEquals(Set.of(2, 4), batches.get(0));
+            assertEquals("value2", first.join());
+            assertEquals("value4", second.join());
+            assertSame(first, duplicate);
+        }
+
+        @Test
+        @DisplayName("Should use missing value for keys not returned by the batch")
+        void shouldUseMissingValueForUnknownKeys() {
+            CompletableFuture<String> future = loader.load(3);
+            loader.dispatch();
+
+            assertEquals("missing", future.join());
+        }
+
+        @Test
+        @DisplayName("Should serve repeated keys from the memo")
+        void shouldServeRepeatedKeysFromMemo() {
+            loader.load(2);
+            loader.dispatch();
+
+            CompletableFuture<String> again = loader.load(2);
+
+            assertTrue(again.isDone());
+            assertFalse(loader.dispatch());
+            assertEquals(1, loader.getBatchCount());
+        }
+
+        @Test
+        @DisplayName("Should combine several keys with loadMany")
+        void shouldCombineKeysWithLoadMany() {
+            CompletableFuture<Map<Integer, String>> future = loader.loadMany(List.of(2, 3, 4));
+            loader.dispatch();
+
+            Map<Integer, String> values = future.join();
+            assertEquals("value2", values.get(2));
+            assertEquals("missing", values.get(3));
+            assertEquals("value4", values.get(4));
+            assertEquals(1, batches.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Error Handling Tests")
+    class ErrorHandlingTests {
+
+        @Test
+        @DisplayName("Should fail pending futures and allow retry when the batch throws")
+        void shouldFailPendingFuturesAndAllowRetry() {
+            int[] calls = {0};
+            BatchLoader<Integer, String> failing = new BatchLoader<>(keys -> {
+                if (calls[0]++ == 0) {
+                    throw new IllegalStateException("database down");
+                }
+                return Map.of(1, "recovered");
+            }, null);
+
+            CompletableFuture<String> future = failing.load(1);
+            failing.dispatch();
+
+            assertTrue(future.isCompletedExceptionally());
+
+            CompletableFuture<String> retry = failing.load(1);
+            failing.dispatch();
+            assertEquals("recovered", retry.join());
+        }
+    }
+}
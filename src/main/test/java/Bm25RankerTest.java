@@ -0,0 +1,103 @@
+import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Search.Bm25Ranker;
+import org.example.bloggingapp.Search.InvertedIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Bm25Ranker Tests")
+class Bm25RankerTest {
+
+    @Nested
+    @DisplayName("Scoring Tests")
+    class ScoringTests {
+
+        @Test
+        @DisplayName("Should rank a title match above a content match")
+        void shouldBoostTitleMatches() {
+            InvertedIndex.Builder builder = new InvertedIndex.Builder();
+            builder.add(post(1), List.of("cooking", "pasta", "java"), List.of("cooking"), null, List.of());
+            builder.add(post(2), List.of("java", "streams", "tips"), List.of("java"), null, List.of());
+            builder.add(post(3), List.of("gardening", "tips"), List.of("gardening"), null, List.of());
+
+            Bm25Ranker.TopDocs top = new Bm25Ranker(builder.build()).topK(List.of("java"), List.of(), List.of(), 10);
+
+            assertArrayEquals(new int[]{2, 1}, top.getDocIds());
+            assertEquals(2, top.getTotalHits());
+        }
+
+        @Test
+        @DisplayName("Should rank repeated terms and rarer terms higher")
+        void shouldUseFrequencyAndIdf() {
+            InvertedIndex.Builder builder = new InvertedIndex.Builder();
+            builder.add(post(1), List.of("java", "spring"), List.of(), null, List.of());
+            builder.add(post(2), List.of("java", "java", "java", "spring"), List.of(), null, List.of());
+            builder.add(post(3), List.of("kotlin", "spring"), List.of(), null, List.of());
+            builder.add(post(4), List.of("spring", "boot"), List.of(), null, List.of());
+
+            Bm25Ranker ranker = new Bm25Ranker(builder.build());
+
+            assertArrayEquals(new int[]{2, 1}, ranker.topK(List.of("java"), List.of(), List.of(), 10).getDocIds());
+            // "kotlin" is in one post, "spring" in all of them
+            assertEquals(3, ranker.topK(List.of("kotlin", "spring"), List.of(), List.of(), 1).getDocIds()[0]);
+        }
+
+        @Test
+        @DisplayName("Should match authors and tags")
+        void shouldMatchAuthorsAndTags() {
+            InvertedIndex.Builder builder = new InvertedIndex.Builder();
+            builder.add(post(1), List.of("hello"), List.of(), "jane doe", List.of());
+            builder.add(post(2), List.of("hello"), List.of(), null, List.of("jane"));
+
+            Bm25Ranker.TopDocs top = new Bm25Ranker(builder.build())
+                    .topK(List.of("jane"), List.of("jane doe"), List.of("jane"), 10);
+
+            assertEquals(2, top.getTotalHits());
+        }
+    }
+
+    @Nested
+    @DisplayName("Top-k Tests")
+    class TopKTests {
+
+        @Test
+        @DisplayName("Should return the same best posts as ranking every match")
+        void shouldMatchExhaustiveRanking() {
+            Random random = new Random(7);
+            InvertedIndex.Builder builder = new InvertedIndex.Builder();
+            for (int postId = 1; postId <= 2000; postId++) {
+                List<String> words = new ArrayList<>();
+                int length = 5 + random.nextInt(40);
+                for (int i = 0; i < length; i++) {
+                    // Skewed so some words are common and others rare
+                    words.add("w" + (int) Math.pow(random.nextInt(60), 2) / 10);
+                }
+                builder.add(post(postId), words, words.subList(0, 2), null, List.of());
+            }
+            Bm25Ranker ranker = new Bm25Ranker(builder.build());
+
+            List<String> query = List.of("w0", "w12", "w250");
+            Bm25Ranker.TopDocs all = ranker.topK(query, List.of(), List.of(), 2000);
+            Bm25Ranker.TopDocs top = ranker.topK(query, List.of(), List.of(), 15);
+
+            assertEquals(all.getTotalHits(), all.getDocIds().length);
+            assertEquals(all.getTotalHits(), top.getTotalHits());
+            assertArrayEquals(Arrays.copyOf(all.getDocIds(), 15), top.getDocIds());
+            for (int i = 1; i < all.getScores().length; i++) {
+                assertTrue(all.getScores()[i - 1] >= all.getScores()[i]);
+            }
+        }
+    }
+
+    private static PostEntity post(int postId) {
+        return new PostEntity(postId, "Post " + postId, "content", LocalDateTime.now(), 1, "Published", 0, null);
+    }
+}
@@ -0,0 +1,122 @@
+import org.example.bloggingapp.Database.ChangeFeed.ChangeEvent;
+import org.example.bloggingapp.Database.ChangeFeed.ChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ChangeFeed Tests")
+class ChangeFeedTest {
+
+    @Nested
+    @DisplayName("Payload Parsing Tests")
+    class PayloadParsingTests {
+
+        @Test
+        @DisplayName("Should parse payload with related key")
+        void shouldParsePayloadWithRelatedKey() {
+            ChangeEvent event = ChangeEvent.parse("42|comments|I|7|3");
+
+            assertEquals(42, event.getChangeId());
+            assertEquals("comments", event.getTable());
+            assertEquals(ChangeEvent.Operation.INSERT, event.getOperation());
+            assertEquals(7, event.getRowId());
+            assertEquals(3, event.getSecondaryId());
+        }
+
+        @Test
+        @DisplayName("Should parse payload without related key")
+        void shouldParsePayloadWithoutRelatedKey() {
+            ChangeEvent event = ChangeEvent.parse("5|posts|D|9|");
+
+            assertEquals(ChangeEvent.Operation.DELETE, event.getOperation());
+            assertEquals(0, event.getSecondaryId());
+        }
+
+        @Test
+        @DisplayName("Should reject malformed payloads")
+        void shouldRejectMalformedPayloads() {
+            assertThrows(IllegalArgumentException.class, () -> ChangeEvent.parse("posts|U|1"));
+            assertThrows(IllegalArgumentException.class, () -> ChangeEvent.parse("x|posts|U|1|"));
+            assertThrows(IllegalArgumentException.class, () -> ChangeEvent.parse("1|posts|X|1|"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Coalescing Tests")
+    class CoalescingTests {
+
+        @Test
+        @DisplayName("Should keep only the latest change per row")
+        void shouldKeepLatestChangePerRow() {
+            List<ChangeEvent> coalesced = ChangeFeed.coalesce(List.of(
+                    ChangeEvent.parse("1|posts|I|10|"),
+                    ChangeEvent.parse("2|posts|U|11|"),
+                    ChangeEvent.parse("3|posts|U|10|"),
+                    ChangeEvent.parse("4|posts|D|10|")));
+
+            assertEquals(2, coalesced.size());
+            assertEquals(11, coalesced.get(0).getRowId());
+            assertEquals(ChangeEvent.Operation.DELETE, coalesced.get(1).getOperation());
+            assertEquals(4, coalesced.get(1).getChangeId());
+        }
+
+        @Test
+        @DisplayName("Should treat links with different related keys as different rows")
+        void shouldDistinguishRelatedKeys() {
+            List<ChangeEvent> coalesced = ChangeFeed.coalesce(List.of(
+                    ChangeEvent.parse("1|post_tags|I|5|1"),
+                    ChangeEvent.parse("2|post_tags|I|5|2")));
+
+            assertEquals(2, coalesced.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Dispatch Tests")
+    class DispatchTests {
+
+        @Test
+        @DisplayName("Should apply a change that commits after one with a higher ID, but only once")
+        void shouldApplyLateCommits() {
+            ChangeFeed feed = new ChangeFeed(null);
+            List<Long> applied = new ArrayList<>();
+            feed.addListener("posts", events -> events.forEach(event -> applied.add(event.getChangeId())));
+
+            feed.dispatch(List.of(ChangeEvent.parse("5|posts|U|1|")));
+            feed.dispatch(List.of(ChangeEvent.parse("4|posts|U|2|")));
+            feed.dispatch(List.of(ChangeEvent.parse("4|posts|U|2|"), ChangeEvent.parse("5|posts|U|1|")));
+
+            assertEquals(List.of(5L, 4L), applied);
+            assertEquals(5, feed.getHighWaterMark());
+        }
+
+        @Test
+        @DisplayName("Should retry a failed change and hold the mark below it")
+        void shouldRetryFailedChanges() {
+            ChangeFeed feed = new ChangeFeed(null);
+            List<Long> applied = new ArrayList<>();
+            boolean[] failing = {true};
+            feed.addListener("comments", events -> {
+                if (failing[0]) {
+                    throw new IllegalStateException("cache unavailable");
+                }
+                events.forEach(event -> applied.add(event.getChangeId()));
+            });
+
+            feed.dispatch(List.of(ChangeEvent.parse("1|posts|U|1|")));
+            feed.dispatch(List.of(ChangeEvent.parse("2|comments|I|7|1"), ChangeEvent.parse("3|posts|U|1|")));
+            assertEquals(1, feed.getHighWaterMark());
+
+            failing[0] = false;
+            feed.dispatch(List.of());
+
+            assertEquals(List.of(2L), applied);
+            assertEquals(3, feed.getHighWaterMark());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+import org.example.bloggingapp.Database.DbInterfaces.RowMapper;
+import org.example.bloggingapp.Database.Jdbc.CompiledRowMapper;
+import org.example.bloggingapp.Database.Repositories.EntityMappers;
+import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Models.TagEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompiledRowMapper Tests")
+class CompiledRowMapperTest {
+
+    private int metadataReads;
+    private int lookupsByName;
+
+    @BeforeEach
+    void setUp() {
+        metadataReads = 0;
+        lookupsByName = 0;
+    }
+
+    @Nested
+    @DisplayName("Column Resolution Tests")
+    class ColumnResolutionTests {
+
+        @Test
+        @DisplayName("Should read metadata once per result set and never look columns up by name")
+        void shouldResolveColumnsOncePerResultSet() throws Exception {
+            ResultSet resultSet = resultSet(List.of("tag_id", "name"),
+                    new Object[]{1, "java"}, new Object[]{2, "sql"}, new Object[]{3, "fx"});
+            CompiledRowMapper<TagEntity> mapper = new CompiledRowMapper<>("tag", columns -> {
+                int tagId = columns.require("tag_id");
+                int name = columns.require("name");
+                return rs -> new TagEntity(rs.getInt(tagId), rs.getString(name));
+            });
+
+            List<String> names = new ArrayList<>();
+            RowMapper<TagEntity> rows = mapper.bind(resultSet);
+            while (resultSet.next()) {
+                names.add(rows.map(resultSet).getName());
+            }
+
+            assertEquals(List.of("java", "sql", "fx"), names);
+            assertEquals(1, metadataReads);
+            assertEquals(0, lookupsByName);
+        }
+
+        @Test
+        @DisplayName("Should compile one mapper per column layout")
+        void shouldCacheMapperPerShape() throws Exception {
+            CompiledRowMapper<TagEntity> mapper = new CompiledRowMapper<>("tag", columns -> {
+                int tagId = columns.require("tag_id");
+                int name = columns.require("name");
+                return rs -> new TagEntity(rs.getInt(tagId), rs.getString(name));
+            });
+
+            ResultSet selectStar = resultSet(List.of("tag_id", "name"), new Object[]{1, "java"});
+            ResultSet projection = resultSet(List.of("name", "uses", "tag_id"), new Object[]{"sql", 7, 2});
+            ResultSet selectStarAgain = resultSet(List.of("tag_id", "name"), new Object[]{3, "fx"});
+
+            assertEquals("java", mapFirst(mapper, selectStar).getName());
+            assertEquals(2, mapFirst(mapper, projection).getTagId());
+            assertEquals("fx", mapFirst(mapper, selectStarAgain).getName());
+            assertEquals(2, mapper.getShapeCount());
+        }
+
+        @Test
+        @DisplayName("Should fail with the missing column name")
+        void shouldReportMissingColumn() throws Exception {
+            ResultSet resultSet = resultSet(List.of("tag_id"), new Object[]{1});
+
+            SQLException error = assertThrows(SQLException.class, () -> mapFirst(EntityMappers.TAG, resultSet));
+            assertTrue(error.getMessage().contains("name"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Entity Mapper Tests")
+    class EntityMapperTests {
+
+        @Test
+        @DisplayName("Should map posts with and without the version column")
+        void shouldTreatVersionAsOptional() throws Exception {
+            LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 30);
+            ResultSet withVersion = resultSet(List.of("post_id", "title", "content", "created_at", "user_id", "version"),
+                    new Object[]{4, "Title", "Body", createdAt, 9, 3});
+            ResultSet withoutVersion = resultSet(List.of("post_id", "title", "content", "created_at", "user_id"),
+                    new Object[]{5, "Other", "Text", createdAt, 9});
+
+            PostEntity versioned = mapFirst(EntityMappers.POST, withVersion);
+            PostEntity unversioned = mapFirst(EntityMappers.POST, withoutVersion);
+
+            assertEquals(3, versioned.getVersion());
+            assertEquals(createdAt, versioned.getCreatedAt());
+            assertEquals(0, unversioned.getVersion());
+            assertEquals("Other", unversioned.getTitle());
+        }
+
+        @Test
+        @DisplayName("Should map the views, status and author of a full post row")
+        void shouldMapAllPostColumns() throws Exception {
+            ResultSet row = resultSet(List.of("post_id", "title", "content", "created_at", "user_id", "views", "status",
+                            "author_name", "version"),
+                    new Object[]{4, "Title", "Body", LocalDateTime.of(2024, 5, 1, 12, 30), 9, 120, "Published", "Ann", 3});
+
+            PostEntity post = mapFirst(EntityMappers.POST, row);
+
+            assertEquals(120, post.getViews());
+            assertEquals("Published", post.getStatus());
+            assertEquals("Ann", post.getAuthorName());
+        }
+    }
+
+    private static <T> T mapFirst(CompiledRowMapper<T> mapper, ResultSet resultSet) throws SQLException {
+        assertTrue(resultSet.next());
+        return mapper.map(resultSet);
+    }
+
+    /**
+     * An in-memory result set that counts metadata reads and by-name lookups
+     */
+    private ResultSet resultSet(List<String> labels, Object[]... rows) {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> labels.size();
+                    case "getColumnLabel", "getColumnName" -> labels.get((Integer) args[0] - 1);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++cursor[0] < rows.length;
+                        case "getMetaData":
+                            metadataReads++;
+                            return metaData;
+                        case "getInt":
+                        case "getString":
+                        case "getObject":
+                            if (args[0] instanceof String) {
+                                lookupsByName++;
+                                return rows[cursor[0]][labels.indexOf(args[0])];
+                            }
+                            return rows[cursor[0]][(Integer) args[0] - 1];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,123 @@
+import org.example.bloggingapp.Search.FuzzyTermIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FuzzyTermIndex Tests")
+class FuzzyTermIndexTest {
+
+    @Nested
+    @DisplayName("Lookup Tests")
+    class LookupTests {
+
+        @Test
+        @DisplayName("Should map misspellings to indexed terms, closest first")
+        void shouldFindMisspellings() {
+            FuzzyTermIndex index = FuzzyTermIndex.of(List.of("programming", "programmer", "grammar", "java", "javafx", "lava"));
+
+            assertEquals(List.of("programming"), terms(index.lookup("progamming")));
+            assertEquals(List.of("programming"), terms(index.lookup("programing")));
+            assertEquals(List.of("programming", "programmer"), terms(index.lookup("programmeng")));
+            assertEquals(List.of("java", "javafx"), terms(index.lookup("javaf")));
+            assertTrue(index.lookup("python").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should not return the term itself or correct very short words")
+        void shouldSkipExactAndShortWords() {
+            FuzzyTermIndex index = FuzzyTermIndex.of(List.of("cat", "car", "java"));
+
+            assertTrue(index.lookup("java").isEmpty());
+            assertTrue(index.lookup("cat").isEmpty());
+            assertEquals(0, FuzzyTermIndex.maxEdits(3));
+            assertEquals(2, FuzzyTermIndex.maxEdits(10));
+        }
+
+        @Test
+        @DisplayName("Should find terms added after the build")
+        void shouldFindAddedTerms() {
+            FuzzyTermIndex index = FuzzyTermIndex.of(List.of("spring"));
+
+            index.addAll(List.of("kotlin", "spring", "coroutines"));
+
+            assertEquals(3, index.size());
+            assertEquals(List.of("kotlin"), terms(index.lookup("kotlim")));
+            assertEquals(List.of("coroutines"), terms(index.lookup("corutines")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Candidate Filter Tests")
+    class CandidateFilterTests {
+
+        @Test
+        @DisplayName("Should find the same terms as comparing against every term")
+        void shouldMatchBruteForce() {
+            Random random = new Random(3);
+            Set<String> dictionary = new LinkedHashSet<>();
+            while (dictionary.size() < 3000) {
+                dictionary.add(randomWord(random, 4 + random.nextInt(8)));
+            }
+            FuzzyTermIndex index = FuzzyTermIndex.of(dictionary);
+            List<String> words = new ArrayList<>(dictionary);
+
+            for (int i = 0; i < 300; i++) {
+                // Typos of indexed words, plus repeated letters that share few distinct trigrams
+                String query = i % 10 == 0 ? "aaaaaaab".substring(0, 4 + random.nextInt(4))
+                        : typo(words.get(random.nextInt(words.size())), random);
+                int maxEdits = FuzzyTermIndex.maxEdits(query.length());
+                List<String> expected = new ArrayList<>();
+                for (String word : words) {
+                    int distance = levenshtein(query, word);
+                    if (distance > 0 && distance <= maxEdits) {
+                        expected.add(word);
+                    }
+                }
+
+                assertEquals(expected.stream().sorted().toList(), terms(index.lookup(query)).stream().sorted().toList(),
+                        "query " + query);
+            }
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            // A small alphabet, so many words are close to each other
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+
+    private static String typo(String word, Random random) {
+        int at = random.nextInt(word.length());
+        return switch (random.nextInt(3)) {
+            case 0 -> word.substring(0, at) + word.substring(at + 1);
+            case 1 -> word.substring(0, at) + (char) ('a' + random.nextInt(6)) + word.substring(at);
+            default -> word.substring(0, at) + (char) ('a' + random.nextInt(6)) + word.substring(at + 1);
+        };
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                d[i][j] = i == 0 ? j : j == 0 ? i : Math.min(d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1),
+                        Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static List<String> terms(List<FuzzyTermIndex.Match> matches) {
+        return matches.stream().map(FuzzyTermIndex.Match::getTerm).toList();
+    }
+}
@@ -0,0 +1,144 @@
+import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Search.InvertedIndex;
+import org.example.bloggingapp.Search.ParallelIndexBuilder;
+import org.example.bloggingapp.Search.QueryEvaluator;
+import org.example.bloggingapp.Search.QueryParser;
+import org.example.bloggingapp.Search.TermIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ParallelIndexBuilder Tests")
+class ParallelIndexBuilderTest {
+
+    private ForkJoinPool pool;
+    private List<PostEntity> posts;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        Random random = new Random(5);
+        posts = new ArrayList<>();
+        for (int postId = 1; postId <= 500; postId++) {
+            StringBuilder content = new StringBuilder();
+            for (int w = 0; w < 30; w++) {
+                content.append("word").append(random.nextInt(random.nextBoolean() ? 10 : 300)).append(' ');
+            }
+            posts.add(new PostEntity(postId, "title" + random.nextInt(20), content.toString(), LocalDateTime.now(),
+                    1, "Published", 0, "author" + postId % 7));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Nested
+    @DisplayName("Merge Tests")
+    class MergeTests {
+
+        @Test
+        @DisplayName("Should build the same index as a single builder")
+        void shouldMatchSerialBuild() {
+            InvertedIndex serial = serialBuild(posts);
+
+            InvertedIndex parallel = parallelBuild(posts.stream(), 7);
+
+            assertSameIndex(serial, parallel);
+            assertArrayEquals(evaluate(serial, "\"word3 word4\" -author:author2"),
+                    evaluate(parallel, "\"word3 word4\" -author:author2"));
+        }
+
+        @Test
+        @DisplayName("Should merge segments whose posts are not in ID order")
+        void shouldMergeShuffledPosts() {
+            List<PostEntity> shuffled = new ArrayList<>(posts);
+            Collections.shuffle(shuffled, new Random(9));
+
+            InvertedIndex parallel = parallelBuild(shuffled.stream(), 13);
+
+            assertSameIndex(serialBuild(posts), parallel);
+        }
+
+        @Test
+        @DisplayName("Should build an empty index from no posts")
+        void shouldBuildEmptyIndex() {
+            InvertedIndex parallel = parallelBuild(Stream.empty(), 7);
+
+            assertEquals(0, parallel.docs().size());
+            assertEquals(0, parallel.keywords().getTermCount());
+        }
+
+        @Test
+        @DisplayName("Should rethrow a failure of a segment")
+        void shouldPropagateFailures() {
+            ParallelIndexBuilder<InvertedIndex.Builder> builder = new ParallelIndexBuilder<>(pool, 7,
+                    InvertedIndex.Builder::new, (segment, post) -> {
+                        if (post.getPostId() == 42) {
+                            throw new IllegalStateException("bad post");
+                        }
+                    });
+
+            IllegalStateException failure = assertThrows(IllegalStateException.class,
+                    () -> builder.build(posts.stream(), InvertedIndex::merge));
+            assertTrue(failure.getMessage().contains("bad post"), failure.getMessage());
+        }
+    }
+
+    private InvertedIndex parallelBuild(Stream<PostEntity> stream, int segmentSize) {
+        InvertedIndex.Builder first = new InvertedIndex.Builder();
+        return new ParallelIndexBuilder<>(pool, segmentSize, first::newSegment, ParallelIndexBuilderTest::add)
+                .build(stream, InvertedIndex::merge);
+    }
+
+    private static InvertedIndex serialBuild(List<PostEntity> posts) {
+        InvertedIndex.Builder builder = new InvertedIndex.Builder();
+        for (PostEntity post : posts) {
+            add(builder, post);
+        }
+        return builder.build();
+    }
+
+    private static void add(InvertedIndex.Builder builder, PostEntity post) {
+        builder.add(post, Arrays.asList(post.getContent().split(" ")), List.of(post.getTitle()),
+                post.getAuthorName(), List.of());
+    }
+
+    private static void assertSameIndex(InvertedIndex expected, InvertedIndex actual) {
+        assertEquals(expected.docs().size(), actual.docs().size());
+        assertSameField(expected.keywords(), actual.keywords());
+        assertSameField(expected.titles(), actual.titles());
+        assertSameField(expected.authors(), actual.authors());
+        assertEquals(expected.fuzzyKeywords().size(), actual.fuzzyKeywords().size());
+    }
+
+    private static void assertSameField(TermIndex expected, TermIndex actual) {
+        assertEquals(expected.terms(), actual.terms());
+        for (String term : expected.terms()) {
+            assertEquals(expected.get(term), actual.get(term), term);
+            assertArrayEquals(expected.get(term).freqsToArray(), actual.get(term).freqsToArray(), term);
+        }
+        for (int postId = 0; postId <= 501; postId++) {
+            assertEquals(expected.lengths().get(postId), actual.lengths().get(postId));
+        }
+        assertEquals(expected.lengths().getAverage(), actual.lengths().getAverage(), 1e-9);
+    }
+
+    private static int[] evaluate(InvertedIndex index, String query) {
+        return new QueryEvaluator(index).evaluate(QueryParser.parse(query));
+    }
+}
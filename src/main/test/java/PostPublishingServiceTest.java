@@ -0,0 +1,167 @@
+import org.example.bloggingapp.Database.DbInterfaces.IConnection;
+import org.example.bloggingapp.Database.Repositories.PostRepository;
+import org.example.bloggingapp.Database.Repositories.PostTagRepository;
+import org.example.bloggingapp.Database.Repositories.TagRepository;
+import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Models.TagEntity;
+import org.example.bloggingapp.Services.PostPublishingService;
+import org.example.bloggingapp.Services.PostService;
+import org.example.bloggingapp.Utils.Exceptions.DatabaseException;
+import org.example.bloggingapp.Utils.Exceptions.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PostPublishingService Tests")
+class PostPublishingServiceTest {
+
+    @Nested
+    @DisplayName("Hashtag Extraction Tests")
+    class HashtagExtractionTests {
+
+        @Test
+        @DisplayName("Should extract distinct lower-cased hashtags in order")
+        void shouldExtractDistinctLowerCasedHashtags() {
+            List<String> tags = PostPublishingService.extractHashtags("Loving #Java and #javafx with more #JAVA soon");
+
+            assertEquals(List.of("java", "javafx"), tags);
+        }
+
+        @Test
+        @DisplayName("Should ignore bare hash signs and null content")
+        void shouldIgnoreBareHashSignsAndNullContent() {
+            assertTrue(PostPublishingService.extractHashtags("# nothing here").isEmpty());
+            assertTrue(PostPublishingService.extractHashtags(null).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Publish Tests")
+    class PublishTests {
+
+        private List<String> transaction;
+        private List<String> upsertedNames;
+        private List<Integer> linkedTagIds;
+        private boolean failLinks;
+        private PostService postService;
+        private PostPublishingService publishingService;
+
+        @BeforeEach
+        void setUp() {
+            transaction = new ArrayList<>();
+            upsertedNames = new ArrayList<>();
+            linkedTagIds = new ArrayList<>();
+            failLinks = false;
+            postService = new PostService(null);
+            publishingService = new PostPublishingService(new FakePostRepository(), new FakeTagRepository(),
+                    new FakePostTagRepository(), postService);
+        }
+
+        @Test
+        @DisplayName("Should insert the post and link its normalized tags in one transaction")
+        void shouldPersistPostWithTags() throws Exception {
+            PostEntity post = newPost();
+            String longTag = "x".repeat(PostPublishingService.MAX_TAG_LENGTH + 1);
+
+            PostEntity published = publishingService.publish(post, Arrays.asList("Java", " javafx ", "JAVA", longTag, null, ""));
+
+            assertEquals(42, published.getPostId());
+            assertEquals(List.of("java", "javafx"), upsertedNames);
+            assertEquals(List.of(1, 2), linkedTagIds);
+            assertEquals(List.of("begin", "insert post", "upsert tags", "link tags", "commit", "close"), transaction);
+            assertSame(post, postService.findById(42));
+        }
+
+        @Test
+        @DisplayName("Should roll back the post when linking its tags fails")
+        void shouldRollBackOnFailure() {
+            failLinks = true;
+
+            DatabaseException exception = assertThrows(DatabaseException.class,
+                    () -> publishingService.publish(newPost(), List.of("java")));
+
+            assertEquals("POST_PUBLISH_ERROR", exception.getErrorCode());
+            assertFalse(transaction.contains("commit"));
+            assertTrue(transaction.contains("rollback"));
+            assertEquals("close", transaction.get(transaction.size() - 1));
+        }
+
+        @Test
+        @DisplayName("Should reject an invalid post before opening a transaction")
+        void shouldValidateBeforeTransaction() {
+            PostEntity post = newPost();
+            post.setTitle(" ");
+
+            assertThrows(ValidationException.class, () -> publishingService.publish(post, List.of("java")));
+            assertTrue(transaction.isEmpty());
+        }
+
+        private PostEntity newPost() {
+            return new PostEntity(0, "Hello", "Hello #Java", LocalDateTime.now(), 1);
+        }
+
+        private Connection connection() {
+            transaction.add("begin");
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "commit", "rollback", "close" -> transaction.add(method.getName());
+                            default -> { }
+                        }
+                        return null;
+                    });
+        }
+
+        private class FakePostRepository extends PostRepository {
+            @Override
+            public IConnection getConnectionFactory() {
+                return PublishTests.this::connection;
+            }
+
+            @Override
+            public void create(Connection connection, PostEntity post) {
+                transaction.add("insert post");
+                post.setPostId(42);
+            }
+        }
+
+        private class FakeTagRepository extends TagRepository {
+            @Override
+            public Map<String, TagEntity> upsertByNames(Connection connection, Collection<String> names) {
+                transaction.add("upsert tags");
+                upsertedNames.addAll(names);
+                Map<String, TagEntity> tags = new LinkedHashMap<>();
+                for (String name : names) {
+                    tags.put(name, new TagEntity(tags.size() + 1, name));
+                }
+                return tags;
+            }
+        }
+
+        private class FakePostTagRepository extends PostTagRepository {
+            @Override
+            public void linkAll(Connection connection, int postId, Collection<Integer> tagIds) throws SQLException {
+                if (failLinks) {
+                    throw new SQLException("foreign key violation");
+                }
+                transaction.add("link tags");
+                assertEquals(42, postId);
+                linkedTagIds.addAll(tagIds);
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Search.InvertedIndex;
+import org.example.bloggingapp.Search.PostingList;
+import org.example.bloggingapp.Search.TermIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PostingList Tests")
+class PostingListTest {
+
+    @Nested
+    @DisplayName("Encoding Tests")
+    class EncodingTests {
+
+        @Test
+        @DisplayName("Should round-trip small and large gaps")
+        void shouldRoundTripGaps() {
+            int[] ids = {0, 1, 2, 130, 16_500, 2_000_000, Integer.MAX_VALUE};
+
+            PostingList list = PostingList.of(ids);
+
+            assertArrayEquals(ids, list.toArray());
+            assertEquals(7, list.size());
+            assertEquals(Integer.MAX_VALUE, list.getLastDoc());
+        }
+
+        @Test
+        @DisplayName("Should store dense IDs in about one byte each, plus skip pointers")
+        void shouldEncodeDenseIdsCompactly() {
+            int[] ids = new int[10_000];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = i * 3 + 1;
+            }
+
+            PostingList list = PostingList.of(ids);
+
+            // 8 bytes of skip pointers per SKIP_INTERVAL (64) entries
+            assertTrue(list.getEstimatedBytes() < 10_100 + 10_000 / 64 * 8, "was " + list.getEstimatedBytes());
+        }
+
+        @Test
+        @DisplayName("Should round-trip term frequencies")
+        void shouldRoundTripFrequencies() {
+            PostingList list = PostingList.of(new int[]{3, 7, 200}, new int[]{1, 5, 300}, 3);
+
+            assertArrayEquals(new int[]{3, 7, 200}, list.toArray());
+            assertArrayEquals(new int[]{1, 5, 300}, list.freqsToArray());
+            assertEquals(5, list.freq(7));
+            assertEquals(0, list.freq(8));
+        }
+
+        @Test
+        @DisplayName("Should sort and de-duplicate unsorted input")
+        void shouldNormalizeUnsortedInput() {
+            PostingList list = PostingList.fromUnsorted(new int[]{9, 3, 9, 1, 3}, 5);
+
+            assertArrayEquals(new int[]{1, 3, 9}, list.toArray());
+            assertArrayEquals(new int[]{1, 2, 2}, list.freqsToArray());
+        }
+
+        @Test
+        @DisplayName("Should reject unsorted input to of()")
+        void shouldRejectUnsortedInput() {
+            assertThrows(IllegalArgumentException.class, () -> PostingList.of(3, 2));
+            assertThrows(IllegalArgumentException.class, () -> PostingList.of(2, 2));
+        }
+    }
+
+    @Nested
+    @DisplayName("Cursor Tests")
+    class CursorTests {
+
+        @Test
+        @DisplayName("Should advance to the first ID at or after the target")
+        void shouldAdvanceToTarget() {
+            PostingList.Cursor cursor = PostingList.of(2, 5, 9, 14).cursor();
+
+            assertEquals(5, cursor.advance(3));
+            assertEquals(5, cursor.advance(5));
+            assertEquals(14, cursor.advance(10));
+            assertEquals(PostingList.NO_MORE_DOCS, cursor.advance(15));
+        }
+
+        @Test
+        @DisplayName("Should skip across blocks of long and appended lists")
+        void shouldSkipAcrossBlocks() {
+            int[] ids = new int[1_000];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = i * 7 + (i % 3);
+            }
+            PostingList list = PostingList.of(ids);
+            for (int id = ids[ids.length - 1] + 5; id < ids[ids.length - 1] + 500; id += 5) {
+                list = list.with(id);
+            }
+            int[] all = list.toArray();
+
+            for (int step = 1; step < 3_000; step += 97) {
+                PostingList.Cursor cursor = list.cursor();
+                int next = 0;
+                for (int target = 0; target <= all[all.length - 1] + 1; target += step) {
+                    while (next < all.length && all[next] < target) {
+                        next++;
+                    }
+                    int expected = next == all.length ? PostingList.NO_MORE_DOCS : all[next];
+                    assertEquals(expected, cursor.advance(target), "target " + target + " step " + step);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should answer membership queries")
+        void shouldAnswerContains() {
+            PostingList list = PostingList.of(2, 5, 9);
+
+            assertTrue(list.contains(5));
+            assertFalse(list.contains(6));
+            assertFalse(list.contains(100));
+            assertFalse(PostingList.EMPTY.contains(0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Update Tests")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should add and remove IDs without changing the original list")
+        void shouldCopyOnWrite() {
+            PostingList original = PostingList.of(2, 5, 9);
+
+            PostingList appended = original.with(12);
+            PostingList inserted = original.with(3);
+            PostingList removed = original.without(5);
+
+            assertArrayEquals(new int[]{2, 5, 9}, original.toArray());
+            assertArrayEquals(new int[]{2, 5, 9, 12}, appended.toArray());
+            assertArrayEquals(new int[]{2, 3, 5, 9}, inserted.toArray());
+            assertArrayEquals(new int[]{2, 9}, removed.toArray());
+            assertSame(original, original.with(5));
+            assertSame(original, original.without(4));
+        }
+
+        @Test
+        @DisplayName("Should merge and subtract lists")
+        void shouldMergeAndSubtract() {
+            PostingList first = PostingList.of(1, 4, 9);
+            PostingList second = PostingList.of(2, 4, 12);
+
+            assertArrayEquals(new int[]{1, 2, 4, 9, 12}, PostingList.union(first, second).toArray());
+            assertArrayEquals(new int[]{1, 9}, first.minus(second).toArray());
+            assertSame(first, first.minus(PostingList.of(3, 5)));
+            assertSame(first, PostingList.union(first, PostingList.EMPTY));
+            assertEquals(3, PostingList.union(first, PostingList.EMPTY.with(4, 3)).freq(4));
+        }
+
+        @Test
+        @DisplayName("Should drop a term once its last post is removed and marked stale")
+        void shouldDropEmptyTerms() {
+            TermIndex.Tombstones tombstones = new TermIndex.Tombstones();
+            TermIndex.Builder builder = new TermIndex.Builder();
+            builder.add("java", 4);
+            builder.add("java", 4);
+            builder.add("java", 1);
+            TermIndex index = builder.build(tombstones);
+
+            assertArrayEquals(new int[]{1, 4}, index.get("java").toArray());
+
+            index.remove("java", 1);
+            index.remove("java", 4);
+            tombstones.add(1);
+            tombstones.add(4);
+
+            assertFalse(index.contains("java"));
+            assertTrue(index.get("java").isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Incremental Index Tests")
+    class IncrementalIndexTests {
+
+        private InvertedIndex index;
+
+        @BeforeEach
+        void setUp() {
+            InvertedIndex.Builder builder = new InvertedIndex.Builder();
+            builder.add(post(1), List.of("java", "streams"), List.of(), "alice", List.of());
+            builder.add(post(2), List.of("java", "records"), List.of(), "bob", List.of());
+            index = builder.build();
+        }
+
+        @Test
+        @DisplayName("Should hide the old terms of an updated post before compaction")
+        void shouldReplaceTermsOnUpdate() {
+            // Post 1 now covers records instead of java and streams
+            index.keywords().add("records", 1);
+            index.keywords().remove("java", 1);
+            index.keywords().remove("streams", 1);
+            index.markStale(1);
+
+            assertArrayEquals(new int[]{2}, index.keywords().get("java").toArray());
+            assertTrue(index.keywords().get("streams").isEmpty());
+            assertArrayEquals(new int[]{1, 2}, index.keywords().get("records").toArray());
+            assertArrayEquals(new int[]{1}, index.authors().get("alice").toArray());
+            assertTrue(index.getPendingTermCount() > 0);
+        }
+
+        @Test
+        @DisplayName("Should return the same postings after compaction")
+        void shouldCompactWithoutChangingResults() {
+            index.keywords().add("streams", 1);
+            index.keywords().add("records", 1);
+            index.keywords().remove("java", 1);
+            index.keywords().add("java", 3);
+            index.markStale(1);
+
+            index.compact();
+
+            assertArrayEquals(new int[]{2, 3}, index.keywords().get("java").toArray());
+            assertArrayEquals(new int[]{1, 2}, index.keywords().get("records").toArray());
+            assertArrayEquals(new int[]{1}, index.keywords().get("streams").toArray());
+            assertEquals(0, index.getPendingTermCount());
+            assertEquals(0, index.getStaleCount());
+        }
+
+        private PostEntity post(int postId) {
+            return new PostEntity(postId, "Post " + postId, "content", LocalDateTime.now(), 1, "Published", 0, null);
+        }
+    }
+}
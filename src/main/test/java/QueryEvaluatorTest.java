@@ -0,0 +1,132 @@
+import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Search.InvertedIndex;
+import org.example.bloggingapp.Search.QueryEvaluator;
+import org.example.bloggingapp.Search.QueryParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("QueryEvaluator Tests")
+class QueryEvaluatorTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex.Builder()
+                .add(post(1), words("java virtual threads explained"), words("virtual threads"), "ann", words("java"))
+                .add(post(2), words("threads virtual java"), words("threads"), "bob", words("java", "concurrency"))
+                .add(post(3), words("kotlin coroutines and virtual threads"), words("kotlin"), "ann", words("kotlin"))
+                .add(post(4), words("cooking pasta"), words("pasta"), "jane doe", words("food"))
+                .build();
+    }
+
+    @Nested
+    @DisplayName("Operator Tests")
+    class OperatorTests {
+
+        @Test
+        @DisplayName("Should intersect, unite and exclude posting lists")
+        void shouldEvaluateOperators() {
+            assertArrayEquals(new int[]{1, 2}, evaluate("java threads"));
+            assertArrayEquals(new int[]{1, 2, 3}, evaluate("java OR kotlin"));
+            assertArrayEquals(new int[]{3}, evaluate("threads -java"));
+            assertArrayEquals(new int[]{1, 3}, evaluate("threads -(bob OR author:bob)"));
+            assertArrayEquals(new int[0], evaluate("java missing"));
+        }
+
+        @Test
+        @DisplayName("Should match phrases only in order and next to each other")
+        void shouldMatchPhrases() {
+            assertArrayEquals(new int[]{1, 3}, evaluate("\"virtual threads\""));
+            assertArrayEquals(new int[]{2}, evaluate("\"threads virtual\""));
+            assertArrayEquals(new int[]{1}, evaluate("\"virtual threads\" -kotlin java"));
+            assertArrayEquals(new int[0], evaluate("\"java threads\""));
+        }
+
+        @Test
+        @DisplayName("Should restrict terms to their field")
+        void shouldSearchFields() {
+            assertArrayEquals(new int[]{1, 3}, evaluate("author:ann"));
+            assertArrayEquals(new int[]{4}, evaluate("author:\"Jane Doe\""));
+            assertArrayEquals(new int[]{2}, evaluate("#concurrency"));
+            assertArrayEquals(new int[]{1}, evaluate("title:\"virtual threads\""));
+            assertArrayEquals(new int[]{2}, evaluate("title:threads -title:virtual"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Intersection Tests")
+    class IntersectionTests {
+
+        @Test
+        @DisplayName("Should match a scan of every post on a larger corpus")
+        void shouldMatchBruteForce() {
+            Random random = new Random(11);
+            String[] vocabulary = {"alpha", "beta", "gamma", "delta", "omega", "sigma"};
+            InvertedIndex.Builder builder = new InvertedIndex.Builder();
+            List<List<String>> contents = new ArrayList<>();
+            for (int postId = 0; postId < 2_000; postId++) {
+                List<String> content = new ArrayList<>();
+                for (String word : vocabulary) {
+                    // Skewed frequencies, so clauses differ in cost
+                    if (random.nextInt(vocabulary.length * 2) < vocabulary.length * 2 - content.size() * 3 - 1) {
+                        content.add(word);
+                    }
+                }
+                Collections.shuffle(content, random);
+                contents.add(content);
+                builder.add(post(postId), content, List.of(), null, List.of());
+            }
+            index = builder.build();
+
+            for (String query : List.of("alpha beta", "gamma -delta", "(alpha OR omega) sigma -beta",
+                    "\"alpha beta\" gamma", "delta OR \"omega sigma\"")) {
+                List<Integer> expected = new ArrayList<>();
+                for (int postId = 0; postId < contents.size(); postId++) {
+                    if (matches(query, contents.get(postId))) {
+                        expected.add(postId);
+                    }
+                }
+                assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), evaluate(query), query);
+            }
+        }
+
+        private boolean matches(String query, List<String> content) {
+            String text = " " + String.join(" ", content) + " ";
+            return switch (query) {
+                case "alpha beta" -> content.contains("alpha") && content.contains("beta");
+                case "gamma -delta" -> content.contains("gamma") && !content.contains("delta");
+                case "(alpha OR omega) sigma -beta" -> (content.contains("alpha") || content.contains("omega"))
+                        && content.contains("sigma") && !content.contains("beta");
+                case "\"alpha beta\" gamma" -> text.contains(" alpha beta ") && content.contains("gamma");
+                default -> content.contains("delta") || text.contains(" omega sigma ");
+            };
+        }
+    }
+
+    private int[] evaluate(String query) {
+        return new QueryEvaluator(index).evaluate(QueryParser.parse(query));
+    }
+
+    private static List<String> words(String... words) {
+        List<String> terms = new ArrayList<>();
+        for (String word : words) {
+            Collections.addAll(terms, word.split(" "));
+        }
+        return terms;
+    }
+
+    private static PostEntity post(int postId) {
+        return new PostEntity(postId, "Post " + postId, "content", LocalDateTime.now(), 1, "Published", 0, null);
+    }
+}
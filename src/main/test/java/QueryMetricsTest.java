@@ -0,0 +1,116 @@
+import org.example.bloggingapp.Database.Jdbc.LatencyHistogram;
+import org.example.bloggingapp.Database.Jdbc.QueryMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("QueryMetrics Tests")
+class QueryMetricsTest {
+
+    private QueryMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = QueryMetrics.getInstance();
+        metrics.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        metrics.setSlowQueryThresholdMillis(200);
+        metrics.setBindSampleRate(10);
+        metrics.reset();
+    }
+
+    @Nested
+    @DisplayName("SQL Shape Tests")
+    class SqlShapeTests {
+
+        @Test
+        @DisplayName("Should replace inlined literals with placeholders")
+        void shouldReplaceInlinedLiterals() {
+            assertEquals("SELECT * FROM posts WHERE post_id = ?",
+                    QueryMetrics.shapeOf("SELECT * FROM posts WHERE post_id = 42"));
+            assertEquals("SELECT * FROM users WHERE user_name = ?",
+                    QueryMetrics.shapeOf("SELECT * FROM users WHERE user_name = 'o''brien'"));
+        }
+
+        @Test
+        @DisplayName("Should keep digits inside identifiers and collapse whitespace")
+        void shouldKeepIdentifiersAndCollapseWhitespace() {
+            assertEquals("SELECT col1 FROM t2 LIMIT ?", QueryMetrics.shapeOf("SELECT col1\n  FROM t2   LIMIT 10"));
+        }
+
+        @Test
+        @DisplayName("Should aggregate statements with different literals together")
+        void shouldAggregateByShape() {
+            assertSame(metrics.statsFor("DELETE FROM posts WHERE post_id = 1"),
+                    metrics.statsFor("DELETE FROM posts WHERE post_id = 2"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Histogram Tests")
+    class HistogramTests {
+
+        @Test
+        @DisplayName("Should report percentiles within bucket precision")
+        void shouldReportPercentiles() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 0; i < 99; i++) {
+                histogram.record(1_000_000); // 1 ms
+            }
+            histogram.record(100_000_000); // 100 ms
+
+            assertEquals(100, histogram.getCount());
+            assertTrue(histogram.getPercentileMillis(0.5) >= 1.0 && histogram.getPercentileMillis(0.5) <= 2.1);
+            assertEquals(100.0, histogram.getPercentileMillis(1.0), 0.001);
+            assertEquals(100.0, histogram.getMaxMillis(), 0.001);
+        }
+
+        @Test
+        @DisplayName("Should return zero with no samples")
+        void shouldReturnZeroWithNoSamples() {
+            assertEquals(0.0, new LatencyHistogram().getPercentileMillis(0.99));
+        }
+    }
+
+    @Nested
+    @DisplayName("Slow Query Log Tests")
+    class SlowQueryLogTests {
+
+        @Test
+        @DisplayName("Should log slow statements and sample their binds")
+        void shouldLogSlowStatementsAndSampleBinds() {
+            metrics.setSlowQueryThresholdMillis(10);
+            metrics.setBindSampleRate(1);
+            QueryMetrics.StatementStats stats = metrics.statsFor("SELECT * FROM posts WHERE title = ?");
+
+            metrics.recordExecution(stats, 5_000_000, false, new Object[]{null, "fast"});
+            metrics.recordExecution(stats, 50_000_000, false, new Object[]{null, "slow"});
+
+            List<QueryMetrics.SlowQuery> slowQueries = metrics.getSlowQueries();
+            assertEquals(1, slowQueries.size());
+            assertEquals("['slow']", slowQueries.get(0).getBinds());
+            assertEquals(2, stats.getLatency().getCount());
+        }
+
+        @Test
+        @DisplayName("Should redact binds of password statements")
+        void shouldRedactPasswordBinds() {
+            metrics.setSlowQueryThresholdMillis(0);
+            metrics.setBindSampleRate(1);
+            QueryMetrics.StatementStats stats = metrics.statsFor("UPDATE users SET password = ? WHERE user_id = ?");
+
+            metrics.recordExecution(stats, 1_000_000, false, new Object[]{null, "secret", 7});
+
+            assertFalse(metrics.getSlowQueries().get(0).getBinds().contains("secret"));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import org.example.bloggingapp.Search.Query;
+import org.example.bloggingapp.Search.QueryParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("QueryParser Tests")
+class QueryParserTest {
+
+    @Nested
+    @DisplayName("Syntax Tests")
+    class SyntaxTests {
+
+        @Test
+        @DisplayName("Should read implicit AND, OR and exclusions with AND binding tighter")
+        void shouldParseOperators() {
+            assertEquals("+java +streams", parse("Java streams"));
+            assertEquals("+java +streams", parse("java AND streams"));
+            assertEquals("(+java +streams OR kotlin)", parse("java streams OR kotlin"));
+            assertEquals("+(java OR kotlin) -android", parse("(java OR kotlin) -android"));
+            assertEquals("+java -cooking", parse("java NOT cooking"));
+        }
+
+        @Test
+        @DisplayName("Should print the same canonical form for equivalent queries")
+        void shouldBeCanonical() {
+            assertEquals(parse("streams java java"), parse("java (streams)"));
+            assertEquals(parse("kotlin OR java"), parse("java OR kotlin"));
+        }
+
+        @Test
+        @DisplayName("Should read phrases and field prefixes")
+        void shouldParsePhrasesAndFields() {
+            assertEquals("\"virtual threads\"", parse("\"Virtual Threads\""));
+            assertEquals("+author:jane doe +tag:java", parse("author:\"Jane Doe\" #java"));
+            assertEquals("+\"spring boot\" +title:boot +title:spring", parse("title:\"spring boot\""));
+            assertEquals("+tag:java +title:records", parse("TITLE:records tag:java"));
+        }
+
+        @Test
+        @DisplayName("Should drop unindexed short words and recover from malformed input")
+        void shouldBeLenient() {
+            assertEquals("java", parse("a java of"));
+            assertEquals("\"virtual threads\"", parse("\"virtual threads"));
+            assertEquals("+java +kotlin", parse("java) (kotlin"));
+            assertEquals("()", parse("an of"));
+        }
+
+        @Test
+        @DisplayName("Should reject exclusions without a term to search for")
+        void shouldRejectBareExclusions() {
+            assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("-java"));
+            assertThrows(IllegalArgumentException.class, () -> QueryParser.parse("NOT java OR kotlin"));
+        }
+
+        @Test
+        @DisplayName("Should tell plain keyword searches from structured ones")
+        void shouldDetectOperators() {
+            assertFalse(QueryParser.usesOperators("java streams"));
+            assertFalse(QueryParser.usesOperators("read-only and or"));
+            assertTrue(QueryParser.usesOperators("java OR kotlin"));
+            assertTrue(QueryParser.usesOperators("\"virtual threads\""));
+            assertTrue(QueryParser.usesOperators("#java"));
+            assertTrue(QueryParser.usesOperators("java -kotlin"));
+        }
+    }
+
+    private static String parse(String input) {
+        Query query = QueryParser.parse(input);
+        return query.toString();
+    }
+}
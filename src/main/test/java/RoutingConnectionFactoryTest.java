@@ -0,0 +1,188 @@
+import org.example.bloggingapp.Database.Routing.DatabaseEndpoint;
+import org.example.bloggingapp.Database.Routing.RoutingConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RoutingConnectionFactory Tests")
+class RoutingConnectionFactoryTest {
+
+    private List<String> opened;
+    private Set<String> down;
+    private DatabaseEndpoint primary;
+    private DatabaseEndpoint replicaA;
+    private DatabaseEndpoint replicaB;
+
+    @BeforeEach
+    void setUp() {
+        opened = new ArrayList<>();
+        down = new HashSet<>();
+        primary = endpoint("primary");
+        replicaA = endpoint("replica-a");
+        replicaB = endpoint("replica-b");
+    }
+
+    @Nested
+    @DisplayName("Routing Tests")
+    class RoutingTests {
+
+        @Test
+        @DisplayName("Should send writes to the primary")
+        void shouldSendWritesToPrimary() throws Exception {
+            RoutingConnectionFactory router = router(RoutingConnectionFactory.Strategy.ROUND_ROBIN, 0);
+
+            router.createConnection().close();
+
+            assertEquals(List.of("primary"), opened);
+        }
+
+        @Test
+        @DisplayName("Should alternate reads between replicas with round robin")
+        void shouldRoundRobinReads() throws Exception {
+            RoutingConnectionFactory router = router(RoutingConnectionFactory.Strategy.ROUND_ROBIN, 0);
+
+            for (int i = 0; i < 4; i++) {
+                router.createReadConnection().close();
+            }
+
+            assertEquals(List.of("replica-a", "replica-b", "replica-a", "replica-b"), opened);
+        }
+
+        @Test
+        @DisplayName("Should send reads to the replica with fewer open connections")
+        void shouldPickLeastLoadedReplica() throws Exception {
+            RoutingConnectionFactory router = router(RoutingConnectionFactory.Strategy.LEAST_LOADED, 0);
+
+            Connection held = router.createReadConnection();
+            router.createReadConnection().close();
+            router.createReadConnection().close();
+            held.close();
+
+            assertEquals(List.of("replica-a", "replica-b", "replica-b"), opened);
+            assertEquals(0, replicaA.getActiveConnections());
+        }
+    }
+
+    @Nested
+    @DisplayName("Consistency Tests")
+    class ConsistencyTests {
+
+        @Test
+        @DisplayName("Should read from the primary right after a write")
+        void shouldStickToPrimaryAfterWrite() throws Exception {
+            RoutingConnectionFactory router = router(RoutingConnectionFactory.Strategy.ROUND_ROBIN, 200);
+
+            router.createConnection().close();
+            router.createReadConnection().close();
+            Thread.sleep(250);
+            router.createReadConnection().close();
+
+            assertEquals(List.of("primary", "primary", "replica-a"), opened);
+        }
+
+        @Test
+        @DisplayName("Should not stick to the primary after a background connection")
+        void shouldNotStickAfterBackgroundConnection() throws Exception {
+            RoutingConnectionFactory router = router(RoutingConnectionFactory.Strategy.ROUND_ROBIN, 60_000);
+
+            router.createBackgroundConnection().close();
+            router.createReadConnection().close();
+
+            assertEquals(List.of("primary", "replica-a"), opened);
+            assertTrue(router.getStats().contains("stickyReads=0"));
+        }
+
+        @Test
+        @DisplayName("Should read from the primary inside onPrimary")
+        void shouldHonourPrimaryScope() throws Exception {
+            RoutingConnectionFactory router = router(RoutingConnectionFactory.Strategy.ROUND_ROBIN, 0);
+
+            RoutingConnectionFactory.onPrimary(() -> {
+                closeQuietly(router.createReadConnection());
+                return null;
+            });
+            router.createReadConnection().close();
+
+            assertEquals(List.of("primary", "replica-a"), opened);
+        }
+    }
+
+    @Nested
+    @DisplayName("Failover Tests")
+    class FailoverTests {
+
+        @Test
+        @DisplayName("Should skip a replica that refuses connections and mark it unhealthy")
+        void shouldSkipFailingReplica() throws Exception {
+            RoutingConnectionFactory router = router(RoutingConnectionFactory.Strategy.ROUND_ROBIN, 0);
+            down.add("replica-a");
+
+            router.createReadConnection().close();
+            router.createReadConnection().close();
+
+            assertEquals(List.of("replica-b", "replica-b"), opened);
+            assertFalse(replicaA.isHealthy());
+        }
+
+        @Test
+        @DisplayName("Should fall back to the primary when no replica is available")
+        void shouldFallBackToPrimary() throws Exception {
+            RoutingConnectionFactory router = router(RoutingConnectionFactory.Strategy.LEAST_LOADED, 0);
+            down.add("replica-a");
+            down.add("replica-b");
+
+            router.createReadConnection().close();
+
+            assertEquals(List.of("primary"), opened);
+        }
+
+        @Test
+        @DisplayName("Should restore a replica once its health check passes")
+        void shouldRestoreRecoveredReplica() throws Exception {
+            RoutingConnectionFactory router = router(RoutingConnectionFactory.Strategy.ROUND_ROBIN, 0);
+            replicaA.markUnhealthy("test");
+            replicaB.markUnhealthy("test");
+
+            router.createReadConnection().close();
+            replicaA.markHealthy();
+            router.createReadConnection().close();
+
+            assertEquals(List.of("primary", "replica-a"), opened);
+        }
+    }
+
+    private RoutingConnectionFactory router(RoutingConnectionFactory.Strategy strategy, long stickinessMillis) {
+        return new RoutingConnectionFactory(primary, List.of(replicaA, replicaB), strategy, stickinessMillis, 5.0);
+    }
+
+    private DatabaseEndpoint endpoint(String name) {
+        return new DatabaseEndpoint(name, "jdbc:postgresql://localhost/" + name, "postgres", "postgres",
+                (url, properties) -> {
+                    if (down.contains(name)) {
+                        throw new SQLException("connection refused");
+                    }
+                    opened.add(name);
+                    return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                            new Class<?>[]{Connection.class}, (proxy, method, args) -> null);
+                });
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
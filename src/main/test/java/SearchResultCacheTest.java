@@ -0,0 +1,115 @@
+import org.example.bloggingapp.Search.SearchResultCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SearchResultCache Tests")
+class SearchResultCacheTest {
+
+    @Nested
+    @DisplayName("Lookup Tests")
+    class LookupTests {
+
+        @Test
+        @DisplayName("Should serve pages within the cached depth")
+        void shouldServeCoveredPages() {
+            SearchResultCache cache = new SearchResultCache();
+            cache.put(key("java"), entry(new int[]{5, 3, 9, 1}, 12, false, 1));
+
+            assertArrayEquals(new int[]{5, 3, 9, 1}, cache.get(key("java"), 1, 4).postIds());
+            assertEquals(12, cache.get(key("java"), 1, 2).totalHits());
+            assertNull(cache.get(key("java"), 1, 6));
+            assertNull(cache.get(key("kotlin"), 1, 1));
+
+            cache.put(key("go"), entry(new int[]{2}, 1, true, 1));
+            assertNotNull(cache.get(key("go"), 1, 100));
+            assertEquals(3, cache.getStats().hits());
+            assertEquals(2, cache.getStats().misses());
+        }
+
+        @Test
+        @DisplayName("Should drop entries of an older generation when they are looked up")
+        void shouldDropStaleEntries() {
+            SearchResultCache cache = new SearchResultCache();
+            cache.put(key("java"), entry(new int[]{1, 2}, 2, true, 1));
+
+            assertNull(cache.get(key("java"), 2, 1));
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.getStats().postIds());
+            assertEquals(1, cache.getStats().staleMisses());
+            assertNull(cache.get(key("java"), 1, 1));
+        }
+
+        @Test
+        @DisplayName("Should keep a newer entry when an older result is stored")
+        void shouldKeepNewerEntries() {
+            SearchResultCache cache = new SearchResultCache();
+            cache.put(key("java"), entry(new int[]{3}, 1, true, 2));
+
+            assertFalse(cache.put(key("java"), entry(new int[]{1, 2}, 2, true, 1)));
+            assertArrayEquals(new int[]{3}, cache.get(key("java"), 2, 1).postIds());
+            assertTrue(cache.put(key("java"), entry(new int[]{4}, 1, true, 2)));
+            assertEquals(1, cache.getStats().postIds());
+        }
+
+        @Test
+        @DisplayName("Should tell apart searches of another kind or order")
+        void shouldKeyOnKindAndSort() {
+            SearchResultCache cache = new SearchResultCache();
+            cache.put(new SearchResultCache.Key("hash", "java", "views", "desc"), entry(new int[]{1}, 1, true, 1));
+
+            assertNull(cache.get(new SearchResultCache.Key("hash", "java", "views", "asc"), 1, 1));
+            assertNull(cache.get(new SearchResultCache.Key("binary", "java", "views", "desc"), 1, 1));
+            assertEquals(1, cache.size("hash"));
+            assertEquals(0, cache.size("binary"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Eviction Tests")
+    class EvictionTests {
+
+        @Test
+        @DisplayName("Should evict the least recently used entry beyond the entry bound")
+        void shouldEvictLeastRecentlyUsed() {
+            SearchResultCache cache = new SearchResultCache(2, 100);
+            cache.put(key("a"), entry(new int[]{1}, 1, true, 1));
+            cache.put(key("b"), entry(new int[]{2}, 1, true, 1));
+            cache.get(key("a"), 1, 1);
+            cache.put(key("c"), entry(new int[]{3}, 1, true, 1));
+
+            assertNotNull(cache.get(key("a"), 1, 1));
+            assertNull(cache.get(key("b"), 1, 1));
+            assertNotNull(cache.get(key("c"), 1, 1));
+            assertEquals(1, cache.getStats().evictions());
+        }
+
+        @Test
+        @DisplayName("Should bound the post IDs held and refuse a result larger than the bound")
+        void shouldBoundPostIds() {
+            SearchResultCache cache = new SearchResultCache(10, 5);
+            cache.put(key("a"), entry(new int[]{1, 2, 3}, 3, true, 1));
+            cache.put(key("b"), entry(new int[]{4, 5}, 2, true, 1));
+            cache.put(key("c"), entry(new int[]{6, 7}, 2, true, 1));
+
+            assertEquals(2, cache.size());
+            assertEquals(4, cache.getStats().postIds());
+            assertNull(cache.get(key("a"), 1, 1));
+            assertFalse(cache.put(key("d"), entry(new int[6], 6, true, 1)));
+
+            cache.put(key("b"), entry(new int[]{4}, 1, true, 1));
+            assertEquals(3, cache.getStats().postIds());
+            assertThrows(IllegalArgumentException.class, () -> new SearchResultCache(0, 5));
+        }
+    }
+
+    private static SearchResultCache.Key key(String query) {
+        return new SearchResultCache.Key("bm25_ranking", query, null, null);
+    }
+
+    private static SearchResultCache.Entry entry(int[] postIds, int totalHits, boolean complete, long generation) {
+        return new SearchResultCache.Entry(postIds, totalHits, complete, "bm25_ranking", generation);
+    }
+}
@@ -0,0 +1,145 @@
+import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Models.SearchPage;
+import org.example.bloggingapp.Services.AdvancedSearchService;
+import org.example.bloggingapp.Services.DatabaseSearchService;
+import org.example.bloggingapp.Services.PostService;
+import org.example.bloggingapp.Services.SearchRouter;
+import org.example.bloggingapp.Utils.Exceptions.DatabaseException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SearchRouter Tests")
+class SearchRouterTest {
+
+    private AdvancedSearchService memoryIndex;
+    private boolean databaseDown;
+    private int corpusSize;
+    private boolean liveUpdates;
+    private SearchRouter router;
+
+    @BeforeEach
+    void setUp() {
+        List<PostEntity> posts = List.of(
+                new PostEntity(1, "Java streams", "Collectors explained", LocalDateTime.now(), 1, "Published", 5, "Ann"),
+                new PostEntity(2, "Cooking", "Pasta tonight", LocalDateTime.now(), 2, "Published", 3, "Bob"));
+        PostService postService = new PostService(null) {
+            @Override
+            public Stream<PostEntity> streamAll() {
+                return posts.stream();
+            }
+        };
+        memoryIndex = new AdvancedSearchService(postService);
+
+        DatabaseSearchService databaseSearch = new DatabaseSearchService(null) {
+            @Override
+            public SearchPage search(String query, int page, int pageSize) throws DatabaseException {
+                if (databaseDown) {
+                    throw new DatabaseException("FULLTEXT_SEARCH_ERROR", "database unavailable", null);
+                }
+                return new SearchPage(List.of(posts.get(0)), 1);
+            }
+        };
+
+        databaseDown = false;
+        corpusSize = 2;
+        liveUpdates = true;
+        router = new SearchRouter(memoryIndex, databaseSearch, () -> corpusSize, () -> liveUpdates);
+    }
+
+    @Nested
+    @DisplayName("Routing Decision Tests")
+    class RoutingDecisionTests {
+
+        @Test
+        @DisplayName("Should evaluate multi-term, phrase and field queries in memory")
+        void shouldRouteStructuredQueriesToMemory() throws Exception {
+            memoryIndex.buildIndexes();
+
+            assertEquals(SearchRouter.Engine.MEMORY, router.route("java streams").getEngine());
+            assertEquals(SearchRouter.Engine.MEMORY, router.route("\"java streams\" -cooking").getEngine());
+            assertEquals(SearchRouter.Engine.MEMORY, router.route("author:ann OR tag:java").getEngine());
+            assertEquals(List.of(1), router.search("\"java streams\" author:ann", 1, 10).getPosts().stream()
+                    .map(PostEntity::getPostId).toList());
+        }
+
+        @Test
+        @DisplayName("Should send queries the index cannot parse to the database")
+        void shouldRouteInvalidIndexQueriesToDatabase() throws Exception {
+            memoryIndex.buildIndexes();
+
+            assertEquals(SearchRouter.Engine.DATABASE, router.route("-cooking").getEngine());
+        }
+
+        @Test
+        @DisplayName("Should use memory for single terms on a small fresh corpus")
+        void shouldRouteSmallCorpusToMemory() throws Exception {
+            memoryIndex.buildIndexes();
+
+            assertEquals(SearchRouter.Engine.MEMORY, router.route("java").getEngine());
+        }
+
+        @Test
+        @DisplayName("Should use the database when the corpus exceeds the memory limit")
+        void shouldRouteLargeCorpusToDatabase() throws Exception {
+            memoryIndex.buildIndexes();
+            corpusSize = 10_000;
+
+            assertEquals(SearchRouter.Engine.DATABASE, router.route("java").getEngine());
+        }
+
+        @Test
+        @DisplayName("Should use the database while the memory index is stale")
+        void shouldRouteStaleIndexToDatabase() throws Exception {
+            memoryIndex.buildIndexes();
+            liveUpdates = false;
+            router.setMaxIndexAgeMillis(-1);
+
+            assertEquals(SearchRouter.Engine.DATABASE, router.route("java").getEngine());
+        }
+    }
+
+    @Nested
+    @DisplayName("Execution Tests")
+    class ExecutionTests {
+
+        @Test
+        @DisplayName("Should report which engine served each query")
+        void shouldReportServingEngine() throws Exception {
+            memoryIndex.buildIndexes();
+
+            assertEquals(SearchRouter.MEMORY_ENGINE_NAME, router.search("java", 1, 10).getAlgorithmUsed());
+            corpusSize = 10_000;
+            assertEquals(DatabaseSearchService.ENGINE_NAME, router.search("java", 1, 10).getAlgorithmUsed());
+        }
+
+        @Test
+        @DisplayName("Should fall back to memory when the database fails")
+        void shouldFallBackToMemory() throws Exception {
+            memoryIndex.buildIndexes();
+            databaseDown = true;
+            corpusSize = 10_000;
+
+            AdvancedSearchService.SearchResult result = router.search("pasta tonight", 1, 10);
+
+            assertEquals(SearchRouter.MEMORY_ENGINE_NAME, result.getAlgorithmUsed());
+            assertEquals(SearchRouter.Engine.MEMORY, router.getLastRoute().getEngine());
+        }
+
+        @Test
+        @DisplayName("Should fail when the database is down and no memory index exists")
+        void shouldFailWithoutAnyEngine() {
+            databaseDown = true;
+            corpusSize = 10_000;
+
+            assertThrows(DatabaseException.class, () -> router.search("java", 1, 10));
+        }
+    }
+}
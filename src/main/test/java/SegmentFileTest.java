@@ -0,0 +1,183 @@
+import org.example.bloggingapp.Models.PostEntity;
+import org.example.bloggingapp.Search.InvertedIndex;
+import org.example.bloggingapp.Search.QueryEvaluator;
+import org.example.bloggingapp.Search.QueryParser;
+import org.example.bloggingapp.Search.SegmentFile;
+import org.example.bloggingapp.Search.SegmentStore;
+import org.example.bloggingapp.Search.TermIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SegmentFile Tests")
+class SegmentFileTest {
+
+    @TempDir
+    Path directory;
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        PostEntity anonymous = post(7, "Pâté ünïcode");
+        anonymous.setAuthorName(null);
+        index = new InvertedIndex.Builder()
+                .add(post(1, "Virtual threads"), words("virtual threads java java"), words("virtual threads"), "ann",
+                        words("java"))
+                .add(post(2, "Kotlin"), words("kotlin coroutines"), words("kotlin"), "bob", words("kotlin"))
+                .add(anonymous, words("cooking pâté ünïcode"), words("pâté"), null, List.of())
+                .build();
+    }
+
+    @Nested
+    @DisplayName("Round Trip Tests")
+    class RoundTripTests {
+
+        @Test
+        @DisplayName("Should load the same postings, lengths, phrases and posts")
+        void shouldRoundTripFullSegment() throws IOException {
+            Path file = directory.resolve("index.full");
+            SegmentFile.writeFull(file, index, 42, 1_000);
+
+            SegmentFile segment = SegmentFile.open(file);
+
+            assertTrue(segment.isFull());
+            assertEquals(42, segment.getWatermark());
+            assertEquals(1_000, segment.getWatermarkMillis());
+            InvertedIndex loaded = segment.getIndex();
+            assertSameField(index.keywords(), loaded.keywords());
+            assertSameField(index.titles(), loaded.titles());
+            assertSameField(index.authors(), loaded.authors());
+            assertSameField(index.tags(), loaded.tags());
+            assertArrayEquals(new int[]{1}, evaluate(loaded, "\"virtual threads\""));
+            assertEquals("threads", loaded.fuzzyKeywords().lookup("threds").get(0).getTerm());
+
+            PostEntity post = loaded.docs().get(1);
+            PostEntity original = index.docs().get(1);
+            assertEquals(original.getTitle(), post.getTitle());
+            assertEquals(original.getContent(), post.getContent());
+            assertEquals(original.getCreatedAt(), post.getCreatedAt());
+            assertEquals(original.getVersion(), post.getVersion());
+            assertEquals("Pâté ünïcode", loaded.docs().get(7).getTitle());
+            assertNull(loaded.docs().get(7).getAuthorName());
+        }
+
+        @Test
+        @DisplayName("Should save incremental writes as if compacted")
+        void shouldPersistPendingWrites() throws IOException {
+            // Post 1 loses java and gains kotlin
+            index.keywords().update(1, words("virtual threads java java"), words("virtual threads kotlin"));
+            index.markStale(1);
+            Path file = directory.resolve("index.full");
+            SegmentFile.writeFull(file, index, 1, 1);
+
+            InvertedIndex loaded = SegmentFile.open(file).getIndex();
+
+            assertFalse(loaded.keywords().contains("java"));
+            assertArrayEquals(new int[]{1, 2}, loaded.keywords().get("kotlin").toArray());
+            assertEquals(3, loaded.keywords().lengths().get(1));
+            assertEquals(0, loaded.getPendingTermCount());
+        }
+
+        @Test
+        @DisplayName("Should reject a damaged file")
+        void shouldDetectCorruption() throws IOException {
+            Path file = directory.resolve("index.full");
+            SegmentFile.writeFull(file, index, 1, 1);
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length / 2] ^= 0x10;
+            Files.write(file, bytes);
+
+            assertThrows(IOException.class, () -> SegmentFile.open(file));
+            Files.write(file, Arrays.copyOf(bytes, 5));
+            assertThrows(IOException.class, () -> SegmentFile.open(file));
+        }
+    }
+
+    @Nested
+    @DisplayName("Store Tests")
+    class StoreTests {
+
+        @Test
+        @DisplayName("Should collapse deltas in order on top of the newest full segment")
+        void shouldCollapseDeltas() throws IOException {
+            SegmentStore store = new SegmentStore(directory);
+            assertNull(store.load());
+            store.writeFull(index, 10, 100);
+            store.writeDelta(List.of(post(3, "First"), post(4, "Gone")), List.of(2), 20, 200);
+            store.writeDelta(List.of(post(3, "Second"), post(2, "Back")), List.of(4), 30, 300);
+
+            SegmentStore.Snapshot snapshot = store.load();
+
+            assertEquals(3, snapshot.segmentCount());
+            assertEquals(30, snapshot.watermark());
+            assertEquals(300, snapshot.watermarkMillis());
+            assertEquals(List.of("Second", "Back"), snapshot.writtenPosts().stream().map(PostEntity::getTitle).toList());
+            assertEquals(List.of(4), snapshot.deletedPostIds());
+            assertEquals(3, snapshot.index().docs().size());
+        }
+
+        @Test
+        @DisplayName("Should ask for a merge once deltas pile up and drop them when it is written")
+        void shouldMergeDeltas() throws IOException {
+            SegmentStore store = new SegmentStore(directory);
+            assertTrue(store.needsMerge());
+            assertThrows(IllegalStateException.class, () -> store.writeDelta(List.of(), List.of(1), 1, 1));
+            store.writeFull(index, 1, 1);
+
+            for (int i = 0; i < SegmentStore.MAX_DELTA_SEGMENTS; i++) {
+                assertFalse(store.needsMerge());
+                store.writeDelta(List.of(post(10 + i, "Post")), List.of(), 2 + i, 2);
+            }
+            assertTrue(store.needsMerge());
+            assertEquals(SegmentStore.MAX_DELTA_SEGMENTS, store.getDeltaCount());
+
+            store.writeFull(index, 100, 3);
+
+            assertFalse(store.needsMerge());
+            assertEquals(0, store.getDeltaCount());
+            try (var files = Files.list(directory)) {
+                assertEquals(1, files.count());
+            }
+            assertEquals(100, store.load().watermark());
+        }
+    }
+
+    private static void assertSameField(TermIndex expected, TermIndex actual) {
+        assertEquals(expected.terms(), actual.terms());
+        for (String term : expected.terms()) {
+            assertEquals(expected.get(term), actual.get(term), term);
+            assertArrayEquals(expected.get(term).freqsToArray(), actual.get(term).freqsToArray(), term);
+        }
+        for (int postId = 0; postId <= 8; postId++) {
+            assertEquals(expected.lengths().get(postId), actual.lengths().get(postId));
+        }
+        assertEquals(expected.lengths().getAverage(), actual.lengths().getAverage(), 1e-9);
+    }
+
+    private static int[] evaluate(InvertedIndex index, String query) {
+        return new QueryEvaluator(index).evaluate(QueryParser.parse(query));
+    }
+
+    private static List<String> words(String text) {
+        return Arrays.asList(text.split(" "));
+    }
+
+    private static PostEntity post(int postId, String title) {
+        PostEntity post = new PostEntity(postId, title, "content of " + title, LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000),
+                1, "Published", 3, "author");
+        post.setVersion(postId);
+        return post;
+    }
+}
@@ -0,0 +1,171 @@
+import org.example.bloggingapp.Services.ServiceExecutor;
+import org.example.bloggingapp.Services.ServiceExecutor.Subsystem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ServiceExecutor Tests")
+class ServiceExecutorTest {
+
+    private ServiceExecutor executor;
+    private List<Runnable> uiQueue;
+
+    @BeforeEach
+    void setUp() {
+        uiQueue = new ArrayList<>();
+        executor = new ServiceExecutor(Map.of(Subsystem.READS, 3, Subsystem.BACKGROUND, 1),
+                Duration.ofSeconds(5), action -> {
+                    synchronized (uiQueue) {
+                        uiQueue.add(action);
+                    }
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Nested
+    @DisplayName("Concurrency Limit Tests")
+    class ConcurrencyLimitTests {
+
+        @Test
+        @DisplayName("Should never run more calls than the subsystem has permits")
+        void shouldRespectPermits() throws Exception {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+            for (int i = 0; i < 300; i++) {
+                int value = i;
+                futures.add(executor.submit(Subsystem.READS, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(1);
+                    running.decrementAndGet();
+                    return value;
+                }));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+            assertTrue(maxRunning.get() <= 3, "max concurrent calls was " + maxRunning.get());
+            assertEquals(299, futures.get(299).get());
+        }
+
+        @Test
+        @DisplayName("Should not let a saturated subsystem block another one")
+        void shouldIsolateSubsystems() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            executor.submit(Subsystem.BACKGROUND, () -> release.await(5, TimeUnit.SECONDS));
+
+            assertEquals("ok", executor.submit(Subsystem.READS, () -> "ok").get(5, TimeUnit.SECONDS));
+            release.countDown();
+        }
+    }
+
+    @Nested
+    @DisplayName("Timeout Tests")
+    class TimeoutTests {
+
+        @Test
+        @DisplayName("Should time out while waiting for a permit")
+        void shouldTimeOutWaitingForPermit() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            executor.submit(Subsystem.BACKGROUND, () -> release.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<String> queued = executor.submit(Subsystem.BACKGROUND, () -> "late", Duration.ofMillis(50));
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, error.getCause());
+            release.countDown();
+        }
+
+        @Test
+        @DisplayName("Should time out and interrupt a call that runs too long")
+        void shouldInterruptLongRunningCall() throws Exception {
+            CountDownLatch interrupted = new CountDownLatch(1);
+            CompletableFuture<Object> slow = executor.submit(Subsystem.READS, () -> {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            }, Duration.ofMillis(50));
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> slow.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, error.getCause());
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Nested
+    @DisplayName("UI Handoff Tests")
+    class UiHandoffTests {
+
+        @Test
+        @DisplayName("Should deliver results through the UI executor")
+        void shouldDeliverResultOnUiExecutor() throws Exception {
+            AtomicReference<String> delivered = new AtomicReference<>();
+
+            executor.supplyToUi(Subsystem.READS, () -> "feed", delivered::set, error -> fail(error))
+                    .get(5, TimeUnit.SECONDS);
+            awaitUiQueue();
+
+            assertNull(delivered.get(), "callback must not run before the UI thread runs it");
+            runUiQueue();
+            assertEquals("feed", delivered.get());
+        }
+
+        @Test
+        @DisplayName("Should deliver the original failure cause through the UI executor")
+        void shouldDeliverFailureOnUiExecutor() throws Exception {
+            AtomicReference<Throwable> delivered = new AtomicReference<>();
+
+            CompletableFuture<String> future = executor.supplyToUi(Subsystem.READS,
+                    () -> { throw new IllegalStateException("db down"); }, value -> fail(), delivered::set);
+            assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            awaitUiQueue();
+            runUiQueue();
+
+            assertInstanceOf(IllegalStateException.class, delivered.get());
+        }
+    }
+
+    private void awaitUiQueue() throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            synchronized (uiQueue) {
+                if (!uiQueue.isEmpty()) {
+                    return;
+                }
+            }
+            Thread.sleep(10);
+        }
+        fail("nothing was handed to the UI executor");
+    }
+
+    private void runUiQueue() {
+        List<Runnable> actions;
+        synchronized (uiQueue) {
+            actions = new ArrayList<>(uiQueue);
+            uiQueue.clear();
+        }
+        actions.forEach(Runnable::run);
+    }
+}
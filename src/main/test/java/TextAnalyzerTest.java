@@ -0,0 +1,124 @@
+import org.example.bloggingapp.Search.TextAnalyzer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TextAnalyzer Tests")
+class TextAnalyzerTest {
+
+    private final TextAnalyzer analyzer = TextAnalyzer.DEFAULT;
+
+    @Nested
+    @DisplayName("Tokenizing Tests")
+    class TokenizingTests {
+
+        @Test
+        @DisplayName("Should split at punctuation and keep apostrophes inside words")
+        void shouldSplitWords() {
+            assertEquals(List.of("java", "read", "streams", "don't", "2024"),
+                    analyzer.words("Java, read-only streams (don't) 2024!"));
+            assertEquals(List.of("rock"), analyzer.words("'rock'"));
+        }
+
+        @Test
+        @DisplayName("Should recognize hashtags and mentions with their offsets")
+        void shouldRecognizeHashtagsAndMentions() {
+            String text = "Hi @ann_b, see #Java_21 and C# via bob@example.com";
+            List<String> tokens = new ArrayList<>();
+            analyzer.analyze(text, token -> tokens.add(token.kind() + ":" + token.term() + "@"
+                    + text.substring(token.start(), token.end())));
+
+            assertEquals(List.of("MENTION:ann_b@@ann_b", "WORD:see@see", "HASHTAG:java_21@#Java_21", "WORD:via@via",
+                    "WORD:bob@bob", "WORD:example@example", "WORD:com@com"), tokens);
+            assertEquals(List.of("java", "javafx"), analyzer.hashtags("#Java, #javafx! #JAVA # nothing"));
+        }
+
+        @Test
+        @DisplayName("Should fold case beyond ASCII")
+        void shouldFoldCase() {
+            assertEquals(List.of("ünïcode", "σοφοσ", "straße"), analyzer.words("ÜNÏCODE ΣΟΦΟΣ Straße"));
+            assertEquals(analyzer.words("ΣΟΦΟΣ"), analyzer.words("σοφος"));
+            assertEquals("jane doe", TextAnalyzer.fold("  Jane DOE "));
+            assertNull(TextAnalyzer.fold(null));
+        }
+
+        @Test
+        @DisplayName("Should skip over-long tokens and handle empty input")
+        void shouldSkipLongTokens() {
+            String tooLong = "x".repeat(TextAnalyzer.MAX_TOKEN_LENGTH + 1);
+
+            assertEquals(List.of("first", "last"), analyzer.words("first " + tooLong + " last"));
+            assertTrue(analyzer.words(null).isEmpty());
+            assertTrue(analyzer.words("").isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Filter Tests")
+    class FilterTests {
+
+        @Test
+        @DisplayName("Should drop short words and stopwords but not hashtags")
+        void shouldDropStopwords() {
+            assertEquals(List.of("state", "art"), analyzer.words("The state of the art"));
+            assertEquals(List.of("the", "go"), analyzer.hashtags("#the #go"));
+        }
+
+        @Test
+        @DisplayName("Should reduce plurals only when stemming")
+        void shouldStemWhenEnabled() {
+            TextAnalyzer stemming = new TextAnalyzer(TextAnalyzer.MIN_KEYWORD_LENGTH, Set.of(), true);
+
+            assertEquals(List.of("query", "thread", "bus", "classe", "tree", "shoe", "gas"),
+                    stemming.words("queries threads bus classes trees shoes gas"));
+            assertEquals(List.of("threads"), analyzer.words("threads"));
+            assertNotEquals(stemming.signature(), analyzer.signature());
+        }
+    }
+
+    @Nested
+    @DisplayName("Buffer Tests")
+    class BufferTests {
+
+        @Test
+        @DisplayName("Should hand out the same string for a repeated term")
+        void shouldReuseTerms() {
+            List<String> words = analyzer.words("kotlin java kotlin");
+
+            assertSame(words.get(0), words.get(2));
+        }
+
+        @Test
+        @DisplayName("Should allow analyzing from within a sink")
+        void shouldAllowNestedAnalysis() {
+            List<String> pairs = new ArrayList<>();
+            analyzer.analyze("alpha beta", outer -> {
+                String term = outer.term();
+                analyzer.analyze("gamma", inner -> pairs.add(term + "/" + inner.term()));
+                pairs.add(outer.term());
+            });
+
+            assertEquals(List.of("alpha/gamma", "alpha", "beta/gamma", "beta"), pairs);
+        }
+
+        @Test
+        @DisplayName("Should keep terms right while the term cache grows")
+        void shouldGrowTermCache() {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 5000; i++) {
+                text.append("word").append(i).append(' ');
+            }
+            List<String> words = analyzer.words(text);
+
+            assertEquals(5000, words.size());
+            assertEquals("word4999", words.get(4999));
+            assertEquals("word0", analyzer.words("word0").get(0));
+        }
+    }
+}
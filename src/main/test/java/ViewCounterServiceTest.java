@@ -0,0 +1,252 @@
+import org.example.bloggingapp.Services.ViewCounterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ViewCounterService Tests")
+class ViewCounterServiceTest {
+
+    private Path logFile;
+    private Map<Integer, Integer> database;
+    private List<Map<Integer, Long>> batches;
+    private boolean failWrites;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        logFile = Files.createTempDirectory("views").resolve("pending-views.log");
+        database = new HashMap<>();
+        database.put(1, 10);
+        database.put(2, 0);
+        batches = new ArrayList<>();
+        failWrites = false;
+    }
+
+    private Map<Integer, Integer> addViews(Map<Integer, Long> increments) throws Exception {
+        if (failWrites) {
+            throw new Exception("database unavailable");
+        }
+        batches.add(new HashMap<>(increments));
+        Map<Integer, Integer> stored = new HashMap<>();
+        increments.forEach((postId, views) -> {
+            if (database.containsKey(postId)) {
+                database.merge(postId, views.intValue(), Integer::sum);
+                stored.put(postId, database.get(postId));
+            }
+        });
+        return stored;
+    }
+
+    private ViewCounterService newCounter() {
+        return new ViewCounterService(this::addViews, logFile, 60_000, 60_000);
+    }
+
+    @Nested
+    @DisplayName("Flush Tests")
+    class FlushTests {
+
+        @Test
+        @DisplayName("Should coalesce all views of a post into one increment per flush")
+        void shouldCoalesceViews() throws Exception {
+            ViewCounterService counter = newCounter();
+            for (int i = 0; i < 5; i++) {
+                counter.recordView(1);
+            }
+            counter.recordView(2);
+
+            assertEquals(2, counter.flush());
+            assertEquals(1, batches.size());
+            assertEquals(5L, batches.get(0).get(1));
+            assertEquals(15, database.get(1));
+            assertEquals(0, counter.getPendingViews(1));
+        }
+
+        @Test
+        @DisplayName("Should count concurrent views exactly once")
+        void shouldCountConcurrentViews() throws Exception {
+            ViewCounterService counter = newCounter();
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            for (int i = 0; i < 4; i++) {
+                pool.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        counter.recordView(2);
+                    }
+                });
+            }
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+            counter.flush();
+            assertEquals(4000, database.get(2));
+        }
+
+        @Test
+        @DisplayName("Should keep views pending when the database write fails")
+        void shouldRetryAfterFailedFlush() throws Exception {
+            ViewCounterService counter = newCounter();
+            counter.recordView(1);
+            failWrites = true;
+
+            assertThrows(Exception.class, counter::flush);
+            assertEquals(1, counter.getPendingViews(1));
+
+            failWrites = false;
+            counter.flush();
+            assertEquals(11, database.get(1));
+        }
+
+        @Test
+        @DisplayName("Should drop views of posts deleted before the flush")
+        void shouldDropViewsOfDeletedPosts() throws Exception {
+            ViewCounterService counter = newCounter();
+            counter.recordView(99);
+
+            assertEquals(0, counter.flush());
+            assertEquals(0, counter.getPendingViews(99));
+            assertFalse(Files.exists(logFile));
+        }
+    }
+
+    @Nested
+    @DisplayName("Bound Tests")
+    class BoundTests {
+
+        @Test
+        @DisplayName("Should flush early once more posts have views waiting than the bound")
+        void shouldFlushEarlyBeyondBound() throws Exception {
+            ViewCounterService counter = new ViewCounterService(ViewCounterServiceTest.this::addViews, logFile,
+                    60_000, 60_000, 2);
+            counter.start();
+            try {
+                counter.recordView(1);
+                counter.recordView(2);
+                counter.recordView(3);
+
+                long deadline = System.currentTimeMillis() + 5000;
+                while (counter.getPendingViews(1) > 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertEquals(0, counter.getPendingViews(1));
+            } finally {
+                counter.close();
+            }
+            assertEquals(11, database.get(1));
+            assertEquals(1, database.get(2));
+        }
+
+        @Test
+        @DisplayName("Should keep counting a post after its idle counter was dropped")
+        void shouldCountAfterIdleCounterDropped() throws Exception {
+            ViewCounterService counter = newCounter();
+            counter.recordView(1);
+            counter.journal();
+            assertEquals(0, counter.journal());
+
+            counter.recordView(1);
+            assertEquals(2, counter.getPendingViews(1));
+            counter.flush();
+            assertEquals(12, database.get(1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Read-Your-Writes Tests")
+    class ReadYourWritesTests {
+
+        @Test
+        @DisplayName("Should merge pending views into the stored count")
+        void shouldMergePendingViews() throws Exception {
+            ViewCounterService counter = newCounter();
+            counter.recordView(1);
+            counter.recordView(1);
+            assertEquals(12, counter.currentViews(1, 10));
+
+            counter.journal();
+            assertEquals(12, counter.currentViews(1, 10));
+        }
+
+        @Test
+        @DisplayName("Should not double count a stale entity after a flush")
+        void shouldNotDoubleCountAfterFlush() throws Exception {
+            ViewCounterService counter = newCounter();
+            counter.recordView(1);
+            counter.flush();
+
+            // Entity loaded before the flush still says 10, one loaded after says 11
+            assertEquals(11, counter.currentViews(1, 10));
+            assertEquals(11, counter.currentViews(1, 11));
+        }
+
+        @Test
+        @DisplayName("Should report stored counts to the flush listener")
+        void shouldNotifyFlushListener() throws Exception {
+            ViewCounterService counter = newCounter();
+            Map<Integer, Integer> notified = new HashMap<>();
+            counter.setFlushListener(notified::putAll);
+            counter.recordView(1);
+            counter.flush();
+
+            assertEquals(Map.of(1, 11), notified);
+        }
+    }
+
+    @Nested
+    @DisplayName("Crash Recovery Tests")
+    class CrashRecoveryTests {
+
+        @Test
+        @DisplayName("Should replay journaled views after a crash")
+        void shouldReplayJournaledViews() throws Exception {
+            ViewCounterService crashed = newCounter();
+            crashed.recordView(1);
+            crashed.recordView(1);
+            crashed.journal();
+            failWrites = true;
+            assertThrows(Exception.class, crashed::flush);
+            crashed.recordView(1);
+            crashed.journal();
+            // Process dies here: nothing reached the database
+
+            failWrites = false;
+            ViewCounterService restarted = newCounter();
+            assertEquals(3, restarted.getPendingViews(1));
+            restarted.flush();
+            assertEquals(13, database.get(1));
+        }
+
+        @Test
+        @DisplayName("Should ignore a torn last line in the log")
+        void shouldIgnoreTornLine() throws Exception {
+            Files.writeString(logFile, "1 4\n2 1\n1 ");
+
+            ViewCounterService restarted = newCounter();
+            assertEquals(4, restarted.getPendingViews(1));
+            assertEquals(1, restarted.getPendingViews(2));
+        }
+
+        @Test
+        @DisplayName("Should remove the log once everything is flushed")
+        void shouldRemoveLogAfterFlush() throws Exception {
+            ViewCounterService counter = newCounter();
+            counter.recordView(2);
+            counter.journal();
+            assertTrue(Files.exists(logFile));
+
+            counter.flush();
+            assertFalse(Files.exists(logFile));
+        }
+    }
+}